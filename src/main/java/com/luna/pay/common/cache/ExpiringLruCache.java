@@ -0,0 +1,126 @@
+package com.luna.pay.common.cache;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache em memória limitado, com despejo LRU e expiração por entrada.
+ *
+ * Cada entrada carrega o próprio instante de expiração (ex.: o "exp" de um JWT).
+ * Entradas expiradas são descartadas na leitura. Quando o limite de entradas é
+ * atingido, a menos recentemente usada é removida.
+ *
+ * Thread-safe: as operações são curtas e sincronizadas no próprio mapa.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ExpiringLruCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    public ExpiringLruCache(int maxEntries, Clock clock) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringLruCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Retorna o valor associado à chave, ou null se ausente ou expirado.
+     */
+    public V get(K key) {
+        if (maxEntries == 0) {
+            misses.incrementAndGet();
+            return null;
+        }
+        Instant now = clock.instant();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (!entry.expiresAt().isAfter(now)) {
+                entries.remove(key);
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value();
+        }
+    }
+
+    /**
+     * Armazena o valor até o instante informado. Valores já expirados são ignorados.
+     */
+    public void put(K key, V value, Instant expiresAt) {
+        if (maxEntries == 0 || expiresAt == null || !expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    /**
+     * Armazena o valor sem prazo de expiração (apenas despejo LRU).
+     */
+    public void put(K key, V value) {
+        put(key, value, Instant.MAX);
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {}
+}
@@ -2,25 +2,44 @@ package com.luna.pay.common.exception;
 
 public class GatewayException extends RuntimeException {
 
+    /** Circuit breaker do gateway aberto: chamada recusada sem I/O. */
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+    /** Limite de chamadas simultâneas ao gateway atingido. */
+    public static final String BULKHEAD_FULL = "BULKHEAD_FULL";
+
     private final String gateway;
     private final String errorCode;
+    private final Integer httpStatus;
 
     public GatewayException(String gateway, String message) {
         super(message);
         this.gateway = gateway;
         this.errorCode = null;
+        this.httpStatus = null;
     }
 
     public GatewayException(String gateway, String message, String errorCode) {
         super(message);
         this.gateway = gateway;
         this.errorCode = errorCode;
+        this.httpStatus = null;
     }
 
     public GatewayException(String gateway, String message, Throwable cause) {
         super(message, cause);
         this.gateway = gateway;
-        this.errorCode = null;
+        this.errorCode = cause instanceof GatewayException ge ? ge.getErrorCode() : null;
+        this.httpStatus = cause instanceof GatewayException ge ? ge.getHttpStatus() : null;
+    }
+
+    /**
+     * Erro HTTP devolvido pela API do gateway (errorCode = "HTTP_" + status).
+     */
+    public GatewayException(String gateway, String message, int httpStatus) {
+        super(message);
+        this.gateway = gateway;
+        this.errorCode = "HTTP_" + httpStatus;
+        this.httpStatus = httpStatus;
     }
 
     public String getGateway() {
@@ -30,4 +49,27 @@ public class GatewayException extends RuntimeException {
     public String getErrorCode() {
         return errorCode;
     }
+
+    /**
+     * Status HTTP da resposta de erro do gateway, quando houve resposta.
+     */
+    public Integer getHttpStatus() {
+        return httpStatus;
+    }
+
+    /**
+     * O gateway recusou a requisição (4xx): problema nos dados enviados, não
+     * indisponibilidade do gateway.
+     */
+    public boolean isClientError() {
+        return httpStatus != null && httpStatus >= 400 && httpStatus < 500;
+    }
+
+    /**
+     * A chamada foi recusada localmente (circuito aberto ou bulkhead cheio),
+     * sem chegar ao gateway.
+     */
+    public boolean isRejected() {
+        return CIRCUIT_OPEN.equals(errorCode) || BULKHEAD_FULL.equals(errorCode);
+    }
 }
@@ -31,14 +31,16 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(GatewayException.class)
     public ResponseEntity<ErrorResponse> handleGatewayException(
             GatewayException ex, HttpServletRequest request) {
+        // Recusada localmente (circuito aberto / bulkhead cheio): indisponível, não erro do gateway
+        HttpStatus status = ex.isRejected() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY;
         ErrorResponse error = new ErrorResponse(
-                HttpStatus.BAD_GATEWAY.value(),
+                status.value(),
                 "Gateway Error: " + ex.getGateway(),
                 ex.getMessage(),
                 request.getRequestURI(),
                 Instant.now()
         );
-        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(error);
+        return ResponseEntity.status(status).body(error);
     }
 
     @ExceptionHandler(GatewayNotEnabledException.class)
@@ -54,6 +56,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(
+            IdempotencyConflictException ex, HttpServletRequest request) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Idempotency Conflict",
+                ex.getMessage(),
+                request.getRequestURI(),
+                Instant.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -0,0 +1,12 @@
+package com.luna.pay.common.exception;
+
+/**
+ * Requisição com Idempotency-Key que ainda está sendo processada por outra
+ * chamada (tipicamente em outro nó).
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.luna.pay.common.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Encoder de uma linha JSON por evento:
+ *
+ * <pre>
+ * {"@timestamp":"2024-01-01T12:00:00.123Z","level":"INFO","thread":"...","logger":"...",
+ *  "message":"...","tenantId":"...","userId":"...","traceId":"...","spanId":"...","exception":"..."}
+ * </pre>
+ *
+ * As chaves do MDC entram no nível raiz. A mensagem já vem formatada (e
+ * mascarada, quando passa pelo {@link RedactingAsyncAppender}).
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("@timestamp", event.getInstant().toString());
+            json.writeStringField("level", event.getLevel().toString());
+            json.writeStringField("thread", event.getThreadName());
+            json.writeStringField("logger", event.getLoggerName());
+            json.writeStringField("message", event.getFormattedMessage());
+            for (Map.Entry<String, String> mdc : event.getMDCPropertyMap().entrySet()) {
+                json.writeStringField(mdc.getKey(), mdc.getValue());
+            }
+            IThrowableProxy throwable = event.getThrowableProxy();
+            if (throwable != null) {
+                // Mensagens de exceção podem carregar corpos de resposta dos gateways
+                json.writeStringField("exception", LogRedactor.redact(ThrowableProxyUtil.asString(throwable)));
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+}
@@ -0,0 +1,61 @@
+package com.luna.pay.common.logging;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mascara segredos e documentos em texto de log: chaves do Asaas
+ * ($aact_...), tokens Bearer e JWTs, pares chave=valor/JSON de campos
+ * sensíveis (apiKey, access_token, secret, password, token, authorization)
+ * e CPF/CNPJ. Texto sem nenhuma ocorrência volta a mesma instância.
+ */
+public final class LogRedactor {
+
+    public static final String MASK = "****";
+
+    private static final Pattern SENSITIVE = Pattern.compile(
+            // chave=valor, "chave":"valor", chave: valor
+            "(?<key>\"?(?i:api[_-]?key|access[_-]?token|secret|password|senha|token|authorization)\"?\\s*[:=]\\s*\"?)"
+                    + "(?:(?i:bearer)\\s+)?[^\"',\\s&}]+"
+                    + "|(?<bearer>(?i:bearer)\\s+)[\\w\\-.~+/=]+"
+                    + "|\\$aact_[\\w\\-$=]+"
+                    + "|eyJ[\\w\\-]+\\.[\\w\\-]+\\.[\\w\\-]*"
+                    + "|\\b\\d{2}\\.?\\d{3}\\.?\\d{3}/?\\d{4}-?\\d{2}\\b"
+                    + "|\\b\\d{3}\\.?\\d{3}\\.?\\d{3}-?\\d{2}\\b");
+
+    private LogRedactor() {
+    }
+
+    public static String redact(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        Matcher matcher = SENSITIVE.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        StringBuilder redacted = new StringBuilder(text.length());
+        do {
+            String prefix = matcher.group("key") != null ? matcher.group("key")
+                    : matcher.group("bearer") != null ? matcher.group("bearer")
+                    : "";
+            matcher.appendReplacement(redacted, Matcher.quoteReplacement(prefix + MASK));
+        } while (matcher.find());
+        matcher.appendTail(redacted);
+        return redacted.toString();
+    }
+
+    /**
+     * Argumento de log mascarado. Objetos só são convertidos para texto
+     * quando há algo a mascarar; caso contrário o próprio objeto é devolvido.
+     */
+    public static Object redactArgument(Object argument) {
+        if (argument == null || argument instanceof Number || argument instanceof Boolean
+                || argument instanceof Enum<?> || argument instanceof Throwable) {
+            return argument;
+        }
+        String text = argument.toString();
+        String redacted = redact(text);
+        return redacted == text ? argument : redacted;
+    }
+}
@@ -0,0 +1,145 @@
+package com.luna.pay.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import org.slf4j.Marker;
+import org.slf4j.event.KeyValuePair;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evento de log com mensagem, template e argumentos já mascarados; o resto
+ * delega ao evento original.
+ */
+final class RedactedLoggingEvent implements ILoggingEvent {
+
+    private final ILoggingEvent delegate;
+    private final String formattedMessage;
+    private final String message;
+    private final Object[] arguments;
+
+    private RedactedLoggingEvent(ILoggingEvent delegate, String formattedMessage) {
+        this.delegate = delegate;
+        this.formattedMessage = formattedMessage;
+        this.message = LogRedactor.redact(delegate.getMessage());
+        Object[] original = delegate.getArgumentArray();
+        if (original == null) {
+            this.arguments = null;
+        } else {
+            this.arguments = new Object[original.length];
+            for (int i = 0; i < original.length; i++) {
+                arguments[i] = LogRedactor.redactArgument(original[i]);
+            }
+        }
+    }
+
+    /**
+     * O próprio evento quando a mensagem formatada não tem nada a mascarar,
+     * ou uma cópia mascarada. Formata a mensagem na thread chamadora.
+     */
+    static ILoggingEvent of(ILoggingEvent event) {
+        String formatted = event.getFormattedMessage();
+        String redacted = LogRedactor.redact(formatted);
+        return redacted == formatted ? event : new RedactedLoggingEvent(event, redacted);
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        return formattedMessage;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public Object[] getArgumentArray() {
+        return arguments;
+    }
+
+    @Override
+    public String getThreadName() {
+        return delegate.getThreadName();
+    }
+
+    @Override
+    public Level getLevel() {
+        return delegate.getLevel();
+    }
+
+    @Override
+    public String getLoggerName() {
+        return delegate.getLoggerName();
+    }
+
+    @Override
+    public LoggerContextVO getLoggerContextVO() {
+        return delegate.getLoggerContextVO();
+    }
+
+    @Override
+    public IThrowableProxy getThrowableProxy() {
+        return delegate.getThrowableProxy();
+    }
+
+    @Override
+    public StackTraceElement[] getCallerData() {
+        return delegate.getCallerData();
+    }
+
+    @Override
+    public boolean hasCallerData() {
+        return delegate.hasCallerData();
+    }
+
+    @Override
+    public List<Marker> getMarkerList() {
+        return delegate.getMarkerList();
+    }
+
+    @Override
+    public Map<String, String> getMDCPropertyMap() {
+        return delegate.getMDCPropertyMap();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public Map<String, String> getMdc() {
+        return delegate.getMdc();
+    }
+
+    @Override
+    public long getTimeStamp() {
+        return delegate.getTimeStamp();
+    }
+
+    @Override
+    public int getNanoseconds() {
+        return delegate.getNanoseconds();
+    }
+
+    @Override
+    public Instant getInstant() {
+        return delegate.getInstant();
+    }
+
+    @Override
+    public long getSequenceNumber() {
+        return delegate.getSequenceNumber();
+    }
+
+    @Override
+    public List<KeyValuePair> getKeyValuePairs() {
+        return delegate.getKeyValuePairs();
+    }
+
+    @Override
+    public void prepareForDeferredProcessing() {
+        delegate.prepareForDeferredProcessing();
+    }
+}
@@ -0,0 +1,21 @@
+package com.luna.pay.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * {@link AsyncAppender} que mascara segredos ({@link LogRedactor}) na thread
+ * que gerou o evento, antes de enfileirá-lo: nenhum appender a jusante (nem
+ * o encoder JSON) chega a ver o valor original. A mensagem é formatada aqui
+ * uma única vez, com os argumentos ainda vivos.
+ *
+ * Filtros do appender (ex.: {@link SamplingFilter}) rodam antes, então eventos
+ * descartados pela amostragem não pagam formatação nem máscara.
+ */
+public class RedactingAsyncAppender extends AsyncAppender {
+
+    @Override
+    protected void append(ILoggingEvent eventObject) {
+        super.append(RedactedLoggingEvent.of(eventObject));
+    }
+}
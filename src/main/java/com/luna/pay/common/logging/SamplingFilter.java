@@ -0,0 +1,69 @@
+package com.luna.pay.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Amostragem de linhas INFO de alto volume: para os loggers configurados
+ * (prefixos em {@code loggers}, separados por vírgula), mantém uma a cada
+ * {@code rate} linhas INFO ou abaixo. WARN e ERROR passam sempre, assim
+ * como qualquer linha de outros loggers.
+ *
+ * <pre>
+ * &lt;filter class="com.luna.pay.common.logging.SamplingFilter"&gt;
+ *     &lt;loggers&gt;com.luna.pay.gateway.impl,com.luna.pay.payment.PaymentService&lt;/loggers&gt;
+ *     &lt;rate&gt;10&lt;/rate&gt;
+ * &lt;/filter&gt;
+ * </pre>
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private final List<String> prefixes = new ArrayList<>();
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 1;
+
+    public void setLoggers(String loggers) {
+        prefixes.clear();
+        for (String logger : loggers.split(",")) {
+            if (!logger.isBlank()) {
+                prefixes.add(logger.trim());
+            }
+        }
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("rate deve ser >= 1, recebido " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rate == 1 || event.getLevel().isGreaterOrEqual(Level.WARN) || !sampled(event.getLoggerName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean sampled(String loggerName) {
+        for (String prefix : prefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
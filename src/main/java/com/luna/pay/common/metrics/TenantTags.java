@@ -0,0 +1,51 @@
+package com.luna.pay.common.metrics;
+
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tag "tenant" opcional para contadores, com cardinalidade limitada.
+ *
+ * Desligada (padrão), não acrescenta nada. Ligada, os primeiros
+ * {@code max-tenants} tenants vistos pelo nó ganham a própria série e os
+ * demais são agrupados em "other". Histogramas nunca recebem esta tag:
+ * cada tenant multiplicaria todos os buckets.
+ */
+@Component
+public class TenantTags {
+
+    static final String OTHER = "other";
+
+    private final boolean enabled;
+    private final int maxTenants;
+    private final Set<String> tagged = ConcurrentHashMap.newKeySet();
+
+    public TenantTags(@Value("${payment.metrics.tenant-tag.enabled:false}") boolean enabled,
+                      @Value("${payment.metrics.tenant-tag.max-tenants:50}") int maxTenants) {
+        this.enabled = enabled;
+        this.maxTenants = maxTenants;
+    }
+
+    public Tags and(Tags tags, String tenantId) {
+        return enabled ? tags.and("tenant", tag(tenantId)) : tags;
+    }
+
+    String tag(String tenantId) {
+        if (tenantId == null) {
+            return OTHER;
+        }
+        if (tagged.contains(tenantId)) {
+            return tenantId;
+        }
+        // Corrida benigna: o limite pode ser excedido por poucas entradas
+        if (tagged.size() < maxTenants) {
+            tagged.add(tenantId);
+            return tenantId;
+        }
+        return OTHER;
+    }
+}
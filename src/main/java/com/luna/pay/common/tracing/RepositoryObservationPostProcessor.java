@@ -0,0 +1,77 @@
+package com.luna.pay.common.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Envolve cada chamada aos repositórios Spring Data numa observação
+ * "lunapay.repository" (span "payment-repository.save", etc., e timer com as
+ * tags repository e method).
+ *
+ * O interceptor é adicionado ao proxy que o próprio Spring Data monta, via
+ * RepositoryProxyPostProcessor, antes de o repositório ser criado.
+ */
+public class RepositoryObservationPostProcessor implements BeanPostProcessor {
+
+    // Post-processors sobem antes dos demais beans: o registry é resolvido na primeira chamada
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+    private volatile ObservationRegistry resolved;
+
+    public RepositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxy, information) -> proxy.addAdvice(new ObservingInterceptor(
+                            information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private ObservationRegistry registry() {
+        ObservationRegistry registry = resolved;
+        if (registry == null) {
+            registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+            resolved = registry;
+        }
+        return registry;
+    }
+
+    private final class ObservingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+
+        private ObservingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            String method = invocation.getMethod().getName();
+            Observation observation = Observation.createNotStarted("lunapay.repository", registry())
+                    .contextualName(repository + "." + method)
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", method)
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.luna.pay.common.tracing;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.slf4j.MDC;
+
+/**
+ * Copia tenant e usuário do MDC (preenchido pelo TenantMDCInterceptor) para
+ * toda observação iniciada na thread da requisição: chamadas aos gateways,
+ * repositórios e a criação do pagamento. Entram como chaves de alta
+ * cardinalidade, ou seja, viram atributos do span mas nunca tags de métricas.
+ */
+public class TenantObservationHandler implements ObservationHandler<Observation.Context> {
+
+    public static final String TENANT_MDC_KEY = "tenantId";
+    public static final String USER_MDC_KEY = "userId";
+
+    public static final String TENANT_KEY = "tenant.id";
+    public static final String USER_KEY = "user.id";
+
+    @Override
+    public void onStart(Observation.Context context) {
+        tag(context, TENANT_KEY, MDC.get(TENANT_MDC_KEY));
+        tag(context, USER_KEY, MDC.get(USER_MDC_KEY));
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    public static void tag(Observation.Context context, String key, String value) {
+        if (value != null) {
+            context.addHighCardinalityKeyValue(KeyValue.of(key, value));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.luna.pay.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita tarefas agendadas (processamento do inbox de webhooks, etc).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
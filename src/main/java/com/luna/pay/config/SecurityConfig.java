@@ -1,6 +1,7 @@
 package com.luna.pay.config;
 
 import com.luna.pay.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,8 @@ public class SecurityConfig {
           .csrf(AbstractHttpConfigurer::disable)
           .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
           .authorizeHttpRequests(auth -> auth
+                  // Respostas reativas (Mono) concluem num dispatch ASYNC da requisição já autorizada
+                  .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                   .requestMatchers("/actuator/health").permitAll()
                   .requestMatchers("/webhooks/**").permitAll()
                   .anyRequest().authenticated()
@@ -36,6 +39,7 @@ public class SecurityConfig {
         config.setAllowedOrigins(java.util.List.of("http://localhost:3000"));
         config.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(java.util.List.of("*"));
+        config.setExposedHeaders(java.util.List.of("Idempotent-Replayed"));
         config.setAllowCredentials(true);
         return config;
       }));
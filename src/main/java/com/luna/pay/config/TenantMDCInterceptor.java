@@ -1,5 +1,6 @@
 package com.luna.pay.config;
 
+import com.luna.pay.common.tracing.TenantObservationHandler;
 import com.luna.pay.security.UserContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -7,20 +8,23 @@ import org.slf4j.MDC;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ServerHttpObservationFilter;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 /**
  * Interceptor para adicionar tenantId no MDC (Mapped Diagnostic Context).
  * Permite que todos os logs incluam automaticamente o tenant da requisição.
- * 
+ * Tenant e usuário também viram atributos do span da requisição; os spans
+ * filhos recebem os mesmos valores pelo {@link TenantObservationHandler}.
+ *
  * Exemplo de log:
  * INFO [tenant=clinic_123] Criando pagamento via gateway C6
  */
 @Component
 public class TenantMDCInterceptor implements HandlerInterceptor {
 
-    private static final String MDC_TENANT_KEY = "tenantId";
-    private static final String MDC_USER_KEY = "userId";
+    private static final String MDC_TENANT_KEY = TenantObservationHandler.TENANT_MDC_KEY;
+    private static final String MDC_USER_KEY = TenantObservationHandler.USER_MDC_KEY;
 
     @Override
     public boolean preHandle(HttpServletRequest request, 
@@ -33,6 +37,10 @@ public class TenantMDCInterceptor implements HandlerInterceptor {
             // Adiciona tenantId e userId no MDC para logs
             MDC.put(MDC_TENANT_KEY, userContext.getTenantId());
             MDC.put(MDC_USER_KEY, userContext.getUserId());
+            ServerHttpObservationFilter.findObservationContext(request).ifPresent(context -> {
+                TenantObservationHandler.tag(context, TenantObservationHandler.TENANT_KEY, userContext.getTenantId());
+                TenantObservationHandler.tag(context, TenantObservationHandler.USER_KEY, userContext.getUserId());
+            });
         }
         
         return true;
@@ -0,0 +1,49 @@
+package com.luna.pay.config;
+
+import com.luna.pay.common.tracing.FileSpanExporter;
+import com.luna.pay.common.tracing.RepositoryObservationPostProcessor;
+import com.luna.pay.common.tracing.TenantObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Tracing via Micrometer Observation com a ponte OpenTelemetry.
+ *
+ * Spans: requisição HTTP (servidor), PaymentService.createPayment
+ * ("payment-service.create-payment"), cada troca do WebClient com os
+ * gateways ("http post", pelo WebClient.Builder do Boot, já instrumentado) e
+ * cada chamada de repositório ("payment-repository.save", ...). Tenant e
+ * usuário entram como atributos; traceId/spanId vão para o MDC e para o
+ * padrão de log.
+ *
+ * Exportação:
+ * - OTLP: management.otlp.tracing.endpoint (ex.: http://localhost:4318/v1/traces)
+ * - arquivo JSON por linha: payment.tracing.file.path
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public TenantObservationHandler tenantObservationHandler() {
+        return new TenantObservationHandler();
+    }
+
+    @Bean
+    public static RepositoryObservationPostProcessor repositoryObservationPostProcessor(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new RepositoryObservationPostProcessor(observationRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty("payment.tracing.file.path")
+    public FileSpanExporter fileSpanExporter(@Value("${payment.tracing.file.path}") Path path) throws IOException {
+        return new FileSpanExporter(path);
+    }
+}
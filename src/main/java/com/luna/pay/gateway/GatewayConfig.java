@@ -4,7 +4,10 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -14,6 +17,20 @@ public class GatewayConfig {
 
     private Map<String, GatewayProperties> gateways = new HashMap<>();
 
+    /**
+     * Modo de execução das chamadas aos gateways:
+     * - BLOCKING: chamada síncrona na thread da requisição (padrão)
+     * - REACTIVE: pipeline não bloqueante, libera a thread do Tomcat durante o I/O
+     */
+    private ExecutionMode executionMode = ExecutionMode.BLOCKING;
+
+    private RoutingProperties routing = new RoutingProperties();
+
+    public enum ExecutionMode {
+        BLOCKING,
+        REACTIVE
+    }
+
     @Data
     public static class GatewayProperties {
         private boolean enabled = false;
@@ -21,9 +38,119 @@ public class GatewayConfig {
         private String apiSecret;
         private String baseUrl;
         private String webhookSecret;
+        /**
+         * Secret anterior, ainda aceito durante a rotação (ver
+         * com.luna.pay.gateway.webhook.WebhookSignatureVerifier).
+         */
+        private String webhookSecretPrevious;
         private String walletId;
         private String environment = "sandbox";
+
+        /**
+         * Timeout padrão (leitura/escrita e resposta) quando os específicos
+         * não são informados.
+         */
         private Integer timeoutSeconds = 30;
+
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout;
+        private Duration responseTimeout;
+
+        private HttpClientProperties http = new HttpClientProperties();
+
+        private ResilienceProperties resilience = new ResilienceProperties();
+
+        public Duration getEffectiveReadTimeout() {
+            return readTimeout != null ? readTimeout : Duration.ofSeconds(timeoutSeconds);
+        }
+
+        public Duration getEffectiveResponseTimeout() {
+            return responseTimeout != null ? responseTimeout : Duration.ofSeconds(timeoutSeconds);
+        }
+    }
+
+    /**
+     * Pool de conexões HTTP dedicado a um gateway.
+     */
+    @Data
+    public static class HttpClientProperties {
+        private int maxConnections = 50;
+        /** Requisições aguardando conexão livre; além disso falham de imediato. */
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        /** Conexões ociosas por mais tempo que isso são fechadas. */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        private boolean keepAlive = true;
+        /** Negocia HTTP/2 (ALPN em https, h2c em http), com fallback para HTTP/1.1. */
+        private boolean http2 = false;
+    }
+
+    /**
+     * Circuit breaker, bulkhead e orçamento de retentativas de um gateway
+     * (ver com.luna.pay.gateway.resilience).
+     */
+    @Data
+    public static class ResilienceProperties {
+        private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+        private BulkheadProperties bulkhead = new BulkheadProperties();
+        private RetryProperties retry = new RetryProperties();
+    }
+
+    @Data
+    public static class CircuitBreakerProperties {
+        /** Percentual de falhas na janela que abre o circuito. */
+        private float failureRateThreshold = 50;
+        /** Últimas N chamadas consideradas no cálculo da taxa de falhas. */
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 3;
+        /** Chamadas mais lentas que isso contam como lentas... */
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(10);
+        /** ...e, acima deste percentual, também abrem o circuito. */
+        private float slowCallRateThreshold = 80;
+    }
+
+    @Data
+    public static class BulkheadProperties {
+        /** Chamadas simultâneas ao gateway; além disso são recusadas. */
+        private int maxConcurrentCalls = 100;
+        /** Espera por uma vaga (apenas no modo bloqueante). */
+        private Duration maxWait = Duration.ZERO;
+    }
+
+    @Data
+    public static class RetryProperties {
+        /** Tentativas no total, incluindo a primeira. */
+        private int maxAttempts = 2;
+        /** Espera antes da primeira retentativa; dobra a cada nova tentativa. */
+        private Duration backoff = Duration.ofMillis(200);
+        /** Crédito de retentativa por chamada feita (0.1 = no máximo 10% de tráfego extra). */
+        private double budgetRatio = 0.1;
+        /** Saldo máximo de retentativas acumuladas. */
+        private int budgetMaxTokens = 10;
+    }
+
+    /**
+     * Roteamento de pagamentos criados com gateway "AUTO".
+     */
+    @Data
+    public static class RoutingProperties {
+        /** Últimas chamadas de cada gateway usadas no p95 e na taxa de erro. */
+        private int windowSize = 100;
+        /** Acima desta taxa de erro na janela o gateway vai para o fim da fila. */
+        private double maxErrorRate = 0.5;
+        /**
+         * Gateway indisponível há mais que isso recebe uma criação AUTO como
+         * sonda; se der certo, volta à disputa com a janela zerada.
+         */
+        private Duration probeInterval = Duration.ofSeconds(30);
+        /** Ordem de preferência quando o tenant não tem uma própria. */
+        private List<String> defaultPreference = new ArrayList<>();
+        /** Ordem de preferência por tenant (tenantId -> gateways). */
+        private Map<String, List<String>> tenantPreferences = new HashMap<>();
     }
 
     public GatewayProperties getAsaas() {
@@ -0,0 +1,23 @@
+package com.luna.pay.gateway;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Fotografia do estado de um gateway para decisões de roteamento e para o
+ * endpoint de health.
+ */
+public record GatewayDescriptor(
+        String name,
+        boolean enabled,
+        Set<String> supportedPaymentMethods,
+        GatewayHealth.Status health,
+        int consecutiveFailures,
+        Instant lastSuccessAt,
+        Instant lastFailureAt
+) {
+
+    public boolean supports(String paymentMethod) {
+        return paymentMethod != null && supportedPaymentMethods.contains(paymentMethod.toUpperCase());
+    }
+}
@@ -0,0 +1,76 @@
+package com.luna.pay.gateway;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Saúde observada de um gateway, alimentada pelo resultado das chamadas reais.
+ *
+ * DOWN após {@code downThreshold} falhas consecutivas; qualquer sucesso volta
+ * para UP. Thread-safe e sem locks: é atualizado no caminho de cada cobrança.
+ */
+public class GatewayHealth {
+
+    public enum Status {
+        UP,
+        DEGRADED,
+        DOWN
+    }
+
+    private final int downThreshold;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicReference<Instant> lastSuccessAt = new AtomicReference<>();
+    private final AtomicReference<Instant> lastFailureAt = new AtomicReference<>();
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+
+    public GatewayHealth(int downThreshold) {
+        this.downThreshold = Math.max(1, downThreshold);
+    }
+
+    public void recordSuccess() {
+        successes.incrementAndGet();
+        consecutiveFailures.set(0);
+        lastSuccessAt.set(Instant.now());
+    }
+
+    public void recordFailure(Throwable error) {
+        failures.incrementAndGet();
+        consecutiveFailures.incrementAndGet();
+        lastFailureAt.set(Instant.now());
+        lastError.set(error == null ? null : error.getMessage());
+    }
+
+    public Status getStatus() {
+        int failing = consecutiveFailures.get();
+        if (failing >= downThreshold) return Status.DOWN;
+        return failing > 0 ? Status.DEGRADED : Status.UP;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getSuccesses() {
+        return successes.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public Instant getLastSuccessAt() {
+        return lastSuccessAt.get();
+    }
+
+    public Instant getLastFailureAt() {
+        return lastFailureAt.get();
+    }
+
+    public String getLastError() {
+        return lastError.get();
+    }
+}
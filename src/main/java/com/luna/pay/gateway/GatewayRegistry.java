@@ -0,0 +1,142 @@
+package com.luna.pay.gateway;
+
+import com.luna.pay.common.exception.GatewayNotEnabledException;
+import com.luna.pay.common.exception.PaymentException;
+import com.luna.pay.gateway.metrics.GatewayMetrics;
+import com.luna.pay.gateway.resilience.GatewayResilience;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Registro imutável dos gateways, montado uma única vez na inicialização.
+ *
+ * A busca por nome não diferencia maiúsculas/minúsculas e, no caso comum
+ * (nome já em maiúsculas, como gravado em Payment.gateway), não aloca.
+ *
+ * O estado habilitado não é copiado: cada consulta lê
+ * {@link PaymentGateway#isEnabled()}, que reflete o GatewayConfig vinculado
+ * no momento, de modo que uma revinculação das propriedades vale na hora.
+ * A saúde é alimentada por {@link #recordSuccess}/{@link #recordFailure}.
+ *
+ * Os gateways entregues pelo registro já vêm protegidos por circuit breaker,
+ * bulkhead e retentativas ({@link GatewayResilience}) e medidos por fora
+ * dessa camada ({@link GatewayMetrics}).
+ */
+@Component
+@Slf4j
+public class GatewayRegistry {
+
+    private final Map<String, PaymentGateway> gateways;
+    private final Map<String, GatewayHealth> health;
+    private final List<PaymentGateway> all;
+
+    @Autowired
+    public GatewayRegistry(List<PaymentGateway> paymentGateways,
+                           GatewayResilience resilience,
+                           GatewayMetrics metrics,
+                           @Value("${payment.gateways.health.down-after-failures:5}") int downAfterFailures) {
+        this(paymentGateways.stream().map(resilience::decorate).map(metrics::decorate).toList(), downAfterFailures);
+    }
+
+    /**
+     * Registro sem as camadas de resiliência e métricas (testes e benchmarks).
+     */
+    public GatewayRegistry(List<PaymentGateway> paymentGateways, int downAfterFailures) {
+        Map<String, PaymentGateway> byName = new HashMap<>();
+        Map<String, GatewayHealth> healthByName = new HashMap<>();
+        for (PaymentGateway gateway : paymentGateways) {
+            String name = normalize(gateway.getGatewayName());
+            if (byName.putIfAbsent(name, gateway) != null) {
+                throw new IllegalStateException("Gateway registrado em duplicidade: " + name);
+            }
+            healthByName.put(name, new GatewayHealth(downAfterFailures));
+        }
+        this.gateways = Map.copyOf(byName);
+        this.health = Map.copyOf(healthByName);
+        this.all = paymentGateways.stream()
+                .sorted(Comparator.comparing(PaymentGateway::getGatewayName))
+                .toList();
+
+        log.info("Gateways registrados: {}", all.stream().map(PaymentGateway::getGatewayName).toList());
+    }
+
+    public Optional<PaymentGateway> find(String name) {
+        return Optional.ofNullable(lookup(gateways, name));
+    }
+
+    /**
+     * Retorna o gateway habilitado, ou lança a mesma exceção que a API já
+     * devolvia para gateway inexistente (400) ou desabilitado (503).
+     */
+    public PaymentGateway require(String name) {
+        PaymentGateway gateway = lookup(gateways, name);
+        if (gateway == null) {
+            throw new PaymentException("Gateway não suportado: " + name);
+        }
+        if (!gateway.isEnabled()) {
+            throw new GatewayNotEnabledException(gateway.getGatewayName());
+        }
+        return gateway;
+    }
+
+    public boolean isEnabled(String name) {
+        PaymentGateway gateway = lookup(gateways, name);
+        return gateway != null && gateway.isEnabled();
+    }
+
+    public List<PaymentGateway> getAll() {
+        return all;
+    }
+
+    public List<PaymentGateway> getEnabled() {
+        return all.stream().filter(PaymentGateway::isEnabled).toList();
+    }
+
+    public void recordSuccess(String name) {
+        GatewayHealth gatewayHealth = lookup(health, name);
+        if (gatewayHealth != null) gatewayHealth.recordSuccess();
+    }
+
+    public void recordFailure(String name, Throwable error) {
+        GatewayHealth gatewayHealth = lookup(health, name);
+        if (gatewayHealth != null) gatewayHealth.recordFailure(error);
+    }
+
+    public Optional<GatewayHealth> health(String name) {
+        return Optional.ofNullable(lookup(health, name));
+    }
+
+    public Optional<GatewayDescriptor> describe(String name) {
+        return find(name).map(this::describe);
+    }
+
+    public List<GatewayDescriptor> describeAll() {
+        return all.stream().map(this::describe).toList();
+    }
+
+    private GatewayDescriptor describe(PaymentGateway gateway) {
+        GatewayHealth gatewayHealth = health.get(normalize(gateway.getGatewayName()));
+        return new GatewayDescriptor(
+                gateway.getGatewayName(),
+                gateway.isEnabled(),
+                gateway.getSupportedPaymentMethods(),
+                gatewayHealth.getStatus(),
+                gatewayHealth.getConsecutiveFailures(),
+                gatewayHealth.getLastSuccessAt(),
+                gatewayHealth.getLastFailureAt());
+    }
+
+    private static <T> T lookup(Map<String, T> map, String name) {
+        if (name == null) return null;
+        T value = map.get(name);
+        return value != null ? value : map.get(normalize(name));
+    }
+
+    private static String normalize(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+}
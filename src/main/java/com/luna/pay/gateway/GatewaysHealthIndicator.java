@@ -0,0 +1,38 @@
+package com.luna.pay.gateway;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Expõe em /actuator/health (componente "gateways") o estado de cada gateway.
+ *
+ * Informativo: um gateway fora do ar não derruba o status da aplicação, já
+ * que os demais continuam atendendo.
+ */
+@Component("gateways")
+@RequiredArgsConstructor
+public class GatewaysHealthIndicator implements HealthIndicator {
+
+    private final GatewayRegistry gatewayRegistry;
+
+    @Override
+    public Health health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (GatewayDescriptor gateway : gatewayRegistry.describeAll()) {
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("enabled", gateway.enabled());
+            detail.put("status", gateway.health());
+            detail.put("paymentMethods", gateway.supportedPaymentMethods());
+            detail.put("consecutiveFailures", gateway.consecutiveFailures());
+            if (gateway.lastSuccessAt() != null) detail.put("lastSuccessAt", gateway.lastSuccessAt());
+            if (gateway.lastFailureAt() != null) detail.put("lastFailureAt", gateway.lastFailureAt());
+            details.put(gateway.name(), detail);
+        }
+        return Health.up().withDetails(details).build();
+    }
+}
@@ -1,7 +1,11 @@
 package com.luna.pay.gateway;
 
 import com.luna.pay.payment.dto.CreatePaymentRequest;
-import com.luna.pay.payment.dto.PaymentResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Interface base para todos os gateways de pagamento
@@ -18,11 +22,32 @@ public interface PaymentGateway {
      */
     boolean isEnabled();
 
+    /**
+     * Métodos de pagamento aceitos (PIX, BOLETO, CREDIT_CARD, DEBIT_CARD),
+     * em maiúsculas. Usado no roteamento entre gateways.
+     */
+    default Set<String> getSupportedPaymentMethods() {
+        return Set.of("PIX", "BOLETO", "CREDIT_CARD", "DEBIT_CARD");
+    }
+
     /**
      * Cria um pagamento no gateway
      */
     GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId);
 
+    /**
+     * Procura a cobrança criada com a referência externa informada em
+     * {@link CreatePaymentRequest#getExternalReference()} (id do pagamento no
+     * LunaPay). Usado pela recuperação de criações interrompidas para saber
+     * se a cobrança chegou a existir.
+     *
+     * @return vazio se o gateway não tem cobrança com essa referência
+     * @throws UnsupportedOperationException se o gateway não permite a busca
+     */
+    default Optional<GatewayPaymentResult> findPaymentByExternalReference(String externalReference) {
+        throw new UnsupportedOperationException(getGatewayName() + " não busca cobranças por referência externa");
+    }
+
     /**
      * Consulta status de um pagamento
      */
@@ -34,9 +59,36 @@ public interface PaymentGateway {
     boolean cancelPayment(String gatewayPaymentId);
 
     /**
-     * Valida webhook do gateway
+     * Cria um pagamento no gateway sem bloquear a thread chamadora.
+     * Implementação padrão executa a versão bloqueante em um scheduler elástico.
+     */
+    default Mono<GatewayPaymentResult> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
+        return Mono.fromCallable(() -> createPayment(request, tenantId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Consulta status de um pagamento sem bloquear a thread chamadora
+     */
+    default Mono<GatewayPaymentStatus> getPaymentStatusAsync(String gatewayPaymentId) {
+        return Mono.fromCallable(() -> getPaymentStatus(gatewayPaymentId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Cancela um pagamento sem bloquear a thread chamadora
+     */
+    default Mono<Boolean> cancelPaymentAsync(String gatewayPaymentId) {
+        return Mono.fromCallable(() -> cancelPayment(gatewayPaymentId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Valida a assinatura do webhook sobre o corpo exatamente como recebido.
+     * signature é null quando o header não veio: recusado se o gateway tiver
+     * secret configurado
      */
-    boolean validateWebhook(String signature, String payload);
+    boolean validateWebhook(String signature, byte[] payload);
 
     /**
      * Processa webhook recebido
@@ -0,0 +1,101 @@
+package com.luna.pay.gateway.asaas.customer;
+
+import com.luna.pay.common.cache.ExpiringLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cache de ids de clientes do Asaas por (tenant, CPF/CNPJ).
+ *
+ * Camadas de consulta:
+ * 1. near-cache em memória (LRU)
+ * 2. tabela asaas_customers
+ * 3. (no gateway) GET /customers?externalReference=..., e só então POST /customers
+ *
+ * Métricas: lunapay.asaas.customers.lookups{source=memory|database|miss}
+ * e lunapay.asaas.customers.cache.size. "miss" significa que foi preciso
+ * consultar ou criar o cliente na API do Asaas.
+ */
+@Component
+@Slf4j
+public class AsaasCustomerCache {
+
+    private final AsaasCustomerMappingRepository repository;
+    private final ExpiringLruCache<String, String> nearCache;
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public AsaasCustomerCache(AsaasCustomerMappingRepository repository,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.gateways.asaas.customer-cache-size:10000}") int maxEntries) {
+        this.repository = repository;
+        this.nearCache = new ExpiringLruCache<>(maxEntries);
+
+        this.memoryHits = lookups(meterRegistry, "memory");
+        this.databaseHits = lookups(meterRegistry, "database");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("lunapay.asaas.customers.cache.size", nearCache, ExpiringLruCache::size)
+                .description("Entradas no near-cache de clientes Asaas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca o id do cliente Asaas apenas no near-cache (sem I/O).
+     */
+    public Optional<String> findInMemory(String tenantId, String cpfCnpj) {
+        String cached = nearCache.get(key(tenantId, cpfCnpj));
+        if (cached != null) {
+            memoryHits.increment();
+        }
+        return Optional.ofNullable(cached);
+    }
+
+    /**
+     * Busca o id do cliente Asaas na tabela asaas_customers (bloqueante),
+     * aquecendo o near-cache quando encontrado.
+     */
+    public Optional<String> findStored(String tenantId, String cpfCnpj) {
+        Optional<String> stored = repository.findByTenantIdAndCpfCnpj(tenantId, cpfCnpj)
+                .map(AsaasCustomerMapping::getAsaasCustomerId);
+        if (stored.isPresent()) {
+            databaseHits.increment();
+            nearCache.put(key(tenantId, cpfCnpj), stored.get());
+        } else {
+            misses.increment();
+        }
+        return stored;
+    }
+
+    /**
+     * Registra o id do cliente criado (ou encontrado) no Asaas.
+     */
+    public void store(String tenantId, String cpfCnpj, String asaasCustomerId) {
+        try {
+            repository.save(new AsaasCustomerMapping(tenantId, cpfCnpj, asaasCustomerId));
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição concorrente já registrou o mesmo cliente
+            log.debug("[ASAAS] Cliente já mapeado para tenant {}: {}", tenantId, e.getMessage());
+        }
+        nearCache.put(key(tenantId, cpfCnpj), asaasCustomerId);
+    }
+
+    private static String key(String tenantId, String cpfCnpj) {
+        return tenantId + '|' + cpfCnpj;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("lunapay.asaas.customers.lookups")
+                .description("Consultas ao cache de clientes Asaas por origem")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
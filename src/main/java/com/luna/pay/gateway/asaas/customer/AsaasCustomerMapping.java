@@ -0,0 +1,47 @@
+package com.luna.pay.gateway.asaas.customer;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Mapeamento persistente (tenant, CPF/CNPJ) -> id do cliente no Asaas.
+ * Evita criar o mesmo cliente novamente a cada cobrança.
+ */
+@Entity
+@Table(name = "asaas_customers",
+        uniqueConstraints = @UniqueConstraint(name = "uk_asaas_customers_tenant_document",
+                columnNames = {"tenant_id", "cpf_cnpj"}))
+@Data
+@NoArgsConstructor
+public class AsaasCustomerMapping {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "cpf_cnpj", nullable = false, length = 20)
+    private String cpfCnpj;
+
+    @Column(name = "asaas_customer_id", nullable = false)
+    private String asaasCustomerId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public AsaasCustomerMapping(String tenantId, String cpfCnpj, String asaasCustomerId) {
+        this.tenantId = tenantId;
+        this.cpfCnpj = cpfCnpj;
+        this.asaasCustomerId = asaasCustomerId;
+    }
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,12 @@
+package com.luna.pay.gateway.asaas.customer;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AsaasCustomerMappingRepository extends JpaRepository<AsaasCustomerMapping, String> {
+
+    Optional<AsaasCustomerMapping> findByTenantIdAndCpfCnpj(String tenantId, String cpfCnpj);
+}
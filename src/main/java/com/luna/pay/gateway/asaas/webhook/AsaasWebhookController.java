@@ -1,6 +1,6 @@
 package com.luna.pay.gateway.asaas.webhook;
 
-import com.luna.pay.gateway.asaas.webhook.dto.AsaasWebhookEvent;
+import com.luna.pay.webhook.WebhookInbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 public class AsaasWebhookController {
 
     private final AsaasWebhookService service;
+    private final WebhookInbox webhookInbox;
 
     /**
      * Endpoint público para receber webhooks do Asaas.
@@ -29,25 +30,22 @@ public class AsaasWebhookController {
      * - PAYMENT_OVERDUE (vencido)
      * - PAYMENT_DELETED (cancelado)
      * - PAYMENT_REFUNDED (estornado)
+     *
+     * O evento é persistido no inbox e o 200 é devolvido imediatamente,
+     * sem aguardar a atualização do pagamento.
      */
     @PostMapping
     public ResponseEntity<Void> receive(
             @RequestHeader(value = "asaas-access-token", required = false) String asaasAccessToken,
-            @RequestBody AsaasWebhookEvent body
+            @RequestBody String payload
     ) {
-        log.debug("Webhook Asaas recebido: event={}, paymentId={}", 
-                body != null ? body.event() : null,
-                body != null && body.payment() != null ? body.payment().id() : null);
-
         if (!service.isValidToken(asaasAccessToken)) {
-            log.warn("Webhook Asaas REJEITADO (token inválido). event={}, paymentId={}",
-                    body != null ? body.event() : null,
-                    body != null && body.payment() != null ? body.payment().id() : null
-            );
+            log.warn("Webhook Asaas REJEITADO (token inválido)");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        service.process(body);
+        // Grava o evento bruto e confirma; o processamento é feito pelo WebhookInboxProcessor
+        webhookInbox.enqueue("ASAAS", payload);
         return ResponseEntity.ok().build();
     }
 }
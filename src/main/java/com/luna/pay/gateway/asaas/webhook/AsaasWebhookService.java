@@ -1,44 +1,67 @@
 package com.luna.pay.gateway.asaas.webhook;
 
-import com.luna.pay.gateway.asaas.webhook.dto.AsaasWebhookEvent;
-import com.luna.pay.payment.Payment;
-import com.luna.pay.payment.PaymentRepository;
+import com.luna.pay.gateway.webhook.WebhookJsonFields;
 import com.luna.pay.payment.PaymentStatus;
-import lombok.RequiredArgsConstructor;
+import com.luna.pay.webhook.WebhookStatusUpdate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Optional;
+
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AsaasWebhookService {
 
-    private final PaymentRepository paymentRepository;
+    private static final WebhookJsonFields WEBHOOK_FIELDS = WebhookJsonFields.of("event", "payment.id");
 
     @Value("${payment.gateways.asaas.webhookSecret:}")
     private String webhookSecret;
 
+    /** Token anterior, aceito durante a rotação. */
+    @Value("${payment.gateways.asaas.webhookSecretPrevious:}")
+    private String webhookSecretPrevious;
+
+    /**
+     * Compara em tempo constante com o token atual e, se configurado, o anterior.
+     */
     public boolean isValidToken(String token) {
         if (!StringUtils.hasText(webhookSecret) || !StringUtils.hasText(token)) {
             return false;
         }
-        
-        String trimmedToken = token.trim();
-        String trimmedSecret = webhookSecret.trim();
-        
-        return trimmedSecret.equals(trimmedToken);
+
+        byte[] received = token.trim().getBytes(StandardCharsets.UTF_8);
+        return matches(webhookSecret, received) || matches(webhookSecretPrevious, received);
     }
 
-    public void process(AsaasWebhookEvent evt) {
-        if (evt == null || evt.payment() == null || !StringUtils.hasText(evt.payment().id())) {
-            log.warn("Evento webhook Asaas inválido ou sem payment.id");
-            return;
+    private static boolean matches(String secret, byte[] received) {
+        return StringUtils.hasText(secret)
+                && MessageDigest.isEqual(secret.trim().getBytes(StandardCharsets.UTF_8), received);
+    }
+
+    /**
+     * Decodifica o payload bruto de um webhook Asaas na atualização de status
+     * correspondente. Vazio quando o evento é inválido ou não mapeado.
+     */
+    public Optional<WebhookStatusUpdate> decode(String payload) {
+        String[] fields;
+        try {
+            fields = WEBHOOK_FIELDS.read(payload);
+        } catch (IOException e) {
+            log.warn("Payload de webhook Asaas inválido: {}", e.getMessage());
+            return Optional.empty();
         }
 
-        String event = evt.event();
-        String asaasPaymentId = evt.payment().id();
+        String event = fields[0];
+        String asaasPaymentId = fields[1];
+        if (!StringUtils.hasText(asaasPaymentId)) {
+            log.warn("Evento webhook Asaas inválido ou sem payment.id");
+            return Optional.empty();
+        }
 
         PaymentStatus newStatus = mapEventToStatus(event);
 
@@ -47,16 +70,10 @@ public class AsaasWebhookService {
 
         if (newStatus == null) {
             log.debug("Evento '{}' não mapeado, ignorando", event);
-            return;
+            return Optional.empty();
         }
 
-        paymentRepository.findByGatewayPaymentId(asaasPaymentId).ifPresentOrElse(p -> {
-            PaymentStatus oldStatus = p.getStatus();
-            p.setStatus(newStatus);
-            paymentRepository.save(p);
-            log.info("Pagamento atualizado: id={}, tenantId={}, {} -> {}", 
-                    p.getId(), p.getTenantId(), oldStatus, newStatus);
-        }, () -> log.warn("Pagamento local não encontrado para gatewayPaymentId={}", asaasPaymentId));
+        return Optional.of(new WebhookStatusUpdate("ASAAS", asaasPaymentId, newStatus));
     }
 
     /**
@@ -1,6 +1,9 @@
 package com.luna.pay.gateway.client;
 
 import com.luna.pay.gateway.GatewayConfig;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,50 +11,107 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
-import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuração do WebClient para chamadas HTTP aos gateways de pagamento.
- * Usa WebClient reativo para melhor performance e timeout configurável.
+ *
+ * Cada gateway tem um ConnectionProvider próprio e nomeado ("gateway-asaas",
+ * "gateway-c6"): um gateway lento não esgota as conexões do outro. Pool,
+ * keep-alive, HTTP/2 e timeouts (conexão, leitura/escrita e resposta) vêm de
+ * payment.gateways.{nome} (ver {@link GatewayConfig.GatewayProperties}).
+ *
+ * As métricas dos pools são publicadas no Actuator como
+ * reactor.netty.connection.provider.* (tag "name").
  */
 @Configuration
 @RequiredArgsConstructor
 public class GatewayWebClientConfig {
 
+    static final String ASAAS_FALLBACK_BASE_URL = "https://sandbox.asaas.com/api/v3";
+    static final String C6_FALLBACK_BASE_URL = "https://api.c6bank.com.br/v1";
+
+    private static final String READ_TIMEOUT_HANDLER = "gatewayReadTimeout";
+    private static final String WRITE_TIMEOUT_HANDLER = "gatewayWriteTimeout";
+
     private final GatewayConfig gatewayConfig;
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider asaasConnectionProvider() {
+        return connectionProvider("gateway-asaas", gatewayConfig.getAsaas());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider c6ConnectionProvider() {
+        return connectionProvider("gateway-c6", gatewayConfig.getC6());
+    }
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        HttpClient httpClient = HttpClient.create()
-                .responseTimeout(Duration.ofSeconds(30))
-                .doOnConnected(conn -> 
-                    conn.addHandlerLast(new io.netty.handler.timeout.ReadTimeoutHandler(30))
-                        .addHandlerLast(new io.netty.handler.timeout.WriteTimeoutHandler(30))
-                );
-
-        return WebClient.builder()
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+    public WebClient c6WebClient(WebClient.Builder builder, ConnectionProvider c6ConnectionProvider) {
+        GatewayConfig.GatewayProperties props = gatewayConfig.getC6();
+        return webClient(builder, props, baseUrl(props, C6_FALLBACK_BASE_URL), c6ConnectionProvider);
     }
 
     @Bean
-    public WebClient c6WebClient(WebClient.Builder builder) {
-        return builder
-                .baseUrl("https://api.c6bank.com.br/v1")
+    public WebClient asaasWebClient(WebClient.Builder builder, ConnectionProvider asaasConnectionProvider) {
+        GatewayConfig.GatewayProperties props = gatewayConfig.getAsaas();
+        return webClient(builder, props, baseUrl(props, ASAAS_FALLBACK_BASE_URL), asaasConnectionProvider);
+    }
+
+    static ConnectionProvider connectionProvider(String name, GatewayConfig.GatewayProperties props) {
+        GatewayConfig.HttpClientProperties http = props.getHttp();
+        return ConnectionProvider.builder(name)
+                .maxConnections(http.getMaxConnections())
+                .pendingAcquireMaxCount(http.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(http.getPendingAcquireTimeout())
+                .maxIdleTime(http.getMaxIdleTime())
+                .maxLifeTime(http.getMaxLifeTime())
+                .evictInBackground(http.getEvictionInterval())
+                .metrics(true)
                 .build();
     }
 
-    @Bean
-    public WebClient asaasWebClient(WebClient.Builder builder) {
-        String baseUrl = gatewayConfig.getAsaas().getBaseUrl();
-        if (baseUrl == null || baseUrl.isBlank()) {
-            baseUrl = "https://sandbox.asaas.com/api/v3"; // fallback
+    static HttpClient httpClient(GatewayConfig.GatewayProperties props, String baseUrl, ConnectionProvider provider) {
+        GatewayConfig.HttpClientProperties http = props.getHttp();
+        long readTimeoutMs = props.getEffectiveReadTimeout().toMillis();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .keepAlive(http.isKeepAlive())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) props.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, http.isKeepAlive())
+                .responseTimeout(props.getEffectiveResponseTimeout())
+                // Por requisição, não por conexão: no pool, uma conexão ociosa não pode estourar o timeout de leitura
+                .doOnRequest((request, conn) -> conn
+                        .addHandlerLast(READ_TIMEOUT_HANDLER, new ReadTimeoutHandler(readTimeoutMs, TimeUnit.MILLISECONDS))
+                        .addHandlerLast(WRITE_TIMEOUT_HANDLER, new WriteTimeoutHandler(readTimeoutMs, TimeUnit.MILLISECONDS)))
+                .doAfterResponseSuccess((response, conn) -> conn
+                        .removeHandler(READ_TIMEOUT_HANDLER)
+                        .removeHandler(WRITE_TIMEOUT_HANDLER));
+
+        if (http.isHttp2()) {
+            httpClient = baseUrl.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
         }
+        return httpClient;
+    }
+
+    static WebClient webClient(WebClient.Builder builder, GatewayConfig.GatewayProperties props,
+                               String baseUrl, ConnectionProvider provider) {
         return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient(props, baseUrl, provider)))
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .baseUrl(baseUrl)
                 .build();
     }
+
+    private static String baseUrl(GatewayConfig.GatewayProperties props, String fallback) {
+        String baseUrl = props.getBaseUrl();
+        return baseUrl == null || baseUrl.isBlank() ? fallback : baseUrl;
+    }
 }
@@ -0,0 +1,27 @@
+package com.luna.pay.gateway.dto.asaas;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para resposta de listagem de cobranças no Asaas (GET /payments).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AsaasPaymentListResponse {
+
+    @JsonProperty("totalCount")
+    private Integer totalCount;
+
+    @JsonProperty("data")
+    private List<AsaasCreatePaymentResponse> data;
+}
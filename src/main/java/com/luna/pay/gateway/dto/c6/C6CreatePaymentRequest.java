@@ -36,6 +36,9 @@ public class C6CreatePaymentRequest {
     @JsonProperty("card_data")
     private C6CardData cardData;
 
+    @JsonProperty("external_reference")
+    private String externalReference; // id do pagamento no LunaPay
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,24 @@
+package com.luna.pay.gateway.dto.c6;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para resposta de listagem de pagamentos no C6 Bank (GET /payments).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class C6PaymentListResponse {
+
+    @JsonProperty("data")
+    private List<C6CreatePaymentResponse> data;
+}
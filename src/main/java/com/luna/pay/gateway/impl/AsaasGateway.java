@@ -2,21 +2,26 @@ package com.luna.pay.gateway.impl;
 
 import com.luna.pay.common.exception.GatewayException;
 import com.luna.pay.gateway.*;
+import com.luna.pay.gateway.asaas.customer.AsaasCustomerCache;
 import com.luna.pay.gateway.dto.asaas.*;
+import com.luna.pay.gateway.webhook.WebhookJsonFields;
+import com.luna.pay.gateway.webhook.WebhookSignatureVerifiers;
 import com.luna.pay.payment.PaymentStatus;
 import com.luna.pay.payment.dto.CreatePaymentRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.binary.Hex;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementação real do gateway Asaas com integração via API.
@@ -26,8 +31,13 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public class AsaasGateway implements PaymentGateway {
 
+    // event e payment.id (o "id" da raiz é o do evento, não o da cobrança)
+    private static final WebhookJsonFields WEBHOOK_FIELDS = WebhookJsonFields.of("event", "payment.id");
+
     private final GatewayConfig gatewayConfig;
     private final WebClient asaasWebClient;
+    private final AsaasCustomerCache asaasCustomerCache;
+    private final WebhookSignatureVerifiers webhookSignatureVerifiers;
 
     @Override
     public String getGatewayName() {
@@ -39,147 +49,248 @@ public class AsaasGateway implements PaymentGateway {
         return gatewayConfig.getAsaas().isEnabled();
     }
 
+    /**
+     * O Asaas não possui billingType de cartão de débito.
+     */
+    @Override
+    public Set<String> getSupportedPaymentMethods() {
+        return Set.of("PIX", "BOLETO", "CREDIT_CARD");
+    }
+
     @Override
     public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+        return createPaymentAsync(request, tenantId).block();
+    }
+
+    @Override
+    public Mono<GatewayPaymentResult> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
         log.info("[ASAAS] Criando pagamento real para tenant {}", tenantId);
-        log.debug("[ASAAS] API Key configurada: {}", gatewayConfig.getAsaas().getApiKey() != null ? 
-            gatewayConfig.getAsaas().getApiKey().substring(0, Math.min(20, gatewayConfig.getAsaas().getApiKey().length())) + "..." : "NULL");
 
         if (!isEnabled()) {
-            throw new GatewayException("ASAAS", "Gateway Asaas não está habilitado");
+            return Mono.error(new GatewayException("ASAAS", "Gateway Asaas não está habilitado"));
         }
 
-        try {
-            // 1. Cria ou obtém cliente no Asaas
-            String customerId = createOrGetCustomer(request, tenantId);
-
-            // 2. Mapeia tipo de pagamento
-            String billingType = mapPaymentMethodToBillingType(request.getPaymentMethod());
-
-            // 3. Cria cobrança
-            AsaasCreatePaymentRequest asaasRequest = AsaasCreatePaymentRequest.builder()
-                    .customer(customerId)
-                    .billingType(billingType)
-                    .value(request.getAmount())
-                    .dueDate(LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_DATE))
-                    .description(request.getDescription())
-                    .externalReference(tenantId)
-                    .build();
-
-            // Adiciona dados de cartão se aplicável
-            if (request.getCardData() != null && "CREDIT_CARD".equals(billingType)) {
-                asaasRequest.setCreditCard(AsaasCreatePaymentRequest.AsaasCreditCard.builder()
-                        .holderName(request.getCardData().getHolderName())
-                        .number(request.getCardData().getNumber())
-                        .expiryMonth(request.getCardData().getExpiryMonth())
-                        .expiryYear(request.getCardData().getExpiryYear())
-                        .ccv(request.getCardData().getCvv())
-                        .build());
-
-                if (request.getCustomer() != null) {
-                    asaasRequest.setCreditCardHolderInfo(AsaasCreatePaymentRequest.AsaasCreditCardHolderInfo.builder()
-                            .name(request.getCustomer().getName())
-                            .email(request.getCustomer().getEmail())
-                            .cpfCnpj(request.getCustomer().getCpfCnpj())
-                            .phone(request.getCustomer().getPhone())
-                            .postalCode("00000-000")
-                            .addressNumber("S/N")
-                            .build());
-                }
-            }
+        // 1. Mapeia tipo de pagamento
+        String billingType = mapPaymentMethodToBillingType(request.getPaymentMethod());
+
+        // 2. Cria ou obtém cliente no Asaas e 3. cria cobrança
+        return createOrGetCustomer(request, tenantId)
+                .flatMap(customerId -> {
+                    AsaasCreatePaymentRequest asaasRequest = buildPaymentRequest(request, tenantId, customerId, billingType);
+
+                    // POST para API Asaas
+                    return asaasWebClient.post()
+                            .uri("/payments")
+                            .header("access_token", gatewayConfig.getAsaas().getApiKey())
+                            .bodyValue(asaasRequest)
+                            .retrieve()
+                            .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                                    clientResponse -> clientResponse.bodyToMono(String.class)
+                                            .flatMap(errorBody -> Mono.error(new GatewayException("ASAAS", 
+                                                    "Erro na API Asaas: " + errorBody, clientResponse.statusCode().value()))))
+                            .bodyToMono(AsaasCreatePaymentResponse.class)
+                            .doOnNext(r -> log.debug("[ASAAS] Resposta pagamento: id={}, pixTxn={}, boletoUrl={}, identificationField={}",
+                                r.getId(),
+                                r.getPixTransaction() != null ? "present" : "null",
+                                r.getBankSlipUrl(),
+                                r.getIdentificationField()));
+                })
+                .filter(response -> response.getId() != null)
+                .switchIfEmpty(Mono.error(() -> new GatewayException("ASAAS", "Resposta inválida da API Asaas")))
+                .map(response -> {
+                    log.info("[ASAAS] Pagamento criado com sucesso: {}", response.getId());
+                    return toResult(response, billingType, request.getPaymentMethod(), request.getAmount());
+                })
+                .onErrorMap(e -> {
+                    log.error("[ASAAS] Erro ao criar pagamento", e);
+                    return new GatewayException("ASAAS", "Falha ao criar pagamento: " + e.getMessage(), e);
+                });
+    }
 
-            // POST para API Asaas
-            AsaasCreatePaymentResponse response = asaasWebClient.post()
-                    .uri("/payments")
-                    .header("access_token", gatewayConfig.getAsaas().getApiKey())
-                    .bodyValue(asaasRequest)
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> Mono.error(new GatewayException("ASAAS", 
-                                            "Erro na API Asaas: " + errorBody))))
-                    .bodyToMono(AsaasCreatePaymentResponse.class)
-                    .doOnNext(r -> log.debug("[ASAAS] Resposta pagamento: id={}, pixTxn={}, boletoUrl={}, identificationField={}",
-                        r.getId(),
-                        r.getPixTransaction() != null ? "present" : "null",
-                        r.getBankSlipUrl(),
-                        r.getIdentificationField()))
-                    .block();
+    /**
+     * Mapeia a cobrança do Asaas para o resultado do gateway.
+     */
+    private static GatewayPaymentResult toResult(AsaasCreatePaymentResponse response, String billingType,
+                                                 String paymentMethod, BigDecimal amount) {
+        GatewayPaymentResult.GatewayPaymentResultBuilder builder = GatewayPaymentResult.builder()
+                .success(true)
+                .gatewayPaymentId(response.getId())
+                .paymentMethod(paymentMethod)
+                .amount(amount);
+
+        // Adiciona dados específicos do método
+        if ("PIX".equals(billingType) && response.getPixTransaction() != null) {
+            builder.pixQrCode(response.getPixTransaction().getQrCode())
+                   .pixCopyPaste(response.getPixTransaction().getPayload())
+                   .pixExpiresAt(response.getPixTransaction().getExpirationDate());
+        } else if ("BOLETO".equals(billingType)) {
+            builder.boletoBarCode(response.getIdentificationField())
+                   .boletoUrl(response.getBankSlipUrl());
+        }
+        return builder.build();
+    }
 
-            if (response == null || response.getId() == null) {
-                throw new GatewayException("ASAAS", "Resposta inválida da API Asaas");
-            }
+    /**
+     * GET /payments?externalReference=: cobrança criada com o id do pagamento
+     * no LunaPay (ver {@link #buildPaymentRequest}).
+     */
+    @Override
+    public Optional<GatewayPaymentResult> findPaymentByExternalReference(String externalReference) {
+        log.info("[ASAAS] Buscando cobrança por externalReference: {}", externalReference);
+
+        return asaasWebClient.get()
+                .uri(uri -> uri.path("/payments").queryParam("externalReference", externalReference).build())
+                .header("access_token", gatewayConfig.getAsaas().getApiKey())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new GatewayException("ASAAS",
+                                        "Erro ao buscar cobrança: " + errorBody, clientResponse.statusCode().value()))))
+                .bodyToMono(AsaasPaymentListResponse.class)
+                .flatMap(response -> Mono.justOrEmpty(response.getData() == null ? null : response.getData().stream()
+                        .filter(payment -> payment.getId() != null)
+                        .findFirst()
+                        .orElse(null)))
+                .map(payment -> toResult(payment, payment.getBillingType(), payment.getBillingType(), payment.getValue()))
+                .onErrorMap(e -> {
+                    log.error("[ASAAS] Erro ao buscar cobrança: {}", e.getMessage(), e);
+                    return new GatewayException("ASAAS", "Falha ao buscar cobrança: " + e.getMessage(), e);
+                })
+                .blockOptional();
+    }
 
-            // Mapeia response para resultado
-            GatewayPaymentResult.GatewayPaymentResultBuilder builder = GatewayPaymentResult.builder()
-                    .success(true)
-                    .gatewayPaymentId(response.getId())
-                    .paymentMethod(request.getPaymentMethod())
-                    .amount(request.getAmount());
-
-            // Adiciona dados específicos do método
-            if ("PIX".equals(billingType) && response.getPixTransaction() != null) {
-                builder.pixQrCode(response.getPixTransaction().getQrCode())
-                       .pixCopyPaste(response.getPixTransaction().getPayload())
-                       .pixExpiresAt(response.getPixTransaction().getExpirationDate());
-            } else if ("BOLETO".equals(billingType)) {
-                builder.boletoBarCode(response.getIdentificationField())
-                       .boletoUrl(response.getBankSlipUrl());
+    private AsaasCreatePaymentRequest buildPaymentRequest(CreatePaymentRequest request, String tenantId,
+                                                          String customerId, String billingType) {
+        AsaasCreatePaymentRequest asaasRequest = AsaasCreatePaymentRequest.builder()
+                .customer(customerId)
+                .billingType(billingType)
+                .value(request.getAmount())
+                .dueDate(LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_DATE))
+                .description(request.getDescription())
+                // Id do pagamento, para a recuperação achar a cobrança; o lote não tem reserva e segue com o tenant
+                .externalReference(request.getExternalReference() != null ? request.getExternalReference() : tenantId)
+                .build();
+
+        // Adiciona dados de cartão se aplicável
+        if (request.getCardData() != null && "CREDIT_CARD".equals(billingType)) {
+            asaasRequest.setCreditCard(AsaasCreatePaymentRequest.AsaasCreditCard.builder()
+                    .holderName(request.getCardData().getHolderName())
+                    .number(request.getCardData().getNumber())
+                    .expiryMonth(request.getCardData().getExpiryMonth())
+                    .expiryYear(request.getCardData().getExpiryYear())
+                    .ccv(request.getCardData().getCvv())
+                    .build());
+
+            if (request.getCustomer() != null) {
+                asaasRequest.setCreditCardHolderInfo(AsaasCreatePaymentRequest.AsaasCreditCardHolderInfo.builder()
+                        .name(request.getCustomer().getName())
+                        .email(request.getCustomer().getEmail())
+                        .cpfCnpj(request.getCustomer().getCpfCnpj())
+                        .phone(request.getCustomer().getPhone())
+                        .postalCode("00000-000")
+                        .addressNumber("S/N")
+                        .build());
             }
-
-            log.info("[ASAAS] Pagamento criado com sucesso: {}", response.getId());
-            return builder.build();
-
-        } catch (Exception e) {
-            log.error("[ASAAS] Erro ao criar pagamento", e);
-            throw new GatewayException("ASAAS", "Falha ao criar pagamento: " + e.getMessage());
         }
+        return asaasRequest;
     }
 
-    private String createOrGetCustomer(CreatePaymentRequest request, String tenantId) {
+    private Mono<String> createOrGetCustomer(CreatePaymentRequest request, String tenantId) {
         if (request.getCustomer() == null) {
-            throw new GatewayException("ASAAS", "Dados do cliente são obrigatórios");
+            return Mono.error(new GatewayException("ASAAS", "Dados do cliente são obrigatórios"));
         }
 
-        try {
-            AsaasCustomerRequest customerRequest = AsaasCustomerRequest.builder()
-                    .name(request.getCustomer().getName())
-                    .cpfCnpj(request.getCustomer().getCpfCnpj())
-                    .email(request.getCustomer().getEmail())
-                    .phone(request.getCustomer().getPhone())
-                    .mobilePhone(request.getCustomer().getPhone())
-                    .externalReference(tenantId + "_" + request.getCustomer().getCpfCnpj())
-                    .build();
+        String cpfCnpj = normalizeDocument(request.getCustomer().getCpfCnpj());
+        if (cpfCnpj == null) {
+            return createCustomer(request, tenantId);
+        }
 
-            AsaasCustomerResponse response = asaasWebClient.post()
-                    .uri("/customers")
-                    .header("access_token", gatewayConfig.getAsaas().getApiKey())
-                    .bodyValue(customerRequest)
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> {
-                                        log.error("[ASAAS] Erro ao criar cliente - Body: {}", errorBody);
-                                        return Mono.error(new GatewayException("ASAAS", "Erro ao criar cliente: " + errorBody));
-                                    }))
-                                .bodyToMono(AsaasCustomerResponse.class)
-                                .doOnNext(r -> log.debug("[ASAAS] Resposta cliente: id={}, cpfCnpj={} email={}",
-                                    r.getId(),
-                                    customerRequest.getCpfCnpj(),
-                                    customerRequest.getEmail()))
-                    .block();
-
-            if (response == null || response.getId() == null) {
-                throw new GatewayException("ASAAS", "Resposta inválida ao criar cliente");
-            }
+        // Cliente recorrente: resolve sem chamada HTTP (memória, depois banco)
+        Optional<String> cached = asaasCustomerCache.findInMemory(tenantId, cpfCnpj);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
 
-            log.info("[ASAAS] Cliente criado com sucesso: {}", response.getId());
-            return response.getId();
+        String externalReference = tenantId + "_" + request.getCustomer().getCpfCnpj();
 
-        } catch (Exception e) {
-            log.error("[ASAAS] Erro ao criar/obter cliente: {}", e.getMessage(), e);
-            throw new GatewayException("ASAAS", "Falha ao criar cliente: " + e.getMessage());
-        }
+        return Mono.fromCallable(() -> asaasCustomerCache.findStored(tenantId, cpfCnpj))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .switchIfEmpty(Mono.defer(() -> findCustomerByExternalReference(externalReference)
+                        .switchIfEmpty(Mono.defer(() -> createCustomer(request, tenantId)))
+                        .flatMap(customerId -> Mono.fromRunnable(() -> asaasCustomerCache.store(tenantId, cpfCnpj, customerId))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .thenReturn(customerId))));
+    }
+
+    private Mono<String> findCustomerByExternalReference(String externalReference) {
+        return asaasWebClient.get()
+                .uri(uri -> uri.path("/customers").queryParam("externalReference", externalReference).build())
+                .header("access_token", gatewayConfig.getAsaas().getApiKey())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new GatewayException("ASAAS", 
+                                        "Erro ao buscar cliente: " + errorBody, clientResponse.statusCode().value()))))
+                .bodyToMono(AsaasCustomerListResponse.class)
+                .flatMap(response -> Mono.justOrEmpty(response.getData() == null ? null : response.getData().stream()
+                        .map(AsaasCustomerResponse::getId)
+                        .filter(Objects::nonNull)
+                        .findFirst()
+                        .orElse(null)))
+                .doOnNext(customerId -> log.info("[ASAAS] Cliente existente encontrado por externalReference: {}", customerId))
+                .onErrorMap(e -> {
+                    log.error("[ASAAS] Erro ao buscar cliente: {}", e.getMessage(), e);
+                    return new GatewayException("ASAAS", "Falha ao buscar cliente: " + e.getMessage(), e);
+                });
+    }
+
+    private Mono<String> createCustomer(CreatePaymentRequest request, String tenantId) {
+        AsaasCustomerRequest customerRequest = AsaasCustomerRequest.builder()
+                .name(request.getCustomer().getName())
+                .cpfCnpj(request.getCustomer().getCpfCnpj())
+                .email(request.getCustomer().getEmail())
+                .phone(request.getCustomer().getPhone())
+                .mobilePhone(request.getCustomer().getPhone())
+                .externalReference(tenantId + "_" + request.getCustomer().getCpfCnpj())
+                .build();
+
+        return asaasWebClient.post()
+                .uri("/customers")
+                .header("access_token", gatewayConfig.getAsaas().getApiKey())
+                .bodyValue(customerRequest)
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> {
+                                    log.error("[ASAAS] Erro ao criar cliente - Body: {}", errorBody);
+                                    return Mono.error(new GatewayException("ASAAS", "Erro ao criar cliente: " + errorBody,
+                                            clientResponse.statusCode().value()));
+                                }))
+                .bodyToMono(AsaasCustomerResponse.class)
+                .doOnNext(r -> log.debug("[ASAAS] Resposta cliente: id={}, cpfCnpj={} email={}",
+                        r.getId(),
+                        customerRequest.getCpfCnpj(),
+                        customerRequest.getEmail()))
+                .filter(response -> response.getId() != null)
+                .switchIfEmpty(Mono.error(() -> new GatewayException("ASAAS", "Resposta inválida ao criar cliente")))
+                .map(response -> {
+                    log.info("[ASAAS] Cliente criado com sucesso: {}", response.getId());
+                    return response.getId();
+                })
+                .onErrorMap(e -> {
+                    log.error("[ASAAS] Erro ao criar/obter cliente: {}", e.getMessage(), e);
+                    return new GatewayException("ASAAS", "Falha ao criar cliente: " + e.getMessage(), e);
+                });
+    }
+
+    /**
+     * Mantém apenas os dígitos do CPF/CNPJ para usar como chave do cache.
+     */
+    private static String normalizeDocument(String cpfCnpj) {
+        if (cpfCnpj == null) return null;
+        String digits = cpfCnpj.replaceAll("\\D", "");
+        return digits.isEmpty() ? null : digits;
     }
 
     private String mapPaymentMethodToBillingType(String paymentMethod) {
@@ -194,38 +305,34 @@ public class AsaasGateway implements PaymentGateway {
 
     @Override
     public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
-        log.info("[ASAAS] Consultando status do pagamento: {}", gatewayPaymentId);
-
-        try {
-            AsaasPaymentStatusResponse response = asaasWebClient.get()
-                    .uri("/payments/{id}", gatewayPaymentId)
-                    .header("access_token", gatewayConfig.getAsaas().getApiKey())
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> Mono.error(new GatewayException("ASAAS", 
-                                            "Erro ao consultar pagamento: " + errorBody))))
-                    .bodyToMono(AsaasPaymentStatusResponse.class)
-                    .block();
-
-            if (response == null) {
-                throw new GatewayException("ASAAS", "Resposta vazia da API Asaas");
-            }
-
-            // Mapeia status do Asaas para PaymentStatus interno
-            PaymentStatus internalStatus = mapAsaasStatus(response.getStatus());
+        return getPaymentStatusAsync(gatewayPaymentId).block();
+    }
 
-            return GatewayPaymentStatus.builder()
-                    .gatewayPaymentId(gatewayPaymentId)
-                    .status(internalStatus)
-                    .gatewayStatus(response.getStatus())
-                    .message("Status: " + response.getStatus())
-                    .build();
+    @Override
+    public Mono<GatewayPaymentStatus> getPaymentStatusAsync(String gatewayPaymentId) {
+        log.info("[ASAAS] Consultando status do pagamento: {}", gatewayPaymentId);
 
-        } catch (Exception e) {
-            log.error("[ASAAS] Erro ao consultar status", e);
-            throw new GatewayException("ASAAS", "Falha ao consultar status: " + e.getMessage());
-        }
+        return asaasWebClient.get()
+                .uri("/payments/{id}", gatewayPaymentId)
+                .header("access_token", gatewayConfig.getAsaas().getApiKey())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new GatewayException("ASAAS", 
+                                        "Erro ao consultar pagamento: " + errorBody, clientResponse.statusCode().value()))))
+                .bodyToMono(AsaasPaymentStatusResponse.class)
+                .switchIfEmpty(Mono.error(() -> new GatewayException("ASAAS", "Resposta vazia da API Asaas")))
+                .map(response -> GatewayPaymentStatus.builder()
+                        .gatewayPaymentId(gatewayPaymentId)
+                        // Mapeia status do Asaas para PaymentStatus interno
+                        .status(mapAsaasStatus(response.getStatus()))
+                        .gatewayStatus(response.getStatus())
+                        .message("Status: " + response.getStatus())
+                        .build())
+                .onErrorMap(e -> {
+                    log.error("[ASAAS] Erro ao consultar status", e);
+                    return new GatewayException("ASAAS", "Falha ao consultar status: " + e.getMessage(), e);
+                });
     }
 
     private PaymentStatus mapAsaasStatus(String asaasStatus) {
@@ -250,33 +357,16 @@ public class AsaasGateway implements PaymentGateway {
     }
 
     @Override
-    public boolean validateWebhook(String signature, String payload) {
-        log.info("[ASAAS] Validando assinatura do webhook");
-
-        try {
-            String secret = gatewayConfig.getAsaas().getWebhookSecret();
-            if (secret == null || secret.isBlank()) {
-                log.warn("[ASAAS] Webhook secret não configurado, pulando validação");
-                return true;
-            }
+    public Mono<Boolean> cancelPaymentAsync(String gatewayPaymentId) {
+        // Stub não faz I/O, então não precisa de scheduler elástico
+        return Mono.fromSupplier(() -> cancelPayment(gatewayPaymentId));
+    }
 
-            // Calcula HMAC-SHA256 do payload
-            Mac hmac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            hmac.init(secretKey);
-            byte[] hash = hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            
-            // Converte para hex
-            String calculatedSignature = Hex.encodeHexString(hash);
-
-            boolean valid = calculatedSignature.equalsIgnoreCase(signature);
-            log.info("[ASAAS] Assinatura válida: {}", valid);
-            return valid;
-
-        } catch (Exception e) {
-            log.error("[ASAAS] Erro ao validar webhook", e);
-            return false;
-        }
+    @Override
+    public boolean validateWebhook(String signature, byte[] payload) {
+        boolean valid = webhookSignatureVerifiers.verify(getGatewayName(), signature, payload);
+        log.debug("[ASAAS] Assinatura válida: {}", valid);
+        return valid;
     }
 
     @Override
@@ -284,33 +374,31 @@ public class AsaasGateway implements PaymentGateway {
         log.info("[ASAAS] Processando webhook");
 
         try {
-            // Parse JSON do webhook (estrutura simplificada - ajustar conforme docs Asaas)
-            if (payload.contains("\"payment\"") && payload.contains("\"event\"")) {
-                // Extrai ID do pagamento e evento
-                String paymentId = extractJsonValue(payload, "id");
-                String event = extractJsonValue(payload, "event");
-                
-                // Mapeia evento para status
-                PaymentStatus newStatus = mapEventToStatus(event);
-
+            String[] fields = WEBHOOK_FIELDS.read(payload);
+            String event = fields[0];
+            String paymentId = fields[1];
+            if (event == null || paymentId == null) {
                 return WebhookProcessingResult.builder()
-                        .success(true)
-                        .paymentId(paymentId)
-                        .newStatus(newStatus)
-                        .message("Webhook processado: " + event)
+                        .success(false)
+                        .message("Payload inválido")
                         .build();
             }
 
+            // Mapeia evento para status
+            PaymentStatus newStatus = mapEventToStatus(event);
+
             return WebhookProcessingResult.builder()
-                    .success(false)
-                    .message("Payload inválido")
+                    .success(true)
+                    .paymentId(paymentId)
+                    .newStatus(newStatus)
+                    .message("Webhook processado: " + event)
                     .build();
 
-        } catch (Exception e) {
-            log.error("[ASAAS] Erro ao processar webhook", e);
+        } catch (IOException e) {
+            log.warn("[ASAAS] Payload de webhook inválido: {}", e.getMessage());
             return WebhookProcessingResult.builder()
                     .success(false)
-                    .message("Erro: " + e.getMessage())
+                    .message("Payload inválido")
                     .build();
         }
     }
@@ -326,13 +414,4 @@ public class AsaasGateway implements PaymentGateway {
         };
     }
 
-    private String extractJsonValue(String json, String key) {
-        // Extração simplificada - usar ObjectMapper em produção
-        String search = "\"" + key + "\":\"";
-        int start = json.indexOf(search);
-        if (start == -1) return null;
-        start += search.length();
-        int end = json.indexOf("\"", start);
-        return end == -1 ? null : json.substring(start, end);
-    }
 }
@@ -3,18 +3,19 @@ package com.luna.pay.gateway.impl;
 import com.luna.pay.common.exception.GatewayException;
 import com.luna.pay.gateway.*;
 import com.luna.pay.gateway.dto.c6.*;
+import com.luna.pay.gateway.webhook.WebhookJsonFields;
+import com.luna.pay.gateway.webhook.WebhookSignatureVerifiers;
 import com.luna.pay.payment.PaymentStatus;
 import com.luna.pay.payment.dto.CreatePaymentRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.codec.binary.Hex;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Optional;
 
 /**
  * Implementação real do gateway C6 Bank com integração via API.
@@ -24,8 +25,11 @@ import java.nio.charset.StandardCharsets;
 @Slf4j
 public class C6Gateway implements PaymentGateway {
 
+    private static final WebhookJsonFields WEBHOOK_FIELDS = WebhookJsonFields.of("paymentId", "status");
+
     private final GatewayConfig gatewayConfig;
     private final WebClient c6WebClient;
+    private final WebhookSignatureVerifiers webhookSignatureVerifiers;
 
     @Override
     public String getGatewayName() {
@@ -39,128 +43,163 @@ public class C6Gateway implements PaymentGateway {
 
     @Override
     public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+        return createPaymentAsync(request, tenantId).block();
+    }
+
+    @Override
+    public Mono<GatewayPaymentResult> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
         log.info("[C6] Criando pagamento real para tenant {}", tenantId);
 
         if (!isEnabled()) {
-            throw new GatewayException("C6", "Gateway C6 não está habilitado");
+            return Mono.error(new GatewayException("C6", "Gateway C6 não está habilitado"));
         }
 
-        try {
-            // Mapeia request para DTO da API C6
-            C6CreatePaymentRequest.C6CreatePaymentRequestBuilder c6RequestBuilder = C6CreatePaymentRequest.builder()
-                    .amount(request.getAmount())
-                    .paymentMethod(request.getPaymentMethod())
-                    .pixExpirationMinutes(request.getPixExpirationMinutes());
-
-            // Adiciona dados do cliente se disponível
-            if (request.getCustomer() != null) {
-                c6RequestBuilder.customer(C6CreatePaymentRequest.C6Customer.builder()
-                        .name(request.getCustomer().getName())
-                        .email(request.getCustomer().getEmail())
-                        .document(request.getCustomer().getCpfCnpj())
-                        .phone(request.getCustomer().getPhone())
-                        .build());
-            }
-
-            C6CreatePaymentRequest c6Request = c6RequestBuilder.build();
-
-            // Adiciona dados de cartão se aplicável
-            if (request.getCardData() != null) {
-                c6Request.setCardData(C6CreatePaymentRequest.C6CardData.builder()
-                        .cardNumber(request.getCardData().getNumber())
-                        .holderName(request.getCardData().getHolderName())
-                        .expiryMonth(request.getCardData().getExpiryMonth())
-                        .expiryYear(request.getCardData().getExpiryYear())
-                        .cvv(request.getCardData().getCvv())
-                        .installments(1) // Default 1 parcela
-                        .build());
-            }
-
-            // Faz POST para API C6
-            C6CreatePaymentResponse response = c6WebClient.post()
-                    .uri("/payments")
-                    .header("Authorization", "Bearer " + gatewayConfig.getC6().getApiKey())
-                    .header("X-Tenant-ID", tenantId)
-                    .bodyValue(c6Request)
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> Mono.error(new GatewayException("C6", 
-                                            "Erro na API C6: " + errorBody))))
-                    .bodyToMono(C6CreatePaymentResponse.class)
-                    .block();
-
-            if (response == null || response.getPaymentId() == null) {
-                throw new GatewayException("C6", "Resposta inválida da API C6");
-            }
+        // Mapeia request para DTO da API C6
+        C6CreatePaymentRequest.C6CreatePaymentRequestBuilder c6RequestBuilder = C6CreatePaymentRequest.builder()
+                .amount(request.getAmount())
+                .paymentMethod(request.getPaymentMethod())
+                .pixExpirationMinutes(request.getPixExpirationMinutes())
+                .externalReference(request.getExternalReference());
+
+        // Adiciona dados do cliente se disponível
+        if (request.getCustomer() != null) {
+            c6RequestBuilder.customer(C6CreatePaymentRequest.C6Customer.builder()
+                    .name(request.getCustomer().getName())
+                    .email(request.getCustomer().getEmail())
+                    .document(request.getCustomer().getCpfCnpj())
+                    .phone(request.getCustomer().getPhone())
+                    .build());
+        }
 
-            // Mapeia response para resultado
-            GatewayPaymentResult.GatewayPaymentResultBuilder builder = GatewayPaymentResult.builder()
-                    .success(response.getStatus().equals("SUCCESS") || response.getStatus().equals("PENDING"))
-                    .gatewayPaymentId(response.getPaymentId())
-                    .paymentMethod(request.getPaymentMethod())
-                    .amount(request.getAmount());
-
-            // Adiciona dados específicos do método
-            if (response.getPixQrCode() != null) {
-                builder.pixQrCode(response.getPixQrCode())
-                       .pixCopyPaste(response.getPixCopyPaste())
-                       .pixQrCodeBase64(response.getPixQrCodeBase64())
-                       .pixExpiresAt(response.getPixExpiresAt());
-            }
-            if (response.getBoletoBarCode() != null) {
-                builder.boletoBarCode(response.getBoletoBarCode())
-                       .boletoUrl(response.getBoletoUrl())
-                       .boletoExpiresAt(response.getBoletoExpiresAt());
-            }
-            if (response.getAuthorizationCode() != null) {
-                builder.authorizationCode(response.getAuthorizationCode())
-                       .nsu(response.getNsu());
-            }
+        C6CreatePaymentRequest c6Request = c6RequestBuilder.build();
+
+        // Adiciona dados de cartão se aplicável
+        if (request.getCardData() != null) {
+            c6Request.setCardData(C6CreatePaymentRequest.C6CardData.builder()
+                    .cardNumber(request.getCardData().getNumber())
+                    .holderName(request.getCardData().getHolderName())
+                    .expiryMonth(request.getCardData().getExpiryMonth())
+                    .expiryYear(request.getCardData().getExpiryYear())
+                    .cvv(request.getCardData().getCvv())
+                    .installments(1) // Default 1 parcela
+                    .build());
+        }
 
-            log.info("[C6] Pagamento criado com sucesso: {}", response.getPaymentId());
-            return builder.build();
+        // Faz POST para API C6
+        return c6WebClient.post()
+                .uri("/payments")
+                .header("Authorization", "Bearer " + gatewayConfig.getC6().getApiKey())
+                .header("X-Tenant-ID", tenantId)
+                .bodyValue(c6Request)
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new GatewayException("C6", 
+                                        "Erro na API C6: " + errorBody, clientResponse.statusCode().value()))))
+                .bodyToMono(C6CreatePaymentResponse.class)
+                .filter(response -> response.getPaymentId() != null)
+                .switchIfEmpty(Mono.error(() -> new GatewayException("C6", "Resposta inválida da API C6")))
+                .map(response -> {
+                    log.info("[C6] Pagamento criado com sucesso: {}", response.getPaymentId());
+                    return toResult(response, request.getPaymentMethod(), request.getAmount());
+                })
+                .onErrorMap(e -> {
+                    log.error("[C6] Erro ao criar pagamento", e);
+                    return new GatewayException("C6", "Falha ao criar pagamento: " + e.getMessage(), e);
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("[C6] Erro ao criar pagamento", e);
-            throw new GatewayException("C6", "Falha ao criar pagamento: " + e.getMessage());
+    /**
+     * Mapeia o pagamento do C6 para o resultado do gateway.
+     */
+    private static GatewayPaymentResult toResult(C6CreatePaymentResponse response, String paymentMethod,
+                                                 BigDecimal amount) {
+        GatewayPaymentResult.GatewayPaymentResultBuilder builder = GatewayPaymentResult.builder()
+                .success("SUCCESS".equals(response.getStatus()) || "PENDING".equals(response.getStatus()))
+                .gatewayPaymentId(response.getPaymentId())
+                .paymentMethod(paymentMethod)
+                .amount(amount);
+
+        // Adiciona dados específicos do método
+        if (response.getPixQrCode() != null) {
+            builder.pixQrCode(response.getPixQrCode())
+                   .pixCopyPaste(response.getPixCopyPaste())
+                   .pixQrCodeBase64(response.getPixQrCodeBase64())
+                   .pixExpiresAt(response.getPixExpiresAt());
+        }
+        if (response.getBoletoBarCode() != null) {
+            builder.boletoBarCode(response.getBoletoBarCode())
+                   .boletoUrl(response.getBoletoUrl())
+                   .boletoExpiresAt(response.getBoletoExpiresAt());
         }
+        if (response.getAuthorizationCode() != null) {
+            builder.authorizationCode(response.getAuthorizationCode())
+                   .nsu(response.getNsu());
+        }
+        return builder.build();
     }
 
+    /**
+     * GET /payments?external_reference=: pagamento criado com o id do
+     * pagamento no LunaPay. Pagamentos recusados pelo C6 não contam como
+     * cobrança existente.
+     */
     @Override
-    public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
-        log.info("[C6] Consultando status do pagamento: {}", gatewayPaymentId);
-
-        try {
-            C6PaymentStatusResponse response = c6WebClient.get()
-                    .uri("/payments/{paymentId}", gatewayPaymentId)
-                    .header("Authorization", "Bearer " + gatewayConfig.getC6().getApiKey())
-                    .retrieve()
-                    .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                            clientResponse -> clientResponse.bodyToMono(String.class)
-                                    .flatMap(errorBody -> Mono.error(new GatewayException("C6", 
-                                            "Erro ao consultar pagamento: " + errorBody))))
-                    .bodyToMono(C6PaymentStatusResponse.class)
-                    .block();
-
-            if (response == null) {
-                throw new GatewayException("C6", "Resposta vazia da API C6");
-            }
+    public Optional<GatewayPaymentResult> findPaymentByExternalReference(String externalReference) {
+        log.info("[C6] Buscando pagamento por external_reference: {}", externalReference);
+
+        return c6WebClient.get()
+                .uri(uri -> uri.path("/payments").queryParam("external_reference", externalReference).build())
+                .header("Authorization", "Bearer " + gatewayConfig.getC6().getApiKey())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new GatewayException("C6",
+                                        "Erro ao buscar pagamento: " + errorBody, clientResponse.statusCode().value()))))
+                .bodyToMono(C6PaymentListResponse.class)
+                .flatMap(response -> Mono.justOrEmpty(response.getData() == null ? null : response.getData().stream()
+                        .filter(payment -> payment.getPaymentId() != null)
+                        .map(payment -> toResult(payment, payment.getPaymentMethod(), payment.getAmount()))
+                        .filter(GatewayPaymentResult::isSuccess)
+                        .findFirst()
+                        .orElse(null)))
+                .onErrorMap(e -> {
+                    log.error("[C6] Erro ao buscar pagamento", e);
+                    return new GatewayException("C6", "Falha ao buscar pagamento: " + e.getMessage(), e);
+                })
+                .blockOptional();
+    }
 
-            // Mapeia status do C6 para PaymentStatus interno
-            PaymentStatus internalStatus = mapC6Status(response.getStatus());
+    @Override
+    public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+        return getPaymentStatusAsync(gatewayPaymentId).block();
+    }
 
-            return GatewayPaymentStatus.builder()
-                    .gatewayPaymentId(gatewayPaymentId)
-                    .status(internalStatus)
-                    .gatewayStatus(response.getStatus())
-                    .message(response.getMessage())
-                    .build();
+    @Override
+    public Mono<GatewayPaymentStatus> getPaymentStatusAsync(String gatewayPaymentId) {
+        log.info("[C6] Consultando status do pagamento: {}", gatewayPaymentId);
 
-        } catch (Exception e) {
-            log.error("[C6] Erro ao consultar status", e);
-            throw new GatewayException("C6", "Falha ao consultar status: " + e.getMessage());
-        }
+        return c6WebClient.get()
+                .uri("/payments/{paymentId}", gatewayPaymentId)
+                .header("Authorization", "Bearer " + gatewayConfig.getC6().getApiKey())
+                .retrieve()
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        clientResponse -> clientResponse.bodyToMono(String.class)
+                                .flatMap(errorBody -> Mono.error(new GatewayException("C6", 
+                                        "Erro ao consultar pagamento: " + errorBody, clientResponse.statusCode().value()))))
+                .bodyToMono(C6PaymentStatusResponse.class)
+                .switchIfEmpty(Mono.error(() -> new GatewayException("C6", "Resposta vazia da API C6")))
+                .map(response -> GatewayPaymentStatus.builder()
+                        .gatewayPaymentId(gatewayPaymentId)
+                        // Mapeia status do C6 para PaymentStatus interno
+                        .status(mapC6Status(response.getStatus()))
+                        .gatewayStatus(response.getStatus())
+                        .message(response.getMessage())
+                        .build())
+                .onErrorMap(e -> {
+                    log.error("[C6] Erro ao consultar status", e);
+                    return new GatewayException("C6", "Falha ao consultar status: " + e.getMessage(), e);
+                });
     }
 
     private PaymentStatus mapC6Status(String c6Status) {
@@ -185,33 +224,16 @@ public class C6Gateway implements PaymentGateway {
     }
 
     @Override
-    public boolean validateWebhook(String signature, String payload) {
-        log.info("[C6] Validando assinatura do webhook");
-
-        try {
-            String secret = gatewayConfig.getC6().getWebhookSecret();
-            if (secret == null || secret.isBlank()) {
-                log.warn("[C6] Secret não configurado, pulando validação");
-                return true;
-            }
+    public Mono<Boolean> cancelPaymentAsync(String gatewayPaymentId) {
+        // Stub não faz I/O, então não precisa de scheduler elástico
+        return Mono.fromSupplier(() -> cancelPayment(gatewayPaymentId));
+    }
 
-            // Calcula HMAC-SHA256 do payload
-            Mac hmac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            hmac.init(secretKey);
-            byte[] hash = hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            
-            // Converte para hex
-            String calculatedSignature = Hex.encodeHexString(hash);
-
-            boolean valid = calculatedSignature.equalsIgnoreCase(signature);
-            log.info("[C6] Assinatura válida: {}", valid);
-            return valid;
-
-        } catch (Exception e) {
-            log.error("[C6] Erro ao validar webhook", e);
-            return false;
-        }
+    @Override
+    public boolean validateWebhook(String signature, byte[] payload) {
+        boolean valid = webhookSignatureVerifiers.verify(getGatewayName(), signature, payload);
+        log.debug("[C6] Assinatura válida: {}", valid);
+        return valid;
     }
 
     @Override
@@ -219,42 +241,29 @@ public class C6Gateway implements PaymentGateway {
         log.info("[C6] Processando webhook");
 
         try {
-            // Parse JSON do webhook (ajustar conforme estrutura real da API C6)
-            // Exemplo simplificado - implementar com Jackson ObjectMapper
-            if (payload.contains("\"paymentId\"") && payload.contains("\"status\"")) {
-                // Extrai paymentId (simplificado - usar ObjectMapper em produção)
-                String paymentId = extractJsonValue(payload, "paymentId");
-                String newStatus = extractJsonValue(payload, "status");
-
+            String[] fields = WEBHOOK_FIELDS.read(payload);
+            String paymentId = fields[0];
+            String newStatus = fields[1];
+            if (paymentId == null || newStatus == null) {
                 return WebhookProcessingResult.builder()
-                        .success(true)
-                        .paymentId(paymentId)
-                        .newStatus(mapC6Status(newStatus))
-                        .message("Webhook processado: " + newStatus)
+                        .success(false)
+                        .message("Payload inválido")
                         .build();
             }
 
             return WebhookProcessingResult.builder()
-                    .success(false)
-                    .message("Payload inválido")
+                    .success(true)
+                    .paymentId(paymentId)
+                    .newStatus(mapC6Status(newStatus))
+                    .message("Webhook processado: " + newStatus)
                     .build();
 
-        } catch (Exception e) {
-            log.error("[C6] Erro ao processar webhook", e);
+        } catch (IOException e) {
+            log.warn("[C6] Payload de webhook inválido: {}", e.getMessage());
             return WebhookProcessingResult.builder()
                     .success(false)
-                    .message("Erro: " + e.getMessage())
+                    .message("Payload inválido")
                     .build();
         }
     }
-
-    private String extractJsonValue(String json, String key) {
-        // Extração simplificada - usar ObjectMapper em produção
-        String search = "\"" + key + "\":\"";
-        int start = json.indexOf(search);
-        if (start == -1) return null;
-        start += search.length();
-        int end = json.indexOf("\"", start);
-        return end == -1 ? null : json.substring(start, end);
-    }
 }
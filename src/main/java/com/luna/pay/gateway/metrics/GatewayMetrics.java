@@ -0,0 +1,78 @@
+package com.luna.pay.gateway.metrics;
+
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.resilience.GatewayFailures;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas das chamadas aos gateways ({@link InstrumentedPaymentGateway}):
+ * - lunapay.gateway.requests{gateway, operation=create|status|lookup|cancel, method, outcome=success|error}
+ *   (histograma de latência)
+ * - lunapay.gateway.errors{gateway, operation, method, class} (classes de
+ *   {@link GatewayFailures#classify})
+ *
+ * "method" é o método de pagamento da criação, limitado aos aceitos pelo
+ * gateway (demais viram OTHER). Consulta, busca por referência e cancelamento
+ * não recebem o método e usam UNKNOWN.
+ */
+@Component
+public class GatewayMetrics {
+
+    static final String CREATE = "create";
+    static final String STATUS = "status";
+    static final String CANCEL = "cancel";
+    static final String LOOKUP = "lookup";
+
+    static final String UNKNOWN_METHOD = "UNKNOWN";
+    static final String OTHER_METHOD = "OTHER";
+
+    private final MeterRegistry meterRegistry;
+
+    public GatewayMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public PaymentGateway decorate(PaymentGateway gateway) {
+        if (gateway instanceof InstrumentedPaymentGateway) {
+            return gateway;
+        }
+        // Séries de sucesso já registradas: o scrape as mostra antes do primeiro pagamento
+        String name = gateway.getGatewayName();
+        gateway.getSupportedPaymentMethods().forEach(method -> timer(name, CREATE, method, "success"));
+        timer(name, STATUS, UNKNOWN_METHOD, "success");
+        timer(name, CANCEL, UNKNOWN_METHOD, "success");
+        return new InstrumentedPaymentGateway(gateway, this);
+    }
+
+    void recordSuccess(String gateway, String operation, String method, long nanos) {
+        timer(gateway, operation, method, "success").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordFailure(String gateway, String operation, String method, long nanos, Throwable error) {
+        timer(gateway, operation, method, "error").record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder("lunapay.gateway.errors")
+                .description("Falhas de chamadas a gateways, por classe")
+                .tag("gateway", gateway)
+                .tag("operation", operation)
+                .tag("method", method)
+                .tag("class", GatewayFailures.classify(error))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer timer(String gateway, String operation, String method, String outcome) {
+        return Timer.builder("lunapay.gateway.requests")
+                .description("Latência das chamadas a gateways, incluindo retentativas")
+                .tag("gateway", gateway)
+                .tag("operation", operation)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,129 @@
+package com.luna.pay.gateway.metrics;
+
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Decorador que mede as chamadas de I/O de um {@link PaymentGateway}
+ * (criação, consulta de status, busca por referência e cancelamento), nas
+ * versões bloqueante e reativa. Fica por fora da camada de resiliência: o
+ * tempo inclui as retentativas, e recusas locais (circuito aberto, bulkhead
+ * cheio) aparecem como classe de erro.
+ */
+class InstrumentedPaymentGateway implements PaymentGateway {
+
+    private final PaymentGateway delegate;
+    private final GatewayMetrics metrics;
+
+    InstrumentedPaymentGateway(PaymentGateway delegate, GatewayMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getGatewayName() {
+        return delegate.getGatewayName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public Set<String> getSupportedPaymentMethods() {
+        return delegate.getSupportedPaymentMethods();
+    }
+
+    @Override
+    public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+        return time(GatewayMetrics.CREATE, methodTag(request.getPaymentMethod()),
+                () -> delegate.createPayment(request, tenantId));
+    }
+
+    @Override
+    public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+        return time(GatewayMetrics.STATUS, GatewayMetrics.UNKNOWN_METHOD, () -> delegate.getPaymentStatus(gatewayPaymentId));
+    }
+
+    @Override
+    public Optional<GatewayPaymentResult> findPaymentByExternalReference(String externalReference) {
+        return time(GatewayMetrics.LOOKUP, GatewayMetrics.UNKNOWN_METHOD,
+                () -> delegate.findPaymentByExternalReference(externalReference));
+    }
+
+    @Override
+    public boolean cancelPayment(String gatewayPaymentId) {
+        return time(GatewayMetrics.CANCEL, GatewayMetrics.UNKNOWN_METHOD, () -> delegate.cancelPayment(gatewayPaymentId));
+    }
+
+    @Override
+    public Mono<GatewayPaymentResult> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
+        return time(GatewayMetrics.CREATE, methodTag(request.getPaymentMethod()),
+                delegate.createPaymentAsync(request, tenantId));
+    }
+
+    @Override
+    public Mono<GatewayPaymentStatus> getPaymentStatusAsync(String gatewayPaymentId) {
+        return time(GatewayMetrics.STATUS, GatewayMetrics.UNKNOWN_METHOD, delegate.getPaymentStatusAsync(gatewayPaymentId));
+    }
+
+    @Override
+    public Mono<Boolean> cancelPaymentAsync(String gatewayPaymentId) {
+        return time(GatewayMetrics.CANCEL, GatewayMetrics.UNKNOWN_METHOD, delegate.cancelPaymentAsync(gatewayPaymentId));
+    }
+
+    @Override
+    public boolean validateWebhook(String signature, byte[] payload) {
+        return delegate.validateWebhook(signature, payload);
+    }
+
+    @Override
+    public WebhookProcessingResult processWebhook(String payload) {
+        return delegate.processWebhook(payload);
+    }
+
+    private <T> T time(String operation, String method, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            metrics.recordSuccess(getGatewayName(), operation, method, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(getGatewayName(), operation, method, System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    private <T> Mono<T> time(String operation, String method, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(r -> metrics.recordSuccess(getGatewayName(), operation, method,
+                            System.nanoTime() - start))
+                    .doOnError(e -> metrics.recordFailure(getGatewayName(), operation, method,
+                            System.nanoTime() - start, e));
+        });
+    }
+
+    /**
+     * Método de pagamento como tag: apenas os aceitos pelo gateway, para que
+     * um valor arbitrário na requisição não crie séries novas.
+     */
+    private String methodTag(String paymentMethod) {
+        if (paymentMethod == null) {
+            return GatewayMetrics.UNKNOWN_METHOD;
+        }
+        String method = paymentMethod.toUpperCase(Locale.ROOT);
+        return delegate.getSupportedPaymentMethods().contains(method) ? method : GatewayMetrics.OTHER_METHOD;
+    }
+}
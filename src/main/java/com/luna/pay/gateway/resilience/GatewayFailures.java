@@ -0,0 +1,82 @@
+package com.luna.pay.gateway.resilience;
+
+import com.luna.pay.common.exception.GatewayException;
+import com.luna.pay.common.exception.GatewayNotEnabledException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classificação das falhas de chamadas aos gateways.
+ */
+public final class GatewayFailures {
+
+    private GatewayFailures() {
+    }
+
+    /**
+     * O gateway respondeu 4xx: a requisição é que está errada. Não conta para
+     * o circuit breaker e não é repetida.
+     */
+    public static boolean isClientError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof GatewayException ge && ge.isClientError()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A conexão não chegou a ser estabelecida, portanto a requisição não foi
+     * enviada: é seguro repetir mesmo operações que não são idempotentes.
+     */
+    public static boolean isConnectFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Falhas em que a cobrança com certeza não foi criada no gateway:
+     * recusa local (circuito aberto, bulkhead cheio, gateway desabilitado),
+     * falha de conexão ou 4xx. Timeouts e 5xx são ambíguos e ficam de fora.
+     */
+    public static boolean isChargeNotCreated(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof GatewayException ge && ge.isRejected() || t instanceof GatewayNotEnabledException) {
+                return true;
+            }
+        }
+        return isConnectFailure(error) || isClientError(error);
+    }
+
+    /**
+     * Classe da falha para métricas, de cardinalidade fixa: circuit_open,
+     * bulkhead_full, disabled, connect, timeout, client_error, server_error
+     * ou other (resposta inválida, erro de parse, etc.).
+     */
+    public static String classify(Throwable error) {
+        if (isConnectFailure(error)) {
+            return "connect";
+        }
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof GatewayException ge) {
+                if (GatewayException.CIRCUIT_OPEN.equals(ge.getErrorCode())) return "circuit_open";
+                if (GatewayException.BULKHEAD_FULL.equals(ge.getErrorCode())) return "bulkhead_full";
+                if (ge.isClientError()) return "client_error";
+                if (ge.getHttpStatus() != null && ge.getHttpStatus() >= 500) return "server_error";
+            } else if (t instanceof GatewayNotEnabledException) {
+                return "disabled";
+            } else if (t instanceof TimeoutException || t instanceof SocketTimeoutException
+                    || t instanceof io.netty.handler.timeout.TimeoutException) {
+                return "timeout";
+            }
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,113 @@
+package com.luna.pay.gateway.resilience;
+
+import com.luna.pay.gateway.GatewayConfig;
+import com.luna.pay.gateway.PaymentGateway;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Monta o circuit breaker, o bulkhead e o orçamento de retentativas de cada
+ * gateway a partir de payment.gateways.{nome}.resilience e devolve o gateway
+ * decorado ({@link ResilientPaymentGateway}).
+ *
+ * Métricas:
+ * - resilience4j.circuitbreaker.state / .calls / .failure.rate (tag "name")
+ * - resilience4j.bulkhead.available.concurrent.calls (tag "name")
+ * - lunapay.gateway.rejections{gateway, reason=circuit_open|bulkhead_full}
+ * - lunapay.gateway.retries{gateway, outcome=retried|budget_exhausted}
+ */
+@Component
+@Slf4j
+public class GatewayResilience {
+
+    private final GatewayConfig gatewayConfig;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+
+    public GatewayResilience(GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        this.gatewayConfig = gatewayConfig;
+        this.meterRegistry = meterRegistry;
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    public PaymentGateway decorate(PaymentGateway gateway) {
+        if (gateway instanceof ResilientPaymentGateway) {
+            return gateway;
+        }
+        String name = gateway.getGatewayName();
+        GatewayConfig.GatewayProperties props = gatewayConfig.getGateways()
+                .getOrDefault(name.toLowerCase(Locale.ROOT), new GatewayConfig.GatewayProperties());
+        GatewayConfig.ResilienceProperties resilience = props.getResilience();
+
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(name, circuitBreakerConfig(resilience.getCircuitBreaker()));
+        Bulkhead bulkhead = bulkheads.bulkhead(name, bulkheadConfig(resilience.getBulkhead()));
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("[{}] Circuit breaker: {}", name, event.getStateTransition()));
+
+        GatewayConfig.RetryProperties retry = resilience.getRetry();
+        return new ResilientPaymentGateway(gateway, circuitBreaker, bulkhead,
+                new RetryBudget(retry.getBudgetRatio(), retry.getBudgetMaxTokens()),
+                retry.getMaxAttempts(), retry.getBackoff(),
+                rejections(name, "circuit_open"), rejections(name, "bulkhead_full"),
+                retries(name, "retried"), retries(name, "budget_exhausted"));
+    }
+
+    public CircuitBreaker.State circuitState(String gatewayName) {
+        return circuitBreakers.find(gatewayName)
+                .map(CircuitBreaker::getState)
+                .orElse(CircuitBreaker.State.CLOSED);
+    }
+
+    private static CircuitBreakerConfig circuitBreakerConfig(GatewayConfig.CircuitBreakerProperties props) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(props.getFailureRateThreshold())
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(props.getSlidingWindowSize())
+                .minimumNumberOfCalls(props.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(props.getWaitDurationInOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(false)
+                .permittedNumberOfCallsInHalfOpenState(props.getPermittedCallsInHalfOpenState())
+                .slowCallDurationThreshold(props.getSlowCallDurationThreshold())
+                .slowCallRateThreshold(props.getSlowCallRateThreshold())
+                // 4xx é erro de quem chama, não do gateway
+                .ignoreException(GatewayFailures::isClientError)
+                .build();
+    }
+
+    private static BulkheadConfig bulkheadConfig(GatewayConfig.BulkheadProperties props) {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(props.getMaxConcurrentCalls())
+                .maxWaitDuration(props.getMaxWait())
+                .build();
+    }
+
+    private Counter rejections(String gateway, String reason) {
+        return Counter.builder("lunapay.gateway.rejections")
+                .description("Chamadas a gateways recusadas sem I/O")
+                .tag("gateway", gateway)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private Counter retries(String gateway, String outcome) {
+        return Counter.builder("lunapay.gateway.retries")
+                .description("Retentativas de chamadas a gateways")
+                .tag("gateway", gateway)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,208 @@
+package com.luna.pay.gateway.resilience;
+
+import com.luna.pay.common.exception.GatewayException;
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Decorador que protege as chamadas de um {@link PaymentGateway} com
+ * bulkhead, circuit breaker e retentativas limitadas por orçamento.
+ *
+ * - bulkhead cheio ou circuito aberto: falha imediata com GatewayException
+ *   (errorCode BULKHEAD_FULL / CIRCUIT_OPEN), sem esperar o timeout do gateway
+ * - consulta de status e busca por referência (idempotentes): repetidas em
+ *   qualquer falha que não seja 4xx
+ * - criação e cancelamento: repetidos apenas se a conexão nem foi aberta,
+ *   para nunca gerar cobrança em duplicidade
+ *
+ * Validação e processamento de webhooks não fazem I/O e não são protegidos.
+ */
+@Slf4j
+class ResilientPaymentGateway implements PaymentGateway {
+
+    private final PaymentGateway delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final RetryBudget retryBudget;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadFullRejections;
+    private final Counter retries;
+    private final Counter retriesDenied;
+
+    ResilientPaymentGateway(PaymentGateway delegate, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                            RetryBudget retryBudget, int maxAttempts, Duration backoff,
+                            Counter circuitOpenRejections, Counter bulkheadFullRejections,
+                            Counter retries, Counter retriesDenied) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.retryBudget = retryBudget;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.circuitOpenRejections = circuitOpenRejections;
+        this.bulkheadFullRejections = bulkheadFullRejections;
+        this.retries = retries;
+        this.retriesDenied = retriesDenied;
+    }
+
+    @Override
+    public String getGatewayName() {
+        return delegate.getGatewayName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public Set<String> getSupportedPaymentMethods() {
+        return delegate.getSupportedPaymentMethods();
+    }
+
+    @Override
+    public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+        return call(() -> delegate.createPayment(request, tenantId), GatewayFailures::isConnectFailure);
+    }
+
+    @Override
+    public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+        return call(() -> delegate.getPaymentStatus(gatewayPaymentId), this::isRetryableRead);
+    }
+
+    @Override
+    public Optional<GatewayPaymentResult> findPaymentByExternalReference(String externalReference) {
+        return call(() -> delegate.findPaymentByExternalReference(externalReference), this::isRetryableRead);
+    }
+
+    @Override
+    public boolean cancelPayment(String gatewayPaymentId) {
+        return call(() -> delegate.cancelPayment(gatewayPaymentId), GatewayFailures::isConnectFailure);
+    }
+
+    @Override
+    public Mono<GatewayPaymentResult> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
+        return protect(() -> delegate.createPaymentAsync(request, tenantId), GatewayFailures::isConnectFailure);
+    }
+
+    @Override
+    public Mono<GatewayPaymentStatus> getPaymentStatusAsync(String gatewayPaymentId) {
+        return protect(() -> delegate.getPaymentStatusAsync(gatewayPaymentId), this::isRetryableRead);
+    }
+
+    @Override
+    public Mono<Boolean> cancelPaymentAsync(String gatewayPaymentId) {
+        return protect(() -> delegate.cancelPaymentAsync(gatewayPaymentId), GatewayFailures::isConnectFailure);
+    }
+
+    @Override
+    public boolean validateWebhook(String signature, byte[] payload) {
+        return delegate.validateWebhook(signature, payload);
+    }
+
+    @Override
+    public WebhookProcessingResult processWebhook(String payload) {
+        return delegate.processWebhook(payload);
+    }
+
+    private <T> T call(Supplier<T> supplier, Predicate<Throwable> retryable) {
+        retryBudget.recordCall();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return bulkhead.executeSupplier(circuitBreaker.decorateSupplier(supplier));
+            } catch (RuntimeException e) {
+                if (!shouldRetry(e, attempt, retryable)) {
+                    throw translate(e);
+                }
+                sleep(backoffFor(attempt));
+            }
+        }
+    }
+
+    private <T> Mono<T> protect(Supplier<Mono<T>> call, Predicate<Throwable> retryable) {
+        return Mono.defer(() -> {
+                    retryBudget.recordCall();
+                    return Mono.defer(call)
+                            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                            .transformDeferred(BulkheadOperator.of(bulkhead))
+                            .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                                Throwable failure = signal.failure();
+                                int attempt = (int) signal.totalRetries() + 1;
+                                return shouldRetry(failure, attempt, retryable)
+                                        ? Mono.delay(backoffFor(attempt))
+                                        : Mono.error(failure);
+                            })));
+                })
+                .onErrorMap(this::translate);
+    }
+
+    private boolean shouldRetry(Throwable error, int attempt, Predicate<Throwable> retryable) {
+        if (attempt >= maxAttempts
+                || error instanceof CallNotPermittedException
+                || error instanceof BulkheadFullException
+                || !retryable.test(error)) {
+            return false;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            retriesDenied.increment();
+            return false;
+        }
+        retries.increment();
+        log.debug("[{}] Repetindo chamada (tentativa {}): {}", getGatewayName(), attempt + 1, error.getMessage());
+        return true;
+    }
+
+    private boolean isRetryableRead(Throwable error) {
+        return !GatewayFailures.isClientError(error);
+    }
+
+    private Duration backoffFor(int attempt) {
+        return backoff.multipliedBy(1L << Math.min(attempt - 1, 10));
+    }
+
+    private RuntimeException translate(Throwable error) {
+        String gateway = getGatewayName();
+        if (error instanceof CallNotPermittedException) {
+            circuitOpenRejections.increment();
+            return new GatewayException(gateway, "Gateway " + gateway + " indisponível (circuit breaker aberto)",
+                    GatewayException.CIRCUIT_OPEN);
+        }
+        if (error instanceof BulkheadFullException) {
+            bulkheadFullRejections.increment();
+            return new GatewayException(gateway, "Gateway " + gateway + " no limite de chamadas simultâneas",
+                    GatewayException.BULKHEAD_FULL);
+        }
+        return error instanceof RuntimeException re ? re : new GatewayException(gateway, error.getMessage(), error);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando nova tentativa", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.luna.pay.gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orçamento de retentativas de um gateway (token bucket).
+ *
+ * Cada chamada credita {@code ratio} de uma retentativa e cada retentativa
+ * consome uma inteira. Com o gateway fora do ar, as retentativas ficam
+ * limitadas a essa fração do tráfego em vez de multiplicá-lo.
+ */
+class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.deposit = Math.max(0, Math.round(ratio * SCALE));
+        this.capacity = Math.max(0, maxTokens) * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void recordCall() {
+        if (deposit == 0) return;
+        balance.updateAndGet(current -> Math.min(capacity, current + deposit));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    double available() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,62 @@
+package com.luna.pay.gateway.routing;
+
+import java.util.Arrays;
+
+/**
+ * Janela deslizante com as últimas N chamadas de um gateway (latência e
+ * sucesso), de onde saem o p95 e a taxa de erro usados no roteamento.
+ *
+ * Buffer circular pré-alocado: registrar não aloca. O p95 ordena uma cópia
+ * de no máximo N valores, barato para as centenas de amostras usadas aqui.
+ */
+class GatewayCallWindow {
+
+    private final long[] latenciesMs;
+    private final boolean[] failed;
+    private int next;
+    private int size;
+    private int failures;
+
+    GatewayCallWindow(int capacity) {
+        this.latenciesMs = new long[Math.max(1, capacity)];
+        this.failed = new boolean[latenciesMs.length];
+    }
+
+    synchronized void record(long latencyMs, boolean success) {
+        if (size == latenciesMs.length) {
+            if (failed[next]) failures--;
+        } else {
+            size++;
+        }
+        latenciesMs[next] = latencyMs;
+        failed[next] = !success;
+        if (!success) failures++;
+        next = (next + 1) % latenciesMs.length;
+    }
+
+    /**
+     * Descarta as amostras: o gateway voltou e o histórico de falhas não vale mais.
+     */
+    synchronized void clear() {
+        next = 0;
+        size = 0;
+        failures = 0;
+    }
+
+    synchronized Snapshot snapshot() {
+        if (size == 0) {
+            return Snapshot.EMPTY;
+        }
+        long[] sorted = Arrays.copyOf(latenciesMs, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(0.95 * size) - 1;
+        return new Snapshot(size, sorted[Math.max(0, index)], (double) failures / size);
+    }
+
+    /**
+     * @param p95Ms 0 quando ainda não há amostras
+     */
+    record Snapshot(int samples, long p95Ms, double errorRate) {
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0);
+    }
+}
@@ -0,0 +1,300 @@
+package com.luna.pay.gateway.routing;
+
+import com.luna.pay.common.exception.GatewayException;
+import com.luna.pay.common.exception.GatewayNotEnabledException;
+import com.luna.pay.gateway.GatewayConfig;
+import com.luna.pay.gateway.GatewayDescriptor;
+import com.luna.pay.gateway.GatewayHealth;
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.resilience.GatewayFailures;
+import com.luna.pay.gateway.resilience.GatewayResilience;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escolhe o gateway da criação de pagamento e faz failover.
+ *
+ * Com gateway explícito, usa apenas ele. Com "AUTO", ordena os gateways
+ * habilitados que aceitam o método de pagamento por:
+ * 1. disponíveis primeiro (saúde diferente de DOWN, circuito não aberto e
+ *    taxa de erro na janela até payment.routing.max-error-rate)
+ * 2. preferência do tenant (payment.routing.tenant-preferences, ou
+ *    payment.routing.default-preference)
+ * 3. menor p95 de latência nas últimas payment.routing.window-size chamadas
+ *
+ * Um gateway indisponível só recebe tráfego da própria rota AUTO, então não
+ * teria como se recuperar: a cada payment.routing.probe-interval uma criação
+ * AUTO o tenta primeiro (sonda; com o circuito aberto e o tempo de espera
+ * vencido, é a chamada que o leva a meio-aberto). Sucesso zera a janela e
+ * devolve o gateway à ordem normal; recusa sem cobrança segue por failover.
+ *
+ * Se a chamada falha de um jeito que garante que nenhuma cobrança foi criada
+ * (ver {@link GatewayFailures#isChargeNotCreated}), tenta o próximo da fila.
+ * Timeouts e 5xx não disparam failover: a cobrança pode existir no gateway.
+ *
+ * Métricas:
+ * - lunapay.gateway.routing.decisions{gateway, reason=explicit|preferred|fastest|probe|failover}
+ * - lunapay.gateway.routing.failovers{gateway} (gateway que falhou)
+ * - lunapay.gateway.routing.latency.p95{gateway} e .error.rate{gateway}
+ */
+@Component
+@Slf4j
+public class GatewayRouter {
+
+    public static final String AUTO = "AUTO";
+
+    private final GatewayRegistry gatewayRegistry;
+    private final GatewayResilience resilience;
+    private final GatewayConfig.RoutingProperties routing;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GatewayCallWindow> windows;
+    private final Map<String, Counter> failovers;
+    private final Map<String, AtomicLong> nextProbeAt;
+
+    public GatewayRouter(GatewayRegistry gatewayRegistry, GatewayResilience resilience,
+                         GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        this.gatewayRegistry = gatewayRegistry;
+        this.resilience = resilience;
+        this.routing = gatewayConfig.getRouting();
+        this.meterRegistry = meterRegistry;
+
+        Map<String, GatewayCallWindow> windowByName = new HashMap<>();
+        Map<String, Counter> failoverByName = new HashMap<>();
+        Map<String, AtomicLong> probeByName = new HashMap<>();
+        for (PaymentGateway gateway : gatewayRegistry.getAll()) {
+            String name = gateway.getGatewayName();
+            GatewayCallWindow window = new GatewayCallWindow(routing.getWindowSize());
+            windowByName.put(name, window);
+            probeByName.put(name, new AtomicLong(System.nanoTime() + routing.getProbeInterval().toNanos()));
+            failoverByName.put(name, Counter.builder("lunapay.gateway.routing.failovers")
+                    .description("Criações que falharam sem gerar cobrança e seguiram para outro gateway")
+                    .tag("gateway", name)
+                    .register(meterRegistry));
+            Gauge.builder("lunapay.gateway.routing.latency.p95", window, w -> w.snapshot().p95Ms())
+                    .description("p95 de latência (ms) das últimas chamadas de criação")
+                    .tag("gateway", name)
+                    .register(meterRegistry);
+            Gauge.builder("lunapay.gateway.routing.error.rate", window, w -> w.snapshot().errorRate())
+                    .description("Taxa de erro das últimas chamadas de criação")
+                    .tag("gateway", name)
+                    .register(meterRegistry);
+        }
+        this.windows = Map.copyOf(windowByName);
+        this.failovers = Map.copyOf(failoverByName);
+        this.nextProbeAt = Map.copyOf(probeByName);
+    }
+
+    public static boolean isAuto(String gateway) {
+        return AUTO.equalsIgnoreCase(gateway);
+    }
+
+    /**
+     * Cria a cobrança no primeiro gateway da rota, seguindo para os próximos
+     * enquanto as falhas garantirem que nada foi criado.
+     */
+    public RoutedPayment createPayment(CreatePaymentRequest request, String tenantId) {
+        return createPayment(route(request, tenantId), request, tenantId);
+    }
+
+    /**
+     * Como {@link #createPayment(CreatePaymentRequest, String)}, com a rota já
+     * resolvida por {@link #route}.
+     */
+    public RoutedPayment createPayment(Route route, CreatePaymentRequest request, String tenantId) {
+        for (int attempt = 0; ; attempt++) {
+            PaymentGateway gateway = route.gateways().get(attempt);
+            decision(gateway, route.reasonFor(attempt));
+            long start = System.nanoTime();
+            try {
+                GatewayPaymentResult result = gateway.createPayment(request, tenantId);
+                recordSuccess(gateway, start);
+                return new RoutedPayment(gateway.getGatewayName(), result);
+            } catch (RuntimeException e) {
+                recordFailure(gateway, start, e);
+                if (!canFailOver(route, attempt, e)) {
+                    throw e;
+                }
+                failover(route, attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Versão não bloqueante de {@link #createPayment}.
+     */
+    public Mono<RoutedPayment> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
+        return Mono.fromCallable(() -> route(request, tenantId))
+                .flatMap(route -> createPaymentAsync(route, request, tenantId));
+    }
+
+    /**
+     * Versão não bloqueante de {@link #createPayment(Route, CreatePaymentRequest, String)}.
+     */
+    public Mono<RoutedPayment> createPaymentAsync(Route route, CreatePaymentRequest request, String tenantId) {
+        return attempt(route, 0, request, tenantId);
+    }
+
+    private Mono<RoutedPayment> attempt(Route route, int attempt, CreatePaymentRequest request, String tenantId) {
+        PaymentGateway gateway = route.gateways().get(attempt);
+        return Mono.defer(() -> {
+                    decision(gateway, route.reasonFor(attempt));
+                    long start = System.nanoTime();
+                    return gateway.createPaymentAsync(request, tenantId)
+                            .doOnNext(result -> recordSuccess(gateway, start))
+                            .doOnError(e -> recordFailure(gateway, start, e));
+                })
+                .map(result -> new RoutedPayment(gateway.getGatewayName(), result))
+                .onErrorResume(e -> canFailOver(route, attempt, e), e -> {
+                    failover(route, attempt, e);
+                    return attempt(route, attempt + 1, request, tenantId);
+                });
+    }
+
+    /**
+     * Gateways a tentar, em ordem. Falha sem efeito colateral para gateway
+     * desconhecido, desabilitado ou AUTO sem candidatos.
+     */
+    public Route route(CreatePaymentRequest request, String tenantId) {
+        if (!isAuto(request.getGateway())) {
+            return new Route(List.of(gatewayRegistry.require(request.getGateway())), "explicit");
+        }
+
+        List<String> preference = routing.getTenantPreferences()
+                .getOrDefault(tenantId, routing.getDefaultPreference());
+        List<Candidate> candidates = gatewayRegistry.describeAll().stream()
+                .filter(GatewayDescriptor::enabled)
+                .filter(descriptor -> descriptor.supports(request.getPaymentMethod()))
+                .map(descriptor -> candidate(descriptor, preference))
+                .sorted(Comparator.comparing(Candidate::probe).reversed()
+                        .thenComparing(Comparator.comparing(Candidate::available).reversed())
+                        .thenComparingInt(Candidate::preferenceRank)
+                        .thenComparingLong(Candidate::p95Ms))
+                .toList();
+
+        if (candidates.isEmpty()) {
+            throw new GatewayNotEnabledException(AUTO + " (nenhum gateway habilitado aceita "
+                    + request.getPaymentMethod() + ")");
+        }
+        Candidate first = candidates.get(0);
+        String reason = first.probe() ? "probe"
+                : first.available() && first.preferenceRank() < Integer.MAX_VALUE ? "preferred" : "fastest";
+        log.debug("Rota AUTO para tenant {} ({}): {}", tenantId, request.getPaymentMethod(), candidates);
+        return new Route(candidates.stream().map(c -> gatewayRegistry.require(c.name())).toList(), reason);
+    }
+
+    private Candidate candidate(GatewayDescriptor descriptor, List<String> preference) {
+        String name = descriptor.name();
+        GatewayCallWindow.Snapshot stats = window(name).snapshot();
+        boolean available = descriptor.health() != GatewayHealth.Status.DOWN
+                && resilience.circuitState(name) != CircuitBreaker.State.OPEN
+                && stats.errorRate() <= routing.getMaxErrorRate();
+        int rank = indexOfIgnoreCase(preference, name);
+        return new Candidate(name, available, probeDue(name, available),
+                rank < 0 ? Integer.MAX_VALUE : rank, stats.p95Ms());
+    }
+
+    /**
+     * Enquanto disponível o prazo da sonda fica sempre um intervalo à frente;
+     * indisponível, só uma rota por intervalo ganha a sonda.
+     */
+    private boolean probeDue(String name, boolean available) {
+        AtomicLong next = nextProbeAt.get(name);
+        long now = System.nanoTime();
+        long interval = routing.getProbeInterval().toNanos();
+        if (available) {
+            next.set(now + interval);
+            return false;
+        }
+        long due = next.get();
+        return now - due >= 0 && next.compareAndSet(due, now + interval);
+    }
+
+    private boolean canFailOver(Route route, int attempt, Throwable error) {
+        return attempt + 1 < route.gateways().size() && GatewayFailures.isChargeNotCreated(error);
+    }
+
+    private void failover(Route route, int attempt, Throwable error) {
+        String from = route.gateways().get(attempt).getGatewayName();
+        String to = route.gateways().get(attempt + 1).getGatewayName();
+        failovers.get(from).increment();
+        log.warn("Failover de criação {} -> {}: {}", from, to, error.getMessage());
+    }
+
+    private void recordSuccess(PaymentGateway gateway, long startNanos) {
+        gatewayRegistry.recordSuccess(gateway.getGatewayName());
+        GatewayCallWindow window = window(gateway.getGatewayName());
+        if (window.snapshot().errorRate() > routing.getMaxErrorRate()) {
+            // Sonda (ou chamada explícita) deu certo: as falhas antigas não o mantêm fora da rota
+            window.clear();
+        }
+        window.record(elapsedMs(startNanos), true);
+    }
+
+    private void recordFailure(PaymentGateway gateway, long startNanos, Throwable error) {
+        // 4xx são dados ruins do tenant, não falha do gateway (como no circuit breaker)
+        if (GatewayFailures.isClientError(error)) {
+            return;
+        }
+        gatewayRegistry.recordFailure(gateway.getGatewayName(), error);
+        // Recusas locais não chegaram ao gateway: não dizem nada sobre a latência dele
+        if (!(error instanceof GatewayException ge && ge.isRejected())) {
+            window(gateway.getGatewayName()).record(elapsedMs(startNanos), false);
+        }
+    }
+
+    private void decision(PaymentGateway gateway, String reason) {
+        Counter.builder("lunapay.gateway.routing.decisions")
+                .description("Gateways escolhidos para criação de pagamento, por motivo")
+                .tag("gateway", gateway.getGatewayName())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private GatewayCallWindow window(String name) {
+        return windows.get(name);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static int indexOfIgnoreCase(List<String> names, String name) {
+        String upper = name.toUpperCase(Locale.ROOT);
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).toUpperCase(Locale.ROOT).equals(upper)) return i;
+        }
+        return -1;
+    }
+
+    public record Route(List<PaymentGateway> gateways, String reason) {
+
+        /**
+         * Gateway da primeira tentativa.
+         */
+        public String primary() {
+            return gateways.get(0).getGatewayName();
+        }
+
+        String reasonFor(int attempt) {
+            return attempt == 0 ? reason : "failover";
+        }
+    }
+
+    private record Candidate(String name, boolean available, boolean probe, int preferenceRank, long p95Ms) {}
+}
@@ -0,0 +1,8 @@
+package com.luna.pay.gateway.routing;
+
+import com.luna.pay.gateway.GatewayPaymentResult;
+
+/**
+ * Resultado da criação roteada: o gateway que efetivamente criou a cobrança.
+ */
+public record RoutedPayment(String gateway, GatewayPaymentResult result) {}
@@ -0,0 +1,123 @@
+package com.luna.pay.gateway.webhook;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Extrai campos específicos de payloads de webhook numa única passada do
+ * JsonParser (streaming) do Jackson, sem montar árvore nem DTO.
+ *
+ * Os campos são caminhos a partir da raiz ("event", "payment.id"), compilados
+ * uma vez numa árvore de nomes. Subárvores que não levam a nenhum caminho são
+ * puladas com skipChildren, e a leitura para assim que todos os campos foram
+ * encontrados. Só os valores encontrados geram Strings; nomes de campo vêm da
+ * tabela de símbolos do parser.
+ *
+ * Um caminho casa apenas na posição exata: "id" é o id da raiz, não o de um
+ * objeto aninhado. Se a chave se repete, vale a primeira ocorrência.
+ * Thread-safe.
+ */
+public final class WebhookJsonFields {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Node root = new Node();
+    private final int size;
+
+    private WebhookJsonFields(String... paths) {
+        this.size = paths.length;
+        for (int i = 0; i < paths.length; i++) {
+            Node node = root;
+            for (String name : paths[i].split("\\.")) {
+                node = node.child(name);
+            }
+            if (node.index >= 0) {
+                throw new IllegalArgumentException("Caminho repetido: " + paths[i]);
+            }
+            node.index = i;
+        }
+    }
+
+    public static WebhookJsonFields of(String... paths) {
+        return new WebhookJsonFields(paths);
+    }
+
+    /**
+     * @return os valores na ordem dos caminhos; null para campos ausentes, nulos
+     *         ou que não são escalares
+     * @throws IOException se o payload não for um objeto JSON válido até o
+     *                     ponto lido
+     */
+    public String[] read(byte[] payload) throws IOException {
+        try (JsonParser parser = JSON.createParser(payload)) {
+            return read(parser);
+        }
+    }
+
+    public String[] read(String payload) throws IOException {
+        try (JsonParser parser = JSON.createParser(payload)) {
+            return read(parser);
+        }
+    }
+
+    private String[] read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Payload de webhook não é um objeto JSON");
+        }
+        String[] values = new String[size];
+        readObject(parser, root, values, new int[]{size});
+        return values;
+    }
+
+    /**
+     * Lê o objeto corrente até o END_OBJECT correspondente.
+     *
+     * @return true se todos os campos já foram encontrados (leitura encerrada)
+     */
+    private static boolean readObject(JsonParser parser, Node node, String[] values, int[] remaining)
+            throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            Node child = node.children == null ? null : node.children.get(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+            } else if (value == JsonToken.START_OBJECT && child.children != null) {
+                if (readObject(parser, child, values, remaining)) {
+                    return true;
+                }
+            } else if (child.index >= 0 && value.isScalarValue()) {
+                if (values[child.index] == null && value != JsonToken.VALUE_NULL) {
+                    values[child.index] = parser.getText();
+                    if (--remaining[0] == 0) {
+                        return true;
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Payload de webhook incompleto");
+        }
+        return false;
+    }
+
+    private static final class Node {
+        private Map<String, Node> children;
+        private int index = -1;
+
+        Node child(String name) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(name, n -> new Node());
+        }
+    }
+}
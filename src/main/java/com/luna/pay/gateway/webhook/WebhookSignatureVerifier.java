@@ -0,0 +1,110 @@
+package com.luna.pay.gateway.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Verifica assinaturas HMAC-SHA256 (hex) de webhooks sobre os bytes crus do
+ * corpo, sem decodificar para String.
+ *
+ * Cada thread mantém seus próprios {@link Mac} já inicializados com as
+ * chaves (doFinal reinicia o Mac para o próximo uso) e um buffer para o
+ * digest, então o caminho quente não aloca nem passa por Mac.getInstance/init.
+ * A comparação é feita sobre os bytes decodificados com
+ * {@link MessageDigest#isEqual}, em tempo constante.
+ *
+ * Rotação: aceita mais de um secret ativo (o atual e o anterior). O atual é
+ * testado primeiro, então assinaturas com o secret novo custam um único
+ * HMAC; o anterior só é calculado quando o primeiro não confere.
+ * Thread-safe.
+ */
+public final class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int DIGEST_LENGTH = 32;
+
+    private final SecretKeySpec[] keys;
+    private final ThreadLocal<State> state;
+
+    private WebhookSignatureVerifier(List<String> secrets) {
+        if (secrets.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um secret");
+        }
+        this.keys = secrets.stream()
+                .map(secret -> new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM))
+                .toArray(SecretKeySpec[]::new);
+        // Falha na inicialização, não no primeiro webhook, se a chave for inválida
+        newMacs();
+        this.state = ThreadLocal.withInitial(() -> new State(newMacs()));
+    }
+
+    /**
+     * @param secrets secrets ativos, do atual para o anterior
+     */
+    public static WebhookSignatureVerifier hmacSha256(List<String> secrets) {
+        return new WebhookSignatureVerifier(List.copyOf(secrets));
+    }
+
+    /**
+     * @param signature assinatura em hexadecimal (maiúsculas ou minúsculas)
+     * @param payload   corpo da requisição exatamente como recebido
+     */
+    public boolean verify(String signature, byte[] payload) {
+        byte[] expected = decode(signature);
+        if (expected == null) {
+            return false;
+        }
+        State current = state.get();
+        for (Mac mac : current.macs) {
+            mac.update(payload);
+            try {
+                mac.doFinal(current.digest, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Falha ao calcular HMAC do webhook", e);
+            }
+            if (MessageDigest.isEqual(expected, current.digest)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Assinatura em bytes, ou null se não for um HMAC-SHA256 em hex.
+     */
+    private static byte[] decode(String signature) {
+        if (signature == null || signature.length() != DIGEST_LENGTH * 2) {
+            return null;
+        }
+        try {
+            return HexFormat.of().parseHex(signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Mac[] newMacs() {
+        Mac[] macs = new Mac[keys.length];
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                macs[i] = Mac.getInstance(ALGORITHM);
+                macs[i].init(keys[i]);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível inicializar " + ALGORITHM, e);
+        }
+        return macs;
+    }
+
+    private record State(Mac[] macs, byte[] digest) {
+
+        State(Mac[] macs) {
+            this(macs, new byte[DIGEST_LENGTH]);
+        }
+    }
+}
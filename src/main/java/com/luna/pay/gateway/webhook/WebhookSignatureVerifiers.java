@@ -0,0 +1,62 @@
+package com.luna.pay.gateway.webhook;
+
+import com.luna.pay.gateway.GatewayConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Verificadores de assinatura de webhook por gateway, montados uma vez na
+ * inicialização a partir de payment.gateways.&lt;nome&gt;.webhookSecret e, durante
+ * uma rotação, webhookSecretPrevious.
+ */
+@Component
+@Slf4j
+public class WebhookSignatureVerifiers {
+
+    private final Map<String, WebhookSignatureVerifier> verifiers = new HashMap<>();
+
+    public WebhookSignatureVerifiers(GatewayConfig gatewayConfig) {
+        gatewayConfig.getGateways().forEach((name, props) -> {
+            List<String> secrets = Stream.of(props.getWebhookSecret(), props.getWebhookSecretPrevious())
+                    .filter(StringUtils::hasText)
+                    .toList();
+            if (!secrets.isEmpty()) {
+                verifiers.put(name.toUpperCase(), WebhookSignatureVerifier.hmacSha256(secrets));
+            }
+        });
+    }
+
+    /**
+     * Decide se o webhook do gateway é aceito. Sem secret configurado a
+     * verificação é pulada; com secret, assinatura ausente é recusada como
+     * uma assinatura inválida.
+     *
+     * @param signature assinatura recebida no header, ou null se ausente
+     */
+    public boolean verify(String gatewayName, String signature, byte[] payload) {
+        WebhookSignatureVerifier verifier = verifiers.get(gatewayName.toUpperCase());
+        if (verifier == null) {
+            log.warn("[{}] Webhook secret não configurado, pulando validação", gatewayName);
+            return true;
+        }
+        if (signature == null) {
+            log.warn("[{}] Webhook sem assinatura recusado", gatewayName);
+            return false;
+        }
+        return verifier.verify(signature, payload);
+    }
+
+    /**
+     * Vazio quando o gateway não tem secret configurado.
+     */
+    public Optional<WebhookSignatureVerifier> find(String gatewayName) {
+        return Optional.ofNullable(verifiers.get(gatewayName.toUpperCase()));
+    }
+}
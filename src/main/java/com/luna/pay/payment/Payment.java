@@ -35,13 +35,9 @@ public class Payment {
     private String gatewayPaymentId;
     private String paymentMethod;
 
-    // PIX
-    @Column(length = 1000)
-    private String pixQrCode;
-    @Column(length = 2000)
-    private String pixQrCodeBase64;
-    @Column(length = 1000)
-    private String pixCopyPaste;
+    // PIX: payload e imagem ficam em pix_qr_codes, endereçados pelo SHA-256 do payload
+    @Column(length = 64)
+    private String pixQrHash;
     private Instant pixExpiresAt;
 
     // Boleto
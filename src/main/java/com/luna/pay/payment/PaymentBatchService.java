@@ -0,0 +1,343 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.common.exception.PaymentException;
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.resilience.GatewayFailures;
+import com.luna.pay.gateway.routing.GatewayRouter;
+import com.luna.pay.gateway.routing.RoutedPayment;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.luna.pay.payment.dto.PaymentBatchResponse;
+import com.luna.pay.payment.pix.PixQrCodeStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Criação de pagamentos em lote (POST /payments/batch), para importações e
+ * cobranças em massa, com os mesmos passos da criação unitária
+ * ({@link PaymentService#createPayment}):
+ *
+ * 1. os itens são roteados e reservados em CREATING em blocos de chunk-size,
+ *    um saveAll por transação (Hibernate em batch: hibernate.jdbc.batch_size,
+ *    order_inserts). Item com gateway inválido ou indisponível falha sem
+ *    gravar nada
+ * 2. as chamadas aos gateways saem em paralelo, no máximo concurrency por
+ *    lote, pelo mesmo roteamento (e failover), com o id do pagamento como
+ *    referência externa
+ * 3. os resultados são agrupados em blocos de chunk-size e cada bloco é
+ *    concluído numa transação: CREATING -> PENDING / FAILED num JDBC batch
+ *    pelo {@link PaymentStatusUpdater}, QR Codes PIX num JDBC batch e os dados
+ *    do gateway por saveAll. Os blocos são gravados conforme enchem, enquanto
+ *    as demais chamadas aos gateways continuam
+ * 4. cada item responde CREATED com o pagamento, FAILED com o erro, ou
+ *    UNKNOWN; uma falha não interrompe o lote
+ *
+ * UNKNOWN é o item cuja cobrança pode existir no gateway (timeout, 5xx, ou
+ * falha ao gravar o bloco depois da criação): o pagamento fica em CREATING e
+ * o {@link PaymentSagaRecovery} o resolve pela referência externa. O item traz
+ * o id do pagamento para acompanhamento.
+ */
+@Service
+@Slf4j
+public class PaymentBatchService {
+
+    static final String CREATED = "CREATED";
+    static final String FAILED = "FAILED";
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final GatewayRouter gatewayRouter;
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusUpdater paymentStatusUpdater;
+    private final PixQrCodeStore pixQrCodeStore;
+    private final PaymentStatusCache paymentStatusCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxItems;
+    private final int concurrency;
+    private final int chunkSize;
+    private final Duration requestTimeout;
+
+    public PaymentBatchService(GatewayRouter gatewayRouter,
+                               PaymentService paymentService,
+                               PaymentRepository paymentRepository,
+                               PaymentStatusUpdater paymentStatusUpdater,
+                               PixQrCodeStore pixQrCodeStore,
+                               PaymentStatusCache paymentStatusCache,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${payment.batch.max-items:500}") int maxItems,
+                               @Value("${payment.batch.concurrency:8}") int concurrency,
+                               @Value("${payment.batch.chunk-size:50}") int chunkSize,
+                               @Value("${payment.batch.request-timeout:60s}") Duration requestTimeout) {
+        this.gatewayRouter = gatewayRouter;
+        this.paymentService = paymentService;
+        this.paymentRepository = paymentRepository;
+        this.paymentStatusUpdater = paymentStatusUpdater;
+        this.pixQrCodeStore = pixQrCodeStore;
+        this.paymentStatusCache = paymentStatusCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+        this.concurrency = Math.max(1, concurrency);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Mono<PaymentBatchResponse> createPayments(List<CreatePaymentRequest> requests, String tenantId) {
+        if (requests.size() > maxItems) {
+            return Mono.error(new PaymentException("Lote excede o limite de " + maxItems + " pagamentos"));
+        }
+        log.info("Criando lote de {} pagamentos para tenant {}", requests.size(), tenantId);
+
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        return Flux.range(0, requests.size())
+                .buffer(chunkSize)
+                .concatMap(indexes -> reserve(securityContext, indexes, requests, tenantId))
+                .flatMapIterable(attempts -> attempts)
+                .flatMap(attempt -> createOnGateway(attempt, tenantId), concurrency)
+                .bufferTimeout(chunkSize, Duration.ofMillis(200), true)
+                .concatMap(chunk -> complete(securityContext, chunk))
+                .flatMapIterable(items -> items)
+                .sort(Comparator.comparingInt(PaymentBatchResponse.Item::getIndex))
+                .collectList()
+                .map(PaymentBatchService::summarize);
+    }
+
+    /**
+     * Passo 1: roteia os itens do bloco e grava as linhas CREATING numa única
+     * transação. Se a gravação falhar nenhuma cobrança foi criada ainda: os
+     * itens do bloco falham.
+     */
+    private Mono<List<Attempt>> reserve(SecurityContext securityContext, List<Integer> indexes,
+                                        List<CreatePaymentRequest> requests, String tenantId) {
+        List<Attempt> attempts = new ArrayList<>(indexes.size());
+        List<Attempt> routed = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            CreatePaymentRequest request = requests.get(index);
+            try {
+                routed.add(new Attempt(index, request, gatewayRouter.route(request, tenantId), null, null));
+            } catch (RuntimeException e) {
+                attempts.add(new Attempt(index, request, null, null, e.getMessage()));
+            }
+        }
+        if (routed.isEmpty()) {
+            return Mono.just(attempts);
+        }
+
+        return onJdbc(securityContext, () -> {
+                    List<Payment> saved = transactionTemplate.execute(status -> paymentRepository.saveAll(
+                            routed.stream().map(a -> PaymentService.newReservation(a.request(), tenantId, a.route()))
+                                    .toList()));
+                    for (int i = 0; i < saved.size(); i++) {
+                        Attempt attempt = routed.get(i);
+                        attempt.request().setExternalReference(saved.get(i).getId());
+                        attempts.add(new Attempt(attempt.index(), attempt.request(), attempt.route(), saved.get(i), null));
+                    }
+                    return attempts;
+                })
+                .onErrorResume(e -> {
+                    log.error("Falha ao reservar bloco do lote do tenant {}", tenantId, e);
+                    routed.forEach(a -> attempts.add(a.failed("Falha ao gravar pagamento: " + e.getMessage())));
+                    return Mono.just(attempts);
+                });
+    }
+
+    /**
+     * Passo 2: cobrança no gateway. Qualquer erro vira resultado do item, para
+     * o passo 3 decidir entre FAILED e UNKNOWN.
+     */
+    private Mono<GatewayOutcome> createOnGateway(Attempt attempt, String tenantId) {
+        if (attempt.reserved() == null) {
+            return Mono.just(new GatewayOutcome(attempt, null, null));
+        }
+        return gatewayRouter.createPaymentAsync(attempt.route(), attempt.request(), tenantId)
+                .timeout(requestTimeout)
+                .map(routed -> new GatewayOutcome(attempt, routed, null))
+                .onErrorResume(e -> {
+                    log.debug("Item {} do lote falhou no gateway: {}", attempt.index(), e.getMessage());
+                    return Mono.just(new GatewayOutcome(attempt, null, e));
+                });
+    }
+
+    /**
+     * Passo 3: conclui o bloco numa única transação, fora das threads de I/O e
+     * com o SecurityContext da requisição (auditoria JPA). Itens cuja cobrança
+     * pode existir não são tocados: seguem em CREATING.
+     */
+    private Mono<List<PaymentBatchResponse.Item>> complete(SecurityContext securityContext,
+                                                           List<GatewayOutcome> chunk) {
+        List<PaymentBatchResponse.Item> items = new ArrayList<>(chunk.size());
+        List<GatewayOutcome> created = new ArrayList<>(chunk.size());
+        List<GatewayOutcome> notCreated = new ArrayList<>(chunk.size());
+        for (GatewayOutcome outcome : chunk) {
+            Attempt attempt = outcome.attempt();
+            if (attempt.reserved() == null) {
+                items.add(failed(attempt.index(), attempt.error()));
+            } else if (outcome.routed() != null && outcome.routed().result().isSuccess()) {
+                created.add(outcome);
+            } else if (outcome.routed() != null || GatewayFailures.isChargeNotCreated(outcome.error())) {
+                notCreated.add(outcome);
+            } else {
+                log.warn("Item {} do lote (pagamento {}) terminou sem resposta conclusiva do gateway ({}); "
+                                + "fica em CREATING para a recuperação",
+                        attempt.index(), attempt.reserved().getId(), outcome.error().getMessage());
+                items.add(unknown(attempt, "Sem resposta conclusiva do gateway: " + outcome.error().getMessage()));
+            }
+        }
+        if (created.isEmpty() && notCreated.isEmpty()) {
+            return Mono.just(items);
+        }
+
+        return onJdbc(securityContext, () -> {
+                    Map<String, Payment> attached = transactionTemplate.execute(
+                            status -> saveChunk(created, notCreated));
+                    for (GatewayOutcome outcome : created) {
+                        Payment payment = attached.get(outcome.attempt().reserved().getId());
+                        if (payment == null) {
+                            paymentService.cancelOrphan(outcome.attempt().reserved().getId(), outcome.routed().gateway(),
+                                    outcome.routed().result().getGatewayPaymentId());
+                            items.add(failed(outcome.attempt().index(), "Pagamento "
+                                    + outcome.attempt().reserved().getId()
+                                    + " foi dado como falho antes de o gateway concluir a criação"));
+                            continue;
+                        }
+                        paymentStatusCache.put(PaymentStatusSnapshot.of(payment));
+                        items.add(PaymentBatchResponse.Item.builder()
+                                .index(outcome.attempt().index())
+                                .status(CREATED)
+                                .payment(PaymentService.createdResponse(payment, outcome.routed().result()))
+                                .build());
+                    }
+                    notCreated.forEach(outcome -> items.add(failed(outcome.attempt().index(), notCreatedError(outcome))));
+                    return items;
+                })
+                .onErrorResume(e -> {
+                    // As linhas seguem em CREATING: a recuperação acha as cobranças pela referência externa
+                    log.error("Falha ao gravar bloco do lote; pagamentos ficam em CREATING para a recuperação: {}",
+                            created.stream().map(o -> o.attempt().reserved().getId()).toList(), e);
+                    created.forEach(o -> items.add(unknown(o.attempt(), "Falha ao gravar pagamento: " + e.getMessage())));
+                    notCreated.forEach(o -> items.add(failed(o.attempt().index(), notCreatedError(o))));
+                    return Mono.just(items);
+                });
+    }
+
+    /**
+     * CREATING -> PENDING das cobranças criadas e CREATING -> FAILED das
+     * recusadas num só JDBC batch; grava os QR Codes e os dados do gateway das
+     * que de fato saíram de CREATING.
+     *
+     * @return pagamentos concluídos, por id
+     */
+    private Map<String, Payment> saveChunk(List<GatewayOutcome> created, List<GatewayOutcome> notCreated) {
+        List<PaymentStatusChange> changes = new ArrayList<>(created.size() + notCreated.size());
+        for (GatewayOutcome outcome : created) {
+            Payment reserved = outcome.attempt().reserved();
+            changes.add(new PaymentStatusChange(reserved.getId(), reserved.getTenantId(), PaymentStatus.CREATING,
+                    PaymentStatus.PENDING, outcome.routed().gateway(), reserved.getPaymentMethod()));
+        }
+        for (GatewayOutcome outcome : notCreated) {
+            Payment reserved = outcome.attempt().reserved();
+            changes.add(new PaymentStatusChange(reserved.getId(), reserved.getTenantId(), PaymentStatus.CREATING,
+                    PaymentStatus.FAILED, reserved.getGateway(), reserved.getPaymentMethod()));
+        }
+        Set<String> applied = paymentStatusUpdater.apply(changes).stream()
+                .filter(change -> change.newStatus() == PaymentStatus.PENDING)
+                .map(PaymentStatusChange::paymentId)
+                .collect(Collectors.toSet());
+        List<GatewayOutcome> attached = created.stream()
+                .filter(outcome -> applied.contains(outcome.attempt().reserved().getId()))
+                .toList();
+        if (attached.isEmpty()) {
+            return Map.of();
+        }
+
+        List<String> payloads = new ArrayList<>(attached.size());
+        List<String> images = new ArrayList<>(attached.size());
+        for (GatewayOutcome outcome : attached) {
+            GatewayPaymentResult result = outcome.routed().result();
+            payloads.add(PaymentService.pixPayload(result));
+            images.add(result.getPixQrCodeBase64());
+        }
+        List<String> hashes = pixQrCodeStore.saveAll(payloads, images);
+
+        Map<String, Payment> payments = paymentRepository.findAllById(applied).stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+        for (int i = 0; i < attached.size(); i++) {
+            GatewayOutcome outcome = attached.get(i);
+            PaymentService.applyGatewayResult(payments.get(outcome.attempt().reserved().getId()),
+                    outcome.routed().gateway(), outcome.routed().result(), hashes.get(i));
+        }
+        return paymentRepository.saveAll(payments.values()).stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+    }
+
+    private <T> Mono<T> onJdbc(SecurityContext securityContext, Callable<T> work) {
+        return Mono.fromCallable(new DelegatingSecurityContextCallable<>(work, securityContext))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static String notCreatedError(GatewayOutcome outcome) {
+        return outcome.routed() != null
+                ? "Erro ao criar pagamento no gateway: " + outcome.routed().result().getErrorMessage()
+                : outcome.error().getMessage();
+    }
+
+    private static PaymentBatchResponse.Item failed(int index, String error) {
+        return PaymentBatchResponse.Item.builder()
+                .index(index)
+                .status(FAILED)
+                .error(error)
+                .build();
+    }
+
+    private static PaymentBatchResponse.Item unknown(Attempt attempt, String error) {
+        return PaymentBatchResponse.Item.builder()
+                .index(attempt.index())
+                .status(UNKNOWN)
+                .payment(PaymentService.mapToResponse(attempt.reserved()))
+                .error(error)
+                .build();
+    }
+
+    private static PaymentBatchResponse summarize(List<PaymentBatchResponse.Item> items) {
+        int created = (int) items.stream().filter(item -> CREATED.equals(item.getStatus())).count();
+        int unknown = (int) items.stream().filter(item -> UNKNOWN.equals(item.getStatus())).count();
+        return PaymentBatchResponse.builder()
+                .created(created)
+                .unknown(unknown)
+                .failed(items.size() - created - unknown)
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Item do lote; sem reserved (rota ou reserva falhou) carrega o erro.
+     */
+    private record Attempt(int index, CreatePaymentRequest request, GatewayRouter.Route route,
+                           Payment reserved, String error) {
+
+        Attempt failed(String error) {
+            return new Attempt(index, request, route, null, error);
+        }
+    }
+
+    private record GatewayOutcome(Attempt attempt, RoutedPayment routed, Throwable error) {}
+}
@@ -1,23 +1,41 @@
 package com.luna.pay.payment;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.payment.dto.CreatePaymentBatchRequest;
 import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.luna.pay.payment.idempotency.IdempotencyService;
+import com.luna.pay.payment.dto.PaymentBatchResponse;
+import com.luna.pay.payment.dto.PaymentListFilter;
+import com.luna.pay.payment.dto.PaymentPage;
 import com.luna.pay.payment.dto.PaymentResponse;
 import com.luna.pay.security.UserContext;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/payments")
 @RequiredArgsConstructor
 public class PaymentController {
 
+    private static final int STREAM_FLUSH_EVERY = 100;
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final PaymentService paymentService;
+    private final PaymentBatchService paymentBatchService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/ping")
     public String ping(@AuthenticationPrincipal UserContext user) {
@@ -25,21 +43,87 @@ public class PaymentController {
                 " (user: " + user.getUserId() + ")";
     }
 
+    /**
+     * Cria um pagamento. Com o header Idempotency-Key, novas tentativas com a
+     * mesma chave (por tenant) devolvem o mesmo 201 sem gerar outra cobrança;
+     * respostas reaproveitadas trazem o header Idempotent-Replayed: true.
+     */
     @PostMapping
-    public ResponseEntity<PaymentResponse> createPayment(
+    public Mono<ResponseEntity<PaymentResponse>> createPayment(
             @Valid @RequestBody CreatePaymentRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserContext user) {
+
+        String tenantId = user.getTenantId();
+        return idempotencyService.execute(tenantId, idempotencyKey, request, () -> paymentService.isReactiveExecution()
+                        ? paymentService.createPaymentAsync(request, tenantId)
+                        : Mono.fromCallable(() -> paymentService.createPayment(request, tenantId)))
+                .map(result -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+                    if (result.replayed()) {
+                        response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+                    }
+                    return response.body(result.body());
+                });
+    }
+
+    /**
+     * Cria vários pagamentos de uma vez. Responde 200 com um resultado por
+     * item (CREATED com o pagamento, FAILED com o erro, ou UNKNOWN com o
+     * pagamento ainda em CREATING), na ordem do pedido.
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<PaymentBatchResponse>> createPayments(
+            @Valid @RequestBody CreatePaymentBatchRequest request,
             @AuthenticationPrincipal UserContext user) {
 
-        PaymentResponse response = paymentService.createPayment(request, user.getTenantId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return paymentBatchService.createPayments(request.getPayments(), user.getTenantId())
+                .map(ResponseEntity::ok);
     }
 
+    /**
+     * Lista paginada por cursor. Filtros opcionais: status, gateway,
+     * paymentMethod, from/to (ISO-8601, intervalo [from, to)).
+     */
     @GetMapping
-    public ResponseEntity<List<PaymentResponse>> listPayments(
+    public ResponseEntity<PaymentPage> listPayments(
+            @ModelAttribute PaymentListFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             @AuthenticationPrincipal UserContext user) {
 
-        List<PaymentResponse> payments = paymentService.findByTenant(user.getTenantId());
-        return ResponseEntity.ok(payments);
+        return ResponseEntity.ok(paymentService.listPayments(user.getTenantId(), filter, cursor, limit));
+    }
+
+    /**
+     * Exportação completa em NDJSON (Accept: application/x-ndjson): uma linha por
+     * pagamento, escrita conforme as linhas chegam do banco.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPayments(
+            @ModelAttribute PaymentListFilter filter,
+            @AuthenticationPrincipal UserContext user) {
+
+        String tenantId = user.getTenantId();
+        StreamingResponseBody body = out -> {
+            int[] written = {0};
+            paymentService.streamPayments(tenantId, filter, summary -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(summary));
+                    out.write('\n');
+                    if (++written[0] % STREAM_FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -47,32 +131,38 @@ public class PaymentController {
             @PathVariable String id,
             @AuthenticationPrincipal UserContext user) {
 
-        return paymentService.findById(id, user.getTenantId())
+        return paymentService.findDetail(id, user.getTenantId())
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Status para polling. Responde com ETag; com If-None-Match igual ao status
+     * atual devolve 304 sem corpo. No caso comum não há consulta ao banco.
+     */
     @GetMapping("/{id}/status")
     public ResponseEntity<PaymentStatusResponse> getPaymentStatus(
             @PathVariable String id,
             @AuthenticationPrincipal UserContext user) {
 
-        return paymentService.findById(id, user.getTenantId())
-                .map(payment -> ResponseEntity.ok(new PaymentStatusResponse(
-                        payment.getId(),
-                        payment.getStatus(),
-                        payment.getGatewayPaymentId()
-                )))
+        return paymentService.findStatus(id, user.getTenantId())
+                .map(status -> ResponseEntity.ok()
+                        .eTag(status.etag())
+                        .cacheControl(CacheControl.noCache())
+                        .body(new PaymentStatusResponse(status.id(), status.status(), status.gatewayPaymentId())))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> cancelPayment(
+    public Mono<ResponseEntity<Void>> cancelPayment(
             @PathVariable String id,
             @AuthenticationPrincipal UserContext user) {
 
-        paymentService.cancelPayment(id, user.getTenantId());
-        return ResponseEntity.noContent().build();
+        Mono<Boolean> canceled = paymentService.isReactiveExecution()
+                ? paymentService.cancelPaymentAsync(id, user.getTenantId())
+                : Mono.just(paymentService.cancelPayment(id, user.getTenantId()));
+
+        return canceled.thenReturn(ResponseEntity.noContent().build());
     }
 
     // DTO inline para status
@@ -0,0 +1,33 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.common.exception.PaymentException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição na listagem ordenada por (createdAt desc, id desc).
+ * Serializado como base64url opaco para o cliente.
+ */
+public record PaymentCursor(Instant createdAt, String id) {
+
+    public String encode() {
+        String raw = createdAt.toString() + '|' + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PaymentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new PaymentException("Cursor inválido");
+            }
+            return new PaymentCursor(Instant.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new PaymentException("Cursor inválido", e);
+        }
+    }
+}
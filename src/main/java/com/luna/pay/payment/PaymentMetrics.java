@@ -0,0 +1,54 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.common.metrics.TenantTags;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Contador de transições de status de pagamentos, qualquer que seja a origem
+ * (webhook, conciliação ou cancelamento pela API):
+ * lunapay.payments.transitions{gateway, method, from, to[, tenant]}.
+ *
+ * A tag tenant só existe com payment.metrics.tenant-tag.enabled
+ * ({@link TenantTags}).
+ */
+@Component
+public class PaymentMetrics {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final TenantTags tenantTags;
+
+    public PaymentMetrics(MeterRegistry meterRegistry, TenantTags tenantTags) {
+        this.meterRegistry = meterRegistry;
+        this.tenantTags = tenantTags;
+    }
+
+    public void recordTransition(PaymentStatusChange change) {
+        recordTransition(change.gateway(), change.paymentMethod(), change.tenantId(),
+                change.expectedStatus(), change.newStatus());
+    }
+
+    public void recordTransition(String gateway, String paymentMethod, String tenantId,
+                                 PaymentStatus from, PaymentStatus to) {
+        Tags tags = Tags.of(
+                "gateway", upperOrUnknown(gateway),
+                "method", upperOrUnknown(paymentMethod),
+                "from", from.name(),
+                "to", to.name());
+        Counter.builder("lunapay.payments.transitions")
+                .description("Transições de status de pagamentos")
+                .tags(tenantTags.and(tags, tenantId))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String upperOrUnknown(String value) {
+        return value == null ? UNKNOWN : value.toUpperCase(Locale.ROOT);
+    }
+}
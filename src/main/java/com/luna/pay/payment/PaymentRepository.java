@@ -1,15 +1,39 @@
 package com.luna.pay.payment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
+public interface PaymentRepository extends JpaRepository<Payment, String>, PaymentRepositoryCustom {
 
     List<Payment> findByTenantId(String tenantId);
     
     Optional<Payment> findByGatewayPaymentId(String gatewayPaymentId);
+
+    /**
+     * Busca pelo id no gateway usando o índice único (gateway, gateway_payment_id).
+     */
+    Optional<Payment> findByGatewayAndGatewayPaymentId(String gateway, String gatewayPaymentId);
+
+    /**
+     * Resolve em uma consulta os pagamentos de um lote de eventos do mesmo gateway.
+     */
+    List<PaymentStatusView> findByGatewayAndGatewayPaymentIdIn(String gateway, Collection<String> gatewayPaymentIds);
+
+    /**
+     * Status do pagamento pela chave primária, sem carregar a entidade.
+     */
+    Optional<PaymentStatusView> findStatusByIdAndTenantId(String id, String tenantId);
+
+    /**
+     * Hash do QR Code PIX do pagamento, apenas se ele pertencer ao tenant.
+     */
+    @Query("select p.pixQrHash from Payment p where p.id = :id and p.tenantId = :tenantId and p.pixQrHash is not null")
+    Optional<String> findPixQrHash(@Param("id") String id, @Param("tenantId") String tenantId);
 }
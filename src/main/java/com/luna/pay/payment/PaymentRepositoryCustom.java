@@ -0,0 +1,25 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.payment.dto.PaymentListFilter;
+import com.luna.pay.payment.dto.PaymentSummary;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de listagem com filtros dinâmicos, retornando a projeção PaymentSummary.
+ */
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Busca até {@code limit} pagamentos do tenant após o cursor (exclusivo),
+     * ordenados por createdAt desc, id desc.
+     */
+    List<PaymentSummary> findSummaries(String tenantId, PaymentListFilter filter, PaymentCursor after, int limit);
+
+    /**
+     * Percorre todos os pagamentos do tenant via cursor JDBC (fetch size limitado).
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    Stream<PaymentSummary> streamSummaries(String tenantId, PaymentListFilter filter);
+}
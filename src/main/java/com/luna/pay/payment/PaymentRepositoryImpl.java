@@ -0,0 +1,86 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.payment.dto.PaymentListFilter;
+import com.luna.pay.payment.dto.PaymentSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.AvailableHints;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementação de {@link PaymentRepositoryCustom} com JPQL montado conforme os
+ * filtros presentes, para que o banco use o índice (tenant_id, created_at, id).
+ */
+class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PaymentSummary> findSummaries(String tenantId, PaymentListFilter filter, PaymentCursor after, int limit) {
+        return summaryQuery(tenantId, filter, after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<PaymentSummary> streamSummaries(String tenantId, PaymentListFilter filter) {
+        return summaryQuery(tenantId, filter, null)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<PaymentSummary> summaryQuery(String tenantId, PaymentListFilter filter, PaymentCursor after) {
+        StringBuilder jpql = new StringBuilder("""
+                select new com.luna.pay.payment.dto.PaymentSummary(
+                    p.id, p.amount, p.description, p.status, p.gateway, p.paymentMethod, p.createdAt)
+                from Payment p
+                where p.tenantId = :tenantId
+                """);
+        Map<String, Object> params = new HashMap<>();
+        params.put("tenantId", tenantId);
+
+        if (filter != null) {
+            if (filter.getStatus() != null) {
+                jpql.append(" and p.status = :status");
+                params.put("status", filter.getStatus());
+            }
+            if (filter.getGateway() != null) {
+                jpql.append(" and p.gateway = :gateway");
+                params.put("gateway", filter.getGateway().toUpperCase());
+            }
+            if (filter.getPaymentMethod() != null) {
+                jpql.append(" and p.paymentMethod = :paymentMethod");
+                params.put("paymentMethod", filter.getPaymentMethod().toUpperCase());
+            }
+            if (filter.getFrom() != null) {
+                jpql.append(" and p.createdAt >= :from");
+                params.put("from", filter.getFrom());
+            }
+            if (filter.getTo() != null) {
+                jpql.append(" and p.createdAt < :to");
+                params.put("to", filter.getTo());
+            }
+        }
+
+        if (after != null) {
+            jpql.append(" and (p.createdAt < :cursorCreatedAt or (p.createdAt = :cursorCreatedAt and p.id < :cursorId))");
+            params.put("cursorCreatedAt", after.createdAt());
+            params.put("cursorId", after.id());
+        }
+
+        jpql.append(" order by p.createdAt desc, p.id desc");
+
+        TypedQuery<PaymentSummary> query = entityManager.createQuery(jpql.toString(), PaymentSummary.class);
+        params.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -0,0 +1,212 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.gateway.PaymentGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolve pagamentos parados nos estados intermediários da criação e do
+ * cancelamento ({@link PaymentService}), em geral por queda do nó entre a
+ * chamada ao gateway e a transação que a conclui.
+ *
+ * - CREATING há mais de creating-timeout: a cobrança é procurada nos
+ *   gateways pela referência externa (o id do pagamento), começando pelo
+ *   gateway da reserva (um failover do AUTO pode tê-la criado em outro). Se
+ *   existe, os dados são anexados e o pagamento vai para PENDING; se todos
+ *   os gateways responderam que não a têm, vai para FAILED. Erro na busca,
+ *   gateway da reserva desabilitado ou gateway sem busca por referência
+ *   deixam a linha em CREATING para o próximo ciclo
+ * - CANCELING há mais de canceling-timeout: o cancelamento é repetido no
+ *   gateway e, se der certo, vai para CANCELED; em caso de erro fica para o
+ *   próximo ciclo
+ *
+ * As escritas passam pelo {@link PaymentStatusUpdater} condicionadas ao
+ * estado intermediário: uma criação que termina durante a recuperação, ou um
+ * pagamento confirmado pelo gateway, prevalecem. Vários nós podem rodar a
+ * recuperação ao mesmo tempo.
+ */
+@Component
+@Slf4j
+public class PaymentSagaRecovery {
+
+    private static final String STUCK_SQL = """
+            SELECT id, tenant_id, gateway, gateway_payment_id, payment_method
+              FROM payments
+             WHERE status = ? AND updated_at < ?
+             ORDER BY updated_at
+             LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GatewayRegistry gatewayRegistry;
+    private final PaymentStatusUpdater paymentStatusUpdater;
+    private final PaymentService paymentService;
+
+    private final boolean enabled;
+    private final Duration creatingTimeout;
+    private final Duration cancelingTimeout;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PaymentSagaRecovery(JdbcTemplate jdbcTemplate,
+                               GatewayRegistry gatewayRegistry,
+                               PaymentStatusUpdater paymentStatusUpdater,
+                               PaymentService paymentService,
+                               @Value("${payment.saga.recovery.enabled:true}") boolean enabled,
+                               @Value("${payment.saga.recovery.creating-timeout:10m}") Duration creatingTimeout,
+                               @Value("${payment.saga.recovery.canceling-timeout:5m}") Duration cancelingTimeout,
+                               @Value("${payment.saga.recovery.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gatewayRegistry = gatewayRegistry;
+        this.paymentStatusUpdater = paymentStatusUpdater;
+        this.paymentService = paymentService;
+        this.enabled = enabled;
+        this.creatingTimeout = creatingTimeout;
+        this.cancelingTimeout = cancelingTimeout;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.saga.recovery.interval-ms:60000}",
+            initialDelayString = "${payment.saga.recovery.initial-delay-ms:60000}")
+    public void recover() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int resolved = recoverCreating() + recoverCanceling();
+            if (resolved > 0) {
+                log.info("Recuperação: {} pagamentos resolvidos em estado intermediário", resolved);
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro na recuperação de pagamentos em estado intermediário", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return pagamentos CREATING resolvidos (PENDING ou FAILED)
+     */
+    int recoverCreating() {
+        List<StuckPayment> stuck = findStuck(PaymentStatus.CREATING, creatingTimeout);
+        List<PaymentStatusChange> failed = new ArrayList<>(stuck.size());
+        int attached = 0;
+        for (StuckPayment payment : stuck) {
+            Optional<FoundCharge> charge;
+            try {
+                charge = findCharge(payment);
+            } catch (RuntimeException e) {
+                log.warn("Busca da cobrança do pagamento {} do tenant {} sem resposta conclusiva, fica em CREATING: {}",
+                        payment.id(), payment.tenantId(), e.getMessage());
+                continue;
+            }
+            if (charge.isEmpty()) {
+                failed.add(payment.change(PaymentStatus.CREATING, PaymentStatus.FAILED));
+                continue;
+            }
+            FoundCharge found = charge.get();
+            if (paymentService.attach(payment.id(), payment.tenantId(), found.gateway(), payment.paymentMethod(),
+                    found.result()).isPresent()) {
+                log.warn("Pagamento {} do tenant {} ficou em CREATING por mais de {}; cobrança {} encontrada no gateway {} "
+                        + "e anexada", payment.id(), payment.tenantId(), creatingTimeout,
+                        found.result().getGatewayPaymentId(), found.gateway());
+                attached++;
+            }
+        }
+        List<PaymentStatusChange> applied = paymentStatusUpdater.apply(failed);
+        applied.forEach(c -> log.warn("Pagamento {} do tenant {} ficou em CREATING por mais de {} e a cobrança não existe "
+                + "no gateway; marcado como FAILED", c.paymentId(), c.tenantId(), creatingTimeout));
+        return attached + applied.size();
+    }
+
+    /**
+     * Procura a cobrança pela referência externa no gateway da reserva e
+     * depois nos demais habilitados. Vazio só quando todos responderam que não
+     * a têm: gateway da reserva ausente ou desabilitado, ou gateway que não
+     * busca por referência, tornam a resposta desconhecida, e a linha fica em
+     * CREATING para conferência no painel do gateway.
+     *
+     * @throws IllegalStateException se algum gateway não pôde responder
+     */
+    private Optional<FoundCharge> findCharge(StuckPayment payment) {
+        PaymentGateway reservedGateway = gatewayRegistry.find(payment.gateway())
+                .filter(PaymentGateway::isEnabled)
+                .orElseThrow(() -> new IllegalStateException("gateway " + payment.gateway()
+                        + " da reserva não está disponível para a busca"));
+        List<PaymentGateway> gateways = new ArrayList<>(List.of(reservedGateway));
+        gatewayRegistry.getEnabled().stream()
+                .filter(gateway -> !gateway.getGatewayName().equalsIgnoreCase(reservedGateway.getGatewayName()))
+                .forEach(gateways::add);
+
+        for (PaymentGateway gateway : gateways) {
+            Optional<GatewayPaymentResult> result;
+            try {
+                result = gateway.findPaymentByExternalReference(payment.id());
+            } catch (UnsupportedOperationException e) {
+                throw new IllegalStateException("gateway " + gateway.getGatewayName()
+                        + " não busca cobranças por referência; verifique no painel do gateway", e);
+            }
+            if (result.isPresent()) {
+                return Optional.of(new FoundCharge(gateway.getGatewayName(), result.get()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return pagamentos CANCELING movidos para CANCELED
+     */
+    int recoverCanceling() {
+        List<StuckPayment> stuck = findStuck(PaymentStatus.CANCELING, cancelingTimeout);
+        List<PaymentStatusChange> canceled = new ArrayList<>(stuck.size());
+        for (StuckPayment payment : stuck) {
+            PaymentGateway gateway = gatewayRegistry.find(payment.gateway()).orElse(null);
+            if (gateway != null && gateway.isEnabled() && payment.gatewayPaymentId() != null) {
+                try {
+                    gateway.cancelPayment(payment.gatewayPaymentId());
+                } catch (RuntimeException e) {
+                    log.warn("Cancelamento do pagamento {} falhou novamente no gateway {}: {}",
+                            payment.id(), payment.gateway(), e.getMessage());
+                    continue;
+                }
+            }
+            canceled.add(payment.change(PaymentStatus.CANCELING, PaymentStatus.CANCELED));
+        }
+        return paymentStatusUpdater.apply(canceled).size();
+    }
+
+    private List<StuckPayment> findStuck(PaymentStatus status, Duration timeout) {
+        return jdbcTemplate.query(STUCK_SQL,
+                (rs, rowNum) -> new StuckPayment(
+                        rs.getString("id"),
+                        rs.getString("tenant_id"),
+                        rs.getString("gateway"),
+                        rs.getString("gateway_payment_id"),
+                        rs.getString("payment_method")),
+                status.name(), Timestamp.from(Instant.now().minus(timeout)), batchSize);
+    }
+
+    private record FoundCharge(String gateway, GatewayPaymentResult result) {}
+
+    private record StuckPayment(String id, String tenantId, String gateway, String gatewayPaymentId,
+                                String paymentMethod) {
+
+        PaymentStatusChange change(PaymentStatus expected, PaymentStatus next) {
+            return new PaymentStatusChange(id, tenantId, expected, next, gateway, paymentMethod);
+        }
+    }
+}
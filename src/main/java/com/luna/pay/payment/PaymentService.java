@@ -1,77 +1,290 @@
 package com.luna.pay.payment;
 
-import com.luna.pay.common.exception.GatewayNotEnabledException;
 import com.luna.pay.common.exception.PaymentException;
+import com.luna.pay.common.tracing.TenantObservationHandler;
+import com.luna.pay.gateway.GatewayConfig;
 import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayRegistry;
 import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.resilience.GatewayFailures;
+import com.luna.pay.gateway.routing.GatewayRouter;
+import com.luna.pay.gateway.routing.RoutedPayment;
 import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.luna.pay.payment.dto.PaymentListFilter;
+import com.luna.pay.payment.dto.PaymentPage;
 import com.luna.pay.payment.dto.PaymentResponse;
+import com.luna.pay.payment.dto.PaymentSummary;
+import com.luna.pay.payment.pix.PixQrCodeStore;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
     private final PaymentRepository paymentRepository;
-    private final List<PaymentGateway> paymentGateways;
+    private final GatewayRegistry gatewayRegistry;
+    private final GatewayRouter gatewayRouter;
+    private final GatewayConfig gatewayConfig;
+    private final PixQrCodeStore pixQrCodeStore;
+    private final PaymentStatusCache paymentStatusCache;
+    private final PaymentStatusUpdater paymentStatusUpdater;
+    private final TransactionTemplate transactionTemplate;
+    private final ObservationRegistry observationRegistry;
 
-    private Map<String, PaymentGateway> getGatewayMap() {
-        return paymentGateways.stream()
-                .collect(Collectors.toMap(
-                        gateway -> gateway.getGatewayName().toUpperCase(),
-                        Function.identity()
-                ));
+    /**
+     * Indica se as chamadas aos gateways devem usar o pipeline não bloqueante
+     * (payment.execution-mode=REACTIVE).
+     */
+    public boolean isReactiveExecution() {
+        return gatewayConfig.getExecutionMode() == GatewayConfig.ExecutionMode.REACTIVE;
     }
 
-    @Transactional
+    /**
+     * Cria o pagamento sem prender uma conexão do pool durante a chamada HTTP
+     * ao gateway:
+     * 0. resolve a rota: gateway inválido ou indisponível falha sem gravar nada
+     * 1. transação curta grava a linha em CREATING
+     * 2. cobrança no gateway (com failover quando gateway = AUTO), fora de
+     *    qualquer transação, tendo o id do pagamento como referência externa
+     * 3. transação curta completa a linha e a move para PENDING; se o gateway
+     *    recusou ou falhou sem criar a cobrança, CREATING -> FAILED
+     *
+     * Linhas que ficam em CREATING (queda do nó entre 1 e 3, ou timeout/5xx do
+     * gateway, em que a cobrança pode existir) são resolvidas pelo
+     * {@link PaymentSagaRecovery} buscando a cobrança pela referência externa.
+     */
     public PaymentResponse createPayment(CreatePaymentRequest request, String tenantId) {
         log.info("Criando pagamento para tenant {} via gateway {}", tenantId, request.getGateway());
 
-        // Valida gateway
-        String gatewayName = request.getGateway().toUpperCase();
-        PaymentGateway gateway = getGatewayMap().get(gatewayName);
+        Observation observation = createObservation(request, tenantId);
+        return observation.observe(() -> {
+            GatewayRouter.Route route = gatewayRouter.route(request, tenantId);
+            Payment reserved = reserve(request, tenantId, route);
+            request.setExternalReference(reserved.getId());
 
-        if (gateway == null) {
-            throw new PaymentException("Gateway não suportado: " + request.getGateway());
-        }
+            RoutedPayment routed;
+            try {
+                routed = gatewayRouter.createPayment(route, request, tenantId);
+            } catch (RuntimeException e) {
+                abandon(reserved, e);
+                throw e;
+            }
+            observation.highCardinalityKeyValue("payment.gateway", routed.gateway());
 
-        if (!gateway.isEnabled()) {
-            throw new GatewayNotEnabledException(gatewayName);
-        }
+            return complete(reserved, routed.gateway(), routed.result());
+        });
+    }
+
+    /**
+     * Versão não bloqueante de {@link #createPayment}, com os mesmos passos: a
+     * thread da requisição é liberada enquanto o gateway responde, e apenas as
+     * gravações no banco (JDBC é bloqueante) rodam no scheduler elástico.
+     */
+    public Mono<PaymentResponse> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
+        log.info("Criando pagamento (reativo) para tenant {} via gateway {}", tenantId, request.getGateway());
+
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        Observation observation = createObservation(request, tenantId);
 
-        // Cria pagamento no gateway
-        GatewayPaymentResult gatewayResult = gateway.createPayment(request, tenantId);
+        return Mono.defer(() -> {
+                    observation.start();
+                    GatewayRouter.Route route = gatewayRouter.route(request, tenantId);
+                    return onJdbc(securityContext, () -> reserve(request, tenantId, route))
+                            .map(reserved -> {
+                                request.setExternalReference(reserved.getId());
+                                return new Reservation(reserved, route);
+                            });
+                })
+                .flatMap(reservation -> gatewayRouter.createPaymentAsync(reservation.route(), request, tenantId)
+                        .onErrorResume(e -> onJdbc(securityContext, () -> abandon(reservation.payment(), e))
+                                .then(Mono.error(e)))
+                        .flatMap(routed -> {
+                            observation.highCardinalityKeyValue("payment.gateway", routed.gateway());
+                            return onJdbc(securityContext,
+                                    () -> complete(reservation.payment(), routed.gateway(), routed.result()));
+                        }))
+                .doOnError(observation::error)
+                .doFinally(signal -> observation.stop())
+                // Pai dos spans do WebClient e dos repositórios
+                .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+    }
+
+    /**
+     * Span "payment-service.create-payment": cobre o roteamento, as chamadas ao
+     * gateway e a gravação.
+     */
+    private Observation createObservation(CreatePaymentRequest request, String tenantId) {
+        return Observation.createNotStarted("lunapay.payment.create", observationRegistry)
+                .contextualName("PaymentService.createPayment")
+                .highCardinalityKeyValue("payment.gateway.requested", String.valueOf(request.getGateway()))
+                .highCardinalityKeyValue("payment.method", String.valueOf(request.getPaymentMethod()))
+                .highCardinalityKeyValue(TenantObservationHandler.TENANT_KEY, tenantId);
+    }
 
+    /**
+     * Passo 1 da criação: a linha CREATING, com o primeiro gateway da rota,
+     * numa transação própria do repositório. Um failover do AUTO troca o
+     * gateway na conclusão.
+     */
+    private Payment reserve(CreatePaymentRequest request, String tenantId, GatewayRouter.Route route) {
+        return paymentRepository.save(newReservation(request, tenantId, route));
+    }
+
+    /**
+     * Entidade CREATING, ainda não gravada, com o primeiro gateway da rota.
+     */
+    static Payment newReservation(CreatePaymentRequest request, String tenantId, GatewayRouter.Route route) {
+        Payment payment = new Payment();
+        payment.setTenantId(tenantId);
+        payment.setAmount(request.getAmount());
+        payment.setDescription(request.getDescription());
+        payment.setGateway(route.primary());
+        payment.setPaymentMethod(request.getPaymentMethod().toUpperCase());
+        payment.setStatus(PaymentStatus.CREATING);
+        return payment;
+    }
+
+    private record Reservation(Payment payment, GatewayRouter.Route route) {}
+
+    /**
+     * Passo 3 da criação: grava o resultado do gateway e move para PENDING.
+     * Se a linha já saiu de CREATING (a recuperação a deu como falha), nada
+     * volta para PENDING: a conclusão é recusada e a cobrança recém-criada é
+     * cancelada no gateway.
+     */
+    private PaymentResponse complete(Payment reserved, String gatewayName, GatewayPaymentResult gatewayResult) {
         if (!gatewayResult.isSuccess()) {
+            abandon(reserved);
             throw new PaymentException(
                     "Erro ao criar pagamento no gateway: " + gatewayResult.getErrorMessage()
             );
         }
 
-        // Salva no banco
-        Payment payment = new Payment();
-        payment.setTenantId(tenantId);
-        payment.setAmount(request.getAmount());
-        payment.setDescription(request.getDescription());
+        Optional<Payment> attached = attach(reserved.getId(), reserved.getTenantId(), gatewayName,
+                reserved.getPaymentMethod(), gatewayResult);
+        if (attached.isEmpty()) {
+            cancelOrphan(reserved.getId(), gatewayName, gatewayResult.getGatewayPaymentId());
+            throw new PaymentException("Pagamento " + reserved.getId()
+                    + " foi dado como falho antes de o gateway concluir a criação");
+        }
+        Payment saved = attached.get();
+
+        log.info("Pagamento criado com sucesso: {} (gateway: {})", saved.getId(), saved.getGatewayPaymentId());
+
+        return createdResponse(saved, gatewayResult);
+    }
+
+    /**
+     * CREATING -> PENDING com os dados da cobrança criada no gateway. A
+     * mudança de status passa pelo {@link PaymentStatusUpdater} (escrita
+     * condicionada, eventos e métricas) e os dados do gateway são gravados na
+     * mesma transação, com a linha já travada pela escrita.
+     *
+     * @return vazio se a linha não estava mais em CREATING
+     */
+    Optional<Payment> attach(String paymentId, String tenantId, String gatewayName, String paymentMethod,
+                             GatewayPaymentResult gatewayResult) {
+        Payment saved = transactionTemplate.execute(status -> {
+            PaymentStatusChange change = new PaymentStatusChange(paymentId, tenantId,
+                    PaymentStatus.CREATING, PaymentStatus.PENDING, gatewayName, paymentMethod);
+            if (paymentStatusUpdater.apply(List.of(change)).isEmpty()) {
+                return null;
+            }
+            Payment payment = paymentRepository.findById(paymentId)
+                    .orElseThrow(() -> new PaymentException("Pagamento " + paymentId + " não encontrado"));
+            applyGatewayResult(payment, gatewayName, gatewayResult,
+                    pixQrCodeStore.save(pixPayload(gatewayResult), gatewayResult.getPixQrCodeBase64()));
+            return paymentRepository.save(payment);
+        });
+        if (saved == null) {
+            return Optional.empty();
+        }
+        paymentStatusCache.put(PaymentStatusSnapshot.of(saved));
+        return Optional.of(saved);
+    }
+
+    /**
+     * Cobrança criada no gateway para um pagamento que já não está em
+     * CREATING: cancelada para não ficar pagável sem registro local.
+     */
+    void cancelOrphan(String paymentId, String gatewayName, String gatewayPaymentId) {
+        log.warn("Pagamento {} saiu de CREATING antes de o gateway {} concluir a criação; cancelando a cobrança {}",
+                paymentId, gatewayName, gatewayPaymentId);
+        try {
+            gatewayRegistry.require(gatewayName).cancelPayment(gatewayPaymentId);
+        } catch (RuntimeException e) {
+            log.error("Falha ao cancelar a cobrança {} do pagamento {} no gateway {}; cancele manualmente",
+                    gatewayPaymentId, paymentId, gatewayName, e);
+        }
+    }
+
+    /**
+     * Falha na chamada ao gateway: CREATING -> FAILED apenas se a cobrança com
+     * certeza não foi criada. Timeouts e 5xx deixam a linha em CREATING para a
+     * recuperação procurar a cobrança no gateway.
+     */
+    private Void abandon(Payment reserved, Throwable error) {
+        if (GatewayFailures.isChargeNotCreated(error)) {
+            return abandon(reserved);
+        }
+        log.warn("Criação do pagamento {} no gateway {} terminou sem resposta conclusiva ({}); "
+                + "fica em CREATING para a recuperação", reserved.getId(), reserved.getGateway(), error.getMessage());
+        return null;
+    }
+
+    /**
+     * Criação não concluída no gateway: CREATING -> FAILED.
+     */
+    private Void abandon(Payment reserved) {
+        paymentStatusUpdater.apply(List.of(new PaymentStatusChange(reserved.getId(), reserved.getTenantId(),
+                PaymentStatus.CREATING, PaymentStatus.FAILED, reserved.getGateway(), reserved.getPaymentMethod())));
+        return null;
+    }
+
+    /**
+     * Payload PIX copia e cola devolvido pelo gateway (ou o conteúdo do QR Code).
+     */
+    static String pixPayload(GatewayPaymentResult gatewayResult) {
+        return gatewayResult.getPixCopyPaste() != null
+                ? gatewayResult.getPixCopyPaste()
+                : gatewayResult.getPixQrCode();
+    }
+
+    /**
+     * Dados da cobrança criada no gateway; o pagamento passa a PENDING. O
+     * payload e a imagem PIX vão para o armazenamento de QR Codes, aqui só
+     * entra o hash.
+     */
+    static void applyGatewayResult(Payment payment, String gatewayName,
+                                   GatewayPaymentResult gatewayResult, String pixQrHash) {
         payment.setGateway(gatewayName);
         payment.setGatewayPaymentId(gatewayResult.getGatewayPaymentId());
-        payment.setPaymentMethod(request.getPaymentMethod().toUpperCase());
         payment.setStatus(PaymentStatus.PENDING);
 
         // Dados específicos PIX
-        payment.setPixQrCode(gatewayResult.getPixQrCode());
-        payment.setPixQrCodeBase64(gatewayResult.getPixQrCodeBase64());
-        payment.setPixCopyPaste(gatewayResult.getPixCopyPaste());
+        payment.setPixQrHash(pixQrHash);
         payment.setPixExpiresAt(gatewayResult.getPixExpiresAt());
 
         // Dados específicos Boleto
@@ -82,30 +295,177 @@ public class PaymentService {
         // Dados específicos Cartão
         payment.setAuthorizationCode(gatewayResult.getAuthorizationCode());
         payment.setNsu(gatewayResult.getNsu());
+    }
+
+    /**
+     * Na criação o cliente recebe o QR Code completo, já em memória.
+     */
+    static PaymentResponse createdResponse(Payment saved, GatewayPaymentResult gatewayResult) {
+        PaymentResponse response = mapToResponse(saved);
+        response.setPixQrCode(gatewayResult.getPixQrCode());
+        response.setPixQrCodeBase64(gatewayResult.getPixQrCodeBase64());
+        response.setPixCopyPaste(pixPayload(gatewayResult));
+        return response;
+    }
 
-        Payment saved = paymentRepository.save(payment);
+    /**
+     * Lista pagamentos do tenant paginando por cursor (createdAt desc, id desc).
+     * Busca uma linha a mais que o limite para saber se existe próxima página.
+     */
+    @Transactional(readOnly = true)
+    public PaymentPage listPayments(String tenantId, PaymentListFilter filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        PaymentCursor after = cursor == null || cursor.isBlank() ? null : PaymentCursor.decode(cursor);
 
-        log.info("Pagamento criado com sucesso: {} (gateway: {})", saved.getId(), saved.getGatewayPaymentId());
+        List<PaymentSummary> rows = paymentRepository.findSummaries(tenantId, filter, after, pageSize + 1);
 
-        return mapToResponse(saved);
+        if (rows.size() <= pageSize) {
+            return new PaymentPage(rows, null);
+        }
+        List<PaymentSummary> items = rows.subList(0, pageSize);
+        PaymentSummary last = items.get(pageSize - 1);
+        return new PaymentPage(List.copyOf(items), new PaymentCursor(last.getCreatedAt(), last.getId()).encode());
     }
 
+    /**
+     * Entrega todos os pagamentos do tenant ao consumidor conforme chegam do
+     * cursor JDBC, sem materializar o resultado em memória.
+     */
     @Transactional(readOnly = true)
-    public List<PaymentResponse> findByTenant(String tenantId) {
-        return paymentRepository.findByTenantId(tenantId).stream()
-                .map(this::mapToResponse)
-                .toList();
+    public void streamPayments(String tenantId, PaymentListFilter filter, Consumer<PaymentSummary> consumer) {
+        try (Stream<PaymentSummary> rows = paymentRepository.streamSummaries(tenantId, filter)) {
+            rows.forEach(consumer);
+        }
     }
 
     @Transactional(readOnly = true)
     public Optional<PaymentResponse> findById(String id, String tenantId) {
         return paymentRepository.findById(id)
                 .filter(payment -> payment.getTenantId().equals(tenantId))
-                .map(this::mapToResponse);
+                .map(PaymentService::mapToResponse);
+    }
+
+    /**
+     * Status do pagamento para polling: vem do {@link PaymentStatusCache} e, na
+     * falta, de uma projeção pela chave primária (sem carregar a entidade).
+     */
+    public Optional<PaymentStatusSnapshot> findStatus(String id, String tenantId) {
+        Optional<PaymentStatusSnapshot> cached = paymentStatusCache.get(id, tenantId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = paymentStatusCache.stamp(id);
+        Optional<PaymentStatusSnapshot> stored = Optional.empty();
+        try {
+            stored = paymentRepository.findStatusByIdAndTenantId(id, tenantId).map(PaymentStatusSnapshot::of);
+        } finally {
+            paymentStatusCache.populate(id, stored.orElse(null), stamp);
+        }
+        return stored;
     }
 
-    @Transactional
+    /**
+     * Como {@link #findById}, incluindo o PIX copia e cola lido do armazenamento
+     * de QR Codes. A imagem fica em /payments/{id}/pix/qrcode.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PaymentResponse> findDetail(String id, String tenantId) {
+        return paymentRepository.findById(id)
+                .filter(payment -> payment.getTenantId().equals(tenantId))
+                .map(payment -> {
+                    PaymentResponse response = mapToResponse(payment);
+                    if (payment.getPixQrHash() != null) {
+                        pixQrCodeStore.findPayload(payment.getPixQrHash()).ifPresent(response::setPixCopyPaste);
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * Hash do QR Code PIX do pagamento, sem carregar a entidade.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> findPixQrHash(String id, String tenantId) {
+        return paymentRepository.findPixQrHash(id, tenantId);
+    }
+
+    /**
+     * Cancela sem prender uma conexão do pool durante a chamada ao gateway:
+     * status atual -> CANCELING numa escrita condicionada, cancelamento no
+     * gateway fora de transação, CANCELING -> CANCELED. Se o gateway falhar o
+     * status anterior é restaurado; linhas que ficam em CANCELING são
+     * retomadas pelo {@link PaymentSagaRecovery}.
+     */
     public boolean cancelPayment(String id, String tenantId) {
+        Payment payment = startCancel(id, tenantId);
+
+        // Cancela no gateway
+        PaymentGateway gateway = gatewayRegistry.find(payment.getGateway()).orElse(null);
+        if (gateway != null && gateway.isEnabled()) {
+            try {
+                gateway.cancelPayment(payment.getGatewayPaymentId());
+            } catch (RuntimeException e) {
+                revertCancel(payment);
+                throw e;
+            }
+        }
+
+        return completeCancel(payment);
+    }
+
+    /**
+     * Versão não bloqueante de {@link #cancelPayment}.
+     */
+    public Mono<Boolean> cancelPaymentAsync(String id, String tenantId) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        return onJdbc(securityContext, () -> startCancel(id, tenantId))
+                .flatMap(payment -> {
+                    // Cancela no gateway
+                    PaymentGateway gateway = gatewayRegistry.find(payment.getGateway()).orElse(null);
+                    Mono<Boolean> gatewayCancel = gateway != null && gateway.isEnabled()
+                            ? gateway.cancelPaymentAsync(payment.getGatewayPaymentId())
+                            : Mono.just(true);
+
+                    return gatewayCancel
+                            .onErrorResume(e -> onJdbc(securityContext, () -> revertCancel(payment)).then(Mono.error(e)))
+                            .then(onJdbc(securityContext, () -> completeCancel(payment)));
+                });
+    }
+
+    /**
+     * Valida o pagamento e o move para CANCELING. A entidade devolvida mantém
+     * o status anterior, usado para desfazer se o gateway falhar.
+     */
+    private Payment startCancel(String id, String tenantId) {
+        Payment payment = loadCancelable(id, tenantId);
+        if (paymentStatusUpdater.apply(List.of(cancelChange(payment, payment.getStatus(), PaymentStatus.CANCELING))).isEmpty()) {
+            throw new PaymentException("Status do pagamento mudou, tente novamente");
+        }
+        return payment;
+    }
+
+    private Void revertCancel(Payment payment) {
+        paymentStatusUpdater.apply(List.of(cancelChange(payment, PaymentStatus.CANCELING, payment.getStatus())));
+        return null;
+    }
+
+    private boolean completeCancel(Payment payment) {
+        if (paymentStatusUpdater.apply(List.of(cancelChange(payment, PaymentStatus.CANCELING, PaymentStatus.CANCELED))).isEmpty()) {
+            // Um pagamento confirmado pelo gateway no meio do cancelamento prevalece
+            throw new PaymentException("Status do pagamento mudou durante o cancelamento");
+        }
+
+        log.info("Pagamento {} cancelado", payment.getId());
+        return true;
+    }
+
+    private static PaymentStatusChange cancelChange(Payment payment, PaymentStatus expected, PaymentStatus next) {
+        return new PaymentStatusChange(payment.getId(), payment.getTenantId(), expected, next,
+                payment.getGateway(), payment.getPaymentMethod());
+    }
+
+    private Payment loadCancelable(String id, String tenantId) {
         Optional<Payment> paymentOpt = paymentRepository.findById(id);
 
         if (paymentOpt.isEmpty()) {
@@ -126,20 +486,29 @@ public class PaymentService {
             throw new PaymentException("Pagamento já está cancelado");
         }
 
-        // Cancela no gateway
-        PaymentGateway gateway = getGatewayMap().get(payment.getGateway());
-        if (gateway != null && gateway.isEnabled()) {
-            gateway.cancelPayment(payment.getGatewayPaymentId());
+        if (payment.getStatus() == PaymentStatus.CREATING) {
+            throw new PaymentException("Pagamento ainda está sendo criado");
         }
 
-        payment.setStatus(PaymentStatus.CANCELED);
-        paymentRepository.save(payment);
+        if (payment.getStatus() == PaymentStatus.CANCELING) {
+            throw new PaymentException("Cancelamento do pagamento já está em andamento");
+        }
+        return payment;
+    }
 
-        log.info("Pagamento {} cancelado", id);
-        return true;
+    /**
+     * Executa trabalho JDBC (bloqueante) fora das threads de I/O, propagando o
+     * SecurityContext da requisição para que a auditoria JPA registre o usuário.
+     */
+    private <T> Mono<T> onJdbc(SecurityContext securityContext, Callable<T> work) {
+        return Mono.fromCallable(new DelegatingSecurityContextCallable<>(work, securityContext))
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
-    private PaymentResponse mapToResponse(Payment payment) {
+    /**
+     * Público e sem estado para ser medido isoladamente (ver benchmarks).
+     */
+    public static PaymentResponse mapToResponse(Payment payment) {
         return PaymentResponse.builder()
                 .id(payment.getId())
                 .tenantId(payment.getTenantId())
@@ -149,9 +518,7 @@ public class PaymentService {
                 .gateway(payment.getGateway())
                 .gatewayPaymentId(payment.getGatewayPaymentId())
                 .paymentMethod(payment.getPaymentMethod())
-                .pixQrCode(payment.getPixQrCode())
-                .pixQrCodeBase64(payment.getPixQrCodeBase64())
-                .pixCopyPaste(payment.getPixCopyPaste())
+                .pixQrCodeUrl(payment.getPixQrHash() != null ? "/payments/" + payment.getId() + "/pix/qrcode" : null)
                 .pixExpiresAt(payment.getPixExpiresAt())
                 .boletoBarCode(payment.getBoletoBarCode())
                 .boletoUrl(payment.getBoletoUrl())
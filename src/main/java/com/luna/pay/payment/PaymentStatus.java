@@ -1,8 +1,38 @@
 package com.luna.pay.payment;
 
 public enum PaymentStatus {
+    /** Linha reservada; a cobrança ainda está sendo criada no gateway */
+    CREATING,
     PENDING,
     PAID,
     FAILED,
-    CANCELED
+    /** Cancelamento pedido ao gateway, ainda sem confirmação */
+    CANCELING,
+    CANCELED;
+
+    /**
+     * Transições aceitas a partir de eventos do gateway, que podem chegar
+     * fora de ordem:
+     * - CREATING e PENDING podem ir para qualquer outro status
+     * - FAILED (ex.: vencido) ainda pode ser pago ou cancelado
+     * - PAID só pode ser cancelado (estorno)
+     * - CANCELING pode ser confirmado (CANCELED) ou atropelado por um pagamento
+     * - CANCELED é final
+     *
+     * Nunca regride para PENDING, e eventos nunca levam a CREATING/CANCELING
+     * (estados internos da criação e do cancelamento, ver PaymentService).
+     * Manter o mesmo status não é uma transição.
+     */
+    public boolean canTransitionTo(PaymentStatus next) {
+        if (next == CREATING || next == CANCELING) {
+            return false;
+        }
+        return switch (this) {
+            case CREATING, PENDING -> next != PENDING;
+            case FAILED -> next == PAID || next == CANCELED;
+            case PAID -> next == CANCELED;
+            case CANCELING -> next == CANCELED || next == PAID;
+            case CANCELED -> false;
+        };
+    }
 }
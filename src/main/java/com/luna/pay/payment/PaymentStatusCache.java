@@ -0,0 +1,152 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.common.cache.ExpiringLruCache;
+import com.luna.pay.common.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache write-through do status dos pagamentos, para o polling de
+ * GET /payments/{id}/status não precisar ir ao banco.
+ *
+ * Toda escrita de status deste nó (webhook, conciliação, cancelamento,
+ * criação) passa por aqui depois do commit. Escritas de outros nós chegam
+ * pela ponte de eventos (payment_events); o TTL curto cobre o que escapar dela.
+ *
+ * Carga a partir do banco ({@link #stamp} + {@link #populate}) não sobrescreve
+ * uma escrita no mesmo pagamento que aconteceu durante a leitura: se o carimbo
+ * do pagamento mudou, o valor lido é descartado e a próxima leitura vai ao
+ * banco de novo. Os carimbos só existem enquanto há leituras em andamento do
+ * pagamento, então escritas em outros pagamentos não descartam nada.
+ *
+ * Métricas: lunapay.payments.status.cache.lookups{result=hit|miss} e
+ * lunapay.payments.status.cache.size.
+ */
+@Component
+public class PaymentStatusCache {
+
+    private final ExpiringLruCache<String, PaymentStatusSnapshot> cache;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+
+    /** Leituras do banco em andamento, por pagamento */
+    private final Map<String, Load> loads = new HashMap<>();
+
+    public PaymentStatusCache(MeterRegistry meterRegistry,
+                              @Value("${payment.status-cache.max-entries:100000}") int maxEntries,
+                              @Value("${payment.status-cache.ttl:30s}") Duration ttl) {
+        this.cache = new ExpiringLruCache<>(maxEntries);
+        this.ttl = ttl;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("lunapay.payments.status.cache.size", cache, ExpiringLruCache::size)
+                .description("Entradas no cache de status de pagamentos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Status em cache, apenas se o pagamento pertencer ao tenant.
+     */
+    public Optional<PaymentStatusSnapshot> get(String paymentId, String tenantId) {
+        PaymentStatusSnapshot cached = cache.get(paymentId);
+        if (cached == null || !cached.tenantId().equals(tenantId)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached);
+    }
+
+    /**
+     * Carimbo a tomar antes de ler o status do pagamento no banco. Toda chamada
+     * deve ser seguida de {@link #populate}, mesmo que a leitura falhe.
+     */
+    synchronized long stamp(String paymentId) {
+        Load load = loads.computeIfAbsent(paymentId, id -> new Load());
+        load.readers++;
+        return load.version;
+    }
+
+    /**
+     * Encerra a leitura iniciada em {@link #stamp} e guarda o status lido
+     * (null se não encontrado) se nenhuma escrita no pagamento ocorreu desde
+     * {@code stamp}.
+     */
+    synchronized void populate(String paymentId, PaymentStatusSnapshot snapshot, long stamp) {
+        Load load = loads.get(paymentId);
+        if (snapshot != null && load.version == stamp) {
+            cache.put(paymentId, snapshot, Instant.now().plus(ttl));
+        }
+        if (--load.readers == 0) {
+            loads.remove(paymentId);
+        }
+    }
+
+    /**
+     * Registra o status gravado, após o commit da transação corrente (ou já, se
+     * não houver transação).
+     */
+    void put(PaymentStatusSnapshot snapshot) {
+        AfterCommit.run(() -> write(snapshot.id(), snapshot));
+    }
+
+    /**
+     * Aplica mudanças gravadas em lote. Pagamentos fora do cache apenas
+     * invalidam leituras em andamento.
+     */
+    void apply(Collection<PaymentStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> applyNow(changes));
+    }
+
+    private synchronized void applyNow(Collection<PaymentStatusChange> changes) {
+        for (PaymentStatusChange change : changes) {
+            applyStatus(change.paymentId(), change.newStatus());
+        }
+    }
+
+    /**
+     * Mudança de status gravada por outro nó (já commitada).
+     */
+    public synchronized void applyStatus(String paymentId, PaymentStatus newStatus) {
+        PaymentStatusSnapshot cached = cache.get(paymentId);
+        write(paymentId, cached == null ? null : cached.withStatus(newStatus));
+    }
+
+    private synchronized void write(String paymentId, PaymentStatusSnapshot snapshot) {
+        Load load = loads.get(paymentId);
+        if (load != null) {
+            load.version++;
+        }
+        if (snapshot == null) {
+            cache.invalidate(paymentId);
+        } else {
+            cache.put(paymentId, snapshot, Instant.now().plus(ttl));
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("lunapay.payments.status.cache.lookups")
+                .description("Consultas ao cache de status de pagamentos")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Load {
+        private int readers;
+        private long version;
+    }
+}
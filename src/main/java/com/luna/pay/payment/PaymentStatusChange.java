@@ -0,0 +1,21 @@
+package com.luna.pay.payment;
+
+/**
+ * Mudança de status a aplicar em um pagamento.
+ * {@code expectedStatus} é o status lido antes da decisão: a escrita só é
+ * aplicada se o pagamento ainda estiver nele. {@code gateway} e
+ * {@code paymentMethod} servem apenas às métricas e podem ser nulos.
+ */
+public record PaymentStatusChange(
+        String paymentId,
+        String tenantId,
+        PaymentStatus expectedStatus,
+        PaymentStatus newStatus,
+        String gateway,
+        String paymentMethod
+) {
+
+    public PaymentStatusChange(String paymentId, String tenantId, PaymentStatus expectedStatus, PaymentStatus newStatus) {
+        this(paymentId, tenantId, expectedStatus, newStatus, null, null);
+    }
+}
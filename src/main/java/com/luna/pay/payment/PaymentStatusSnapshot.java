@@ -0,0 +1,32 @@
+package com.luna.pay.payment;
+
+/**
+ * Status atual de um pagamento, como servido em GET /payments/{id}/status.
+ */
+public record PaymentStatusSnapshot(
+        String id,
+        String tenantId,
+        PaymentStatus status,
+        String gatewayPaymentId
+) {
+
+    static PaymentStatusSnapshot of(PaymentStatusView view) {
+        return new PaymentStatusSnapshot(view.getId(), view.getTenantId(), view.getStatus(), view.getGatewayPaymentId());
+    }
+
+    static PaymentStatusSnapshot of(Payment payment) {
+        return new PaymentStatusSnapshot(payment.getId(), payment.getTenantId(), payment.getStatus(),
+                payment.getGatewayPaymentId());
+    }
+
+    public PaymentStatusSnapshot withStatus(PaymentStatus newStatus) {
+        return new PaymentStatusSnapshot(id, tenantId, newStatus, gatewayPaymentId);
+    }
+
+    /**
+     * ETag forte da representação: muda apenas quando o status muda.
+     */
+    public String etag() {
+        return "\"" + status.name() + "\"";
+    }
+}
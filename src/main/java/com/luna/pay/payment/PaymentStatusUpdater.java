@@ -0,0 +1,76 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.common.transaction.AfterCommit;
+import com.luna.pay.payment.events.PaymentEventBus;
+import com.luna.pay.payment.events.PaymentStatusEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aplica mudanças de status em lote via JDBC batch, numa única transação.
+ *
+ * Cada UPDATE é condicionado ao status esperado (compare-and-set), então uma
+ * mudança concorrente entre a leitura e a escrita não é sobrescrita. As
+ * mudanças aplicadas vão para o {@link PaymentStatusCache}, para o
+ * {@link PaymentEventBus} e para as {@link PaymentMetrics} após o commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentStatusUpdater {
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE payments SET status = ?, updated_at = ?, modified_by = ? WHERE id = ? AND status = ?";
+
+    private static final String SYSTEM_AUDITOR = "system";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PaymentStatusCache paymentStatusCache;
+    private final PaymentEventBus paymentEventBus;
+    private final PaymentMetrics paymentMetrics;
+
+    /**
+     * @return as mudanças efetivamente aplicadas
+     */
+    @Transactional
+    public List<PaymentStatusChange> apply(List<PaymentStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return List.of();
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] results = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, changes, changes.size(), (ps, change) -> {
+            ps.setString(1, change.newStatus().name());
+            ps.setTimestamp(2, now);
+            ps.setString(3, SYSTEM_AUDITOR);
+            ps.setString(4, change.paymentId());
+            ps.setString(5, change.expectedStatus().name());
+        });
+
+        List<PaymentStatusChange> applied = new ArrayList<>(changes.size());
+        int[] counts = results.length > 0 ? results[0] : new int[0];
+        for (int i = 0; i < changes.size(); i++) {
+            // Alguns drivers retornam SUCCESS_NO_INFO (-2) em lote: trata como aplicado
+            if (i >= counts.length || counts[i] != 0) {
+                applied.add(changes.get(i));
+            } else {
+                log.info("Status do pagamento {} mudou concorrentemente, atualização {} -> {} ignorada",
+                        changes.get(i).paymentId(), changes.get(i).expectedStatus(), changes.get(i).newStatus());
+            }
+        }
+        paymentStatusCache.apply(applied);
+        paymentEventBus.publish(applied.stream()
+                .map(c -> new PaymentStatusEvent(c.paymentId(), c.tenantId(), c.newStatus()))
+                .toList());
+        AfterCommit.run(() -> applied.forEach(paymentMetrics::recordTransition));
+        return applied;
+    }
+}
@@ -0,0 +1,19 @@
+package com.luna.pay.payment;
+
+/**
+ * Projeção mínima de Payment para leituras e atualizações de status.
+ */
+public interface PaymentStatusView {
+
+    String getId();
+
+    String getTenantId();
+
+    String getGateway();
+
+    String getGatewayPaymentId();
+
+    String getPaymentMethod();
+
+    PaymentStatus getStatus();
+}
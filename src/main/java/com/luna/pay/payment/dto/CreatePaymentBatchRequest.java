@@ -0,0 +1,14 @@
+package com.luna.pay.payment.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CreatePaymentBatchRequest {
+
+    @NotEmpty(message = "Lista de pagamentos é obrigatória")
+    private List<@Valid CreatePaymentRequest> payments;
+}
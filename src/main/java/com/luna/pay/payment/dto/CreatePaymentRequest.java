@@ -1,5 +1,6 @@
 package com.luna.pay.payment.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -18,7 +19,7 @@ public class CreatePaymentRequest {
     private String description;
 
     @NotBlank(message = "Gateway é obrigatório")
-    private String gateway; // ASAAS, C6
+    private String gateway; // ASAAS, C6, AUTO
 
     @NotBlank(message = "Método de pagamento é obrigatório")
     private String paymentMethod; // PIX, BOLETO, CREDIT_CARD, DEBIT_CARD
@@ -32,6 +33,11 @@ public class CreatePaymentRequest {
     // Dados do cliente
     private CustomerData customer;
 
+    // Id do pagamento no LunaPay, enviado ao gateway como referência externa.
+    // Preenchido pelo PaymentService: não vem do cliente nem entra no hash de idempotência
+    @JsonIgnore
+    private String externalReference;
+
     @Data
     public static class CardData {
         private String holderName;
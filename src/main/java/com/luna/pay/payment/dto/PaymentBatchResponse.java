@@ -0,0 +1,38 @@
+package com.luna.pay.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de POST /payments/batch: um item por pagamento pedido, na mesma
+ * ordem (index é a posição na lista de entrada).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentBatchResponse {
+
+    private int created;
+    /** Itens em CREATING aguardando a recuperação (cobrança pode existir no gateway) */
+    private int unknown;
+    private int failed;
+    private List<Item> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        private int index;
+        /** CREATED, FAILED ou UNKNOWN (pagamento em CREATING, resolvido pela recuperação) */
+        private String status;
+        private PaymentResponse payment;
+        private String error;
+    }
+}
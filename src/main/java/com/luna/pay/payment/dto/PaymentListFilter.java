@@ -0,0 +1,26 @@
+package com.luna.pay.payment.dto;
+
+import com.luna.pay.payment.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Filtros opcionais da listagem de pagamentos.
+ * O intervalo de datas é [from, to) sobre createdAt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentListFilter {
+
+    private PaymentStatus status;
+    private String gateway;
+    private String paymentMethod;
+    private Instant from;
+    private Instant to;
+}
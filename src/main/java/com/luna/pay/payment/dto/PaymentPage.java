@@ -0,0 +1,22 @@
+package com.luna.pay.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de pagamentos paginada por cursor (keyset em createdAt, id).
+ * nextCursor é null quando não há mais resultados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPage {
+
+    private List<PaymentSummary> items;
+    private String nextCursor;
+}
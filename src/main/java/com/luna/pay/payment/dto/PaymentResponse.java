@@ -24,10 +24,12 @@ public class PaymentResponse {
     private String gatewayPaymentId;
     private String paymentMethod;
     
-    // Dados específicos para PIX
+    // Dados específicos para PIX. pixQrCode e pixQrCodeBase64 só vêm na criação;
+    // depois a imagem é servida em pixQrCodeUrl
     private String pixQrCode;
     private String pixQrCodeBase64;
     private String pixCopyPaste;
+    private String pixQrCodeUrl;
     private Instant pixExpiresAt;
     
     // Dados específicos para Boleto
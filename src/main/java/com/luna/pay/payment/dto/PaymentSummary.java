@@ -7,7 +7,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
+/**
+ * Projeção enxuta de Payment para listagens (sem dados de PIX/boleto).
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,5 +24,5 @@ public class PaymentSummary {
     private PaymentStatus status;
     private String gateway;
     private String paymentMethod;
-    private String createdAt;
+    private Instant createdAt;
 }
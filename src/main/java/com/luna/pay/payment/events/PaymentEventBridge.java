@@ -0,0 +1,66 @@
+package com.luna.pay.payment.events;
+
+import com.luna.pay.payment.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tabela payment_events: cada nó grava as mudanças de status que aplicou, na
+ * mesma transação da mudança, e lê periodicamente as gravadas pelos outros.
+ * Funciona como um LISTEN/NOTIFY portável (H2 e PostgreSQL): a notificação só
+ * fica visível se a mudança de status foi commitada.
+ */
+@Component
+@RequiredArgsConstructor
+class PaymentEventBridge {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO payment_events (payment_id, tenant_id, status, node_id, created_at)
+            VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    void record(Collection<PaymentStatusEvent> events, String nodeId) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.paymentId());
+            ps.setString(2, event.tenantId());
+            ps.setString(3, event.status().name());
+            ps.setString(4, nodeId);
+        });
+    }
+
+    /**
+     * Relógio do banco: created_at vem dele, então nós com relógios
+     * diferentes comparam instantes da mesma fonte.
+     */
+    Instant now() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class).toInstant();
+    }
+
+    /**
+     * Eventos de outros nós gravados a partir de {@code since}, em ordem.
+     */
+    List<RemoteEvent> findSince(Instant since, String nodeId) {
+        return jdbcTemplate.query("""
+                        SELECT id, payment_id, tenant_id, status FROM payment_events
+                        WHERE created_at >= ? AND node_id <> ?
+                        ORDER BY created_at, id
+                        """,
+                (rs, i) -> new RemoteEvent(rs.getLong(1),
+                        new PaymentStatusEvent(rs.getString(2), rs.getString(3), PaymentStatus.valueOf(rs.getString(4)))),
+                Timestamp.from(since), nodeId);
+    }
+
+    int deleteBefore(Instant before) {
+        return jdbcTemplate.update("DELETE FROM payment_events WHERE created_at < ?", Timestamp.from(before));
+    }
+
+    record RemoteEvent(long id, PaymentStatusEvent event) {}
+}
@@ -0,0 +1,221 @@
+package com.luna.pay.payment.events;
+
+import com.luna.pay.common.cache.ExpiringLruCache;
+import com.luna.pay.common.transaction.AfterCommit;
+import com.luna.pay.payment.PaymentStatusCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Barramento em processo das mudanças de status de pagamentos, que alimenta
+ * SSE e long-poll em GET /payments/{id}/events.
+ *
+ * Assinaturas são apenas callbacks registrados por id de pagamento: uma
+ * conexão aberta não ocupa thread, só a entrada no mapa. As entregas rodam em
+ * poucas threads fixas, particionadas por pagamento (mantendo a ordem), fora
+ * da thread que gravou o status.
+ *
+ * Entre nós: {@link #publish} também grava em payment_events (na transação da
+ * mudança) e {@link #poll} lê periodicamente o que outros nós gravaram,
+ * entregando aos assinantes locais e atualizando o {@link PaymentStatusCache}.
+ * A leitura recua {@code overlap} a cada ciclo para não perder eventos de
+ * transações que commitaram depois do ciclo anterior; ids já vistos são
+ * descartados.
+ *
+ * Métricas: lunapay.payments.events.published{source=local|remote} e
+ * lunapay.payments.events.subscribers.
+ */
+@Component
+@Slf4j
+public class PaymentEventBus {
+
+    private static final String NODE_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    private final PaymentEventBridge bridge;
+    private final PaymentStatusCache paymentStatusCache;
+    private final boolean bridgeEnabled;
+    private final Duration overlap;
+    private final Duration retention;
+
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService[] delivery;
+    private final ExpiringLruCache<Long, Boolean> seen = new ExpiringLruCache<>(100_000);
+    private final Counter publishedLocal;
+    private final Counter publishedRemote;
+
+    private volatile Instant cursor;
+
+    public PaymentEventBus(PaymentEventBridge bridge,
+                           PaymentStatusCache paymentStatusCache,
+                           MeterRegistry meterRegistry,
+                           @Value("${payment.events.bridge.enabled:true}") boolean bridgeEnabled,
+                           @Value("${payment.events.bridge.overlap:5s}") Duration overlap,
+                           @Value("${payment.events.bridge.retention:1h}") Duration retention,
+                           @Value("${payment.events.delivery-threads:2}") int deliveryThreads) {
+        this.bridge = bridge;
+        this.paymentStatusCache = paymentStatusCache;
+        this.bridgeEnabled = bridgeEnabled;
+        this.overlap = overlap;
+        this.retention = retention;
+
+        // Uma thread por partição: eventos do mesmo pagamento são entregues em ordem
+        this.delivery = new ExecutorService[Math.max(1, deliveryThreads)];
+        for (int i = 0; i < delivery.length; i++) {
+            String name = "payment-events-" + (i + 1);
+            delivery[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        this.publishedLocal = published(meterRegistry, "local");
+        this.publishedRemote = published(meterRegistry, "remote");
+        Gauge.builder("lunapay.payments.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Conexões SSE / long-poll aguardando mudanças de status")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra {@code listener} para as mudanças de status do pagamento do tenant.
+     * O listener roda no pool de entrega e não deve bloquear.
+     */
+    public Subscription subscribe(String paymentId, String tenantId, Consumer<PaymentStatusEvent> listener) {
+        Subscription subscription = new Subscription(paymentId, tenantId, listener);
+        subscriptions.compute(paymentId, (id, set) -> {
+            Set<Subscription> listeners = set != null ? set : ConcurrentHashMap.newKeySet();
+            listeners.add(subscription);
+            return listeners;
+        });
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Publica mudanças gravadas na transação corrente: vão para payment_events
+     * agora e para os assinantes locais após o commit.
+     */
+    public void publish(Collection<PaymentStatusEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (bridgeEnabled) {
+            bridge.record(events, NODE_ID);
+        }
+        List<PaymentStatusEvent> copy = List.copyOf(events);
+        AfterCommit.run(() -> {
+            publishedLocal.increment(copy.size());
+            copy.forEach(this::dispatch);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${payment.events.bridge.poll-interval-ms:500}")
+    public void poll() {
+        if (!bridgeEnabled) {
+            return;
+        }
+        try {
+            Instant now = bridge.now();
+            Instant since = cursor == null ? now : cursor.minus(overlap);
+            cursor = now;
+            for (PaymentEventBridge.RemoteEvent remote : bridge.findSince(since, NODE_ID)) {
+                if (seen.get(remote.id()) != null) {
+                    continue;
+                }
+                seen.put(remote.id(), Boolean.TRUE, Instant.now().plus(overlap.multipliedBy(2)));
+                publishedRemote.increment();
+                paymentStatusCache.applyStatus(remote.event().paymentId(), remote.event().status());
+                dispatch(remote.event());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao ler eventos de pagamento de outros nós: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.events.bridge.purge-interval-ms:600000}")
+    public void purge() {
+        if (bridgeEnabled) {
+            bridge.deleteBefore(Instant.now().minus(retention));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (ExecutorService executor : delivery) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void dispatch(PaymentStatusEvent event) {
+        Set<Subscription> listeners = subscriptions.get(event.paymentId());
+        if (listeners == null) {
+            return;
+        }
+        ExecutorService executor = delivery[Math.floorMod(event.paymentId().hashCode(), delivery.length)];
+        for (Subscription subscription : listeners) {
+            if (!subscription.tenantId.equals(event.tenantId())) {
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    subscription.listener.accept(event);
+                } catch (RuntimeException e) {
+                    log.debug("Falha ao entregar evento do pagamento {}: {}", event.paymentId(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    private static Counter published(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("lunapay.payments.events.published")
+                .description("Mudanças de status entregues ao barramento de eventos")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Assinatura ativa; {@link #close()} é idempotente.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final String paymentId;
+        private final String tenantId;
+        private final Consumer<PaymentStatusEvent> listener;
+
+        private Subscription(String paymentId, String tenantId, Consumer<PaymentStatusEvent> listener) {
+            this.paymentId = paymentId;
+            this.tenantId = tenantId;
+            this.listener = listener;
+        }
+
+        @Override
+        public void close() {
+            subscriptions.computeIfPresent(paymentId, (id, set) -> {
+                if (set.remove(this)) {
+                    subscriberCount.decrementAndGet();
+                }
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
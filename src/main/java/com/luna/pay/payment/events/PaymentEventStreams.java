@@ -0,0 +1,187 @@
+package com.luna.pay.payment.events;
+
+import com.luna.pay.payment.PaymentController.PaymentStatusResponse;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.PaymentStatusSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Conexões SSE abertas. Cada conexão é um {@link SseEmitter} assíncrono (sem
+ * thread presa) assinado no {@link PaymentEventBus}; um único agendamento
+ * envia comentários de keep-alive para todas, para proxies não derrubarem
+ * conexões ociosas.
+ *
+ * SseEmitter.send escreve no socket de forma síncrona. Para um cliente lento
+ * não travar a thread de entrega do barramento (nem o agendamento do
+ * keep-alive), os envios de cada conexão entram numa fila própria, drenada em
+ * ordem pelo pool payment-events-sse. Keep-alive não é enfileirado enquanto
+ * a conexão ainda tem envios pendentes.
+ */
+@Component
+@Slf4j
+class PaymentEventStreams {
+
+    static final String STATUS_EVENT = "status";
+
+    private final PaymentEventBus eventBus;
+    private final Duration timeout;
+    private final ExecutorService writers;
+    private final Set<Stream> open = ConcurrentHashMap.newKeySet();
+
+    PaymentEventStreams(PaymentEventBus eventBus,
+                        @Value("${payment.events.sse-timeout:30m}") Duration timeout,
+                        @Value("${payment.events.sse-writer-threads:8}") int writerThreads) {
+        this.eventBus = eventBus;
+        this.timeout = timeout;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> {
+            Thread thread = new Thread(r, "payment-events-sse-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Abre o stream enviando o status atual; fecha quando o status se torna final.
+     *
+     * @param latest relido depois de assinar, para não perder uma mudança entre
+     *               a primeira leitura e a assinatura
+     */
+    SseEmitter open(PaymentStatusSnapshot current, Supplier<PaymentStatusSnapshot> latest) {
+        Stream stream = new Stream(new SseEmitter(timeout.toMillis()));
+        PaymentEventBus.Subscription subscription = eventBus.subscribe(current.id(), current.tenantId(),
+                event -> stream.status(current.withStatus(event.status())));
+
+        Runnable cleanup = () -> {
+            subscription.close();
+            stream.closed.set(true);
+            open.remove(stream);
+        };
+        stream.emitter.onCompletion(cleanup);
+        stream.emitter.onTimeout(stream.emitter::complete);
+        stream.emitter.onError(e -> cleanup.run());
+        open.add(stream);
+
+        stream.status(latest.get());
+        return stream.emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Stream stream : open) {
+            if (stream.pending.isEmpty()) {
+                stream.enqueue(stream::keepAlive);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    static boolean isFinal(PaymentStatus status) {
+        return Arrays.stream(PaymentStatus.values()).noneMatch(status::canTransitionTo);
+    }
+
+    /**
+     * Uma conexão SSE e seus envios pendentes, drenados por no máximo uma
+     * thread do pool por vez.
+     */
+    private final class Stream {
+
+        private final SseEmitter emitter;
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void status(PaymentStatusSnapshot status) {
+            enqueue(() -> send(status));
+        }
+
+        void enqueue(Runnable write) {
+            if (closed.get()) {
+                return;
+            }
+            pending.add(write);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable write;
+                while (!closed.get() && (write = pending.poll()) != null) {
+                    write.run();
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (closed.get()) {
+                pending.clear();
+            } else if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(PaymentStatusSnapshot status) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(STATUS_EVENT)
+                        .id(status.status().name())
+                        .data(new PaymentStatusResponse(status.id(), status.status(), status.gatewayPaymentId()),
+                                MediaType.APPLICATION_JSON));
+                if (isFinal(status.status())) {
+                    closed.set(true);
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Stream SSE do pagamento {} encerrado: {}", status.id(), e.getMessage());
+                fail(e);
+            }
+        }
+
+        private void keepAlive() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Exception e) {
+            closed.set(true);
+            open.remove(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.luna.pay.payment.events;
+
+import com.luna.pay.common.exception.PaymentException;
+import com.luna.pay.payment.PaymentController.PaymentStatusResponse;
+import com.luna.pay.payment.PaymentService;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.PaymentStatusSnapshot;
+import com.luna.pay.security.UserContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Mudanças de status de um pagamento, como alternativa ao polling de
+ * GET /payments/{id}/status:
+ * - sem parâmetros: stream SSE (evento "status" a cada mudança)
+ * - {@code ?waitFor=PAID&timeout=30s}: long-poll, responde quando o pagamento
+ *   chega ao status pedido, quando ele se torna inalcançável (ex.: CANCELED)
+ *   ou, no timeout, com o status atual
+ *
+ * As duas formas liberam a thread do Tomcat enquanto esperam (DeferredResult /
+ * SseEmitter) e são acordadas pelo {@link PaymentEventBus}.
+ */
+@RestController
+@RequestMapping("/payments")
+public class PaymentEventsController {
+
+    private final PaymentService paymentService;
+    private final PaymentEventBus eventBus;
+    private final PaymentEventStreams streams;
+    private final Duration maxWait;
+
+    public PaymentEventsController(PaymentService paymentService,
+                                   PaymentEventBus eventBus,
+                                   PaymentEventStreams streams,
+                                   @Value("${payment.events.max-wait:60s}") Duration maxWait) {
+        this.paymentService = paymentService;
+        this.eventBus = eventBus;
+        this.streams = streams;
+        this.maxWait = maxWait;
+    }
+
+    @GetMapping(value = "/{id}/events", params = "!waitFor")
+    public ResponseEntity<SseEmitter> streamEvents(
+            @PathVariable String id,
+            @AuthenticationPrincipal UserContext user) {
+
+        String tenantId = user.getTenantId();
+        return paymentService.findStatus(id, tenantId)
+                .map(current -> ResponseEntity.ok(streams.open(current,
+                        () -> paymentService.findStatus(id, tenantId).orElse(current))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{id}/events", params = "waitFor")
+    public DeferredResult<ResponseEntity<PaymentStatusResponse>> waitForStatus(
+            @PathVariable String id,
+            @RequestParam String waitFor,
+            @RequestParam(defaultValue = "30s") String timeout,
+            @AuthenticationPrincipal UserContext user) {
+
+        PaymentStatus target = parseStatus(waitFor);
+        Duration wait = parseTimeout(timeout);
+        String tenantId = user.getTenantId();
+
+        DeferredResult<ResponseEntity<PaymentStatusResponse>> result = new DeferredResult<>(wait.toMillis());
+
+        Optional<PaymentStatusSnapshot> current = paymentService.findStatus(id, tenantId);
+        if (current.isEmpty()) {
+            result.setResult(ResponseEntity.notFound().build());
+            return result;
+        }
+        if (settles(current.get().status(), target)) {
+            result.setResult(ok(current.get()));
+            return result;
+        }
+
+        // O callback roda numa thread de entrega do barramento: monta a resposta
+        // a partir do evento e do snapshot já lido, sem ir ao banco
+        PaymentStatusSnapshot base = current.get();
+        PaymentEventBus.Subscription subscription = eventBus.subscribe(id, tenantId, event -> {
+            if (settles(event.status(), target)) {
+                result.setResult(ok(base.withStatus(event.status())));
+            }
+        });
+        result.onCompletion(subscription::close);
+        result.onTimeout(() -> result.setResult(paymentService.findStatus(id, tenantId)
+                .map(PaymentEventsController::ok)
+                .orElse(ResponseEntity.notFound().build())));
+
+        // Relido depois de assinar para não perder uma mudança entre a primeira leitura e a assinatura
+        paymentService.findStatus(id, tenantId)
+                .filter(latest -> settles(latest.status(), target))
+                .ifPresent(latest -> result.setResult(ok(latest)));
+        return result;
+    }
+
+    /**
+     * O status pedido foi alcançado ou não pode mais ser alcançado.
+     */
+    static boolean settles(PaymentStatus status, PaymentStatus target) {
+        return status == target || !status.canTransitionTo(target);
+    }
+
+    private PaymentStatus parseStatus(String waitFor) {
+        try {
+            return PaymentStatus.valueOf(waitFor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new PaymentException("Status inválido em waitFor: " + waitFor);
+        }
+    }
+
+    private Duration parseTimeout(String timeout) {
+        Duration wait;
+        try {
+            wait = DurationStyle.detectAndParse(timeout);
+        } catch (IllegalArgumentException e) {
+            throw new PaymentException("Timeout inválido: " + timeout);
+        }
+        if (wait.isNegative() || wait.isZero()) {
+            throw new PaymentException("Timeout deve ser positivo");
+        }
+        return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+    }
+
+    private static ResponseEntity<PaymentStatusResponse> ok(PaymentStatusSnapshot status) {
+        return ResponseEntity.ok()
+                .eTag(status.etag())
+                .body(new PaymentStatusResponse(status.id(), status.status(), status.gatewayPaymentId()));
+    }
+}
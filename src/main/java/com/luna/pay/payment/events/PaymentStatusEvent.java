@@ -0,0 +1,12 @@
+package com.luna.pay.payment.events;
+
+import com.luna.pay.payment.PaymentStatus;
+
+/**
+ * Status gravado para um pagamento, já commitado.
+ */
+public record PaymentStatusEvent(
+        String paymentId,
+        String tenantId,
+        PaymentStatus status
+) {}
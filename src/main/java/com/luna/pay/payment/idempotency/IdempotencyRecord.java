@@ -0,0 +1,77 @@
+package com.luna.pay.payment.idempotency;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Resultado persistido de uma criação de pagamento feita com Idempotency-Key.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_tenant_key",
+                columnNames = {"tenant_id", "idempotency_key"}))
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED,
+        // Falhou com a cobrança possivelmente criada (timeout, 5xx): a chave não é reaproveitada
+        AMBIGUOUS
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 do corpo da requisição: a mesma chave com outro corpo é rejeitada.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "response_body", length = 65535)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Até quando a execução IN_PROGRESS detém a chave; depois disso outra
+     * tentativa pode assumi-la.
+     */
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    public IdempotencyRecord(String tenantId, String idempotencyKey, String requestHash,
+                             Instant expiresAt, Instant lockedUntil) {
+        this.tenantId = tenantId;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.status = Status.IN_PROGRESS;
+        this.expiresAt = expiresAt;
+        this.lockedUntil = lockedUntil;
+    }
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,57 @@
+package com.luna.pay.payment.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    Optional<IdempotencyRecord> findByTenantIdAndIdempotencyKey(String tenantId, String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    /**
+     * Troca o prazo de uma reserva IN_PROGRESS: assume uma reserva vencida ou
+     * renova a própria. Condicionado ao prazo lido: só uma tentativa
+     * concorrente consegue.
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.lockedUntil = :lockedUntil "
+            + "where r.id = :id and r.status = com.luna.pay.payment.idempotency.IdempotencyRecord$Status.IN_PROGRESS "
+            + "and r.lockedUntil = :currentLease")
+    int extendLease(@Param("id") String id, @Param("currentLease") Instant currentLease,
+                    @Param("lockedUntil") Instant lockedUntil);
+
+    /**
+     * Marca a reserva desta execução como AMBIGUOUS: a criação falhou de um
+     * jeito em que a cobrança pode existir.
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = com.luna.pay.payment.idempotency.IdempotencyRecord$Status.AMBIGUOUS, "
+            + "r.lockedUntil = null "
+            + "where r.id = :id and r.status = com.luna.pay.payment.idempotency.IdempotencyRecord$Status.IN_PROGRESS "
+            + "and r.lockedUntil = :lockedUntil")
+    int markAmbiguous(@Param("id") String id, @Param("lockedUntil") Instant lockedUntil);
+
+    /**
+     * Libera a reserva se ainda for desta execução (não assumida por outra).
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id "
+            + "and r.status = com.luna.pay.payment.idempotency.IdempotencyRecord$Status.IN_PROGRESS "
+            + "and r.lockedUntil = :lockedUntil")
+    int release(@Param("id") String id, @Param("lockedUntil") Instant lockedUntil);
+}
@@ -0,0 +1,355 @@
+package com.luna.pay.payment.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.common.exception.IdempotencyConflictException;
+import com.luna.pay.common.exception.PaymentException;
+import com.luna.pay.gateway.resilience.GatewayFailures;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.luna.pay.payment.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotência de POST /payments por (tenant, Idempotency-Key).
+ *
+ * 1. chamadas simultâneas com a mesma chave no mesmo nó compartilham uma
+ *    única execução (mapa de requisições em andamento)
+ * 2. a primeira execução reserva a chave na tabela idempotency_keys
+ *    (IN_PROGRESS) antes de chamar o gateway e grava o corpo do 201 ao final
+ * 3. novas tentativas dentro do TTL recebem o corpo gravado, sem chamar o
+ *    gateway; em outro nó, enquanto a primeira ainda executa, recebem 409
+ *
+ * Falhas em que a cobrança com certeza não foi criada (validação, recusa do
+ * gateway, 4xx, falha de conexão) liberam a chave e o cliente pode tentar de
+ * novo. As demais (timeout, 5xx, erro ao gravar depois da cobrança criada)
+ * deixam a chave AMBIGUOUS até o fim do TTL: novas tentativas recebem 409 em
+ * vez de criar uma segunda cobrança, e o pagamento em CREATING é resolvido
+ * pela recuperação.
+ *
+ * A reserva IN_PROGRESS vale por lease, renovado a cada terço do lease
+ * enquanto a criação roda, por mais lenta que seja. Vencida (nó caiu no meio
+ * da criação), a próxima tentativa assume a chave em vez de receber 409 até o
+ * fim do TTL.
+ *
+ * Métricas: lunapay.payments.idempotency{outcome=created|replayed|coalesced|conflict}.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter created;
+    private final Counter replayed;
+    private final Counter coalesced;
+    private final Counter conflicts;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${payment.idempotency.lease:2m}") Duration lease) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+
+        this.created = outcome(meterRegistry, "created");
+        this.replayed = outcome(meterRegistry, "replayed");
+        this.coalesced = outcome(meterRegistry, "coalesced");
+        this.conflicts = outcome(meterRegistry, "conflict");
+    }
+
+    /**
+     * Executa {@code action} no máximo uma vez por (tenant, chave) dentro do TTL.
+     * Sem chave, apenas executa.
+     *
+     * As consultas à tabela são curtas e rodam na thread de quem assina; a
+     * gravação final roda na thread em que {@code action} emite o resultado.
+     */
+    public Mono<IdempotentResponse> execute(String tenantId, String idempotencyKey, CreatePaymentRequest request,
+                                            Supplier<Mono<PaymentResponse>> action) {
+        if (idempotencyKey == null) {
+            return Mono.defer(action).map(body -> new IdempotentResponse(body, false));
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new PaymentException("Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres"));
+        }
+
+        String requestHash = fingerprint(request);
+        String key = tenantId + '|' + idempotencyKey;
+
+        boolean[] first = {false};
+        InFlight execution = inFlight.computeIfAbsent(key, k -> {
+            first[0] = true;
+            Mono<IdempotentResponse> shared = run(tenantId, idempotencyKey, requestHash, action)
+                    .doFinally(signal -> inFlight.remove(k))
+                    .cache();
+            return new InFlight(requestHash, shared);
+        });
+
+        if (!first[0]) {
+            if (!execution.requestHash().equals(requestHash)) {
+                return Mono.error(reusedKey());
+            }
+            coalesced.increment();
+        }
+        return execution.response();
+    }
+
+    private Mono<IdempotentResponse> run(String tenantId, String idempotencyKey, String requestHash,
+                                         Supplier<Mono<PaymentResponse>> action) {
+        return Mono.fromCallable(() -> begin(tenantId, idempotencyKey, requestHash))
+                .flatMap(record -> {
+                    if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                        replayed.increment();
+                        return Mono.just(new IdempotentResponse(read(record.getResponseBody()), true));
+                    }
+                    Reservation reservation = new Reservation(record);
+                    Duration every = lease.dividedBy(3);
+                    Disposable renewal = Flux.interval(every, every)
+                            .onBackpressureDrop()
+                            .concatMap(tick -> Mono.fromRunnable(reservation::renew)
+                                    .subscribeOn(Schedulers.boundedElastic()))
+                            .subscribe();
+                    return Mono.defer(action)
+                            .map(body -> {
+                                reservation.complete(body);
+                                created.increment();
+                                return new IdempotentResponse(body, false);
+                            })
+                            // Depois de complete: uma falha ao gravar a resposta também é tratada aqui
+                            .onErrorResume(e -> {
+                                reservation.fail(e);
+                                return Mono.error(e);
+                            })
+                            .doFinally(signal -> renewal.dispose());
+                });
+    }
+
+    /**
+     * Retorna o registro já concluído (replay) ou reserva a chave, criando um
+     * registro IN_PROGRESS ou assumindo um cujo lease venceu.
+     */
+    private IdempotencyRecord begin(String tenantId, String idempotencyKey, String requestHash) {
+        IdempotencyRecord existing = repository.findByTenantIdAndIdempotencyKey(tenantId, idempotencyKey).orElse(null);
+        if (existing != null && existing.getExpiresAt().isBefore(Instant.now())) {
+            repository.delete(existing);
+            repository.flush();
+            existing = null;
+        }
+
+        if (existing != null) {
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw reusedKey();
+            }
+            if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return existing;
+            }
+            if (existing.getStatus() == IdempotencyRecord.Status.AMBIGUOUS) {
+                conflicts.increment();
+                throw new IdempotencyConflictException("A criação com esta Idempotency-Key falhou sem resultado "
+                        + "conclusivo no gateway; consulte os pagamentos antes de tentar com outra chave");
+            }
+            return takeOver(existing);
+        }
+
+        try {
+            return repository.saveAndFlush(new IdempotencyRecord(tenantId, idempotencyKey, requestHash,
+                    Instant.now().plus(ttl), newLease()));
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó reservou a mesma chave entre a consulta e a inserção
+            throw inProgress();
+        }
+    }
+
+    private IdempotencyRecord takeOver(IdempotencyRecord existing) {
+        Instant expiredLease = existing.getLockedUntil();
+        if (expiredLease == null || expiredLease.isAfter(Instant.now())) {
+            throw inProgress();
+        }
+        Instant lockedUntil = newLease();
+        if (repository.extendLease(existing.getId(), expiredLease, lockedUntil) == 0) {
+            // Outra tentativa assumiu ou concluiu primeiro
+            throw inProgress();
+        }
+        log.warn("Idempotency-Key {} do tenant {} estava IN_PROGRESS com lease vencido em {}; reassumida",
+                existing.getIdempotencyKey(), existing.getTenantId(), expiredLease);
+        existing.setLockedUntil(lockedUntil);
+        return existing;
+    }
+
+    /**
+     * Em microssegundos, a precisão da coluna: o valor lido de volta é igual
+     * ao gravado nas atualizações condicionadas.
+     */
+    private Instant newLease() {
+        return Instant.now().plus(lease).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void complete(IdempotencyRecord record, PaymentResponse body) {
+        try {
+            record.setResponseBody(objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar resposta idempotente", e);
+        }
+        record.setStatus(IdempotencyRecord.Status.COMPLETED);
+        repository.save(record);
+    }
+
+    /**
+     * Falhas em que a cobrança com certeza não existe: recusa de validação ou
+     * do gateway ({@link PaymentException}) e as de
+     * {@link GatewayFailures#isChargeNotCreated}.
+     */
+    private static boolean isChargeNotCreated(Throwable error) {
+        return error instanceof PaymentException || GatewayFailures.isChargeNotCreated(error);
+    }
+
+    private void markAmbiguous(IdempotencyRecord record, Throwable error) {
+        log.warn("Criação com Idempotency-Key {} do tenant {} falhou sem resultado conclusivo ({}); chave mantida",
+                record.getIdempotencyKey(), record.getTenantId(), error.getMessage());
+        try {
+            repository.markAmbiguous(record.getId(), record.getLockedUntil());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao marcar Idempotency-Key {} do tenant {} como AMBIGUOUS: {}",
+                    record.getIdempotencyKey(), record.getTenantId(), e.getMessage());
+        }
+    }
+
+    private void release(IdempotencyRecord record) {
+        try {
+            repository.release(record.getId(), record.getLockedUntil());
+        } catch (RuntimeException e) {
+            // Sem liberar, a chave pode ser reassumida quando o lease vencer
+            log.warn("Falha ao liberar Idempotency-Key {} do tenant {}: {}",
+                    record.getIdempotencyKey(), record.getTenantId(), e.getMessage());
+        }
+    }
+
+    private PaymentResponse read(String body) {
+        try {
+            return objectMapper.readValue(body, PaymentResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta idempotente gravada é inválida", e);
+        }
+    }
+
+    private String fingerprint(CreatePaymentRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Falha ao calcular hash da requisição", e);
+        }
+    }
+
+    private PaymentException reusedKey() {
+        return new PaymentException("Idempotency-Key já utilizada com uma requisição diferente");
+    }
+
+    private IdempotencyConflictException inProgress() {
+        conflicts.increment();
+        return new IdempotencyConflictException("Requisição com esta Idempotency-Key ainda está em processamento");
+    }
+
+    /**
+     * Remove chaves expiradas.
+     */
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = repository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            log.info("Idempotency-Keys expiradas removidas: {}", removed);
+        }
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("lunapay.payments.idempotency")
+                .description("Criações de pagamento com Idempotency-Key por resultado")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record InFlight(String requestHash, Mono<IdempotentResponse> response) {}
+
+    /**
+     * Reserva IN_PROGRESS desta execução. Renovação, conclusão e falha são
+     * serializadas: o prazo usado nas escritas condicionadas é sempre o último
+     * gravado, e nada é renovado depois do fim.
+     */
+    private final class Reservation {
+
+        private final IdempotencyRecord record;
+        private boolean finished;
+
+        Reservation(IdempotencyRecord record) {
+            this.record = record;
+        }
+
+        synchronized void renew() {
+            if (finished) {
+                return;
+            }
+            Instant lockedUntil = newLease();
+            try {
+                if (repository.extendLease(record.getId(), record.getLockedUntil(), lockedUntil) == 1) {
+                    record.setLockedUntil(lockedUntil);
+                } else {
+                    finished = true;
+                    log.warn("Idempotency-Key {} do tenant {} não está mais reservada por esta execução",
+                            record.getIdempotencyKey(), record.getTenantId());
+                }
+            } catch (RuntimeException e) {
+                // Tenta de novo na próxima renovação, ainda dentro do lease
+                log.warn("Falha ao renovar Idempotency-Key {} do tenant {}: {}",
+                        record.getIdempotencyKey(), record.getTenantId(), e.getMessage());
+            }
+        }
+
+        synchronized void complete(PaymentResponse body) {
+            finished = true;
+            IdempotencyService.this.complete(record, body);
+        }
+
+        synchronized void fail(Throwable error) {
+            finished = true;
+            if (isChargeNotCreated(error)) {
+                release(record);
+            } else {
+                markAmbiguous(record, error);
+            }
+        }
+    }
+
+    /**
+     * @param replayed true quando o corpo veio da tabela (sem chamar o gateway)
+     */
+    public record IdempotentResponse(PaymentResponse body, boolean replayed) {}
+}
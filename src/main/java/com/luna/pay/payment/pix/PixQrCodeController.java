@@ -0,0 +1,92 @@
+package com.luna.pay.payment.pix;
+
+import com.luna.pay.payment.PaymentService;
+import com.luna.pay.security.UserContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Imagem do QR Code PIX, servida sob demanda fora do JSON do pagamento.
+ *
+ * O hash do conteúdo é a ETag: o QR Code de um pagamento nunca muda, então
+ * clientes revalidam com If-None-Match e recebem 304 sem corpo. O PNG é
+ * enviado direto do arquivo em cache: com o sendfile do Tomcat o kernel copia
+ * o arquivo para o socket; sem ele, via FileChannel.transferTo.
+ */
+@RestController
+@RequestMapping("/payments")
+@RequiredArgsConstructor
+public class PixQrCodeController {
+
+    static final String CACHE_CONTROL = "private, max-age=86400";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final PaymentService paymentService;
+    private final PixQrCodeStore pixQrCodeStore;
+
+    @GetMapping("/{id}/pix/qrcode")
+    public void getQrCode(@PathVariable String id,
+                          @AuthenticationPrincipal UserContext user,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+
+        Optional<String> hash = paymentService.findPixQrHash(id, user.getTenantId());
+        if (hash.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + hash.get() + "\"")) {
+            return;
+        }
+
+        Optional<Path> file = pixQrCodeStore.materialize(hash.get());
+        if (file.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long size = Files.size(file.get());
+        response.setContentType(MediaType.IMAGE_PNG_VALUE);
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.get(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.luna.pay.payment.pix;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Armazenamento endereçado por conteúdo dos QR Codes PIX.
+ *
+ * A chave é o SHA-256 (hex) do payload copia e cola: o mesmo payload é gravado
+ * uma única vez e o registro nunca muda, o que permite usar o hash como ETag.
+ * A tabela pix_qr_codes guarda o payload e, quando o gateway devolveu, a imagem;
+ * os PNGs servidos ficam em cache no disco (storage-path/hh/hash.png) para
+ * serem enviados direto do arquivo.
+ */
+@Component
+@Slf4j
+public class PixQrCodeStore {
+
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final String INSERT_SQL = """
+            INSERT INTO pix_qr_codes (hash, payload, image, created_at)
+            SELECT ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM pix_qr_codes WHERE hash = ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path storagePath;
+
+    public PixQrCodeStore(JdbcTemplate jdbcTemplate,
+                          @Value("${payment.pix.qrcode.storage-path:${java.io.tmpdir}/lunapay/pix-qrcodes}") String storagePath) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.storagePath = Paths.get(storagePath);
+    }
+
+    /**
+     * Grava o payload (se ainda não existir) e devolve o hash que o endereça.
+     *
+     * @param gatewayImageBase64 imagem devolvida pelo gateway; só é guardada se
+     *                           for um PNG válido, senão a imagem é gerada localmente
+     * @return o hash, ou null se não houver payload
+     */
+    public String save(String payload, String gatewayImageBase64) {
+        if (payload == null || payload.isBlank()) {
+            return null;
+        }
+        String hash = hash(payload);
+        try {
+            jdbcTemplate.update(INSERT_SQL,
+                    hash, payload, new SqlParameterValue(Types.VARBINARY, decodePng(gatewayImageBase64)),
+                    Timestamp.from(Instant.now()), hash);
+        } catch (DuplicateKeyException e) {
+            // Mesmo payload gravado em paralelo: o conteúdo é idêntico
+        }
+        return hash;
+    }
+
+    /**
+     * Como {@link #save}, para vários pagamentos num único JDBC batch.
+     *
+     * @return os hashes, na ordem dos payloads (null onde não houver payload)
+     */
+    public List<String> saveAll(List<String> payloads, List<String> gatewayImagesBase64) {
+        List<String> hashes = new ArrayList<>(payloads.size());
+        Map<String, Object[]> rows = new LinkedHashMap<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < payloads.size(); i++) {
+            String payload = payloads.get(i);
+            if (payload == null || payload.isBlank()) {
+                hashes.add(null);
+                continue;
+            }
+            String hash = hash(payload);
+            hashes.add(hash);
+            String image = gatewayImagesBase64.get(i);
+            rows.computeIfAbsent(hash, h -> new Object[]{
+                    h, payload, new SqlParameterValue(Types.VARBINARY, decodePng(image)), now, h});
+        }
+        if (rows.isEmpty()) {
+            return hashes;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, List.copyOf(rows.values()));
+        } catch (DuplicateKeyException e) {
+            // Algum payload gravado em paralelo: grava um a um, ignorando os repetidos
+            for (Object[] row : rows.values()) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, row);
+                } catch (DuplicateKeyException ignored) {
+                    // Conteúdo idêntico
+                }
+            }
+        }
+        return hashes;
+    }
+
+    public Optional<String> findPayload(String hash) {
+        List<String> payload = jdbcTemplate.queryForList(
+                "SELECT payload FROM pix_qr_codes WHERE hash = ?", String.class, hash);
+        return payload.stream().findFirst();
+    }
+
+    /**
+     * Devolve o arquivo PNG do QR Code, criando-o no primeiro acesso a partir da
+     * imagem do gateway ou gerando-a do payload. A escrita vai para um arquivo
+     * temporário e é movida no final, então leitores concorrentes nunca veem um
+     * PNG pela metade.
+     *
+     * @return vazio se o hash não existir
+     */
+    public Optional<Path> materialize(String hash) {
+        Path file = storagePath.resolve(hash.substring(0, 2)).resolve(hash + ".png");
+        if (Files.exists(file)) {
+            return Optional.of(file);
+        }
+
+        List<byte[]> images = jdbcTemplate.query(
+                "SELECT payload, image FROM pix_qr_codes WHERE hash = ?",
+                (rs, i) -> {
+                    byte[] image = rs.getBytes(2);
+                    return image != null ? image : PixQrCodeGenerator.png(rs.getString(1));
+                },
+                hash);
+        if (images.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), hash, ".tmp");
+            try {
+                Files.write(tmp, images.get(0));
+                moveAtomically(tmp, file);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar QR Code PIX " + hash, e);
+        }
+        return Optional.of(file);
+    }
+
+    static String hash(String payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] decodePng(String base64) {
+        if (base64 == null || base64.isBlank()) {
+            return null;
+        }
+        String data = base64.startsWith("data:") ? base64.substring(base64.indexOf(',') + 1) : base64;
+        try {
+            byte[] image = Base64.getMimeDecoder().decode(data);
+            return startsWithPngMagic(image) ? image : null;
+        } catch (IllegalArgumentException e) {
+            log.debug("Imagem de QR Code do gateway não é base64 válido; será gerada localmente");
+            return null;
+        }
+    }
+
+    private static boolean startsWithPngMagic(byte[] image) {
+        if (image.length < PNG_MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < PNG_MAGIC.length; i++) {
+            if (image[i] != PNG_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(source, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // Outro acesso concorrente criou o mesmo arquivo
+            }
+        } catch (FileAlreadyExistsException ignored) {
+            // Outro acesso concorrente criou o mesmo arquivo
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.luna.pay.payment.reconciliation;
+
+import com.luna.pay.common.exception.GatewayException;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.PaymentStatusChange;
+import com.luna.pay.payment.PaymentStatusUpdater;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Concilia pagamentos que ficaram PENDING (webhook perdido) consultando o
+ * status diretamente no gateway.
+ *
+ * A cada ciclo, para cada gateway habilitado (gateways em paralelo):
+ * 1. percorre as fatias (faixas de id) em ordem aleatória, reservando uma por
+ *    vez em reconciliation_shards: vários nós dividem o trabalho sem consultar
+ *    o mesmo pagamento duas vezes
+ * 2. lê uma página de pendentes da fatia pelo índice idx_payments_pending,
+ *    continuando da marca d'água (created_at, id) do ciclo anterior; o custo
+ *    acompanha o número de pendentes, não o tamanho da tabela
+ * 3. consulta o gateway limitado a rate-per-second (por nó) e a
+ *    max-concurrency chamadas simultâneas
+ * 4. aplica as mudanças num JDBC batch ({@link PaymentStatusUpdater}), com
+ *    compare-and-set sobre PENDING: um webhook que chegou antes prevalece
+ * 5. grava a nova marca d'água e libera a fatia
+ *
+ * Pagamentos mais novos que min-age são deixados para o webhook.
+ *
+ * Métricas: lunapay.reconciliation.polls{gateway, outcome=updated|unchanged|failed}
+ * e lunapay.reconciliation.cycle.
+ */
+@Component
+@Slf4j
+public class PaymentReconciler {
+
+    private static final String NODE_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    private final GatewayRegistry gatewayRegistry;
+    private final PaymentStatusUpdater paymentStatusUpdater;
+    private final ReconciliationShards shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final int shardCount;
+    private final int pageSize;
+    private final Duration minAge;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final int maxConcurrency;
+    private final Duration requestTimeout;
+
+    private final Timer cycle;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PaymentReconciler(GatewayRegistry gatewayRegistry,
+                             PaymentStatusUpdater paymentStatusUpdater,
+                             ReconciliationShards shards,
+                             JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${payment.reconciliation.enabled:true}") boolean enabled,
+                             @Value("${payment.reconciliation.shards:8}") int shardCount,
+                             @Value("${payment.reconciliation.page-size:200}") int pageSize,
+                             @Value("${payment.reconciliation.min-age:5m}") Duration minAge,
+                             @Value("${payment.reconciliation.lease:5m}") Duration lease,
+                             @Value("${payment.reconciliation.rate-per-second:10}") double ratePerSecond,
+                             @Value("${payment.reconciliation.max-concurrency:4}") int maxConcurrency,
+                             @Value("${payment.reconciliation.request-timeout:30s}") Duration requestTimeout) {
+        this.gatewayRegistry = gatewayRegistry;
+        this.paymentStatusUpdater = paymentStatusUpdater;
+        this.shards = shards;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.shardCount = Math.max(1, Math.min(256, shardCount));
+        this.pageSize = pageSize;
+        this.minAge = minAge;
+        this.lease = lease;
+        this.pollInterval = Duration.ofNanos((long) (1_000_000_000L / Math.max(0.001, ratePerSecond)));
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.requestTimeout = requestTimeout;
+
+        this.cycle = Timer.builder("lunapay.reconciliation.cycle")
+                .description("Duração de um ciclo de conciliação de pagamentos pendentes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:60000}",
+            initialDelayString = "${payment.reconciliation.initial-delay-ms:60000}")
+    public void reconcile() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int updated = cycle.record(this::runCycle);
+            if (updated > 0) {
+                log.info("Conciliação: {} pagamentos pendentes atualizados", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro na conciliação de pagamentos pendentes", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return pagamentos atualizados no ciclo
+     */
+    int runCycle() {
+        List<PaymentGateway> gateways = gatewayRegistry.getEnabled();
+        shards.ensure(gateways.stream().map(PaymentGateway::getGatewayName).toList(), shardCount);
+
+        return Flux.fromIterable(gateways)
+                .flatMap(gateway -> Mono.fromCallable(() -> reconcileGateway(gateway))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    private int reconcileGateway(PaymentGateway gateway) {
+        List<Integer> order = new ArrayList<>(IntStream.range(0, shardCount).boxed().toList());
+        Collections.shuffle(order);
+
+        int updated = 0;
+        for (int shard : order) {
+            updated += reconcileShard(gateway, shard);
+        }
+        return updated;
+    }
+
+    private int reconcileShard(PaymentGateway gateway, int shard) {
+        String name = gateway.getGatewayName();
+        String owner = NODE_ID + ":" + UUID.randomUUID();
+        Instant now = Instant.now();
+
+        Optional<ReconciliationShards.Watermark> claimed = shards.claim(name, shard, owner, now, now.plus(lease));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        ReconciliationShards.Watermark watermark = claimed.get();
+        try {
+            List<PendingPayment> page = findPending(name, shard, watermark, now.minus(minAge));
+            if (page.isEmpty()) {
+                watermark = ReconciliationShards.Watermark.START;
+                return 0;
+            }
+
+            PollResult result = poll(gateway, page);
+            List<PaymentStatusChange> applied = paymentStatusUpdater.apply(result.changes());
+            applied.forEach(c -> log.info("Pagamento conciliado: id={}, tenantId={}, {} -> {}",
+                    c.paymentId(), c.tenantId(), c.expectedStatus(), c.newStatus()));
+            counter(name, "updated").increment(applied.size());
+
+            if (result.rejected()) {
+                // Circuito aberto / bulkhead cheio: repete a mesma página no próximo ciclo
+                return applied.size();
+            }
+            PendingPayment last = page.get(page.size() - 1);
+            watermark = page.size() < pageSize
+                    ? ReconciliationShards.Watermark.START
+                    : new ReconciliationShards.Watermark(last.createdAt(), last.id());
+            return applied.size();
+        } finally {
+            shards.release(name, shard, owner, watermark);
+        }
+    }
+
+    private PollResult poll(PaymentGateway gateway, List<PendingPayment> page) {
+        String name = gateway.getGatewayName();
+        AtomicBoolean rejected = new AtomicBoolean();
+
+        List<PaymentStatusChange> changes = Flux.fromIterable(page)
+                .delayElements(pollInterval)
+                .flatMap(payment -> gateway.getPaymentStatusAsync(payment.gatewayPaymentId())
+                        .timeout(requestTimeout)
+                        .flatMap(status -> Mono.justOrEmpty(toChange(name, payment, status)))
+                        .onErrorResume(e -> {
+                            if (e instanceof GatewayException ge && ge.isRejected()) rejected.set(true);
+                            counter(name, "failed").increment();
+                            log.debug("[{}] Falha ao consultar status de {}: {}", name, payment.gatewayPaymentId(), e.getMessage());
+                            return Mono.empty();
+                        }), maxConcurrency)
+                .collectList()
+                .block();
+
+        return new PollResult(changes, rejected.get());
+    }
+
+    private Optional<PaymentStatusChange> toChange(String gateway, PendingPayment payment, GatewayPaymentStatus status) {
+        PaymentStatus newStatus = status == null ? null : status.getStatus();
+        if (newStatus == null || !PaymentStatus.PENDING.canTransitionTo(newStatus)) {
+            counter(gateway, "unchanged").increment();
+            return Optional.empty();
+        }
+        return Optional.of(new PaymentStatusChange(payment.id(), payment.tenantId(), PaymentStatus.PENDING, newStatus,
+                gateway, payment.paymentMethod()));
+    }
+
+    /**
+     * Página de pendentes da fatia após a marca d'água, em ordem (created_at, id),
+     * para o índice idx_payments_pending.
+     */
+    List<PendingPayment> findPending(String gateway, int shard, ReconciliationShards.Watermark after, Instant createdBefore) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, tenant_id, gateway_payment_id, created_at, payment_method FROM payments
+                WHERE status = 'PENDING' AND gateway = ? AND created_at <= ? AND gateway_payment_id IS NOT NULL
+                """);
+        List<Object> params = new ArrayList<>();
+        params.add(gateway);
+        params.add(Timestamp.from(createdBefore));
+
+        String lower = ReconciliationShards.lowerBound(shard, shardCount);
+        String upper = ReconciliationShards.upperBound(shard, shardCount);
+        if (lower != null) {
+            sql.append(" AND id >= ?");
+            params.add(lower);
+        }
+        if (upper != null) {
+            sql.append(" AND id < ?");
+            params.add(upper);
+        }
+        if (!after.isStart()) {
+            Timestamp createdAt = Timestamp.from(after.createdAt());
+            sql.append(" AND (created_at > ? OR (created_at = ? AND id > ?))");
+            params.add(createdAt);
+            params.add(createdAt);
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY created_at, id LIMIT ?");
+        params.add(pageSize);
+
+        return jdbcTemplate.query(sql.toString(),
+                (rs, i) -> new PendingPayment(rs.getString(1), rs.getString(2), rs.getString(3),
+                        rs.getTimestamp(4).toInstant(), rs.getString(5)),
+                params.toArray());
+    }
+
+    private Counter counter(String gateway, String outcome) {
+        return Counter.builder("lunapay.reconciliation.polls")
+                .description("Consultas de status da conciliação por resultado")
+                .tag("gateway", gateway)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    record PendingPayment(String id, String tenantId, String gatewayPaymentId, Instant createdAt, String paymentMethod) {}
+
+    private record PollResult(List<PaymentStatusChange> changes, boolean rejected) {}
+}
@@ -0,0 +1,120 @@
+package com.luna.pay.payment.reconciliation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leases e marcas d'água da tabela reconciliation_shards.
+ *
+ * Uma fatia é (gateway, faixa de ids). A reserva é um UPDATE condicionado à
+ * lease estar livre ou vencida, então dois nós nunca consultam a mesma fatia
+ * ao mesmo tempo; se um nó morre no meio, a fatia volta a ficar livre quando
+ * a lease vence.
+ */
+@Component
+@RequiredArgsConstructor
+class ReconciliationShards {
+
+    private static final String CLAIM_SQL = """
+            UPDATE reconciliation_shards SET owner = ?, lease_until = ?
+            WHERE gateway = ? AND shard = ? AND (lease_until IS NULL OR lease_until < ?)
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE reconciliation_shards
+            SET owner = NULL, lease_until = NULL, watermark_created_at = ?, watermark_id = ?, last_run_at = ?
+            WHERE gateway = ? AND shard = ? AND owner = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cria as linhas que faltam para {@code shardCount} fatias de cada gateway.
+     */
+    void ensure(Collection<String> gateways, int shardCount) {
+        for (String gateway : gateways) {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM reconciliation_shards WHERE gateway = ? AND shard < ?",
+                    Integer.class, gateway, shardCount);
+            if (existing != null && existing >= shardCount) {
+                continue;
+            }
+            for (int shard = 0; shard < shardCount; shard++) {
+                try {
+                    jdbcTemplate.update("""
+                            INSERT INTO reconciliation_shards (gateway, shard)
+                            SELECT ?, ? WHERE NOT EXISTS (
+                                SELECT 1 FROM reconciliation_shards WHERE gateway = ? AND shard = ?)
+                            """, gateway, shard, gateway, shard);
+                } catch (DuplicateKeyException e) {
+                    // Outro nó criou a mesma fatia
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserva a fatia até {@code until}.
+     *
+     * @return a marca d'água atual, ou vazio se outro nó detém a lease
+     */
+    Optional<Watermark> claim(String gateway, int shard, String owner, Instant now, Instant until) {
+        int claimed = jdbcTemplate.update(CLAIM_SQL,
+                owner, Timestamp.from(until), gateway, shard, Timestamp.from(now));
+        if (claimed == 0) {
+            return Optional.empty();
+        }
+        List<Watermark> watermark = jdbcTemplate.query(
+                "SELECT watermark_created_at, watermark_id FROM reconciliation_shards WHERE gateway = ? AND shard = ?",
+                (rs, i) -> {
+                    Timestamp createdAt = rs.getTimestamp(1);
+                    return new Watermark(createdAt == null ? null : createdAt.toInstant(), rs.getString(2));
+                },
+                gateway, shard);
+        return Optional.of(watermark.isEmpty() ? Watermark.START : watermark.get(0));
+    }
+
+    /**
+     * Libera a fatia gravando até onde ela foi consultada.
+     */
+    void release(String gateway, int shard, String owner, Watermark watermark) {
+        jdbcTemplate.update(RELEASE_SQL,
+                watermark.createdAt() == null ? null : Timestamp.from(watermark.createdAt()),
+                watermark.id(),
+                Timestamp.from(Instant.now()),
+                gateway, shard, owner);
+    }
+
+    /**
+     * Limite inferior (inclusivo) dos ids da fatia: os dois primeiros dígitos
+     * hexadecimais do UUID, dividindo 00..ff em {@code shardCount} faixas.
+     * A primeira fatia não tem limite inferior e a última não tem superior,
+     * de modo que qualquer id cai em exatamente uma fatia.
+     */
+    static String lowerBound(int shard, int shardCount) {
+        return shard == 0 ? null : "%02x".formatted(256 * shard / shardCount);
+    }
+
+    static String upperBound(int shard, int shardCount) {
+        return shard == shardCount - 1 ? null : lowerBound(shard + 1, shardCount);
+    }
+
+    /**
+     * Último (created_at, id) consultado; START recomeça do pendente mais antigo.
+     */
+    record Watermark(Instant createdAt, String id) {
+        static final Watermark START = new Watermark(null, null);
+
+        boolean isStart() {
+            return createdAt == null;
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package com.luna.pay.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -14,12 +15,26 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Autentica o bearer token de cada requisição.
+ *
+ * Métrica: lunapay.security.jwt.verification{outcome=valid|invalid}, o tempo
+ * de {@link JwtUtil#authenticate} (inclui os acertos do cache de tokens).
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final Timer validTokens;
+    private final Timer invalidTokens;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.validTokens = verification(meterRegistry, "valid");
+        this.invalidTokens = verification(meterRegistry, "invalid");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -32,20 +47,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
-            if (jwtUtil.isValid(token)) {
-                String userId = jwtUtil.getUserId(token);
-                String tenantId = jwtUtil.getTenantId(token);
-                String role = jwtUtil.getRole(token);
-                List<String> modules = jwtUtil.getModules(token);
+            long start = System.nanoTime();
+            UserContext userContext = jwtUtil.authenticate(token);
+            (userContext != null ? validTokens : invalidTokens).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-                if (!modules.contains("LUNAPAY")) {
+            if (userContext != null) {
+                if (!userContext.hasModule("LUNAPAY")) {
                     response.sendError(HttpServletResponse.SC_FORBIDDEN, "Módulo LUNAPAY não habilitado");
                     return;
                 }
 
-                UserContext userContext = new UserContext(userId, tenantId, role, modules);
-
-                var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+                var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + userContext.getRole()));
 
                 var auth = new UsernamePasswordAuthenticationToken(userContext, null, authorities);
                 SecurityContextHolder.getContext().setAuthentication(auth);
@@ -54,4 +66,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private static Timer verification(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("lunapay.security.jwt.verification")
+                .description("Tempo de verificação do JWT das requisições")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
@@ -1,11 +1,18 @@
 package com.luna.pay.security;
 
+import com.luna.pay.common.cache.ExpiringLruCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
 
 @Component
@@ -14,14 +21,69 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
 
+    /**
+     * Quantidade máxima de tokens já verificados mantidos em memória.
+     * Use 0 para desabilitar o cache.
+     */
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // Chave e parser são imutáveis e thread-safe: construídos uma única vez
+    private SecretKey key;
+    private JwtParser parser;
+    private ExpiringLruCache<String, UserContext> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = new ExpiringLruCache<>(cacheMaxEntries);
+    }
+
+    /**
+     * Valida o token e extrai todas as claims em uma única passada.
+     *
+     * Tokens já verificados ficam em cache (chaveados pelo SHA-256 do token)
+     * até o seu "exp", então requisições que reutilizam o mesmo bearer token
+     * não repetem a verificação HMAC.
+     *
+     * Token sem "exp" é inválido (mesma regra de {@link #isValid}): o LunaCore
+     * sempre emite a claim, e sem ela o token valeria para sempre.
+     *
+     * @return contexto do usuário, ou null se o token for inválido, expirado ou sem "exp"
+     */
+    public UserContext authenticate(String token) {
+        String digest = digest(token);
+
+        UserContext cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = getClaims(token);
+        if (claims == null) return null;
+
+        Date exp = claims.getExpiration();
+        if (exp == null || !exp.after(new Date())) return null;
+
+        UserContext userContext = new UserContext(
+                claims.getSubject(),
+                (String) claims.get("tenantId"),
+                (String) claims.get("role"),
+                getModules(claims)
+        );
+        verifiedTokens.put(digest, userContext, exp.toInstant());
+        return userContext;
+    }
+
+    ExpiringLruCache<String, UserContext> getVerifiedTokens() {
+        return verifiedTokens;
+    }
+
     private Claims getClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(Keys.hmacShaKeyFor(secret.getBytes()))
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (JwtException e) {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
     }
@@ -43,10 +105,18 @@ public class JwtUtil {
         return claims != null ? (String) claims.get("tenantId") : null;
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getModules(String token) {
         Claims claims = getClaims(token);
         if (claims == null) return List.of();
+        return getModules(claims);
+    }
+
+    public String getRole(String token) {
+        Claims claims = getClaims(token);
+        return claims != null ? (String) claims.get("role") : null;
+    }
+
+    private List<String> getModules(Claims claims) {
         Object modulesObj = claims.get("modules");
         if (modulesObj instanceof List<?> list) {
             return list.stream().map(Object::toString).toList();
@@ -54,8 +124,12 @@ public class JwtUtil {
         return List.of();
     }
 
-    public String getRole(String token) {
-        Claims claims = getClaims(token);
-        return claims != null ? (String) claims.get("role") : null;
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
     }
 }
@@ -2,7 +2,11 @@ package com.luna.pay.security;
 
 import java.util.List;
 
-public class UserContext {
+/**
+ * Dados do usuário autenticado extraídos do JWT. Imutável, pode ser
+ * compartilhado entre requisições que usam o mesmo token.
+ */
+public final class UserContext {
 
     private final String userId;
     private final String tenantId;
@@ -13,7 +17,7 @@ public class UserContext {
         this.userId = userId;
         this.tenantId = tenantId;
         this.role = role;
-        this.modules = modules;
+        this.modules = modules != null ? List.copyOf(modules) : List.of();
     }
 
     public String getUserId() { 
@@ -0,0 +1,178 @@
+package com.luna.pay.webhook;
+
+import com.luna.pay.common.cache.ExpiringLruCache;
+import com.luna.pay.gateway.webhook.WebhookJsonFields;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deduplicação de webhooks por id de evento.
+ *
+ * Camadas:
+ * 1. conjunto LRU em memória de eventos vistos recentemente: uma reentrega
+ *    é confirmada sem nenhuma escrita no banco
+ * 2. índice único (gateway, event_id) no inbox: cobre reentregas entre nós
+ *    ou após o despejo do LRU
+ * 3. tabela webhook_processed_events: cobre reentregas após a limpeza do inbox
+ *
+ * Métricas: lunapay.webhooks.duplicates{layer=memory|inbox|processed} e
+ * lunapay.webhooks.dedup.cache.size.
+ */
+@Component
+@Slf4j
+public class WebhookDeduplicator {
+
+    private static final int MAX_EVENT_ID_LENGTH = 100;
+
+    private static final WebhookJsonFields EVENT_ID = WebhookJsonFields.of("id");
+
+    private static final String INSERT_PROCESSED_SQL = """
+            INSERT INTO webhook_processed_events (gateway, event_id, processed_at)
+            SELECT ?, ?, ? WHERE NOT EXISTS (
+                SELECT 1 FROM webhook_processed_events WHERE gateway = ? AND event_id = ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ExpiringLruCache<String, Boolean> seen;
+    private final Duration seenTtl;
+
+    private final Counter memoryDuplicates;
+    private final Counter inboxDuplicates;
+    private final Counter processedDuplicates;
+
+    public WebhookDeduplicator(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${webhooks.dedup.cache-size:100000}") int cacheSize,
+                               @Value("${webhooks.dedup.cache-ttl:24h}") Duration seenTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.seen = new ExpiringLruCache<>(cacheSize);
+        this.seenTtl = seenTtl;
+
+        this.memoryDuplicates = duplicates(meterRegistry, "memory");
+        this.inboxDuplicates = duplicates(meterRegistry, "inbox");
+        this.processedDuplicates = duplicates(meterRegistry, "processed");
+        Gauge.builder("lunapay.webhooks.dedup.cache.size", seen, ExpiringLruCache::size)
+                .description("Eventos de webhook no conjunto de vistos recentemente")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Id do evento: o campo "id" de primeiro nível do payload (Asaas envia
+     * "evt_..."), ou o SHA-256 do payload quando ausente ou inválido, de forma
+     * que reentregas idênticas ainda sejam reconhecidas.
+     */
+    public String eventId(String payload) {
+        try {
+            String id = EVENT_ID.read(payload)[0];
+            if (id != null && !id.isBlank() && id.length() <= MAX_EVENT_ID_LENGTH) {
+                return id;
+            }
+        } catch (Exception e) {
+            log.debug("Payload de webhook sem JSON válido, usando hash como id do evento");
+        }
+        return "sha256:" + sha256(payload);
+    }
+
+    /**
+     * Consulta apenas a camada em memória (sem I/O).
+     */
+    public boolean seenRecently(String gateway, String eventId) {
+        if (seen.get(key(gateway, eventId)) != null) {
+            memoryDuplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void remember(String gateway, String eventId) {
+        seen.put(key(gateway, eventId), Boolean.TRUE, Instant.now().plus(seenTtl));
+    }
+
+    /**
+     * Registra uma reentrega barrada pelo índice único do inbox.
+     */
+    void duplicateInInbox(String gateway, String eventId) {
+        inboxDuplicates.increment();
+        remember(gateway, eventId);
+    }
+
+    /**
+     * Dentre os ids informados, retorna os que já constam como processados.
+     */
+    public Set<String> findProcessed(String gateway, Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Set.of();
+        }
+        List<String> found = namedJdbcTemplate.queryForList(
+                "SELECT event_id FROM webhook_processed_events WHERE gateway = :gateway AND event_id IN (:ids)",
+                new MapSqlParameterSource().addValue("gateway", gateway).addValue("ids", eventIds),
+                String.class);
+        processedDuplicates.increment(found.size());
+        return new HashSet<>(found);
+    }
+
+    /**
+     * Registra os eventos como processados (JDBC batch). Participa da
+     * transação corrente, quando houver.
+     */
+    public void recordProcessed(List<WebhookInboxEntry> entries) {
+        List<WebhookInboxEntry> withId = entries.stream().filter(e -> e.getEventId() != null).toList();
+        if (withId.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_PROCESSED_SQL, withId, withId.size(), (ps, entry) -> {
+            ps.setString(1, entry.getGateway());
+            ps.setString(2, entry.getEventId());
+            ps.setTimestamp(3, now);
+            ps.setString(4, entry.getGateway());
+            ps.setString(5, entry.getEventId());
+        });
+        withId.forEach(e -> remember(e.getGateway(), e.getEventId()));
+    }
+
+    public int purgeProcessedBefore(Instant before) {
+        return jdbcTemplate.update("DELETE FROM webhook_processed_events WHERE processed_at < ?", Timestamp.from(before));
+    }
+
+    private static String key(String gateway, String eventId) {
+        return gateway + '|' + eventId;
+    }
+
+    private static String sha256(String payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static Counter duplicates(MeterRegistry meterRegistry, String layer) {
+        return Counter.builder("lunapay.webhooks.duplicates")
+                .description("Reentregas de webhook descartadas por camada")
+                .tag("layer", layer)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.luna.pay.webhook;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Porta de entrada dos webhooks: persiste o evento bruto para processamento
+ * assíncrono, permitindo responder ao gateway imediatamente.
+ *
+ * Reentregas de um evento já visto são descartadas aqui, antes de qualquer
+ * escrita (ver {@link WebhookDeduplicator}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookInbox {
+
+    private final WebhookInboxRepository repository;
+    private final WebhookDeduplicator deduplicator;
+
+    /**
+     * @return false quando o evento é uma reentrega já registrada
+     */
+    public boolean enqueue(String gateway, String payload) {
+        String eventId = deduplicator.eventId(payload);
+        if (deduplicator.seenRecently(gateway, eventId)) {
+            log.debug("Webhook {} duplicado descartado: eventId={}", gateway, eventId);
+            return false;
+        }
+
+        try {
+            WebhookInboxEntry entry = repository.save(new WebhookInboxEntry(gateway, eventId, payload));
+            deduplicator.remember(gateway, eventId);
+            log.debug("Webhook {} enfileirado no inbox: id={}, eventId={}", gateway, entry.getId(), eventId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó (ou uma entrega anterior já fora do LRU) gravou o mesmo evento
+            deduplicator.duplicateInInbox(gateway, eventId);
+            log.debug("Webhook {} duplicado barrado no inbox: eventId={}", gateway, eventId);
+            return false;
+        }
+    }
+}
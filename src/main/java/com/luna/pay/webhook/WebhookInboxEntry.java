@@ -0,0 +1,55 @@
+package com.luna.pay.webhook;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Evento de webhook bruto, gravado antes de responder ao gateway.
+ */
+@Entity
+@Table(name = "webhook_inbox")
+@Data
+@NoArgsConstructor
+public class WebhookInboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String gateway;
+
+    @Column(name = "event_id", length = 100)
+    private String eventId;
+
+    @Column(nullable = false, length = 65535)
+    private String payload;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public WebhookInboxEntry(String gateway, String eventId, String payload) {
+        this.gateway = gateway;
+        this.eventId = eventId;
+        this.payload = payload;
+        this.receivedAt = Instant.now();
+    }
+}
@@ -0,0 +1,364 @@
+package com.luna.pay.webhook;
+
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.gateway.asaas.webhook.AsaasWebhookService;
+import com.luna.pay.payment.PaymentRepository;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.PaymentStatusChange;
+import com.luna.pay.payment.PaymentStatusUpdater;
+import com.luna.pay.payment.PaymentStatusView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drena o inbox de webhooks em segundo plano.
+ *
+ * A cada ciclo:
+ * 1. reserva (lease) um lote de eventos pendentes, seguro com vários nós
+ * 2. descarta eventos já processados, decodifica o restante e resolve os
+ *    pagamentos em uma consulta por gateway
+ * 3. aplica os eventos de cada pagamento em ordem de chegada, respeitando
+ *    {@link PaymentStatus#canTransitionTo} (um PENDING atrasado não desfaz um PAID)
+ * 4. agrupa as mudanças por tenant e aplica cada grupo num JDBC batch, junto
+ *    com o registro dos eventos processados, em um pool de workers limitado
+ * 5. marca os eventos como processados ou devolve para nova tentativa
+ *
+ * Métricas: lunapay.webhooks.inbox.depth, lunapay.webhooks.inbox.lag{gateway, method},
+ * lunapay.webhooks.inbox.processed{outcome=applied|ignored|duplicate|failed} e
+ * lunapay.webhooks.transitions.rejected.
+ */
+@Component
+@Slf4j
+public class WebhookInboxProcessor {
+
+    private static final String NODE_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    private final WebhookInboxRepository inboxRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusUpdater paymentStatusUpdater;
+    private final AsaasWebhookService asaasWebhookService;
+    private final WebhookDeduplicator deduplicator;
+    private final TransactionTemplate transactionTemplate;
+    private final GatewayRegistry gatewayRegistry;
+
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Duration dedupRetention;
+    private final ThreadPoolExecutor workers;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Counter applied;
+    private final Counter ignored;
+    private final Counter duplicate;
+    private final Counter failed;
+    private final Counter rejectedTransitions;
+
+    public WebhookInboxProcessor(WebhookInboxRepository inboxRepository,
+                                 PaymentRepository paymentRepository,
+                                 PaymentStatusUpdater paymentStatusUpdater,
+                                 AsaasWebhookService asaasWebhookService,
+                                 WebhookDeduplicator deduplicator,
+                                 PlatformTransactionManager transactionManager,
+                                 GatewayRegistry gatewayRegistry,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${webhooks.inbox.batch-size:200}") int batchSize,
+                                 @Value("${webhooks.inbox.workers:4}") int workerCount,
+                                 @Value("${webhooks.inbox.lease:60s}") Duration lease,
+                                 @Value("${webhooks.inbox.max-attempts:10}") int maxAttempts,
+                                 @Value("${webhooks.inbox.retention:7d}") Duration retention,
+                                 @Value("${webhooks.dedup.retention:30d}") Duration dedupRetention) {
+        this.inboxRepository = inboxRepository;
+        this.paymentRepository = paymentRepository;
+        this.paymentStatusUpdater = paymentStatusUpdater;
+        this.asaasWebhookService = asaasWebhookService;
+        this.deduplicator = deduplicator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gatewayRegistry = gatewayRegistry;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retention = retention;
+        this.dedupRetention = dedupRetention;
+
+        // Fila limitada: se os workers saturarem, o próprio ciclo de drenagem executa (backpressure)
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerCount * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "webhook-inbox-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        Gauge.builder("lunapay.webhooks.inbox.depth", depth, AtomicLong::get)
+                .description("Eventos de webhook aguardando processamento")
+                .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+        this.applied = processed(meterRegistry, "applied");
+        this.ignored = processed(meterRegistry, "ignored");
+        this.duplicate = processed(meterRegistry, "duplicate");
+        this.failed = processed(meterRegistry, "failed");
+        this.rejectedTransitions = Counter.builder("lunapay.webhooks.transitions.rejected")
+                .description("Eventos de webhook ignorados por transição de status inválida")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${webhooks.inbox.poll-interval-ms:500}")
+    public void drain() {
+        try {
+            int drained;
+            do {
+                drained = drainBatch();
+            } while (drained == batchSize);
+            depth.set(inboxRepository.countByProcessedAtIsNull());
+        } catch (RuntimeException e) {
+            log.error("Erro ao drenar inbox de webhooks", e);
+        }
+    }
+
+    /**
+     * Processa um lote do inbox.
+     *
+     * @return quantidade de eventos reservados no ciclo
+     */
+    int drainBatch() {
+        String owner = NODE_ID + ":" + UUID.randomUUID();
+        Instant now = Instant.now();
+        if (inboxRepository.claim(owner, now, now.plus(lease), batchSize) == 0) {
+            return 0;
+        }
+        List<WebhookInboxEntry> entries = inboxRepository.findByClaimedByAndProcessedAtIsNullOrderById(owner);
+
+        List<Long> done = new ArrayList<>();
+        List<WebhookInboxEntry> ignoredEntries = new ArrayList<>();
+        Map<String, List<Decoded>> byGateway = new LinkedHashMap<>();
+        for (WebhookInboxEntry entry : withoutProcessed(entries, done)) {
+            Optional<WebhookStatusUpdate> update = decode(entry);
+            if (update.isPresent()) {
+                byGateway.computeIfAbsent(update.get().gateway(), g -> new ArrayList<>())
+                        .add(new Decoded(entry, update.get()));
+            } else {
+                done.add(entry.getId());
+                ignoredEntries.add(entry);
+                ignored.increment();
+            }
+        }
+
+        // Eventos de cada pagamento, em ordem de chegada (entradas já ordenadas por id)
+        Map<String, PendingChange> byPayment = new LinkedHashMap<>();
+        byGateway.forEach((gateway, decoded) -> {
+            Set<String> gatewayIds = decoded.stream().map(d -> d.update().gatewayPaymentId()).collect(Collectors.toSet());
+            Map<String, PaymentStatusView> payments = paymentRepository.findByGatewayAndGatewayPaymentIdIn(gateway, gatewayIds)
+                    .stream()
+                    .collect(Collectors.toMap(PaymentStatusView::getGatewayPaymentId, Function.identity()));
+
+            for (Decoded d : decoded) {
+                PaymentStatusView payment = payments.get(d.update().gatewayPaymentId());
+                if (payment == null) {
+                    log.warn("Pagamento local não encontrado para gatewayPaymentId={}", d.update().gatewayPaymentId());
+                    done.add(d.entry().getId());
+                    ignoredEntries.add(d.entry());
+                    ignored.increment();
+                    continue;
+                }
+                byPayment.computeIfAbsent(payment.getId(), id -> new PendingChange(payment)).add(d);
+            }
+        });
+
+        // Um lote (uma transação) por tenant
+        Map<String, List<PendingChange>> byTenant = byPayment.values().stream()
+                .collect(Collectors.groupingBy(p -> p.payment().getTenantId(), LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, Future<?>> tasks = new LinkedHashMap<>();
+        byTenant.forEach((tenantId, changes) -> tasks.put(tenantId, workers.submit(() -> applyTenantBatch(changes))));
+
+        List<Long> retry = new ArrayList<>();
+        String lastError = null;
+        for (Map.Entry<String, Future<?>> task : tasks.entrySet()) {
+            List<PendingChange> changes = byTenant.get(task.getKey());
+            List<Long> ids = changes.stream().flatMap(c -> c.entries().stream()).map(WebhookInboxEntry::getId).toList();
+            try {
+                task.getValue().get();
+                done.addAll(ids);
+            } catch (ExecutionException | InterruptedException e) {
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                log.error("Falha ao aplicar lote de webhooks do tenant {}", task.getKey(), cause);
+                retry.addAll(ids);
+                lastError = String.valueOf(cause.getMessage());
+                failed.increment(ids.size());
+            }
+        }
+
+        Instant finishedAt = Instant.now();
+        deduplicator.recordProcessed(ignoredEntries);
+        if (!done.isEmpty()) {
+            inboxRepository.markProcessed(done, finishedAt);
+        }
+        if (!retry.isEmpty()) {
+            inboxRepository.markFailed(retry, truncate(lastError), maxAttempts, finishedAt);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Remove do lote os eventos já registrados como processados, marcando-os
+     * como concluídos.
+     */
+    private List<WebhookInboxEntry> withoutProcessed(List<WebhookInboxEntry> entries, List<Long> done) {
+        Map<String, List<WebhookInboxEntry>> byGateway = entries.stream()
+                .filter(e -> e.getEventId() != null)
+                .collect(Collectors.groupingBy(WebhookInboxEntry::getGateway));
+
+        Set<Long> processed = new HashSet<>();
+        byGateway.forEach((gateway, gatewayEntries) -> {
+            Set<String> processedIds = deduplicator.findProcessed(gateway,
+                    gatewayEntries.stream().map(WebhookInboxEntry::getEventId).toList());
+            gatewayEntries.stream()
+                    .filter(e -> processedIds.contains(e.getEventId()))
+                    .forEach(e -> processed.add(e.getId()));
+        });
+        if (processed.isEmpty()) {
+            return entries;
+        }
+
+        done.addAll(processed);
+        duplicate.increment(processed.size());
+        return entries.stream().filter(e -> !processed.contains(e.getId())).toList();
+    }
+
+    private void applyTenantBatch(List<PendingChange> changes) {
+        List<PaymentStatusChange> writes = new ArrayList<>();
+        for (PendingChange change : changes) {
+            PaymentStatus current = change.payment().getStatus();
+            PaymentStatus target = current;
+            for (WebhookStatusUpdate update : change.updates()) {
+                if (target.canTransitionTo(update.newStatus())) {
+                    target = update.newStatus();
+                } else if (target != update.newStatus()) {
+                    rejectedTransitions.increment();
+                    log.info("Transição de status ignorada para pagamento {}: {} -> {}",
+                            change.payment().getId(), target, update.newStatus());
+                }
+            }
+            if (target != current) {
+                PaymentStatusView payment = change.payment();
+                writes.add(new PaymentStatusChange(payment.getId(), payment.getTenantId(), current, target,
+                        payment.getGateway(), payment.getPaymentMethod()));
+            }
+        }
+
+        List<WebhookInboxEntry> entries = changes.stream().flatMap(c -> c.entries().stream()).toList();
+        List<PaymentStatusChange> written = transactionTemplate.execute(status -> {
+            List<PaymentStatusChange> applied = paymentStatusUpdater.apply(writes);
+            deduplicator.recordProcessed(entries);
+            return applied;
+        });
+        written.forEach(c -> log.info("Pagamento atualizado: id={}, tenantId={}, {} -> {}",
+                c.paymentId(), c.tenantId(), c.expectedStatus(), c.newStatus()));
+
+        Instant now = Instant.now();
+        for (PendingChange change : changes) {
+            for (WebhookInboxEntry entry : change.entries()) {
+                lag(entry.getGateway(), change.payment().getPaymentMethod())
+                        .record(Duration.between(entry.getReceivedAt(), now));
+                applied.increment();
+            }
+        }
+    }
+
+    private Optional<WebhookStatusUpdate> decode(WebhookInboxEntry entry) {
+        if ("ASAAS".equals(entry.getGateway())) {
+            return asaasWebhookService.decode(entry.getPayload());
+        }
+
+        PaymentGateway gateway = gatewayRegistry.find(entry.getGateway()).orElse(null);
+        if (gateway == null) {
+            log.warn("Webhook de gateway desconhecido no inbox: {}", entry.getGateway());
+            return Optional.empty();
+        }
+        WebhookProcessingResult result = gateway.processWebhook(entry.getPayload());
+        if (!result.isSuccess() || result.getPaymentId() == null || result.getNewStatus() == null) {
+            log.warn("Webhook {} não processável: {}", entry.getGateway(), result.getMessage());
+            return Optional.empty();
+        }
+        return Optional.of(new WebhookStatusUpdate(entry.getGateway(), result.getPaymentId(), result.getNewStatus()));
+    }
+
+    /**
+     * Remove do inbox os eventos já processados há mais tempo que a retenção e
+     * esquece ids de evento mais antigos que a retenção de deduplicação.
+     */
+    @Scheduled(fixedDelayString = "${webhooks.inbox.purge-interval-ms:3600000}")
+    public void purge() {
+        int removed = inboxRepository.deleteProcessedBefore(Instant.now().minus(retention));
+        int forgotten = deduplicator.purgeProcessedBefore(Instant.now().minus(dedupRetention));
+        if (removed > 0 || forgotten > 0) {
+            log.info("Inbox de webhooks: {} eventos processados removidos, {} ids de evento expirados", removed, forgotten);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+
+    private Timer lag(String gateway, String paymentMethod) {
+        return Timer.builder("lunapay.webhooks.inbox.lag")
+                .description("Tempo entre o recebimento do webhook e a aplicação do status")
+                .tag("gateway", gateway)
+                .tag("method", paymentMethod == null ? "UNKNOWN" : paymentMethod.toUpperCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter processed(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("lunapay.webhooks.inbox.processed")
+                .description("Eventos de webhook processados por resultado")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Decoded(WebhookInboxEntry entry, WebhookStatusUpdate update) {}
+
+    /**
+     * Eventos do lote que apontam para o mesmo pagamento.
+     */
+    private record PendingChange(PaymentStatusView payment, List<WebhookInboxEntry> entries,
+                                 List<WebhookStatusUpdate> updates) {
+
+        PendingChange(PaymentStatusView payment) {
+            this(payment, new ArrayList<>(), new ArrayList<>());
+        }
+
+        void add(Decoded decoded) {
+            entries.add(decoded.entry());
+            updates.add(decoded.update());
+        }
+    }
+}
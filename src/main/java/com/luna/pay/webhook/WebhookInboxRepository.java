@@ -0,0 +1,66 @@
+package com.luna.pay.webhook;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEntry, Long> {
+
+    /**
+     * Reserva (lease) até {@code limit} eventos pendentes para o worker {@code owner}.
+     * As condições são repetidas fora da subconsulta para que, em PostgreSQL, um
+     * nó concorrente que bloqueou na mesma linha a descarte ao reavaliá-la.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE webhook_inbox SET claimed_by = :owner, claimed_until = :until
+            WHERE processed_at IS NULL
+              AND (claimed_until IS NULL OR claimed_until < :now)
+              AND id IN (
+                  SELECT id FROM webhook_inbox
+                  WHERE processed_at IS NULL
+                    AND (claimed_until IS NULL OR claimed_until < :now)
+                  ORDER BY id
+                  LIMIT :limit)
+            """, nativeQuery = true)
+    int claim(@Param("owner") String owner, @Param("now") Instant now,
+              @Param("until") Instant until, @Param("limit") int limit);
+
+    List<WebhookInboxEntry> findByClaimedByAndProcessedAtIsNullOrderById(String claimedBy);
+
+    @Transactional
+    @Modifying
+    @Query("update WebhookInboxEntry e set e.processedAt = :now, e.claimedBy = null, e.claimedUntil = null where e.id in :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Devolve eventos com falha para nova tentativa; após {@code maxAttempts}
+     * eles são encerrados (processed_at preenchido) mantendo o último erro.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update WebhookInboxEntry e
+            set e.attempts = e.attempts + 1, e.lastError = :error, e.claimedBy = null, e.claimedUntil = null,
+                e.processedAt = case when e.attempts + 1 >= :maxAttempts then :now else null end
+            where e.id in :ids
+            """)
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("error") String error,
+                   @Param("maxAttempts") int maxAttempts, @Param("now") Instant now);
+
+    long countByProcessedAtIsNull();
+
+    @Transactional
+    @Modifying
+    @Query("delete from WebhookInboxEntry e where e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Instant before);
+}
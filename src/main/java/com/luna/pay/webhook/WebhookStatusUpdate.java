@@ -0,0 +1,12 @@
+package com.luna.pay.webhook;
+
+import com.luna.pay.payment.PaymentStatus;
+
+/**
+ * Evento de webhook decodificado: qual pagamento do gateway mudou e para qual status.
+ */
+public record WebhookStatusUpdate(
+        String gateway,
+        String gatewayPaymentId,
+        PaymentStatus newStatus
+) {}
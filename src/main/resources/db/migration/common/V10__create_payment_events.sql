@@ -0,0 +1,15 @@
+-- Mudanças de status publicadas por cada nó, lidas pelos demais para acordar
+-- conexões SSE / long-poll e atualizar o cache de status (ponte estilo
+-- LISTEN/NOTIFY sobre o banco compartilhado). Linhas são efêmeras.
+CREATE TABLE IF NOT EXISTS payment_events (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    payment_id  VARCHAR(255) NOT NULL,
+    tenant_id   VARCHAR(255) NOT NULL,
+    status      VARCHAR(20) NOT NULL,
+    node_id     VARCHAR(64) NOT NULL,
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_payment_events PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_events_created
+    ON payment_events (created_at);
@@ -0,0 +1,3 @@
+-- Prazo da reserva IN_PROGRESS: vencido, outra tentativa pode assumir a chave
+-- (nó que caiu no meio da criação, ou falha ao gravar a resposta)
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP(6) WITH TIME ZONE;
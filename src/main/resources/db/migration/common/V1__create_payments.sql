@@ -0,0 +1,26 @@
+-- Esquema inicial de pagamentos (equivalente ao gerado pelo Hibernate até então).
+-- Bancos já existentes são marcados como baseline na versão 1 e pulam este script.
+CREATE TABLE IF NOT EXISTS payments (
+    id                  VARCHAR(255) NOT NULL,
+    tenant_id           VARCHAR(255) NOT NULL,
+    amount              NUMERIC(38, 2),
+    description         VARCHAR(255),
+    status              VARCHAR(255),
+    gateway             VARCHAR(255),
+    gateway_payment_id  VARCHAR(255),
+    payment_method      VARCHAR(255),
+    pix_qr_code         VARCHAR(1000),
+    pix_qr_code_base64  VARCHAR(2000),
+    pix_copy_paste      VARCHAR(1000),
+    pix_expires_at      TIMESTAMP(6) WITH TIME ZONE,
+    boleto_bar_code     VARCHAR(255),
+    boleto_url          VARCHAR(255),
+    boleto_expires_at   TIMESTAMP(6) WITH TIME ZONE,
+    authorization_code  VARCHAR(255),
+    nsu                 VARCHAR(255),
+    created_at          TIMESTAMP(6) WITH TIME ZONE,
+    updated_at          TIMESTAMP(6) WITH TIME ZONE,
+    created_by          VARCHAR(255),
+    modified_by         VARCHAR(255),
+    CONSTRAINT pk_payments PRIMARY KEY (id)
+);
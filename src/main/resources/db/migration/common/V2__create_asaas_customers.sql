@@ -0,0 +1,10 @@
+-- Mapeamento (tenant, CPF/CNPJ) -> cliente Asaas
+CREATE TABLE IF NOT EXISTS asaas_customers (
+    id                 VARCHAR(255) NOT NULL,
+    tenant_id          VARCHAR(255) NOT NULL,
+    cpf_cnpj           VARCHAR(20)  NOT NULL,
+    asaas_customer_id  VARCHAR(255) NOT NULL,
+    created_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_asaas_customers PRIMARY KEY (id),
+    CONSTRAINT uk_asaas_customers_tenant_document UNIQUE (tenant_id, cpf_cnpj)
+);
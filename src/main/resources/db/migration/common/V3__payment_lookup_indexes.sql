@@ -0,0 +1,7 @@
+-- Listagem por tenant com paginação keyset: WHERE tenant_id = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_payments_tenant_created
+    ON payments (tenant_id, created_at DESC, id DESC);
+
+-- Webhooks e consultas por id do gateway: WHERE gateway = ? AND gateway_payment_id = ?
+CREATE UNIQUE INDEX IF NOT EXISTS uk_payments_gateway_payment
+    ON payments (gateway, gateway_payment_id);
@@ -0,0 +1,19 @@
+-- Inbox durável de webhooks: o evento bruto é gravado antes do ACK e
+-- processado de forma assíncrona. Linhas são apenas inseridas pelos
+-- receptores; o worker marca claim/processamento.
+CREATE TABLE IF NOT EXISTS webhook_inbox (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    gateway        VARCHAR(20)    NOT NULL,
+    payload        VARCHAR(65535) NOT NULL,
+    received_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    claimed_by     VARCHAR(64),
+    claimed_until  TIMESTAMP(6) WITH TIME ZONE,
+    processed_at   TIMESTAMP(6) WITH TIME ZONE,
+    attempts       INTEGER        NOT NULL DEFAULT 0,
+    last_error     VARCHAR(1000),
+    CONSTRAINT pk_webhook_inbox PRIMARY KEY (id)
+);
+
+-- Varredura de pendentes em ordem de chegada
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_pending
+    ON webhook_inbox (processed_at, id);
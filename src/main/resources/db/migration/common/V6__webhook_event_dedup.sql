@@ -0,0 +1,18 @@
+-- Id do evento no gateway (ou hash do payload quando o gateway não envia id).
+-- O índice único impede que uma reentrega vire uma segunda linha no inbox.
+ALTER TABLE webhook_inbox ADD COLUMN event_id VARCHAR(100);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_webhook_inbox_event
+    ON webhook_inbox (gateway, event_id);
+
+-- Eventos já aplicados; sobrevive à limpeza do inbox para deduplicar
+-- reentregas tardias.
+CREATE TABLE IF NOT EXISTS webhook_processed_events (
+    gateway        VARCHAR(20)  NOT NULL,
+    event_id       VARCHAR(100) NOT NULL,
+    processed_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_webhook_processed_events PRIMARY KEY (gateway, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_processed_events_processed_at
+    ON webhook_processed_events (processed_at);
@@ -0,0 +1,17 @@
+-- Respostas de POST /payments por (tenant, Idempotency-Key), reaproveitadas
+-- em novas tentativas do cliente até expires_at.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id                 VARCHAR(255) NOT NULL,
+    tenant_id          VARCHAR(255) NOT NULL,
+    idempotency_key    VARCHAR(255) NOT NULL,
+    request_hash       VARCHAR(64)  NOT NULL,
+    status             VARCHAR(20)  NOT NULL,
+    response_body      VARCHAR(65535),
+    created_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_keys_tenant_key UNIQUE (tenant_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at
+    ON idempotency_keys (expires_at);
@@ -0,0 +1,13 @@
+-- Fatias da conciliação de pagamentos pendentes: (gateway, faixa de ids).
+-- Cada nó reserva uma fatia por vez (lease) e grava a marca d'água
+-- (created_at, id) até onde já consultou, retomando dali no ciclo seguinte.
+CREATE TABLE IF NOT EXISTS reconciliation_shards (
+    gateway               VARCHAR(20)  NOT NULL,
+    shard                 INTEGER      NOT NULL,
+    owner                 VARCHAR(64),
+    lease_until           TIMESTAMP(6) WITH TIME ZONE,
+    watermark_created_at  TIMESTAMP(6) WITH TIME ZONE,
+    watermark_id          VARCHAR(255),
+    last_run_at           TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_reconciliation_shards PRIMARY KEY (gateway, shard)
+);
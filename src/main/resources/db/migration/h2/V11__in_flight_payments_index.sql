@@ -0,0 +1,3 @@
+-- Pagamentos em estado intermediário (CREATING/CANCELING) para a recuperação da saga
+CREATE INDEX IF NOT EXISTS idx_payments_in_flight
+    ON payments (status, updated_at);
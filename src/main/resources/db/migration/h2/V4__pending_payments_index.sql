@@ -0,0 +1,3 @@
+-- H2 não suporta índice parcial; equivalente com status como primeira coluna
+CREATE INDEX IF NOT EXISTS idx_payments_pending
+    ON payments (status, gateway, created_at);
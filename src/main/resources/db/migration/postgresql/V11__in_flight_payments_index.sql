@@ -0,0 +1,4 @@
+-- Índice parcial: apenas pagamentos em estado intermediário (recuperação da saga)
+CREATE INDEX IF NOT EXISTS idx_payments_in_flight
+    ON payments (status, updated_at)
+    WHERE status IN ('CREATING', 'CANCELING');
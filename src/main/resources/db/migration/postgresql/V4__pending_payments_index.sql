@@ -0,0 +1,4 @@
+-- Índice parcial: apenas pagamentos pendentes (conciliação e varreduras de status)
+CREATE INDEX IF NOT EXISTS idx_payments_pending
+    ON payments (gateway, created_at)
+    WHERE status = 'PENDING';
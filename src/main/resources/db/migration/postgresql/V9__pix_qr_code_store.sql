@@ -0,0 +1,27 @@
+-- QR Codes PIX saem da linha de payments para um armazenamento endereçado
+-- por conteúdo: hash = SHA-256 (hex) do payload copia e cola.
+CREATE TABLE IF NOT EXISTS pix_qr_codes (
+    hash        VARCHAR(64)   NOT NULL,
+    payload     VARCHAR(1000) NOT NULL,
+    image       BYTEA,
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_pix_qr_codes PRIMARY KEY (hash)
+);
+
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS pix_qr_hash VARCHAR(64);
+
+-- Migra os payloads existentes; as imagens são regeneradas sob demanda
+INSERT INTO pix_qr_codes (hash, payload, created_at)
+SELECT DISTINCT encode(sha256(convert_to(COALESCE(pix_copy_paste, pix_qr_code), 'UTF8')), 'hex'),
+       COALESCE(pix_copy_paste, pix_qr_code), now()
+FROM payments
+WHERE COALESCE(pix_copy_paste, pix_qr_code) IS NOT NULL
+ON CONFLICT (hash) DO NOTHING;
+
+UPDATE payments
+SET pix_qr_hash = encode(sha256(convert_to(COALESCE(pix_copy_paste, pix_qr_code), 'UTF8')), 'hex')
+WHERE COALESCE(pix_copy_paste, pix_qr_code) IS NOT NULL;
+
+ALTER TABLE payments DROP COLUMN IF EXISTS pix_qr_code;
+ALTER TABLE payments DROP COLUMN IF EXISTS pix_qr_code_base64;
+ALTER TABLE payments DROP COLUMN IF EXISTS pix_copy_paste;
@@ -0,0 +1,113 @@
+package com.luna.pay.benchmark;
+
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Custo de resolver o gateway de uma requisição:
+ * - legacy: mapa reconstruído a cada chamada (getGatewayMap) + toUpperCase
+ * - registry: GatewayRegistry montado na inicialização
+ *
+ * Rodar com o profiler de GC para ver a alocação por operação (gc.alloc.rate.norm).
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.GatewayLookupBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatewayLookupBenchmark {
+
+    private List<PaymentGateway> gateways;
+    private GatewayRegistry registry;
+
+    @Param({"ASAAS", "asaas"})
+    public String requestedGateway;
+
+    @Setup
+    public void setup() {
+        gateways = List.of(new NamedGateway("ASAAS"), new NamedGateway("C6"));
+        registry = new GatewayRegistry(gateways, 5);
+    }
+
+    @Benchmark
+    public PaymentGateway legacy() {
+        Map<String, PaymentGateway> map = gateways.stream()
+                .collect(Collectors.toMap(g -> g.getGatewayName().toUpperCase(), Function.identity()));
+        return map.get(requestedGateway.toUpperCase());
+    }
+
+    @Benchmark
+    public PaymentGateway registry() {
+        return registry.require(requestedGateway);
+    }
+
+    static class NamedGateway implements PaymentGateway {
+
+        private final String name;
+
+        NamedGateway(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getGatewayName() {
+            return name;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean cancelPayment(String gatewayPaymentId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean validateWebhook(String signature, byte[] payload) {
+            return false;
+        }
+
+        @Override
+        public WebhookProcessingResult processWebhook(String payload) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GatewayLookupBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
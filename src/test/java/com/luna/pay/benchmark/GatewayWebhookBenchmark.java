@@ -0,0 +1,110 @@
+package com.luna.pay.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.luna.pay.gateway.GatewayConfig;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.gateway.impl.AsaasGateway;
+import com.luna.pay.gateway.impl.C6Gateway;
+import com.luna.pay.gateway.webhook.WebhookSignatureVerifiers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de um webhook dentro de cada gateway:
+ * - validateWebhook: HMAC-SHA256 sobre os bytes do corpo (WebhookSignatureVerifier)
+ * - legacySignature: a validação anterior (Mac.getInstance + init por chamada,
+ *   String -> bytes e comparação de hex com equalsIgnoreCase), como base
+ * - processWebhook: extração dos campos e mapeamento do status
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.GatewayWebhookBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatewayWebhookBenchmark {
+
+    private static final String SECRET = "whsec_5f1b0c7e9a2d4b6c8e0f1a3b5c7d9e1f";
+
+    private static final String ASAAS_PAYLOAD = """
+            {"id":"evt_05b708f961d739ea7eba7e4db318f621&368604920","event":"PAYMENT_RECEIVED",\
+            "dateCreated":"2024-06-12 16:45:03","payment":{"object":"payment","id":"pay_080225913252",\
+            "customer":"cus_000005401844","value":100.00,"netValue":94.51,"billingType":"PIX",\
+            "status":"RECEIVED","description":"Pedido 056984","externalReference":null,\
+            "discount":{"value":0,"dueDateLimitDays":0},"fine":{"value":0},"interest":{"value":0}}}""";
+
+    private static final String C6_PAYLOAD = """
+            {"eventId":"e-9f3a","paymentId":"c6_pay_123","status":"PAID","amount":100.00,\
+            "paidAt":"2024-06-12T16:45:03Z","payer":{"name":"Fulano de Tal","document":"***.456.789-**"}}""";
+
+    @Param({"ASAAS", "C6"})
+    public String gatewayName;
+
+    private PaymentGateway gateway;
+    private String payload;
+    private byte[] payloadBytes;
+    private String signature;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        // Sem o logback-spring.xml, o padrão do logback é DEBUG no console
+        ((Logger) LoggerFactory.getLogger("com.luna.pay")).setLevel(Level.WARN);
+
+        GatewayConfig config = new GatewayConfig();
+        GatewayConfig.GatewayProperties props = new GatewayConfig.GatewayProperties();
+        props.setWebhookSecret(SECRET);
+        config.getGateways().put(gatewayName.toLowerCase(), props);
+        WebhookSignatureVerifiers verifiers = new WebhookSignatureVerifiers(config);
+
+        gateway = "ASAAS".equals(gatewayName)
+                ? new AsaasGateway(config, null, null, verifiers)
+                : new C6Gateway(config, null, verifiers);
+        payload = "ASAAS".equals(gatewayName) ? ASAAS_PAYLOAD : C6_PAYLOAD;
+        payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        signature = HexFormat.of().formatHex(hmac(payloadBytes));
+    }
+
+    @Benchmark
+    public boolean validateWebhook() {
+        return gateway.validateWebhook(signature, payloadBytes);
+    }
+
+    @Benchmark
+    public boolean legacySignature() throws GeneralSecurityException {
+        return HexFormat.of().formatHex(hmac(payload.getBytes(StandardCharsets.UTF_8))).equalsIgnoreCase(signature);
+    }
+
+    @Benchmark
+    public WebhookProcessingResult processWebhook() {
+        return gateway.processWebhook(payload);
+    }
+
+    private static byte[] hmac(byte[] payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac.doFinal(payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GatewayWebhookBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
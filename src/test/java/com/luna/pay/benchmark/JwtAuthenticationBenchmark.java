@@ -0,0 +1,148 @@
+package com.luna.pay.benchmark;
+
+import com.luna.pay.security.JwtAuthenticationFilter;
+import com.luna.pay.security.JwtUtil;
+import com.luna.pay.security.UserContext;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o custo de autenticação por requisição:
+ * - legacy: comportamento anterior (cinco parse + verificação HMAC por requisição)
+ * - uncached: parse único com parser/chave pré-construídos, sem cache
+ * - cached: parse único + cache de tokens verificados (token reutilizado pelo cliente)
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.JwtAuthenticationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET =
+            "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9_ABCD1234efgh5678IJKL91011MNOP121314QRSTUV151617WXYZ181990";
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String token;
+    private LegacyJwtFilter legacyFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+
+    @Setup
+    public void setup() {
+        token = Jwts.builder()
+                .subject("user-123")
+                .claim("tenantId", "clinic_123")
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNACORE", "LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        legacyFilter = new LegacyJwtFilter(SECRET);
+        uncachedFilter = new JwtAuthenticationFilter(jwtUtil(0), new SimpleMeterRegistry());
+        cachedFilter = new JwtAuthenticationFilter(jwtUtil(10_000), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        String header = request().getHeader("Authorization");
+        bh.consume(legacyFilter.authenticate(header.substring(7)));
+    }
+
+    @Benchmark
+    public void uncached(Blackhole bh) throws Exception {
+        uncachedFilter.doFilter(request(), new MockHttpServletResponse(), NO_OP_CHAIN);
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void cached(Blackhole bh) throws Exception {
+        cachedFilter.doFilter(request(), new MockHttpServletResponse(), NO_OP_CHAIN);
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/payments");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static JwtUtil jwtUtil(int cacheMaxEntries) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", cacheMaxEntries);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    /**
+     * Réplica do caminho anterior do filtro: cada getter recriava chave e parser
+     * e verificava novamente a assinatura.
+     */
+    static class LegacyJwtFilter {
+
+        private final String secret;
+
+        LegacyJwtFilter(String secret) {
+            this.secret = secret;
+        }
+
+        UserContext authenticate(String token) {
+            Claims validation = claims(token);
+            if (validation == null || !validation.getExpiration().after(new Date())) {
+                return null;
+            }
+            String userId = claims(token).getSubject();
+            String tenantId = (String) claims(token).get("tenantId");
+            String role = (String) claims(token).get("role");
+            Object modules = claims(token).get("modules");
+            List<String> moduleList = modules instanceof List<?> list
+                    ? list.stream().map(Object::toString).toList()
+                    : List.of();
+            return new UserContext(userId, tenantId, role, moduleList);
+        }
+
+        private Claims claims(String token) {
+            try {
+                return Jwts.parser()
+                        .verifyWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                        .build()
+                        .parseSignedClaims(token)
+                        .getPayload();
+            } catch (JwtException e) {
+                return null;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,181 @@
+package com.luna.pay.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.luna.pay.common.logging.JsonLogEncoder;
+import com.luna.pay.common.logging.RedactingAsyncAppender;
+import com.luna.pay.common.logging.SamplingFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.MDC;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Custo de log por requisição de criação de pagamento (Asaas), com as linhas
+ * que o caminho emite: segurança, PaymentService, gateway (inclusive os DEBUG
+ * de resposta) e o SQL do Hibernate.
+ * - legacy: configuração anterior; console e arquivo síncronos com pattern,
+ *   com.luna.pay e org.springframework.security em DEBUG, show_sql ligado
+ * - production: perfil production; INFO, JSON por appender assíncrono com
+ *   máscara de segredos e amostragem 1/10 das linhas INFO de alto volume
+ *
+ * "Console" e arquivo vão para arquivos temporários, para não misturar a saída
+ * com a do JMH. Com a fila cheia o modo production descarta INFO em vez de
+ * bloquear, o que faz parte do comportamento medido.
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.LoggingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level "
+            + "[tenant=%X{tenantId:-SYSTEM} user=%X{userId:-SYSTEM}] [trace=%X{traceId:-} span=%X{spanId:-}] "
+            + "%logger{36} - %msg%n";
+
+    private static final String API_KEY =
+            "$aact_YTU5YTE0M2M2N2I4MTliNzk0YTI5N2U5MzdjNWZmNDQ6OjAwMDAwMDAwMDAwMDAwNjc4NjY6OiRhYWNoXzA4";
+
+    @Param({"legacy", "production"})
+    public String config;
+
+    private Path directory;
+    private LoggerContext context;
+    private PrintStream sqlConsole;
+    private boolean showSql;
+
+    private Logger security;
+    private Logger service;
+    private Logger gateway;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("lunapay-logging-bench");
+        context = new LoggerContext();
+        context.setMDCAdapter(MDC.getMDCAdapter());
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+
+        if (config.equals("legacy")) {
+            root.addAppender(file("console.log", pattern()));
+            root.addAppender(file("lunapay.log", pattern()));
+            context.getLogger("com.luna.pay").setLevel(Level.DEBUG);
+            context.getLogger("org.springframework.security").setLevel(Level.DEBUG);
+            // show_sql escreve direto no System.out, sem passar pelo logback
+            sqlConsole = new PrintStream(new FileOutputStream(directory.resolve("console.log").toFile(), true), true);
+            showSql = true;
+        } else {
+            JsonLogEncoder encoder = new JsonLogEncoder();
+            encoder.setContext(context);
+            encoder.start();
+
+            SamplingFilter sampling = new SamplingFilter();
+            sampling.setContext(context);
+            sampling.setLoggers("com.luna.pay.gateway.impl,com.luna.pay.payment.PaymentService,com.luna.pay.webhook");
+            sampling.setRate(10);
+            sampling.start();
+
+            RedactingAsyncAppender async = new RedactingAsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(2048);
+            async.setNeverBlock(true);
+            async.addFilter(sampling);
+            async.addAppender(file("lunapay.json", encoder));
+            async.start();
+            root.addAppender(async);
+            context.getLogger("org.springframework.security").setLevel(Level.WARN);
+        }
+
+        security = context.getLogger("org.springframework.security.web.FilterChainProxy");
+        service = context.getLogger("com.luna.pay.payment.PaymentService");
+        gateway = context.getLogger("com.luna.pay.gateway.impl.AsaasGateway");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.stop();
+        if (sqlConsole != null) {
+            sqlConsole.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void createPaymentRequest() {
+        String tenantId = "clinic_123";
+        String paymentId = UUID.randomUUID().toString();
+        MDC.put("tenantId", tenantId);
+        MDC.put("userId", "user-123");
+        try {
+            security.debug("Securing POST /payments");
+            security.debug("Set SecurityContextHolder to UsernamePasswordAuthenticationToken [Principal={}]", "user-123");
+            security.debug("Secured POST /payments");
+
+            service.info("Criando pagamento para tenant {} via gateway {}", tenantId, "ASAAS");
+            gateway.info("[ASAAS] Criando pagamento real para tenant {}", tenantId);
+            gateway.debug("[ASAAS] API Key configurada: {}", API_KEY.substring(0, 20) + "...");
+            gateway.info("[ASAAS] Cliente existente encontrado por externalReference: {}", "cus_000005219613");
+            gateway.debug("[ASAAS] Resposta pagamento: id={}, pixTxn={}, boletoUrl={}, identificationField={}",
+                    "pay_080225913252", null, null, null);
+            gateway.info("[ASAAS] Pagamento criado com sucesso: {}", "pay_080225913252");
+
+            if (showSql) {
+                sqlConsole.println("Hibernate: insert into payments (amount,created_at,customer_email,customer_name,"
+                        + "description,gateway,gateway_payment_id,payment_method,status,tenant_id,updated_at,id) "
+                        + "values (?,?,?,?,?,?,?,?,?,?,?,?)");
+            }
+            service.info("Pagamento criado com sucesso: {} (gateway: {})", paymentId, "pay_080225913252");
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private Encoder<ILoggingEvent> pattern() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private Appender<ILoggingEvent> file(String name, Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(directory.resolve(name).toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoggingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,132 @@
+package com.luna.pay.benchmark;
+
+import com.luna.pay.LunaPayApplication;
+import com.luna.pay.loadtest.GatewayStubServer;
+import com.luna.pay.payment.PaymentBatchService;
+import com.luna.pay.payment.PaymentService;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.luna.pay.payment.dto.PaymentBatchResponse;
+import com.luna.pay.payment.dto.PaymentResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criação de ITEMS pagamentos PIX no C6 (stub local com latência fixa), com a
+ * aplicação inteira de pé e o H2 em memória. Cada operação cria o lote todo;
+ * vazão em pagamentos/s = ITEMS / tempo por operação.
+ * - single: ITEMS chamadas a PaymentService.createPayment, uma após a outra
+ *   (importação atual: uma transação e um INSERT por pagamento)
+ * - singleConcurrent: as mesmas chamadas, payment.batch.concurrency por vez
+ * - batch: PaymentBatchService.createPayments (gateways em paralelo, gravação
+ *   em blocos com JDBC batch)
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.PaymentBatchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentBatchBenchmark {
+
+    private static final int ITEMS = 100;
+    private static final int CONCURRENCY = 8;
+    private static final String TENANT = "bench-batch";
+
+    @Param({"0", "20"})
+    public int gatewayLatencyMs;
+
+    private GatewayStubServer stubs;
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private PaymentBatchService paymentBatchService;
+    private List<CreatePaymentRequest> requests;
+
+    @Setup
+    public void setup() throws IOException {
+        GatewayStubServer.Profile latency = GatewayStubServer.Profile.fixed(Duration.ofMillis(gatewayLatencyMs));
+        stubs = new GatewayStubServer(latency, latency);
+        // Argumentos de linha de comando: precedem o application.yml (que liga show_sql e DEBUG)
+        context = new SpringApplicationBuilder(LunaPayApplication.class).run(
+                "--server.port=0",
+                "--payment.reconciliation.enabled=false",
+                "--payment.events.bridge.enabled=false",
+                "--payment.gateways.c6.enabled=true",
+                "--payment.gateways.c6.baseUrl=" + stubs.c6BaseUrl(),
+                "--payment.gateways.c6.apiKey=bench-key",
+                "--payment.batch.concurrency=" + CONCURRENCY,
+                "--payment.batch.max-items=" + ITEMS,
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.luna.pay=WARN",
+                "--logging.level.org.springframework.web=WARN");
+        paymentService = context.getBean(PaymentService.class);
+        paymentBatchService = context.getBean(PaymentBatchService.class);
+
+        requests = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            CreatePaymentRequest request = new CreatePaymentRequest();
+            request.setAmount(new BigDecimal("10.00"));
+            request.setDescription("lote " + i);
+            request.setGateway("C6");
+            request.setPaymentMethod("PIX");
+            CreatePaymentRequest.CustomerData customer = new CreatePaymentRequest.CustomerData();
+            customer.setName("Cliente " + i);
+            customer.setEmail("cliente" + i + "@example.com");
+            customer.setCpfCnpj("12345678901");
+            request.setCustomer(customer);
+            requests.add(request);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        stubs.close();
+    }
+
+    @Benchmark
+    public void single(Blackhole blackhole) {
+        for (CreatePaymentRequest request : requests) {
+            blackhole.consume(paymentService.createPayment(request, TENANT));
+        }
+    }
+
+    @Benchmark
+    public List<PaymentResponse> singleConcurrent() {
+        return Flux.fromIterable(requests)
+                .flatMap(request -> Mono.fromCallable(() -> paymentService.createPayment(request, TENANT))
+                        .subscribeOn(Schedulers.boundedElastic()), CONCURRENCY)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public PaymentBatchResponse batch() {
+        return paymentBatchService.createPayments(requests, TENANT).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentBatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.luna.pay.benchmark;
+
+import com.luna.pay.LunaPayApplication;
+import com.luna.pay.payment.Payment;
+import com.luna.pay.payment.PaymentRepository;
+import com.luna.pay.payment.PaymentStatusView;
+import com.luna.pay.payment.dto.PaymentListFilter;
+import com.luna.pay.payment.dto.PaymentSummary;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas quentes de PaymentRepository no H2 em memória, com a aplicação
+ * inteira de pé (migrações Flyway, pool Hikari, Hibernate):
+ * - findById: entidade completa (GET /payments/{id})
+ * - findStatus: projeção de status (GET /payments/{id}/status em cache miss)
+ * - findByGatewayPaymentId: busca do webhook pelo índice único
+ * - firstPage: primeira página da listagem por tenant (50 itens)
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.PaymentRepositoryBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate + H2 levam mais tempo que os demais para estabilizar no JIT
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentRepositoryBenchmark {
+
+    private static final String TENANT = "bench-tenant";
+    private static final int ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private PaymentRepository paymentRepository;
+    private final List<String> ids = new ArrayList<>(ROWS);
+    private final List<String> tenantIds = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        // Argumentos de linha de comando: precedem o application.yml (que liga show_sql e DEBUG).
+        // Sem conciliação e ponte de eventos concorrendo pelo banco durante a medição
+        context = new SpringApplicationBuilder(LunaPayApplication.class).run(
+                "--server.port=0",
+                "--payment.reconciliation.enabled=false",
+                "--payment.events.bridge.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.luna.pay=WARN",
+                "--logging.level.org.springframework.web=WARN");
+        paymentRepository = context.getBean(PaymentRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Instant start = Instant.now().minusSeconds(ROWS);
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String id = UUID.randomUUID().toString();
+            String tenant = i % 10 == 0 ? TENANT : "other-" + (i % 7);
+            ids.add(id);
+            if (TENANT.equals(tenant)) {
+                tenantIds.add(id);
+            }
+            Timestamp createdAt = Timestamp.from(start.plusSeconds(i));
+            rows.add(new Object[]{id, tenant, "pay_bench_" + i, createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO payments (id, tenant_id, amount, status, gateway, gateway_payment_id, payment_method,
+                                      created_at, updated_at)
+                VALUES (?, ?, 10.00, 'PENDING', 'ASAAS', ?, 'PIX', ?, ?)
+                """, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Payment> findById() {
+        return paymentRepository.findById(random(ids));
+    }
+
+    @Benchmark
+    public Optional<PaymentStatusView> findStatus() {
+        return paymentRepository.findStatusByIdAndTenantId(random(tenantIds), TENANT);
+    }
+
+    @Benchmark
+    public Optional<Payment> findByGatewayPaymentId() {
+        return paymentRepository.findByGatewayAndGatewayPaymentId("ASAAS",
+                "pay_bench_" + ThreadLocalRandom.current().nextInt(ROWS));
+    }
+
+    @Benchmark
+    public List<PaymentSummary> firstPage() {
+        return paymentRepository.findSummaries(TENANT, new PaymentListFilter(), null, 51);
+    }
+
+    private static String random(List<String> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentRepositoryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.luna.pay.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.payment.Payment;
+import com.luna.pay.payment.PaymentService;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.dto.PaymentResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar e serializar a resposta de um pagamento:
+ * - map: PaymentService.mapToResponse (entidade -> DTO)
+ * - json: PaymentResponse -> bytes com o ObjectMapper configurado como o do Spring
+ * - mapAndJson: os dois, como em GET /payments/{id}
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.PaymentResponseBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Payment payment;
+    private PaymentResponse response;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Instant now = Instant.parse("2024-06-12T16:45:03Z");
+        payment = new Payment();
+        payment.setId("6f1c8a9e-2b7d-4c1e-9a55-0d3b8f2e7c41");
+        payment.setTenantId("clinic_123");
+        payment.setAmount(new BigDecimal("150.00"));
+        payment.setDescription("Consulta 12/06");
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setGateway("ASAAS");
+        payment.setGatewayPaymentId("pay_080225913252");
+        payment.setPaymentMethod("PIX");
+        payment.setPixQrHash("9c56cc51b374c3ba189210d5b6d4bf57790d351c96c47c02190ecf1e430635ab");
+        payment.setPixExpiresAt(now.plusSeconds(3600));
+        payment.setCreatedAt(now);
+        payment.setUpdatedAt(now);
+
+        response = PaymentService.mapToResponse(payment);
+    }
+
+    @Benchmark
+    public PaymentResponse map() {
+        return PaymentService.mapToResponse(payment);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] mapAndJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(PaymentService.mapToResponse(payment));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentResponseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package com.luna.pay.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.gateway.webhook.WebhookJsonFields;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de extrair os campos de um webhook do Asaas (event, payment.id):
+ * - legacy: contains + indexOf sobre a String (implementação anterior, que
+ *   ainda devolvia o id do evento no lugar do id da cobrança)
+ * - databind: ObjectMapper.readValue para um record
+ * - streaming: {@link WebhookJsonFields} sobre a String e sobre os bytes crus
+ *
+ * Rodar com o profiler de GC para ver a alocação por operação (gc.alloc.rate.norm).
+ *
+ * Executar: mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.luna.pay.benchmark.WebhookParsingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebhookParsingBenchmark {
+
+    private static final String PAYLOAD = """
+            {
+              "id": "evt_05b708f961d739ea7eba7e4db318f621&368604920",
+              "event": "PAYMENT_RECEIVED",
+              "dateCreated": "2024-06-12 16:45:03",
+              "payment": {
+                "object": "payment",
+                "split": [{"id": "split_1", "walletId": "w_1", "fixedValue": 2.5}],
+                "customer": {"id": "cus_000005401844", "name": "Fulano de Tal"},
+                "id": "pay_080225913252",
+                "dateCreated": "2024-06-12",
+                "value": 100.00,
+                "netValue": 94.51,
+                "billingType": "PIX",
+                "status": "RECEIVED",
+                "description": "Pedido 056984",
+                "pixTransaction": null,
+                "discount": {"value": 0, "dueDateLimitDays": 0},
+                "fine": {"value": 0},
+                "interest": {"value": 0},
+                "refunds": null
+              }
+            }
+            """;
+
+    private static final WebhookJsonFields FIELDS = WebhookJsonFields.of("event", "payment.id");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payloadBytes;
+
+    @Setup
+    public void setup() {
+        payloadBytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String[] legacy() {
+        if (PAYLOAD.contains("\"payment\"") && PAYLOAD.contains("\"event\"")) {
+            return new String[]{extractJsonValue(PAYLOAD, "event"), extractJsonValue(PAYLOAD, "id")};
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String[] databind() throws IOException {
+        Event event = objectMapper.readValue(PAYLOAD, Event.class);
+        return new String[]{event.event(), event.payment() != null ? event.payment().id() : null};
+    }
+
+    @Benchmark
+    public String[] streamingString() throws IOException {
+        return FIELDS.read(PAYLOAD);
+    }
+
+    @Benchmark
+    public String[] streamingBytes() throws IOException {
+        return FIELDS.read(payloadBytes);
+    }
+
+    private static String extractJsonValue(String json, String key) {
+        String search = "\"" + key + "\":\"";
+        int start = json.indexOf(search);
+        if (start == -1) return null;
+        start += search.length();
+        int end = json.indexOf("\"", start);
+        return end == -1 ? null : json.substring(start, end);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Event(String id, String event, Payment payment) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Payment(String id, String status) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WebhookParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+package com.luna.pay.common.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.loadtest.GatewayStubServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /payments contra o stub do C6 com amostragem total e o exportador em
+ * arquivo: a criação, a troca HTTP com o gateway e o save do repositório
+ * ficam no mesmo trace, com o tenant nos atributos e o traceId nos logs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureObservability
+@ExtendWith(OutputCaptureExtension.class)
+class TracingExportTest {
+
+    private static final GatewayStubServer STUBS = startStubs();
+    private static final Path SPANS = tempFile();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("payment.gateways.c6.enabled", () -> "true");
+        registry.add("payment.gateways.c6.baseUrl", STUBS::c6BaseUrl);
+        registry.add("payment.gateways.c6.apiKey", () -> "tracing-key");
+        registry.add("payment.tracing.file.path", SPANS::toString);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void createPaymentSpansReachTheFileExporter(CapturedOutput output) throws Exception {
+        String tenant = "tracing-" + UUID.randomUUID();
+        HttpResponse<String> created = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/payments"))
+                .header("Authorization", "Bearer " + token(tenant))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"amount": 10.00, "description": "tracing", "gateway": "C6", "paymentMethod": "PIX",
+                         "customer": {"name": "Cliente", "email": "cliente@example.com", "cpfCnpj": "12345678901"}}
+                        """))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(created.statusCode()).isEqualTo(201);
+
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(SPANS)) {
+            spans.add(objectMapper.readTree(line));
+        }
+
+        JsonNode create = span(spans, "payment-service.create-payment");
+        String traceId = create.path("traceId").asText();
+        assertThat(create.path("attributes").path("tenant.id").asText()).isEqualTo(tenant);
+        assertThat(create.path("attributes").path("payment.gateway").asText()).isEqualTo("C6");
+
+        JsonNode exchange = span(spans, "http post");
+        assertThat(exchange.path("kind").asText()).isEqualTo("CLIENT");
+        assertThat(exchange.path("traceId").asText()).isEqualTo(traceId);
+        assertThat(exchange.path("attributes").path("tenant.id").asText()).isEqualTo(tenant);
+
+        JsonNode save = span(spans, "payment-repository.save");
+        assertThat(save.path("traceId").asText()).isEqualTo(traceId);
+        assertThat(save.path("parentSpanId").asText()).isEqualTo(create.path("spanId").asText());
+
+        JsonNode server = spans.stream()
+                .filter(s -> s.path("kind").asText().equals("SERVER") && s.path("traceId").asText().equals(traceId))
+                .findFirst().orElseThrow();
+        assertThat(server.path("attributes").path("user.id").asText()).isEqualTo("tracing-user");
+
+        assertThat(output.getOut()).contains("trace=" + traceId);
+    }
+
+    private static JsonNode span(List<JsonNode> spans, String name) {
+        return spans.stream()
+                .filter(s -> s.path("name").asText().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Span " + name + " não exportado: "
+                        + spans.stream().map(s -> s.path("name").asText()).toList()));
+    }
+
+    private String token(String tenant) {
+        return Jwts.builder()
+                .subject("tracing-user")
+                .claim("tenantId", tenant)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+    }
+
+    private static GatewayStubServer startStubs() {
+        try {
+            GatewayStubServer.Profile instant = GatewayStubServer.Profile.fixed(Duration.ZERO);
+            return new GatewayStubServer(instant, instant);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path tempFile() {
+        try {
+            Path file = Files.createTempFile("lunapay-spans", ".jsonl");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
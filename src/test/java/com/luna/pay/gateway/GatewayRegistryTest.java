@@ -0,0 +1,63 @@
+package com.luna.pay.gateway;
+
+import com.luna.pay.common.exception.GatewayNotEnabledException;
+import com.luna.pay.common.exception.PaymentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GatewayRegistryTest {
+
+    private final AtomicBoolean c6Enabled = new AtomicBoolean(false);
+
+    private final GatewayRegistry registry = new GatewayRegistry(List.of(gateway("ASAAS", () -> true),
+            gateway("C6", c6Enabled::get)), 2);
+
+    @Test
+    void lookupIsCaseInsensitive() {
+        assertThat(registry.find("asaas")).isPresent();
+        assertThat(registry.find("Asaas")).containsSame(registry.find("ASAAS").orElseThrow());
+        assertThat(registry.find("stripe")).isEmpty();
+    }
+
+    @Test
+    void requireReflectsCurrentEnabledState() {
+        assertThatThrownBy(() -> registry.require("c6")).isInstanceOf(GatewayNotEnabledException.class);
+        assertThatThrownBy(() -> registry.require("stripe")).isInstanceOf(PaymentException.class);
+
+        c6Enabled.set(true);
+
+        assertThat(registry.require("c6").getGatewayName()).isEqualTo("C6");
+        assertThat(registry.getEnabled()).extracting(PaymentGateway::getGatewayName).containsExactly("ASAAS", "C6");
+    }
+
+    @Test
+    void healthGoesDownAfterConsecutiveFailuresAndRecovers() {
+        registry.recordFailure("asaas", new RuntimeException("timeout"));
+        assertThat(registry.describe("ASAAS").orElseThrow().health()).isEqualTo(GatewayHealth.Status.DEGRADED);
+
+        registry.recordFailure("ASAAS", new RuntimeException("timeout"));
+        assertThat(registry.describe("ASAAS").orElseThrow().health()).isEqualTo(GatewayHealth.Status.DOWN);
+
+        registry.recordSuccess("ASAAS");
+        GatewayDescriptor descriptor = registry.describe("ASAAS").orElseThrow();
+        assertThat(descriptor.health()).isEqualTo(GatewayHealth.Status.UP);
+        assertThat(descriptor.supports("pix")).isTrue();
+    }
+
+    private static PaymentGateway gateway(String name, BooleanSupplier enabled) {
+        PaymentGateway gateway = mock(PaymentGateway.class);
+        when(gateway.getGatewayName()).thenReturn(name);
+        when(gateway.isEnabled()).thenAnswer(invocation -> enabled.getAsBoolean());
+        when(gateway.getSupportedPaymentMethods()).thenReturn(Set.of("PIX", "BOLETO"));
+        return gateway;
+    }
+}
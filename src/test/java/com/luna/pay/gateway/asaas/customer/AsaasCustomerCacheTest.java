@@ -0,0 +1,68 @@
+package com.luna.pay.gateway.asaas.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AsaasCustomerCacheTest {
+
+    private AsaasCustomerMappingRepository repository;
+    private MeterRegistry meterRegistry;
+    private AsaasCustomerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AsaasCustomerMappingRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AsaasCustomerCache(repository, meterRegistry, 2);
+    }
+
+    @Test
+    void storedCustomerIsServedFromMemoryAfterwards() {
+        when(repository.findByTenantIdAndCpfCnpj("t1", "123"))
+                .thenReturn(Optional.of(new AsaasCustomerMapping("t1", "123", "cus_1")));
+
+        assertThat(cache.findInMemory("t1", "123")).isEmpty();
+        assertThat(cache.findStored("t1", "123")).contains("cus_1");
+        assertThat(cache.findInMemory("t1", "123")).contains("cus_1");
+
+        verify(repository, times(1)).findByTenantIdAndCpfCnpj("t1", "123");
+        assertThat(lookups("memory")).isEqualTo(1);
+        assertThat(lookups("database")).isEqualTo(1);
+        assertThat(lookups("miss")).isZero();
+    }
+
+    @Test
+    void missIsCountedAndStoreWarmsNearCache() {
+        when(repository.findByTenantIdAndCpfCnpj(any(), any())).thenReturn(Optional.empty());
+
+        assertThat(cache.findStored("t1", "999")).isEmpty();
+        cache.store("t1", "999", "cus_9");
+
+        verify(repository).save(any(AsaasCustomerMapping.class));
+        assertThat(cache.findInMemory("t1", "999")).contains("cus_9");
+        assertThat(lookups("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void sameDocumentIsIsolatedPerTenantAndEvictedLru() {
+        cache.store("t1", "111", "cus_a");
+        cache.store("t2", "111", "cus_b");
+        cache.store("t3", "111", "cus_c");
+
+        assertThat(cache.findInMemory("t1", "111")).isEmpty();
+        assertThat(cache.findInMemory("t2", "111")).contains("cus_b");
+        assertThat(cache.findInMemory("t3", "111")).contains("cus_c");
+    }
+
+    private double lookups(String source) {
+        return meterRegistry.get("lunapay.asaas.customers.lookups").tag("source", source).counter().count();
+    }
+}
@@ -0,0 +1,101 @@
+package com.luna.pay.gateway.client;
+
+import com.luna.pay.gateway.GatewayConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayWebClientConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private ConnectionProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Metrics.addRegistry(meterRegistry);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/fast", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, 0);
+        });
+        server.createContext("/slow", exchange -> respond(exchange, 1_000));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        if (provider != null) provider.dispose();
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    void appliesPerGatewayResponseTimeoutAndPublishesPoolMetrics() {
+        GatewayConfig.GatewayProperties props = new GatewayConfig.GatewayProperties();
+        props.setTimeoutSeconds(30);
+        props.setResponseTimeout(Duration.ofMillis(200));
+        props.getHttp().setMaxConnections(2);
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        provider = GatewayWebClientConfig.connectionProvider("gateway-test", props);
+        WebClient client = GatewayWebClientConfig.webClient(WebClient.builder(), props, baseUrl, provider);
+
+        assertThat(client.get().uri("/fast").retrieve().bodyToMono(String.class).block()).isEqualTo("ok");
+        assertThatThrownBy(() -> client.get().uri("/slow").retrieve().bodyToMono(String.class).block())
+                .hasStackTraceContaining("Timeout");
+
+        assertThat(meterRegistry.find("reactor.netty.connection.provider.max.connections")
+                .tag("name", "gateway-test").gauge())
+                .isNotNull()
+                .satisfies(gauge -> assertThat(gauge.value()).isEqualTo(2.0));
+    }
+
+    @Test
+    void idlePooledConnectionsOutliveTheReadTimeout() throws InterruptedException {
+        GatewayConfig.GatewayProperties props = new GatewayConfig.GatewayProperties();
+        props.setReadTimeout(Duration.ofMillis(200));
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        provider = GatewayWebClientConfig.connectionProvider("gateway-idle", props);
+        WebClient client = GatewayWebClientConfig.webClient(WebClient.builder(), props, baseUrl, provider);
+
+        assertThat(client.get().uri("/fast").retrieve().bodyToMono(String.class).block()).isEqualTo("ok");
+        Thread.sleep(600);
+
+        assertThat(client.get().uri("/fast").retrieve().bodyToMono(String.class).block()).isEqualTo("ok");
+
+        // Ociosa há 3x o timeout de leitura, a conexão do pool foi reaproveitada
+        assertThat(clientPorts).hasSize(2);
+        assertThat(clientPorts.get(1)).isEqualTo(clientPorts.get(0));
+    }
+
+    private static void respond(HttpExchange exchange, long delayMs) throws IOException {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
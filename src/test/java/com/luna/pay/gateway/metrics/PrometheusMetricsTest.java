@@ -0,0 +1,179 @@
+package com.luna.pay.gateway.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.loadtest.GatewayStubServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cria um pagamento no C6 (stub), recebe o webhook de pagamento, tenta o
+ * Asaas inacessível e confere que /actuator/prometheus expõe latência por
+ * gateway e método, erros por classe, transições, atraso dos webhooks e o
+ * tempo de verificação do JWT.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// Testes desligam a exportação de métricas por padrão
+@AutoConfigureObservability(tracing = false)
+class PrometheusMetricsTest {
+
+    private static final String C6_SECRET = "metrics-c6-secret";
+    private static final GatewayStubServer STUBS = startStubs();
+
+    @DynamicPropertySource
+    static void gateways(DynamicPropertyRegistry registry) {
+        registry.add("payment.gateways.c6.enabled", () -> "true");
+        registry.add("payment.gateways.c6.baseUrl", STUBS::c6BaseUrl);
+        registry.add("payment.gateways.c6.apiKey", () -> "metrics-key");
+        registry.add("payment.gateways.c6.webhookSecret", () -> C6_SECRET);
+        // Nada escuta na porta 1: falha de conexão
+        registry.add("payment.gateways.asaas.baseUrl", () -> "http://localhost:1");
+        registry.add("payment.gateways.asaas.apiKey", () -> "metrics-key");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void hotPathMetricsAreExposedForPrometheus() throws Exception {
+        String token = token("metrics-" + UUID.randomUUID());
+
+        HttpResponse<String> created = send(post("/payments", token, createBody("C6")));
+        assertThat(created.statusCode()).isEqualTo(201);
+        String gatewayPaymentId = objectMapper.readTree(created.body()).path("gatewayPaymentId").asText();
+
+        byte[] webhook = ("{\"eventId\":\"metrics-" + UUID.randomUUID() + "\",\"paymentId\":\""
+                + gatewayPaymentId + "\",\"status\":\"PAID\"}").getBytes(StandardCharsets.UTF_8);
+        HttpResponse<String> received = send(HttpRequest.newBuilder(uri("/webhooks/c6"))
+                .header("Content-Type", "application/json")
+                .header("X-C6-Signature", sign(webhook))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(webhook))
+                .build());
+        assertThat(received.statusCode()).isEqualTo(200);
+
+        HttpResponse<String> unreachable = send(post("/payments", token, createBody("ASAAS")));
+        assertThat(unreachable.statusCode()).isGreaterThanOrEqualTo(500);
+
+        String scrape = awaitScrape(token, "lunapay_webhooks_inbox_lag_seconds_count");
+
+        assertThat(series(scrape, "lunapay_gateway_requests_seconds_bucket",
+                "gateway=\"C6\"", "operation=\"create\"", "method=\"PIX\"", "outcome=\"success\"")).isNotEmpty();
+        assertThat(series(scrape, "lunapay_gateway_requests_seconds_count",
+                "gateway=\"C6\"", "operation=\"status\"", "method=\"UNKNOWN\"")).isNotEmpty();
+        assertThat(series(scrape, "lunapay_gateway_errors_total",
+                "gateway=\"ASAAS\"", "operation=\"create\"", "method=\"PIX\"", "class=\"connect\"")).isNotEmpty();
+        assertThat(series(scrape, "lunapay_payments_transitions_total",
+                "gateway=\"C6\"", "method=\"PIX\"", "from=\"PENDING\"", "to=\"PAID\"")).isNotEmpty();
+        assertThat(series(scrape, "lunapay_webhooks_inbox_lag_seconds_bucket",
+                "gateway=\"C6\"", "method=\"PIX\"")).isNotEmpty();
+        assertThat(series(scrape, "lunapay_security_jwt_verification_seconds_count",
+                "outcome=\"valid\"")).isNotEmpty();
+    }
+
+    private String awaitScrape(String token, String metric) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (true) {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/actuator/prometheus"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build());
+            assertThat(response.statusCode()).isEqualTo(200);
+            if (response.body().contains(metric) || System.nanoTime() > deadline) {
+                return response.body();
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private static List<String> series(String scrape, String metric, String... labels) {
+        return scrape.lines()
+                .filter(line -> line.startsWith(metric + "{"))
+                .filter(line -> Arrays.stream(labels).allMatch(line::contains))
+                .toList();
+    }
+
+    private static String createBody(String gateway) {
+        return """
+                {"amount": 10.00, "description": "metrics", "gateway": "%s", "paymentMethod": "PIX",
+                 "customer": {"name": "Cliente", "email": "cliente@example.com", "cpfCnpj": "12345678901", "phone": "11999999999"}}
+                """.formatted(gateway);
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private String token(String tenant) {
+        return Jwts.builder()
+                .subject("metrics-user")
+                .claim("tenantId", tenant)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+    }
+
+    private static String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(C6_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    private static GatewayStubServer startStubs() {
+        try {
+            GatewayStubServer.Profile instant = GatewayStubServer.Profile.fixed(Duration.ZERO);
+            return new GatewayStubServer(instant, instant);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
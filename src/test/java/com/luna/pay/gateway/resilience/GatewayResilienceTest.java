@@ -0,0 +1,226 @@
+package com.luna.pay.gateway.resilience;
+
+import com.luna.pay.common.exception.GatewayException;
+import com.luna.pay.gateway.GatewayConfig;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.impl.C6Gateway;
+import com.luna.pay.gateway.webhook.WebhookSignatureVerifiers;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Exercita a camada de resiliência sobre o C6Gateway real, apontado para um
+ * servidor HTTP local que injeta erros e latência.
+ */
+class GatewayResilienceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+
+    private HttpServer server;
+    private GatewayConfig gatewayConfig;
+    private GatewayConfig.GatewayProperties props;
+
+    /** Status devolvido pelo stub; depois de {@link #failuresLeft} falhas, responde 200. */
+    private volatile int errorStatus = 500;
+    private volatile int failuresLeft = Integer.MAX_VALUE;
+    private volatile long latencyMs = 0;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/payments", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        props = new GatewayConfig.GatewayProperties();
+        props.setEnabled(true);
+        props.setApiKey("test-key");
+        props.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        GatewayConfig.CircuitBreakerProperties circuitBreaker = props.getResilience().getCircuitBreaker();
+        circuitBreaker.setSlidingWindowSize(4);
+        circuitBreaker.setMinimumNumberOfCalls(4);
+        props.getResilience().getRetry().setBackoff(Duration.ofMillis(10));
+
+        gatewayConfig = new GatewayConfig();
+        gatewayConfig.getGateways().put("c6", props);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingGateway() {
+        props.getResilience().getRetry().setMaxAttempts(1);
+        GatewayResilience resilience = new GatewayResilience(gatewayConfig, meterRegistry);
+        PaymentGateway gateway = decorate(resilience);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> gateway.getPaymentStatus("pay_1"))
+                    .isInstanceOfSatisfying(GatewayException.class, e -> assertThat(e.isRejected()).isFalse());
+        }
+        assertThat(resilience.circuitState("C6")).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> gateway.getPaymentStatusAsync("pay_1").block())
+                .isInstanceOfSatisfying(GatewayException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(GatewayException.CIRCUIT_OPEN));
+        assertThatThrownBy(() -> gateway.getPaymentStatus("pay_1"))
+                .isInstanceOfSatisfying(GatewayException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(GatewayException.CIRCUIT_OPEN));
+
+        assertThat(hits.get()).isEqualTo(4);
+        assertThat(counter("lunapay.gateway.rejections", "reason", "circuit_open")).isEqualTo(2.0);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", "C6").tag("state", "open").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuitNorRetry() {
+        errorStatus = 400;
+        GatewayResilience resilience = new GatewayResilience(gatewayConfig, meterRegistry);
+        PaymentGateway gateway = decorate(resilience);
+
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> gateway.getPaymentStatus("pay_1"))
+                    .isInstanceOfSatisfying(GatewayException.class, e -> assertThat(e.isClientError()).isTrue());
+        }
+
+        assertThat(resilience.circuitState("C6")).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(hits.get()).isEqualTo(6);
+    }
+
+    @Test
+    void statusQueryIsRetriedAfterTransientServerError() {
+        errorStatus = 503;
+        failuresLeft = 1;
+        PaymentGateway gateway = decorate(new GatewayResilience(gatewayConfig, meterRegistry));
+
+        GatewayPaymentStatus status = gateway.getPaymentStatusAsync("pay_1").block();
+
+        assertThat(status.getStatus()).isEqualTo(PaymentStatus.PAID);
+        assertThat(hits.get()).isEqualTo(2);
+        assertThat(counter("lunapay.gateway.retries", "outcome", "retried")).isEqualTo(1.0);
+    }
+
+    @Test
+    void paymentCreationIsNotRetriedOnceRequestWasSent() {
+        errorStatus = 503;
+        PaymentGateway gateway = decorate(new GatewayResilience(gatewayConfig, meterRegistry));
+
+        assertThatThrownBy(() -> gateway.createPaymentAsync(pixRequest(), "tenant-1").block())
+                .isInstanceOf(GatewayException.class);
+
+        assertThat(hits.get()).isEqualTo(1);
+    }
+
+    @Test
+    void exhaustedRetryBudgetStopsRetries() {
+        errorStatus = 503;
+        props.getResilience().getRetry().setBudgetRatio(0);
+        props.getResilience().getRetry().setBudgetMaxTokens(1);
+        PaymentGateway gateway = decorate(new GatewayResilience(gatewayConfig, meterRegistry));
+
+        assertThatThrownBy(() -> gateway.getPaymentStatus("pay_1")).isInstanceOf(GatewayException.class);
+        assertThatThrownBy(() -> gateway.getPaymentStatus("pay_1")).isInstanceOf(GatewayException.class);
+
+        // 2 tentativas na primeira chamada, 1 na segunda
+        assertThat(hits.get()).isEqualTo(3);
+        assertThat(counter("lunapay.gateway.retries", "outcome", "budget_exhausted")).isEqualTo(1.0);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() {
+        failuresLeft = 0;
+        latencyMs = 500;
+        props.getResilience().getBulkhead().setMaxConcurrentCalls(2);
+        PaymentGateway gateway = decorate(new GatewayResilience(gatewayConfig, meterRegistry));
+
+        List<String> outcomes = Flux.range(0, 5)
+                .flatMap(i -> gateway.getPaymentStatusAsync("pay_" + i)
+                        .map(status -> "OK")
+                        .onErrorResume(GatewayException.class, e -> Mono.just(String.valueOf(e.getErrorCode()))))
+                .collectList()
+                .block();
+
+        assertThat(outcomes).filteredOn("OK"::equals).hasSize(2);
+        assertThat(outcomes).filteredOn(GatewayException.BULKHEAD_FULL::equals).hasSize(3);
+        assertThat(hits.get()).isEqualTo(2);
+        assertThat(counter("lunapay.gateway.rejections", "reason", "bulkhead_full")).isEqualTo(3.0);
+    }
+
+    private PaymentGateway decorate(GatewayResilience resilience) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl(props.getBaseUrl())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+        return resilience.decorate(new C6Gateway(gatewayConfig, webClient, new WebhookSignatureVerifiers(gatewayConfig)));
+    }
+
+    private double counter(String name, String tag, String value) {
+        return meterRegistry.get(name).tag("gateway", "C6").tag(tag, value).counter().count();
+    }
+
+    private static CreatePaymentRequest pixRequest() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        request.setDescription("resilience");
+        request.setGateway("C6");
+        request.setPaymentMethod("PIX");
+        return request;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        boolean fail;
+        synchronized (this) {
+            fail = failuresLeft > 0;
+            if (fail && failuresLeft != Integer.MAX_VALUE) failuresLeft--;
+        }
+
+        int status = fail ? errorStatus : 200;
+        String json = fail
+                ? "{\"error\":\"injected\"}"
+                : "{\"payment_id\":\"pay_1\",\"status\":\"PAID\"}";
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
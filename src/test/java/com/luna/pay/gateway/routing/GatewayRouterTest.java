@@ -0,0 +1,211 @@
+package com.luna.pay.gateway.routing;
+
+import com.luna.pay.common.exception.GatewayException;
+import com.luna.pay.gateway.GatewayConfig;
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.gateway.resilience.GatewayResilience;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayRouterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatewayConfig gatewayConfig = new GatewayConfig();
+
+    private final StubGateway asaas = new StubGateway("ASAAS", Set.of("PIX", "BOLETO"));
+    private final StubGateway c6 = new StubGateway("C6", Set.of("PIX", "CREDIT_CARD"));
+
+    @Test
+    void autoPrefersLowerP95AmongGatewaysSupportingMethod() {
+        GatewayRouter router = router();
+        asaas.latencyMs = 60;
+        router.createPayment(request("ASAAS", "PIX"), "tenant-1");
+
+        RoutedPayment routed = router.createPayment(request("AUTO", "PIX"), "tenant-1");
+        assertThat(routed.gateway()).isEqualTo("C6");
+
+        RoutedPayment boleto = router.createPayment(request("AUTO", "BOLETO"), "tenant-1");
+        assertThat(boleto.gateway()).isEqualTo("ASAAS");
+        assertThat(decisions("C6", "fastest")).isEqualTo(1.0);
+    }
+
+    @Test
+    void tenantPreferenceWinsWhileGatewayIsHealthy() {
+        gatewayConfig.getRouting().getTenantPreferences().put("tenant-asaas", List.of("ASAAS", "C6"));
+        GatewayRouter router = router();
+
+        assertThat(router.createPayment(request("AUTO", "PIX"), "tenant-asaas").gateway()).isEqualTo("ASAAS");
+        assertThat(decisions("ASAAS", "preferred")).isEqualTo(1.0);
+    }
+
+    @Test
+    void failsOverWhenChargeWasCertainlyNotCreated() {
+        gatewayConfig.getRouting().setDefaultPreference(List.of("ASAAS", "C6"));
+        asaas.failure = new GatewayException("ASAAS", "circuito aberto", GatewayException.CIRCUIT_OPEN);
+        GatewayRouter router = router();
+
+        RoutedPayment blocking = router.createPayment(request("AUTO", "PIX"), "tenant-1");
+        RoutedPayment reactive = router.createPaymentAsync(request("AUTO", "PIX"), "tenant-1").block();
+
+        assertThat(blocking.gateway()).isEqualTo("C6");
+        assertThat(reactive.gateway()).isEqualTo("C6");
+        assertThat(meterRegistry.get("lunapay.gateway.routing.failovers").tag("gateway", "ASAAS").counter().count())
+                .isEqualTo(2.0);
+        assertThat(decisions("C6", "failover")).isEqualTo(2.0);
+    }
+
+    @Test
+    void doesNotFailOverWhenChargeMayExist() {
+        gatewayConfig.getRouting().setDefaultPreference(List.of("ASAAS", "C6"));
+        asaas.failure = new GatewayException("ASAAS", "Erro na API Asaas", 503);
+        GatewayRouter router = router();
+
+        assertThatThrownBy(() -> router.createPayment(request("AUTO", "PIX"), "tenant-1"))
+                .isInstanceOf(GatewayException.class);
+        assertThat(c6.calls.get()).isZero();
+    }
+
+    @Test
+    void clientErrorsDoNotTakeGatewayOutOfAutoRouting() {
+        gatewayConfig.getRouting().setDefaultPreference(List.of("ASAAS", "C6"));
+        asaas.failure = new GatewayException("ASAAS", "CPF inválido", 400);
+        GatewayRouter router = router();
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> router.createPayment(request("ASAAS", "PIX"), "tenant-bad-data"))
+                    .isInstanceOf(GatewayException.class);
+        }
+
+        asaas.failure = null;
+        assertThat(router.createPayment(request("AUTO", "PIX"), "tenant-1").gateway()).isEqualTo("ASAAS");
+        assertThat(decisions("ASAAS", "preferred")).isEqualTo(1.0);
+    }
+
+    @Test
+    void recoveredGatewayWinsTheProbeAndGetsBackToFirstPlace() throws InterruptedException {
+        gatewayConfig.getRouting().setDefaultPreference(List.of("ASAAS", "C6"));
+        gatewayConfig.getRouting().setProbeInterval(Duration.ofMillis(200));
+        asaas.failure = new GatewayException("ASAAS", "Erro na API Asaas", 503);
+        GatewayRouter router = router();
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> router.createPayment(request("ASAAS", "PIX"), "tenant-1"))
+                    .isInstanceOf(GatewayException.class);
+        }
+        assertThat(router.createPayment(request("AUTO", "PIX"), "tenant-1").gateway()).isEqualTo("C6");
+
+        asaas.failure = null;
+        Thread.sleep(300);
+        assertThat(router.createPayment(request("AUTO", "PIX"), "tenant-1").gateway()).isEqualTo("ASAAS");
+        assertThat(router.createPayment(request("AUTO", "PIX"), "tenant-1").gateway()).isEqualTo("ASAAS");
+
+        assertThat(decisions("ASAAS", "probe")).isEqualTo(1.0);
+        assertThat(decisions("ASAAS", "preferred")).isEqualTo(1.0);
+    }
+
+    @Test
+    void explicitGatewayIsNeverRerouted() {
+        asaas.failure = new GatewayException("ASAAS", "circuito aberto", GatewayException.CIRCUIT_OPEN);
+        GatewayRouter router = router();
+
+        assertThatThrownBy(() -> router.createPayment(request("ASAAS", "PIX"), "tenant-1"))
+                .isInstanceOf(GatewayException.class);
+        assertThat(c6.calls.get()).isZero();
+        assertThat(decisions("ASAAS", "explicit")).isEqualTo(1.0);
+    }
+
+    private GatewayRouter router() {
+        GatewayRegistry registry = new GatewayRegistry(List.of(asaas, c6), 5);
+        return new GatewayRouter(registry, new GatewayResilience(gatewayConfig, meterRegistry),
+                gatewayConfig, meterRegistry);
+    }
+
+    private double decisions(String gateway, String reason) {
+        return meterRegistry.get("lunapay.gateway.routing.decisions")
+                .tag("gateway", gateway).tag("reason", reason).counter().count();
+    }
+
+    private static CreatePaymentRequest request(String gateway, String method) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        request.setDescription("routing");
+        request.setGateway(gateway);
+        request.setPaymentMethod(method);
+        return request;
+    }
+
+    static class StubGateway implements PaymentGateway {
+
+        private final String name;
+        private final Set<String> methods;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile long latencyMs;
+        private volatile RuntimeException failure;
+
+        StubGateway(String name, Set<String> methods) {
+            this.name = name;
+            this.methods = methods;
+        }
+
+        @Override
+        public String getGatewayName() {
+            return name;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public Set<String> getSupportedPaymentMethods() {
+            return methods;
+        }
+
+        @Override
+        public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return GatewayPaymentResult.builder().success(true).gatewayPaymentId(name + "_1").build();
+        }
+
+        @Override
+        public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+            return null;
+        }
+
+        @Override
+        public boolean cancelPayment(String gatewayPaymentId) {
+            return true;
+        }
+
+        @Override
+        public boolean validateWebhook(String signature, byte[] payload) {
+            return true;
+        }
+
+        @Override
+        public WebhookProcessingResult processWebhook(String payload) {
+            return WebhookProcessingResult.builder().success(false).build();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.luna.pay.gateway.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+class WebhookJsonFieldsTest {
+
+    private static final WebhookJsonFields ASAAS = WebhookJsonFields.of("event", "payment.id");
+    private static final WebhookJsonFields C6 = WebhookJsonFields.of("paymentId", "status");
+
+    /**
+     * Formato real do Asaas: o "id" da raiz é o do evento e vem antes do
+     * objeto payment, que tem objetos aninhados com outros "id".
+     */
+    static final String ASAAS_PAYMENT_RECEIVED = """
+            {
+              "id": "evt_05b708f961d739ea7eba7e4db318f621&368604920",
+              "event": "PAYMENT_RECEIVED",
+              "dateCreated": "2024-06-12 16:45:03",
+              "payment": {
+                "object": "payment",
+                "split": [{"id": "split_1", "walletId": "w_1", "fixedValue": 2.5}],
+                "customer": {"id": "cus_000005401844", "name": "Fulano \\"Tal\\""},
+                "id": "pay_080225913252",
+                "dateCreated": "2024-06-12",
+                "value": 100.00,
+                "netValue": 94.51,
+                "billingType": "PIX",
+                "status": "RECEIVED",
+                "pixTransaction": null,
+                "discount": {"value": 0, "dueDateLimitDays": 0},
+                "refunds": null
+              }
+            }
+            """;
+
+    static final String C6_PAID = """
+            {"eventId":"e-1","data":{"paymentId":"wrong"},"paymentId":"c6_pay_123","amount":10.5,"status":"PAID"}
+            """;
+
+    @Test
+    void readsNestedPathAndIgnoresIdsAtOtherLevels() throws IOException {
+        assertThat(ASAAS.read(ASAAS_PAYMENT_RECEIVED))
+                .containsExactly("PAYMENT_RECEIVED", "pay_080225913252");
+        assertThat(ASAAS.read(ASAAS_PAYMENT_RECEIVED.getBytes(StandardCharsets.UTF_8)))
+                .containsExactly("PAYMENT_RECEIVED", "pay_080225913252");
+        assertThat(C6.read(C6_PAID)).containsExactly("c6_pay_123", "PAID");
+    }
+
+    @Test
+    void missingNullAndNonScalarFieldsAreNull() throws IOException {
+        assertThat(ASAAS.read("{\"event\":null,\"payment\":{\"id\":{\"nested\":\"x\"}}}")).containsExactly(null, null);
+        assertThat(ASAAS.read("{\"payment\":\"pay_1\",\"event\":[\"PAYMENT_RECEIVED\"]}")).containsExactly(null, null);
+        assertThat(C6.read("{\"paymentId\":123,\"status\":true}")).containsExactly("123", "true");
+        assertThat(C6.read("{}")).containsExactly(null, null);
+    }
+
+    @Test
+    void escapesAndUnicodeAreDecoded() throws IOException {
+        assertThat(C6.read("{\"paymentId\":\"pa\\u00e7o\\/1\",\"status\":\"PA\\u0049D\"}"))
+                .containsExactly("paço/1", "PAID");
+        assertThat(C6.read("{\"paymentId\":\"日本\",\"status\":\"PAID\"}".getBytes(StandardCharsets.UTF_8)))
+                .containsExactly("日本", "PAID");
+    }
+
+    @Test
+    void rejectsNonObjectsAndTruncatedPayloads() {
+        for (String payload : List.of("", "[]", "\"x\"", "null", "{\"paymentId\":\"a\"", "{\"status\":",
+                "{\"paymentId\":\"a\",\"status\":\"PA")) {
+            assertThatThrownBy(() -> C6.read(payload)).as(payload).isInstanceOf(IOException.class);
+        }
+    }
+
+    /**
+     * Payloads reais truncados ou com bytes trocados: o leitor nunca lança nada
+     * além de IOException e, quando aceita, devolve os valores que estão lá.
+     */
+    @Test
+    void fuzzMutatedRealPayloadsOnlyFailWithIOException() {
+        Random random = new Random(17);
+        byte[] original = ASAAS_PAYMENT_RECEIVED.getBytes(StandardCharsets.UTF_8);
+        byte[] alphabet = "{}[]\":,\\ 0aZ-.e\n\u0000".getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < 5_000; i++) {
+            byte[] mutated = original.clone();
+            int mutations = 1 + random.nextInt(4);
+            for (int m = 0; m < mutations; m++) {
+                mutated[random.nextInt(mutated.length)] = random.nextBoolean()
+                        ? alphabet[random.nextInt(alphabet.length)]
+                        : (byte) random.nextInt(256);
+            }
+            int length = random.nextInt(4) == 0 ? random.nextInt(mutated.length) : mutated.length;
+            byte[] payload = Arrays.copyOf(mutated, length);
+
+            try {
+                String[] values = ASAAS.read(payload);
+                assertThat(values).hasSize(2);
+            } catch (IOException expected) {
+                // payload inválido
+            } catch (RuntimeException e) {
+                fail("Exceção inesperada para payload " + new String(payload, StandardCharsets.UTF_8), e);
+            }
+        }
+    }
+
+    /**
+     * Teste diferencial: objetos aleatórios (chaves em ordem aleatória, iscas com
+     * os mesmos nomes em outros níveis, arrays de objetos) comparados com a
+     * leitura pela árvore do ObjectMapper.
+     */
+    @Test
+    void fuzzRandomDocumentsMatchTreeModel() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2_000; i++) {
+            ObjectNode root = randomDocument(random);
+            String json = random.nextBoolean()
+                    ? mapper.writeValueAsString(root)
+                    : mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+
+            String[] values = ASAAS.read(json.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(values[0]).as(json).isEqualTo(expected(root.at("/event")));
+            assertThat(values[1]).as(json).isEqualTo(expected(root.at("/payment/id")));
+        }
+    }
+
+    private static String expected(JsonNode node) {
+        return node.isValueNode() && !node.isNull() ? node.asText() : null;
+    }
+
+    private static ObjectNode randomDocument(Random random) {
+        JsonNodeFactory f = JsonNodeFactory.instance;
+        List<Runnable> fields = new ArrayList<>();
+        ObjectNode root = f.objectNode();
+
+        fields.add(() -> root.put("id", "evt_" + random.nextInt(1000)));
+        if (random.nextInt(10) > 0) {
+            fields.add(() -> root.set("event", randomScalar(random, "PAYMENT_RECEIVED")));
+        }
+        if (random.nextInt(10) > 0) {
+            fields.add(() -> {
+                ObjectNode payment = f.objectNode();
+                List<Runnable> inner = new ArrayList<>();
+                inner.add(() -> payment.set("customer", decoy(random, 0)));
+                inner.add(() -> payment.put("value", random.nextDouble() * 1000));
+                inner.add(() -> payment.set("split", f.arrayNode().add(decoy(random, 0)).add(decoy(random, 0))));
+                if (random.nextInt(8) > 0) {
+                    inner.add(() -> payment.set("id", randomScalar(random, "pay_" + random.nextInt(1_000_000))));
+                }
+                Collections.shuffle(inner, random);
+                inner.forEach(Runnable::run);
+                root.set("payment", payment);
+            });
+        }
+        fields.add(() -> root.set("metadata", decoy(random, 0)));
+        fields.add(() -> root.put("dateCreated", "2024-06-12 16:45:03"));
+
+        Collections.shuffle(fields, random);
+        fields.forEach(Runnable::run);
+        return root;
+    }
+
+    /**
+     * Objeto aninhado com as mesmas chaves procuradas, que não devem casar.
+     */
+    private static JsonNode decoy(Random random, int depth) {
+        JsonNodeFactory f = JsonNodeFactory.instance;
+        ObjectNode node = f.objectNode();
+        node.put("id", "decoy_" + random.nextInt(1000));
+        node.put("event", "DECOY");
+        if (depth < 3 && random.nextBoolean()) {
+            ObjectNode payment = f.objectNode().put("id", "decoy_pay");
+            node.set("payment", payment);
+        }
+        if (depth < 3 && random.nextBoolean()) {
+            ArrayNode array = f.arrayNode();
+            array.add(decoy(random, depth + 1)).add(random.nextInt()).addNull().add("texto \"com\" aspas");
+            node.set("items", array);
+        }
+        return node;
+    }
+
+    private static JsonNode randomScalar(Random random, String text) {
+        JsonNodeFactory f = JsonNodeFactory.instance;
+        return switch (random.nextInt(8)) {
+            case 0 -> f.nullNode();
+            case 1 -> f.numberNode(random.nextInt(100_000));
+            case 2 -> f.booleanNode(random.nextBoolean());
+            case 3 -> f.objectNode().put("id", text);
+            case 4 -> f.textNode(text + " ção \\ \"q\"");
+            default -> f.textNode(text);
+        };
+    }
+}
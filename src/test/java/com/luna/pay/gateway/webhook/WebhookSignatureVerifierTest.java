@@ -0,0 +1,106 @@
+package com.luna.pay.gateway.webhook;
+
+import com.luna.pay.gateway.GatewayConfig;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookSignatureVerifierTest {
+
+    private static final byte[] PAYLOAD =
+            "{\"paymentId\":\"c6_pay_123\",\"status\":\"PAID\",\"payer\":\"João\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void acceptsCurrentAndPreviousSecretDuringRotation() throws Exception {
+        WebhookSignatureVerifier verifier = WebhookSignatureVerifier.hmacSha256(List.of("novo", "antigo"));
+
+        assertThat(verifier.verify(sign("novo", PAYLOAD), PAYLOAD)).isTrue();
+        assertThat(verifier.verify(sign("antigo", PAYLOAD), PAYLOAD)).isTrue();
+        assertThat(verifier.verify(sign("novo", PAYLOAD).toUpperCase(), PAYLOAD)).isTrue();
+        assertThat(verifier.verify(sign("outro", PAYLOAD), PAYLOAD)).isFalse();
+
+        WebhookSignatureVerifier rotated = WebhookSignatureVerifier.hmacSha256(List.of("novo"));
+        assertThat(rotated.verify(sign("antigo", PAYLOAD), PAYLOAD)).isFalse();
+    }
+
+    @Test
+    void rejectsMalformedSignaturesAndTamperedBodies() throws Exception {
+        WebhookSignatureVerifier verifier = WebhookSignatureVerifier.hmacSha256(List.of("segredo"));
+        String signature = sign("segredo", PAYLOAD);
+
+        byte[] tampered = PAYLOAD.clone();
+        tampered[tampered.length - 2] ^= 1;
+        assertThat(verifier.verify(signature, tampered)).isFalse();
+
+        assertThat(verifier.verify(null, PAYLOAD)).isFalse();
+        assertThat(verifier.verify("", PAYLOAD)).isFalse();
+        assertThat(verifier.verify(signature.substring(2), PAYLOAD)).isFalse();
+        assertThat(verifier.verify("zz" + signature.substring(2), PAYLOAD)).isFalse();
+    }
+
+    /**
+     * A assinatura é sobre os bytes: um corpo que não é UTF-8 válido não
+     * sobrevive à ida e volta por String e ainda assim deve conferir.
+     */
+    @Test
+    void verifiesRawBytesThatAreNotValidUtf8() throws Exception {
+        WebhookSignatureVerifier verifier = WebhookSignatureVerifier.hmacSha256(List.of("segredo"));
+        byte[] latin1 = "{\"payer\":\"João\"}".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertThat(verifier.verify(sign("segredo", latin1), latin1)).isTrue();
+        assertThat(verifier.verify(sign("segredo", latin1),
+                new String(latin1, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8))).isFalse();
+    }
+
+    @Test
+    void missingSignatureIsRejectedOnlyWhenASecretIsConfigured() throws Exception {
+        GatewayConfig gatewayConfig = new GatewayConfig();
+        GatewayConfig.GatewayProperties c6 = new GatewayConfig.GatewayProperties();
+        c6.setWebhookSecret("segredo");
+        gatewayConfig.getGateways().put("c6", c6);
+        gatewayConfig.getGateways().put("asaas", new GatewayConfig.GatewayProperties());
+        WebhookSignatureVerifiers verifiers = new WebhookSignatureVerifiers(gatewayConfig);
+
+        assertThat(verifiers.verify("C6", sign("segredo", PAYLOAD), PAYLOAD)).isTrue();
+        assertThat(verifiers.verify("C6", null, PAYLOAD)).isFalse();
+        assertThat(verifiers.verify("ASAAS", null, PAYLOAD)).isTrue();
+    }
+
+    @Test
+    void macsAreNotSharedBetweenThreads() throws Exception {
+        WebhookSignatureVerifier verifier = WebhookSignatureVerifier.hmacSha256(List.of("novo", "antigo"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = IntStream.range(0, 2_000)
+                    .mapToObj(i -> executor.submit(() -> {
+                        byte[] payload = ("{\"n\":" + i + "}").getBytes(StandardCharsets.UTF_8);
+                        String secret = i % 2 == 0 ? "novo" : "antigo";
+                        boolean valid = verifier.verify(sign(secret, payload), payload);
+                        boolean forged = verifier.verify(sign("outro", payload), payload);
+                        return valid && !forged;
+                    }))
+                    .toList();
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String sign(String secret, byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload));
+    }
+}
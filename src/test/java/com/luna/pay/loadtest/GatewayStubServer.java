@@ -0,0 +1,252 @@
+package com.luna.pay.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stubs HTTP locais das APIs usadas por AsaasGateway (/asaas/customers,
+ * /asaas/payments) e C6Gateway (/c6/payments), para testes de carga sem sair
+ * da máquina. Cada gateway responde com o seu {@link Profile} de latência e
+ * erros. Cobranças criadas com referência externa podem ser listadas por ela
+ * (GET /payments?externalReference= ou ?external_reference=).
+ */
+public final class GatewayStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Profile asaas;
+    private volatile Profile c6;
+    // Ids únicos entre instâncias: vários contextos de teste compartilham o mesmo H2
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, String> asaasByReference = new ConcurrentHashMap<>();
+    private final Map<String, String> c6ByReference = new ConcurrentHashMap<>();
+
+    public GatewayStubServer(Profile asaas, Profile c6) throws IOException {
+        this.asaas = asaas;
+        this.c6 = c6;
+        // Uma thread por requisição em andamento: a latência simulada é um sleep
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "gateway-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/asaas/customers", exchange -> handle(exchange, this.asaas,
+                (request, body) -> asaasCustomers(request)));
+        server.createContext("/asaas/payments", exchange -> handle(exchange, this.asaas, this::asaasPayments));
+        server.createContext("/c6/payments", exchange -> handle(exchange, this.c6, this::c6Payments));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Troca o perfil do C6 para as próximas requisições.
+     */
+    public void c6Profile(Profile profile) {
+        this.c6 = profile;
+    }
+
+    public String asaasBaseUrl() {
+        return baseUrl() + "/asaas";
+    }
+
+    public String c6BaseUrl() {
+        return baseUrl() + "/c6";
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private String asaasCustomers(HttpExchange exchange) {
+        if ("GET".equals(exchange.getRequestMethod())) {
+            return "{\"object\":\"list\",\"hasMore\":false,\"totalCount\":0,\"data\":[]}";
+        }
+        return "{\"object\":\"customer\",\"id\":\"cus_stub_" + instance + "_" + sequence.incrementAndGet() + "\"}";
+    }
+
+    private String asaasPayments(HttpExchange exchange, String body) {
+        if ("GET".equals(exchange.getRequestMethod())) {
+            String reference = queryParam(exchange, "externalReference");
+            if (reference != null) {
+                return list(asaasByReference.get(reference));
+            }
+            return "{\"object\":\"payment\",\"id\":\"" + lastSegment(exchange) + "\",\"status\":\"PENDING\"}";
+        }
+        long n = sequence.incrementAndGet();
+        String payment = """
+                {"object":"payment","id":"pay_stub_%s_%d","customer":"cus_stub","billingType":"PIX","value":10.00,\
+                "status":"PENDING","pixTransaction":{"payload":"%s","expirationDate":"%s"}}"""
+                .formatted(instance, n, pixPayload(n), Instant.now().plus(Duration.ofMinutes(30)));
+        remember(asaasByReference, body, "externalReference", payment);
+        return payment;
+    }
+
+    private String c6Payments(HttpExchange exchange, String body) {
+        if ("GET".equals(exchange.getRequestMethod())) {
+            String reference = queryParam(exchange, "external_reference");
+            if (reference != null) {
+                return list(c6ByReference.get(reference));
+            }
+            return "{\"payment_id\":\"" + lastSegment(exchange) + "\",\"status\":\"PENDING\"}";
+        }
+        long n = sequence.incrementAndGet();
+        String payment = """
+                {"payment_id":"c6_stub_%s_%d","status":"PENDING","amount":10.00,"payment_method":"PIX",\
+                "pix_qr_code":"%s","pix_copy_paste":"%s","pix_expires_at":"%s"}"""
+                .formatted(instance, n, pixPayload(n), pixPayload(n), Instant.now().plus(Duration.ofMinutes(30)));
+        remember(c6ByReference, body, "external_reference", payment);
+        return payment;
+    }
+
+    /**
+     * Registra uma cobrança como se tivesse sido criada no C6 com a referência
+     * externa, sem passar pela API (ex.: nó que caiu logo após a criação).
+     */
+    public String c6PaymentCreatedWith(String externalReference) {
+        long n = sequence.incrementAndGet();
+        String id = "c6_stub_%s_%d".formatted(instance, n);
+        c6ByReference.put(externalReference, """
+                {"payment_id":"%s","status":"PENDING","amount":10.00,"payment_method":"PIX",\
+                "pix_qr_code":"%s","pix_copy_paste":"%s"}""".formatted(id, pixPayload(n), pixPayload(n)));
+        return id;
+    }
+
+    private static void remember(Map<String, String> byReference, String body, String field, String payment) {
+        Matcher matcher = Pattern.compile("\"" + field + "\"\\s*:\\s*\"([^\"]+)\"").matcher(body);
+        if (matcher.find()) {
+            byReference.put(matcher.group(1), payment);
+        }
+    }
+
+    private static String list(String payment) {
+        return payment == null
+                ? "{\"object\":\"list\",\"totalCount\":0,\"data\":[]}"
+                : "{\"object\":\"list\",\"totalCount\":1,\"data\":[" + payment + "]}";
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static String pixPayload(long n) {
+        return "00020126580014br.gov.bcb.pix0136stub-" + n + "520400005303986540510.005802BR6304ABCD";
+    }
+
+    private static String lastSegment(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private void handle(HttpExchange exchange, Profile profile, Endpoint endpoint) throws IOException {
+        try {
+            String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(profile.delay(random));
+
+            boolean fail = random.nextDouble() < profile.errorRate();
+            byte[] body = (fail ? "{\"errors\":[{\"code\":\"stub_error\",\"description\":\"Falha simulada\"}]}"
+                    : endpoint.respond(exchange, requestBody)).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sleep(Duration delay) {
+        if (delay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        String respond(HttpExchange exchange, String body);
+    }
+
+    /**
+     * Latência base mais um jitter uniforme; uma fração {@code slowRate} das
+     * chamadas leva {@code slowLatency} (cauda), e uma fração {@code errorRate}
+     * responde 503.
+     */
+    public record Profile(Duration latency, Duration jitter, double slowRate, Duration slowLatency, double errorRate) {
+
+        public static Profile fixed(Duration latency) {
+            return new Profile(latency, Duration.ZERO, 0, Duration.ZERO, 0);
+        }
+
+        /**
+         * Lê loadtest.&lt;gateway&gt;.latency, .jitter, .slow-rate, .slow-latency e
+         * .error-rate das propriedades de sistema.
+         */
+        public static Profile fromSystemProperties(String gateway) {
+            String prefix = "loadtest." + gateway + ".";
+            return new Profile(
+                    duration(prefix + "latency", "80ms"),
+                    duration(prefix + "jitter", "40ms"),
+                    Double.parseDouble(System.getProperty(prefix + "slow-rate", "0.01")),
+                    duration(prefix + "slow-latency", "1s"),
+                    Double.parseDouble(System.getProperty(prefix + "error-rate", "0")));
+        }
+
+        Duration delay(ThreadLocalRandom random) {
+            if (slowRate > 0 && random.nextDouble() < slowRate) {
+                return slowLatency;
+            }
+            long jitterMillis = jitter.toMillis();
+            return jitterMillis > 0 ? latency.plusMillis(random.nextLong(jitterMillis)) : latency;
+        }
+
+        private static Duration duration(String property, String defaultValue) {
+            return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+        }
+
+        @Override
+        public String toString() {
+            return "%s+%s jitter, %.2f%% em %s, %.2f%% erros".formatted(
+                    latency, jitter, slowRate * 100, slowLatency, errorRate * 100);
+        }
+    }
+}
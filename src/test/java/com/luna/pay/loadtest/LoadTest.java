@@ -0,0 +1,375 @@
+package com.luna.pay.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.LunaPayApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga ponta a ponta de um nó: sobe o LunaPay (H2 em memória, ou o
+ * banco de loadtest.datasource.*) apontando para o {@link GatewayStubServer}
+ * e dispara, com N clientes em laço fechado, uma mistura de criações,
+ * consultas de status, listagens e webhooks. Ao fim imprime vazão e
+ * p50/p99/p999 por operação e grava o relatório em JSON.
+ *
+ * Executar: mvn -Ploadtest verify -Dloadtest.duration=60s -Dloadtest.concurrency=64
+ *
+ * Propriedades (todas opcionais):
+ * - loadtest.duration (60s), loadtest.warmup (10s), loadtest.concurrency (32),
+ *   loadtest.tenants (8)
+ * - loadtest.mix (create:30,poll:40,list:15,webhook:15)
+ * - loadtest.execution-mode (BLOCKING | REACTIVE)
+ * - loadtest.asaas.* / loadtest.c6.*: perfil do stub (ver GatewayStubServer.Profile)
+ * - loadtest.datasource.url / .username / .password / .driver-class-name
+ * - loadtest.report (target/loadtest-report.json)
+ */
+public final class LoadTest {
+
+    private static final String API_KEY = "loadtest-key";
+    private static final String ASAAS_TOKEN = "loadtest-asaas-token";
+    private static final String C6_SECRET = "loadtest-c6-secret";
+    private static final int KNOWN_PAYMENTS = 10_000;
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    public enum Operation {
+        CREATE, POLL, LIST, WEBHOOK
+    }
+
+    public record Settings(Duration duration,
+                           Duration warmup,
+                           int concurrency,
+                           int tenants,
+                           Map<Operation, Integer> mix,
+                           String executionMode,
+                           GatewayStubServer.Profile asaas,
+                           GatewayStubServer.Profile c6,
+                           Map<String, String> datasource,
+                           Path report) {
+
+        public static Settings fromSystemProperties() {
+            Map<String, String> datasource = new LinkedHashMap<>();
+            for (String key : List.of("url", "username", "password", "driver-class-name")) {
+                String value = System.getProperty("loadtest.datasource." + key);
+                if (value != null) {
+                    datasource.put(key, value);
+                }
+            }
+            return new Settings(
+                    DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "60s")),
+                    DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s")),
+                    Integer.getInteger("loadtest.concurrency", 32),
+                    Integer.getInteger("loadtest.tenants", 8),
+                    parseMix(System.getProperty("loadtest.mix", "create:30,poll:40,list:15,webhook:15")),
+                    System.getProperty("loadtest.execution-mode", "BLOCKING"),
+                    GatewayStubServer.Profile.fromSystemProperties("asaas"),
+                    GatewayStubServer.Profile.fromSystemProperties("c6"),
+                    datasource,
+                    Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json")));
+        }
+
+        static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String part : mix.split(",")) {
+                String[] kv = part.trim().split(":");
+                weights.put(Operation.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+            }
+            return weights;
+        }
+    }
+
+    private record Created(int tenant, String id, String gateway, String gatewayPaymentId) {
+    }
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<String, LongAdder>> errors = new EnumMap<>(Operation.class);
+    private final AtomicReferenceArray<Created> known = new AtomicReferenceArray<>(KNOWN_PAYMENTS);
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong webhookSequence = new AtomicLong();
+    private final Operation[] wheel;
+
+    private String baseUrl;
+    private List<String> tokens;
+
+    private LoadTest(Settings settings) {
+        this.settings = settings;
+        Duration total = settings.warmup().plus(settings.duration());
+        for (Operation operation : Operation.values()) {
+            timers.put(operation, Timer.builder("loadtest.requests")
+                    .tag("operation", operation.name().toLowerCase())
+                    .publishPercentiles(PERCENTILES)
+                    .percentilePrecision(3)
+                    // Um único intervalo cobrindo toda a execução
+                    .distributionStatisticExpiry(total.multipliedBy(2))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry));
+            errors.put(operation, new ConcurrentHashMap<>());
+        }
+        List<Operation> slots = new ArrayList<>();
+        settings.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        this.wheel = slots.toArray(Operation[]::new);
+    }
+
+    public static LoadTestReport run(Settings settings) throws Exception {
+        return new LoadTest(settings).execute();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        LoadTestReport report = run(settings);
+        report.print(System.out);
+        System.out.printf("%nRelatório gravado em %s%n", settings.report().toAbsolutePath());
+    }
+
+    private LoadTestReport execute() throws Exception {
+        try (GatewayStubServer stubs = new GatewayStubServer(settings.asaas(), settings.c6());
+             ConfigurableApplicationContext context = start(stubs)) {
+
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String jwtSecret = context.getEnvironment().getRequiredProperty("jwt.secret");
+            tokens = new ArrayList<>();
+            for (int i = 0; i < settings.tenants(); i++) {
+                tokens.add(token(jwtSecret, "loadtest-tenant-" + i));
+            }
+
+            long measureFrom = System.nanoTime() + settings.warmup().toNanos();
+            long end = measureFrom + settings.duration().toNanos();
+            ExecutorService workers = Executors.newFixedThreadPool(settings.concurrency());
+            try {
+                List<Future<?>> running = new ArrayList<>();
+                for (int i = 0; i < settings.concurrency(); i++) {
+                    int tenant = i % settings.tenants();
+                    running.add(workers.submit(() -> drive(tenant, measureFrom, end)));
+                }
+                for (Future<?> worker : running) {
+                    worker.get();
+                }
+            } finally {
+                workers.shutdownNow();
+            }
+
+            LoadTestReport report = report();
+            if (settings.report().getParent() != null) {
+                Files.createDirectories(settings.report().getParent());
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(settings.report().toFile(), report);
+            return report;
+        }
+    }
+
+    private ConfigurableApplicationContext start(GatewayStubServer stubs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--payment.execution-mode=" + settings.executionMode(),
+                "--payment.reconciliation.enabled=false",
+                "--payment.gateways.asaas.enabled=true",
+                "--payment.gateways.asaas.baseUrl=" + stubs.asaasBaseUrl(),
+                "--payment.gateways.asaas.apiKey=" + API_KEY,
+                "--payment.gateways.asaas.webhookSecret=" + ASAAS_TOKEN,
+                "--payment.gateways.c6.enabled=true",
+                "--payment.gateways.c6.baseUrl=" + stubs.c6BaseUrl(),
+                "--payment.gateways.c6.apiKey=" + API_KEY,
+                "--payment.gateways.c6.webhookSecret=" + C6_SECRET,
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.luna.pay=WARN",
+                "--logging.level.org.springframework.web=WARN"));
+        if (settings.datasource().isEmpty()) {
+            // Banco próprio, separado do "lunapay" de outros contextos na mesma JVM
+            args.add("--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        } else {
+            settings.datasource().forEach((key, value) -> args.add("--spring.datasource." + key + "=" + value));
+        }
+        return new SpringApplicationBuilder(LunaPayApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private void drive(int tenant, long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            Operation operation = wheel[random.nextInt(wheel.length)];
+            Created target = operation == Operation.POLL || operation == Operation.WEBHOOK ? pickKnown(random) : null;
+            if (target == null && operation != Operation.LIST) {
+                operation = Operation.CREATE;
+            }
+
+            long start = System.nanoTime();
+            String failure;
+            try {
+                failure = switch (operation) {
+                    case CREATE -> create(tenant, random);
+                    case POLL -> expect(200, send(get("/payments/" + target.id() + "/status", target.tenant())));
+                    case LIST -> expect(200, send(get("/payments?limit=50", tenant)));
+                    case WEBHOOK -> expect(200, send(webhook(target)));
+                };
+            } catch (IOException e) {
+                failure = e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            if (start >= measureFrom) {
+                timers.get(operation).record(elapsed, TimeUnit.NANOSECONDS);
+                if (failure != null) {
+                    errors.get(operation).computeIfAbsent(failure, k -> new LongAdder()).increment();
+                }
+            }
+        }
+    }
+
+    private String create(int tenant, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String gateway = random.nextBoolean() ? "ASAAS" : "C6";
+        String body = """
+                {"amount": 10.00, "description": "loadtest", "gateway": "%s", "paymentMethod": "PIX",
+                 "customer": {"name": "Cliente %d", "email": "cliente@example.com", "cpfCnpj": "%011d", "phone": "11999999999"}}
+                """.formatted(gateway, tenant, random.nextInt(500));
+        HttpResponse<String> response = send(request("/payments", tenant)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        String failure = expect(201, response);
+        if (failure == null) {
+            JsonNode json = objectMapper.readTree(response.body());
+            Created created = new Created(tenant, json.path("id").asText(),
+                    json.path("gateway").asText(), json.path("gatewayPaymentId").asText());
+            known.set((int) (createdCount.getAndIncrement() % KNOWN_PAYMENTS), created);
+        }
+        return failure;
+    }
+
+    private HttpRequest webhook(Created target) {
+        if ("C6".equals(target.gateway())) {
+            byte[] body = ("{\"eventId\":\"lt-" + webhookSequence.incrementAndGet() + "\",\"paymentId\":\""
+                    + target.gatewayPaymentId() + "\",\"status\":\"PAID\"}").getBytes(StandardCharsets.UTF_8);
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/webhooks/c6"))
+                    .header("Content-Type", "application/json")
+                    .header("X-C6-Signature", sign(body))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        }
+        String body = "{\"id\":\"evt_lt_" + webhookSequence.incrementAndGet()
+                + "\",\"event\":\"PAYMENT_RECEIVED\",\"payment\":{\"object\":\"payment\",\"id\":\""
+                + target.gatewayPaymentId() + "\",\"status\":\"RECEIVED\"}}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/webhooks/asaas"))
+                .header("Content-Type", "application/json")
+                .header("asaas-access-token", ASAAS_TOKEN)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private Created pickKnown(ThreadLocalRandom random) {
+        long count = Math.min(createdCount.get(), KNOWN_PAYMENTS);
+        return count == 0 ? null : known.get(random.nextInt((int) count));
+    }
+
+    private HttpRequest get(String path, int tenant) {
+        return request(path, tenant).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, int tenant) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + tokens.get(tenant));
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String expect(int status, HttpResponse<?> response) {
+        return response.statusCode() == status ? null : "HTTP " + response.statusCode();
+    }
+
+    private static String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(C6_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String token(String secret, String tenantId) {
+        return Jwts.builder()
+                .subject("loadtest-user")
+                .claim("tenantId", tenantId)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(6)))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    private LoadTestReport report() {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        Map<String, LoadTestReport.OperationStats> operations = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Timer timer = timers.get(operation);
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<Double, Double> percentiles = new TreeMap<>();
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+            }
+            Map<String, Long> causes = new TreeMap<>();
+            errors.get(operation).forEach((cause, count) -> causes.put(cause, count.sum()));
+            operations.put(operation.name().toLowerCase(), new LoadTestReport.OperationStats(
+                    snapshot.count(),
+                    causes.values().stream().mapToLong(Long::longValue).sum(),
+                    snapshot.count() / seconds,
+                    percentiles.getOrDefault(0.5, 0.0),
+                    percentiles.getOrDefault(0.99, 0.0),
+                    percentiles.getOrDefault(0.999, 0.0),
+                    snapshot.max(TimeUnit.MILLISECONDS),
+                    causes));
+        }
+        return new LoadTestReport(seconds, settings.concurrency(), settings.executionMode(),
+                settings.asaas().toString(), settings.c6().toString(), operations);
+    }
+}
@@ -0,0 +1,39 @@
+package com.luna.pay.loadtest;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * Resultado de uma execução do {@link LoadTest}: vazão e latências (ms) por
+ * operação, medidas apenas depois do aquecimento.
+ */
+public record LoadTestReport(double measuredSeconds,
+                             int concurrency,
+                             String executionMode,
+                             String asaasProfile,
+                             String c6Profile,
+                             Map<String, OperationStats> operations) {
+
+    public record OperationStats(long count,
+                                 long errors,
+                                 double throughputPerSecond,
+                                 double p50Ms,
+                                 double p99Ms,
+                                 double p999Ms,
+                                 double maxMs,
+                                 Map<String, Long> errorsByCause) {
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%nLunaPay load test: %.0fs medidos, %d clientes, execução %s%n",
+                measuredSeconds, concurrency, executionMode);
+        out.printf("  stub Asaas: %s%n  stub C6:    %s%n%n", asaasProfile, c6Profile);
+        out.printf("%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operação", "total", "erros", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        operations.forEach((name, stats) -> out.printf("%-10s %10d %8d %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, stats.count(), stats.errors(), stats.throughputPerSecond(),
+                stats.p50Ms(), stats.p99Ms(), stats.p999Ms(), stats.maxMs()));
+        operations.forEach((name, stats) -> stats.errorsByCause().forEach((cause, count) ->
+                out.printf("  %s: %d x %s%n", name, count, cause)));
+    }
+}
@@ -0,0 +1,45 @@
+package com.luna.pay.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Execução curta do harness de carga: garante que todas as operações passam
+ * pela aplicação real contra os stubs sem erros e que o relatório é gravado.
+ */
+class LoadTestTest {
+
+    @Test
+    void shortRunExercisesEveryOperationAgainstStubs(@TempDir Path dir) throws Exception {
+        GatewayStubServer.Profile fast = GatewayStubServer.Profile.fixed(Duration.ofMillis(5));
+        LoadTest.Settings settings = new LoadTest.Settings(
+                Duration.ofSeconds(3),
+                Duration.ofSeconds(1),
+                8,
+                2,
+                LoadTest.Settings.parseMix("create:30,poll:40,list:15,webhook:15"),
+                "BLOCKING",
+                fast,
+                fast,
+                Map.of(),
+                dir.resolve("report.json"));
+
+        LoadTestReport report = LoadTest.run(settings);
+
+        assertThat(report.operations()).containsOnlyKeys("create", "poll", "list", "webhook");
+        report.operations().forEach((name, stats) -> {
+            assertThat(stats.count()).as(name).isPositive();
+            assertThat(stats.errors()).as(name + " " + stats.errorsByCause()).isZero();
+            assertThat(stats.p50Ms()).as(name).isPositive().isLessThanOrEqualTo(stats.p999Ms());
+        });
+        assertThat(report.operations().get("create").p50Ms()).isGreaterThanOrEqualTo(5.0);
+        assertThat(Files.readString(dir.resolve("report.json"))).contains("\"throughputPerSecond\"");
+    }
+}
@@ -0,0 +1,177 @@
+package com.luna.pay.payment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.loadtest.GatewayStubServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /payments/batch com o C6 em stub e o Asaas inacessível: os itens do
+ * C6 são gravados em blocos, os do Asaas voltam como FAILED, e a resposta
+ * segue a ordem do pedido. Com o C6 lento, o item estoura o timeout e fica
+ * em CREATING como UNKNOWN.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"payment.batch.chunk-size=4", "payment.batch.request-timeout=500ms"})
+class PaymentBatchTest {
+
+    private static final GatewayStubServer.Profile INSTANT = GatewayStubServer.Profile.fixed(Duration.ZERO);
+    private static final GatewayStubServer STUBS = startStubs();
+
+    @DynamicPropertySource
+    static void gateways(DynamicPropertyRegistry registry) {
+        registry.add("payment.gateways.c6.enabled", () -> "true");
+        registry.add("payment.gateways.c6.baseUrl", STUBS::c6BaseUrl);
+        registry.add("payment.gateways.c6.apiKey", () -> "batch-key");
+        // Nada escuta na porta 1: falha de conexão
+        registry.add("payment.gateways.asaas.baseUrl", () -> "http://localhost:1");
+        registry.add("payment.gateways.asaas.apiKey", () -> "batch-key");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void createsEachItemAndReportsFailuresPerItem() throws Exception {
+        String tenant = "batch-" + UUID.randomUUID();
+        List<String> gateways = List.of("C6", "C6", "ASAAS", "C6", "C6", "C6", "C6", "C6", "ASAAS", "C6");
+
+        HttpResponse<String> response = post(tenant, body(gateways));
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        JsonNode batch = objectMapper.readTree(response.body());
+        assertThat(batch.path("created").asInt()).isEqualTo(8);
+        assertThat(batch.path("unknown").asInt()).isZero();
+        assertThat(batch.path("failed").asInt()).isEqualTo(2);
+        JsonNode items = batch.path("items");
+        assertThat(items).hasSize(gateways.size());
+        for (int i = 0; i < gateways.size(); i++) {
+            JsonNode item = items.get(i);
+            assertThat(item.path("index").asInt()).isEqualTo(i);
+            if (gateways.get(i).equals("C6")) {
+                assertThat(item.path("status").asText()).isEqualTo("CREATED");
+                assertThat(item.path("payment").path("tenantId").asText()).isEqualTo(tenant);
+                assertThat(item.path("payment").path("pixCopyPaste").asText()).isNotBlank();
+            } else {
+                assertThat(item.path("status").asText()).isEqualTo("FAILED");
+                assertThat(item.path("error").asText()).isNotBlank();
+            }
+        }
+
+        Integer stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE tenant_id = ? AND pix_qr_hash IS NOT NULL AND created_by IS NOT NULL",
+                Integer.class, tenant);
+        assertThat(stored).isEqualTo(8);
+        Integer abandoned = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE tenant_id = ? AND status = 'FAILED'", Integer.class, tenant);
+        assertThat(abandoned).isEqualTo(2);
+    }
+
+    @Test
+    void timedOutItemsStayCreatingAsUnknown() throws Exception {
+        String tenant = "batch-" + UUID.randomUUID();
+        HttpResponse<String> response;
+        STUBS.c6Profile(GatewayStubServer.Profile.fixed(Duration.ofSeconds(2)));
+        try {
+            response = post(tenant, body(List.of("C6", "ASAAS")));
+        } finally {
+            STUBS.c6Profile(INSTANT);
+        }
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        JsonNode batch = objectMapper.readTree(response.body());
+        assertThat(batch.path("created").asInt()).isZero();
+        assertThat(batch.path("unknown").asInt()).isEqualTo(1);
+        assertThat(batch.path("failed").asInt()).isEqualTo(1);
+
+        JsonNode unknown = batch.path("items").get(0);
+        assertThat(unknown.path("status").asText()).isEqualTo("UNKNOWN");
+        assertThat(unknown.path("payment").path("status").asText()).isEqualTo("CREATING");
+        String paymentId = unknown.path("payment").path("id").asText();
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM payments WHERE id = ?", String.class, paymentId))
+                .isEqualTo("CREATING");
+        assertThat(batch.path("items").get(1).path("status").asText()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void rejectsEmptyBatches() throws Exception {
+        HttpResponse<String> response = post("batch-" + UUID.randomUUID(), "{\"payments\": []}");
+        assertThat(response.statusCode()).isEqualTo(400);
+    }
+
+    private static String body(List<String> gateways) {
+        StringJoiner payments = new StringJoiner(",", "{\"payments\": [", "]}");
+        for (int i = 0; i < gateways.size(); i++) {
+            payments.add("""
+                    {"amount": %d.00, "description": "lote %d", "gateway": "%s", "paymentMethod": "PIX",
+                     "customer": {"name": "Cliente", "email": "cliente@example.com", "cpfCnpj": "12345678901", "phone": "11999999999"}}
+                    """.formatted(i + 1, i, gateways.get(i)));
+        }
+        return payments.toString();
+    }
+
+    private HttpResponse<String> post(String tenant, String body) throws Exception {
+        return HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/payments/batch"))
+                .header("Authorization", "Bearer " + token(tenant))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String token(String tenant) {
+        return Jwts.builder()
+                .subject("batch-user")
+                .claim("tenantId", tenant)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+    }
+
+    private static GatewayStubServer startStubs() {
+        try {
+            return new GatewayStubServer(INSTANT, INSTANT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.loadtest.GatewayStubServer;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Timeout na criação: o stub do C6 cria a cobrança, mas responde depois do
+ * timeout de leitura. A linha fica em CREATING (a cobrança pode existir) e a
+ * recuperação a encontra pela referência externa.
+ */
+@SpringBootTest(properties = {
+        "payment.reconciliation.enabled=false",
+        "payment.events.bridge.enabled=false",
+        "payment.saga.recovery.enabled=false",
+        "payment.gateways.asaas.enabled=false",
+        "payment.gateways.c6.readTimeout=300ms",
+        "payment.gateways.c6.responseTimeout=300ms"
+})
+class PaymentCreationTimeoutTest {
+
+    private static final Duration GATEWAY_LATENCY = Duration.ofSeconds(1);
+
+    private static final GatewayStubServer STUBS = startStubs();
+
+    @DynamicPropertySource
+    static void gateways(DynamicPropertyRegistry registry) {
+        registry.add("payment.gateways.c6.enabled", () -> "true");
+        registry.add("payment.gateways.c6.baseUrl", STUBS::c6BaseUrl);
+        registry.add("payment.gateways.c6.apiKey", () -> "timeout-key");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.close();
+    }
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentSagaRecovery paymentSagaRecovery;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void timedOutCreationStaysCreatingAndIsAttachedByRecovery() throws Exception {
+        String tenant = "timeout-" + UUID.randomUUID();
+
+        assertThatThrownBy(() -> paymentService.createPayment(request(), tenant)).isInstanceOf(RuntimeException.class);
+
+        String id = jdbcTemplate.queryForObject("SELECT id FROM payments WHERE tenant_id = ?", String.class, tenant);
+        assertThat(status(id)).isEqualTo("CREATING");
+
+        // O stub termina de criar a cobrança e volta a responder rápido; a linha envelhece até o creating-timeout
+        Thread.sleep(GATEWAY_LATENCY.toMillis() * 2);
+        STUBS.c6Profile(GatewayStubServer.Profile.fixed(Duration.ZERO));
+        jdbcTemplate.update("UPDATE payments SET updated_at = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofHours(1))), id);
+
+        paymentSagaRecovery.recoverCreating();
+
+        assertThat(status(id)).isEqualTo("PENDING");
+        assertThat(jdbcTemplate.queryForObject("SELECT gateway_payment_id FROM payments WHERE id = ?",
+                String.class, id)).startsWith("c6_stub_");
+    }
+
+    private String status(String id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM payments WHERE id = ?", String.class, id);
+    }
+
+    private static CreatePaymentRequest request() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        request.setDescription("timeout");
+        request.setGateway("C6");
+        request.setPaymentMethod("PIX");
+        CreatePaymentRequest.CustomerData customer = new CreatePaymentRequest.CustomerData();
+        customer.setName("Cliente");
+        customer.setEmail("cliente@example.com");
+        customer.setCpfCnpj("12345678901");
+        request.setCustomer(customer);
+        return request;
+    }
+
+    private static GatewayStubServer startStubs() {
+        try {
+            GatewayStubServer.Profile slow = GatewayStubServer.Profile.fixed(GATEWAY_LATENCY);
+            return new GatewayStubServer(slow, slow);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
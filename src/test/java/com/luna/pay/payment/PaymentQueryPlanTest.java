@@ -0,0 +1,89 @@
+package com.luna.pay.payment;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regressão de plano de execução: roda as migrações Flyway no H2 embarcado e
+ * garante, via EXPLAIN, que as consultas quentes de PaymentRepository usam os
+ * índices esperados. Remover ou alterar um índice quebra o build.
+ */
+@DataJpaTest
+class PaymentQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void tenantListingUsesTenantCreatedIndex() {
+        String plan = explain("""
+                SELECT id, amount, description, status, gateway, payment_method, created_at
+                FROM payments
+                WHERE tenant_id = 'clinic_1'
+                ORDER BY created_at DESC, id DESC
+                LIMIT 51
+                """);
+
+        assertThat(plan).contains("IDX_PAYMENTS_TENANT_CREATED");
+    }
+
+    @Test
+    void keysetPageUsesTenantCreatedIndex() {
+        String plan = explain("""
+                SELECT id FROM payments
+                WHERE tenant_id = 'clinic_1'
+                  AND (created_at < TIMESTAMP WITH TIME ZONE '2026-01-01 00:00:00Z'
+                       OR (created_at = TIMESTAMP WITH TIME ZONE '2026-01-01 00:00:00Z' AND id < 'x'))
+                ORDER BY created_at DESC, id DESC
+                LIMIT 51
+                """);
+
+        assertThat(plan).contains("IDX_PAYMENTS_TENANT_CREATED");
+    }
+
+    @Test
+    void webhookLookupUsesGatewayPaymentUniqueIndex() {
+        String plan = explain("""
+                SELECT id FROM payments
+                WHERE gateway = 'ASAAS' AND gateway_payment_id = 'pay_123'
+                """);
+
+        assertThat(plan).contains("UK_PAYMENTS_GATEWAY_PAYMENT");
+    }
+
+    @Test
+    void pendingScanUsesPendingIndex() {
+        String plan = explain("""
+                SELECT id, gateway, gateway_payment_id FROM payments
+                WHERE status = 'PENDING' AND gateway = 'ASAAS'
+                ORDER BY created_at
+                """);
+
+        assertThat(plan).contains("IDX_PAYMENTS_PENDING");
+    }
+
+    @Test
+    void reconciliationPageUsesPendingIndex() {
+        String plan = explain("""
+                SELECT id, tenant_id, gateway_payment_id, created_at FROM payments
+                WHERE status = 'PENDING' AND gateway = 'ASAAS'
+                  AND created_at <= TIMESTAMP WITH TIME ZONE '2026-01-01 00:00:00Z'
+                  AND gateway_payment_id IS NOT NULL
+                  AND id >= '40' AND id < '80'
+                  AND (created_at > TIMESTAMP WITH TIME ZONE '2025-12-01 00:00:00Z'
+                       OR (created_at = TIMESTAMP WITH TIME ZONE '2025-12-01 00:00:00Z' AND id > '4a'))
+                ORDER BY created_at, id
+                LIMIT 200
+                """);
+
+        assertThat(plan).contains("IDX_PAYMENTS_PENDING");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.payment.dto.PaymentListFilter;
+import com.luna.pay.payment.dto.PaymentSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class PaymentRepositoryTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 7; i++) {
+            // Pares de pagamentos com o mesmo createdAt exercitam o desempate por id
+            save(payment("tenant-a", BASE.plusSeconds(i / 2), i % 2 == 0 ? "PIX" : "BOLETO",
+                    i < 5 ? PaymentStatus.PENDING : PaymentStatus.PAID));
+        }
+        save(payment("tenant-b", BASE, "PIX", PaymentStatus.PENDING));
+        paymentRepository.flush();
+    }
+
+    private Payment save(Payment payment) {
+        Instant createdAt = payment.getCreatedAt();
+        Payment saved = paymentRepository.saveAndFlush(payment);
+        // O listener de auditoria pode sobrescrever @CreatedDate; fixa o valor do cenário
+        jdbcTemplate.update("UPDATE payments SET created_at = ? WHERE id = ?", Timestamp.from(createdAt), saved.getId());
+        return saved;
+    }
+
+    @Test
+    void keysetPagesCoverEveryRowOnceInOrder() {
+        List<PaymentSummary> all = new ArrayList<>();
+        PaymentCursor cursor = null;
+        int pages = 0;
+        do {
+            List<PaymentSummary> page = paymentRepository.findSummaries("tenant-a", null, cursor, 3);
+            all.addAll(page);
+            pages++;
+            PaymentSummary last = page.get(page.size() - 1);
+            cursor = page.size() < 3 ? null : PaymentCursor.decode(new PaymentCursor(last.getCreatedAt(), last.getId()).encode());
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(all).hasSize(7);
+        assertThat(all).extracting(PaymentSummary::getId).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            PaymentSummary prev = all.get(i - 1);
+            PaymentSummary curr = all.get(i);
+            assertThat(prev.getCreatedAt().isAfter(curr.getCreatedAt())
+                    || (prev.getCreatedAt().equals(curr.getCreatedAt()) && prev.getId().compareTo(curr.getId()) > 0))
+                    .isTrue();
+        }
+    }
+
+    @Test
+    void filtersByStatusMethodAndDateRange() {
+        PaymentListFilter filter = PaymentListFilter.builder()
+                .status(PaymentStatus.PENDING)
+                .paymentMethod("pix")
+                .from(BASE.plusSeconds(1))
+                .to(BASE.plusSeconds(3))
+                .build();
+
+        List<PaymentSummary> result = paymentRepository.findSummaries("tenant-a", filter, null, 50);
+
+        assertThat(result).extracting(PaymentSummary::getCreatedAt)
+                .containsExactly(BASE.plusSeconds(2), BASE.plusSeconds(1));
+        assertThat(result).extracting(PaymentSummary::getPaymentMethod).containsOnly("PIX");
+    }
+
+    @Test
+    void streamsOnlyTenantRows() {
+        try (Stream<PaymentSummary> rows = paymentRepository.streamSummaries("tenant-a", null)) {
+            assertThat(rows.count()).isEqualTo(7);
+        }
+    }
+
+    private static Payment payment(String tenantId, Instant createdAt, String method, PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setTenantId(tenantId);
+        payment.setAmount(BigDecimal.TEN);
+        payment.setDescription("test");
+        payment.setGateway("ASAAS");
+        payment.setPaymentMethod(method);
+        payment.setStatus(status);
+        payment.setCreatedAt(createdAt);
+        return payment;
+    }
+}
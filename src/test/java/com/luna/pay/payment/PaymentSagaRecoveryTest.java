@@ -0,0 +1,94 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.gateway.PaymentGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recuperação de CREATING: só vai para FAILED quando todos os gateways
+ * responderam que a cobrança não existe.
+ */
+class PaymentSagaRecoveryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PaymentStatusUpdater paymentStatusUpdater = mock(PaymentStatusUpdater.class);
+    private final PaymentService paymentService = mock(PaymentService.class);
+
+    private final PaymentGateway c6 = gateway("C6");
+    private final PaymentGateway asaas = gateway("ASAAS");
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void stuckCreatingOnC6() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("id")).thenReturn("pay-1");
+        when(row.getString("tenant_id")).thenReturn("tenant-1");
+        when(row.getString("gateway")).thenReturn("C6");
+        when(row.getString("payment_method")).thenReturn("PIX");
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any()))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+        when(paymentStatusUpdater.apply(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void failsOnlyWhenEveryGatewayAnsweredNotFound() {
+        when(c6.findPaymentByExternalReference("pay-1")).thenReturn(Optional.empty());
+        when(asaas.findPaymentByExternalReference("pay-1")).thenReturn(Optional.empty());
+
+        assertThat(recovery(c6, asaas).recoverCreating()).isEqualTo(1);
+
+        verify(paymentStatusUpdater).apply(List.of(new PaymentStatusChange("pay-1", "tenant-1",
+                PaymentStatus.CREATING, PaymentStatus.FAILED, "C6", "PIX")));
+    }
+
+    @Test
+    void gatewayWithoutLookupLeavesTheRowCreating() {
+        when(c6.findPaymentByExternalReference("pay-1")).thenReturn(Optional.empty());
+        when(asaas.findPaymentByExternalReference("pay-1")).thenThrow(new UnsupportedOperationException());
+
+        assertThat(recovery(c6, asaas).recoverCreating()).isZero();
+
+        verify(paymentStatusUpdater).apply(List.of());
+        verify(paymentService, never()).attach(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void disabledReservedGatewayLeavesTheRowCreating() {
+        when(c6.isEnabled()).thenReturn(false);
+        when(asaas.findPaymentByExternalReference("pay-1")).thenReturn(Optional.empty());
+
+        assertThat(recovery(c6, asaas).recoverCreating()).isZero();
+
+        verify(paymentStatusUpdater).apply(List.of());
+        verify(c6, never()).findPaymentByExternalReference(any());
+    }
+
+    private PaymentSagaRecovery recovery(PaymentGateway... gateways) {
+        return new PaymentSagaRecovery(jdbcTemplate, new GatewayRegistry(List.of(gateways), 3),
+                paymentStatusUpdater, paymentService, true, Duration.ofMinutes(10), Duration.ofMinutes(5), 100);
+    }
+
+    private static PaymentGateway gateway(String name) {
+        PaymentGateway gateway = mock(PaymentGateway.class);
+        when(gateway.getGatewayName()).thenReturn(name);
+        when(gateway.isEnabled()).thenReturn(true);
+        return gateway;
+    }
+}
@@ -0,0 +1,283 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.common.exception.GatewayNotEnabledException;
+import com.luna.pay.common.exception.PaymentException;
+import com.luna.pay.gateway.GatewayRegistry;
+import com.luna.pay.loadtest.GatewayStubServer;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.luna.pay.payment.dto.PaymentResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Criação e cancelamento em saga: com o C6 em stub respondendo em 1s, várias
+ * criações simultâneas não ocupam conexões do pool enquanto esperam o
+ * gateway, e linhas paradas em estado intermediário são resolvidas pela
+ * recuperação.
+ */
+@SpringBootTest(properties = {
+        // Menos conexões que criações simultâneas: com a chamada ao gateway dentro da transação, elas se enfileirariam
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "payment.reconciliation.enabled=false",
+        "payment.events.bridge.enabled=false",
+        "payment.saga.recovery.enabled=false",
+        "payment.gateways.asaas.enabled=false"
+})
+class PaymentSagaTest {
+
+    private static final Duration GATEWAY_LATENCY = Duration.ofSeconds(1);
+    private static final int CONCURRENT = 8;
+
+    private static final GatewayStubServer STUBS = startStubs();
+
+    @DynamicPropertySource
+    static void gateways(DynamicPropertyRegistry registry) {
+        registry.add("payment.gateways.c6.enabled", () -> "true");
+        registry.add("payment.gateways.c6.baseUrl", STUBS::c6BaseUrl);
+        registry.add("payment.gateways.c6.apiKey", () -> "saga-key");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.close();
+    }
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentStatusUpdater paymentStatusUpdater;
+
+    @Autowired
+    private PaymentSagaRecovery paymentSagaRecovery;
+
+    @Autowired
+    private GatewayRegistry gatewayRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void slowGatewayDoesNotHoldPoolConnections() throws Exception {
+        String tenant = "saga-" + UUID.randomUUID();
+        // Aquece o cliente HTTP e o pool
+        paymentService.createPayment(request(), tenant);
+
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (sampling.get()) {
+                peak.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                Thread.onSpinWait();
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT);
+        try {
+            long start = System.nanoTime();
+            List<Future<PaymentResponse>> created = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT; i++) {
+                created.add(executor.submit(() -> paymentService.createPayment(request(), tenant)));
+            }
+            // Reservas gravadas: a partir daqui todas as criações estão esperando o gateway
+            Thread.sleep(GATEWAY_LATENCY.toMillis() / 4);
+            sampler.start();
+            Thread.sleep(GATEWAY_LATENCY.toMillis() / 2);
+            sampling.set(false);
+            sampler.join();
+
+            for (Future<PaymentResponse> future : created) {
+                assertThat(future.get().getStatus()).isEqualTo(PaymentStatus.PENDING);
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            // Só as threads de fundo (caixa de entrada de webhooks) usam o pool durante a espera
+            assertThat(peak.get()).isLessThanOrEqualTo(1);
+            // Em série pelo pool seriam ao menos 2 rodadas de latência
+            assertThat(elapsed).isLessThan(GATEWAY_LATENCY.multipliedBy(2));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Integer pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE tenant_id = ? AND status = 'PENDING' AND gateway_payment_id IS NOT NULL",
+                Integer.class, tenant);
+        assertThat(pending).isEqualTo(CONCURRENT + 1);
+    }
+
+    @Test
+    void invalidGatewayFailsBeforeReservingARow() {
+        String tenant = "saga-" + UUID.randomUUID();
+        CreatePaymentRequest unknown = request();
+        unknown.setGateway("NOPE");
+        CreatePaymentRequest disabled = request();
+        disabled.setGateway("ASAAS");
+
+        assertThatThrownBy(() -> paymentService.createPayment(unknown, tenant)).isInstanceOf(PaymentException.class);
+        assertThatThrownBy(() -> paymentService.createPaymentAsync(disabled, tenant).block())
+                .isInstanceOf(GatewayNotEnabledException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE tenant_id = ?",
+                Integer.class, tenant)).isZero();
+    }
+
+    @Test
+    void autoReservesTheRoutedGateway() {
+        String tenant = "saga-" + UUID.randomUUID();
+        CreatePaymentRequest auto = request();
+        auto.setGateway("auto");
+
+        PaymentResponse created = paymentService.createPayment(auto, tenant);
+
+        assertThat(created.getGateway()).isEqualTo("C6");
+        assertThat(jdbcTemplate.queryForObject("SELECT gateway FROM payments WHERE id = ?", String.class,
+                created.getId())).isEqualTo("C6");
+    }
+
+    @Test
+    void completionAfterRecoveryFailedTheRowIsRejected() throws Exception {
+        String tenant = "saga-" + UUID.randomUUID();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<PaymentResponse> creation = executor.submit(() -> paymentService.createPayment(request(), tenant));
+            // Reserva gravada, gateway ainda respondendo: a recuperação dá a linha como falha
+            Thread.sleep(GATEWAY_LATENCY.toMillis() / 2);
+            String id = jdbcTemplate.queryForObject("SELECT id FROM payments WHERE tenant_id = ?", String.class, tenant);
+            paymentStatusUpdater.apply(List.of(new PaymentStatusChange(id, tenant,
+                    PaymentStatus.CREATING, PaymentStatus.FAILED)));
+
+            assertThatThrownBy(creation::get).hasCauseInstanceOf(PaymentException.class);
+            assertThat(status(id)).isEqualTo("FAILED");
+            assertThat(jdbcTemplate.queryForObject("SELECT gateway_payment_id FROM payments WHERE id = ?",
+                    String.class, id)).isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancelGoesThroughCancelingToCanceled() {
+        String tenant = "saga-" + UUID.randomUUID();
+        PaymentResponse created = paymentService.createPayment(request(), tenant);
+
+        assertThat(paymentService.cancelPayment(created.getId(), tenant)).isTrue();
+
+        assertThat(status(created.getId())).isEqualTo("CANCELED");
+    }
+
+    @Test
+    void recoveryFailsStaleCreatingAndFinishesStaleCanceling() {
+        String tenant = "saga-" + UUID.randomUUID();
+        String staleCreating = insert(tenant, PaymentStatus.CREATING, null, Duration.ofHours(1));
+        String freshCreating = insert(tenant, PaymentStatus.CREATING, null, Duration.ZERO);
+        String staleCanceling = insert(tenant, PaymentStatus.CANCELING, "c6-" + UUID.randomUUID(), Duration.ofHours(1));
+
+        paymentSagaRecovery.recoverCreating();
+        paymentSagaRecovery.recoverCanceling();
+
+        assertThat(status(staleCreating)).isEqualTo("FAILED");
+        assertThat(status(freshCreating)).isEqualTo("CREATING");
+        assertThat(status(staleCanceling)).isEqualTo("CANCELED");
+    }
+
+    @Test
+    void recoveryAttachesTheChargeFoundByExternalReference() {
+        String tenant = "saga-" + UUID.randomUUID();
+        String staleCreating = insert(tenant, PaymentStatus.CREATING, null, Duration.ofHours(1));
+        // Nó caiu depois de o gateway criar a cobrança
+        String charge = STUBS.c6PaymentCreatedWith(staleCreating);
+
+        assertThat(paymentSagaRecovery.recoverCreating()).isPositive();
+
+        assertThat(status(staleCreating)).isEqualTo("PENDING");
+        assertThat(jdbcTemplate.queryForObject("SELECT gateway_payment_id FROM payments WHERE id = ?",
+                String.class, staleCreating)).isEqualTo(charge);
+    }
+
+    @Test
+    void paymentIdIsSentAsExternalReference() {
+        PaymentResponse created = paymentService.createPayment(request(), "saga-" + UUID.randomUUID());
+
+        assertThat(gatewayRegistry.require("C6").findPaymentByExternalReference(created.getId()))
+                .hasValueSatisfying(found -> assertThat(found.getGatewayPaymentId())
+                        .isEqualTo(created.getGatewayPaymentId()));
+    }
+
+    @Test
+    void recoveryDoesNotOverwriteConcurrentCompletion() {
+        String tenant = "saga-" + UUID.randomUUID();
+        String canceling = insert(tenant, PaymentStatus.CANCELING, "c6-" + UUID.randomUUID(), Duration.ofHours(1));
+        // Cancelamento concluído pelo nó original antes da recuperação gravar
+        paymentStatusUpdater.apply(List.of(new PaymentStatusChange(canceling, tenant,
+                PaymentStatus.CANCELING, PaymentStatus.CANCELED)));
+
+        assertThat(paymentSagaRecovery.recoverCanceling()).isZero();
+        assertThat(status(canceling)).isEqualTo("CANCELED");
+    }
+
+    private String insert(String tenant, PaymentStatus status, String gatewayPaymentId, Duration age) {
+        String id = UUID.randomUUID().toString();
+        Timestamp at = Timestamp.from(Instant.now().minus(age));
+        jdbcTemplate.update("INSERT INTO payments (id, tenant_id, amount, status, gateway, gateway_payment_id, "
+                        + "payment_method, created_at, updated_at) VALUES (?, ?, ?, ?, 'C6', ?, 'PIX', ?, ?)",
+                id, tenant, new BigDecimal("10.00"), status.name(), gatewayPaymentId, at, at);
+        return id;
+    }
+
+    private String status(String id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM payments WHERE id = ?", String.class, id);
+    }
+
+    private static CreatePaymentRequest request() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        request.setDescription("saga");
+        request.setGateway("C6");
+        request.setPaymentMethod("PIX");
+        CreatePaymentRequest.CustomerData customer = new CreatePaymentRequest.CustomerData();
+        customer.setName("Cliente");
+        customer.setEmail("cliente@example.com");
+        customer.setCpfCnpj("12345678901");
+        request.setCustomer(customer);
+        return request;
+    }
+
+    private static GatewayStubServer startStubs() {
+        try {
+            GatewayStubServer.Profile slow = GatewayStubServer.Profile.fixed(GATEWAY_LATENCY);
+            return new GatewayStubServer(slow, slow);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
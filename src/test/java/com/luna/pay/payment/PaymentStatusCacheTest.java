@@ -0,0 +1,51 @@
+package com.luna.pay.payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentStatusCacheTest {
+
+    private final PaymentStatusCache cache = new PaymentStatusCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Test
+    void writesToOtherPaymentsDoNotDiscardALoad() {
+        long stamp = cache.stamp("pay-1");
+        cache.put(snapshot("pay-2", PaymentStatus.PAID));
+        cache.applyStatus("pay-3", PaymentStatus.CANCELED);
+        cache.populate("pay-1", snapshot("pay-1", PaymentStatus.PENDING), stamp);
+
+        assertThat(cache.get("pay-1", "tenant-1")).contains(snapshot("pay-1", PaymentStatus.PENDING));
+    }
+
+    @Test
+    void remoteWriteDuringALoadWinsOverTheValueRead() {
+        long stamp = cache.stamp("pay-1");
+        cache.applyStatus("pay-1", PaymentStatus.PAID);
+        cache.populate("pay-1", snapshot("pay-1", PaymentStatus.PENDING), stamp);
+
+        assertThat(cache.get("pay-1", "tenant-1")).isEmpty();
+
+        long next = cache.stamp("pay-1");
+        cache.populate("pay-1", snapshot("pay-1", PaymentStatus.PAID), next);
+        assertThat(cache.get("pay-1", "tenant-1")).contains(snapshot("pay-1", PaymentStatus.PAID));
+    }
+
+    @Test
+    void overlappingLoadsOfTheSamePaymentAreBothInvalidated() {
+        long first = cache.stamp("pay-1");
+        long second = cache.stamp("pay-1");
+        cache.put(snapshot("pay-1", PaymentStatus.PAID));
+        cache.populate("pay-1", null, first);
+        cache.populate("pay-1", snapshot("pay-1", PaymentStatus.PENDING), second);
+
+        assertThat(cache.get("pay-1", "tenant-1")).contains(snapshot("pay-1", PaymentStatus.PAID));
+    }
+
+    private static PaymentStatusSnapshot snapshot(String id, PaymentStatus status) {
+        return new PaymentStatusSnapshot(id, "tenant-1", status, "gw-" + id);
+    }
+}
@@ -0,0 +1,120 @@
+package com.luna.pay.payment;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PaymentStatusEndpointTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentStatusUpdater paymentStatusUpdater;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void pollingIsServedFromCacheAndRevalidatedWithEtag() throws Exception {
+        String tenant = "status-" + UUID.randomUUID();
+        String id = insertPending(tenant);
+
+        HttpResponse<String> first = get(id, tenant, null);
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.body()).contains("\"status\":\"PENDING\"");
+        assertThat(first.headers().firstValue("ETag")).contains("\"PENDING\"");
+
+        double hitsBefore = hits();
+        HttpResponse<String> notModified = get(id, tenant, "\"PENDING\"");
+        assertThat(notModified.statusCode()).isEqualTo(304);
+        assertThat(notModified.body()).isEmpty();
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void statusWritesGoThroughTheCache() throws Exception {
+        String tenant = "status-" + UUID.randomUUID();
+        String id = insertPending(tenant);
+        get(id, tenant, null);
+
+        paymentStatusUpdater.apply(List.of(new PaymentStatusChange(id, tenant, PaymentStatus.PENDING, PaymentStatus.PAID)));
+        // Escrita fora da aplicação: só aparece quando a entrada expirar
+        jdbcTemplate.update("UPDATE payments SET status = 'FAILED' WHERE id = ?", id);
+
+        HttpResponse<String> changed = get(id, tenant, "\"PENDING\"");
+        assertThat(changed.statusCode()).isEqualTo(200);
+        assertThat(changed.headers().firstValue("ETag")).contains("\"PAID\"");
+    }
+
+    @Test
+    void otherTenantsGetNotFoundEvenWhenCached() throws Exception {
+        String tenant = "status-" + UUID.randomUUID();
+        String id = insertPending(tenant);
+        assertThat(get(id, tenant, null).statusCode()).isEqualTo(200);
+
+        assertThat(get(id, "status-" + UUID.randomUUID(), null).statusCode()).isEqualTo(404);
+        assertThat(get(UUID.randomUUID().toString(), tenant, null).statusCode()).isEqualTo(404);
+    }
+
+    private double hits() {
+        return meterRegistry.get("lunapay.payments.status.cache.lookups").tag("result", "hit").counter().count();
+    }
+
+    private String insertPending(String tenant) {
+        String id = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("""
+                INSERT INTO payments (id, tenant_id, amount, status, gateway, gateway_payment_id, payment_method,
+                                      created_at, updated_at)
+                VALUES (?, ?, 10.00, 'PENDING', 'ASAAS', ?, 'PIX', ?, ?)
+                """, id, tenant, "st_" + id, now, now);
+        return id;
+    }
+
+    private HttpResponse<String> get(String id, String tenant, String ifNoneMatch) throws Exception {
+        String token = Jwts.builder()
+                .subject("status-user")
+                .claim("tenantId", tenant)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/payments/" + id + "/status"))
+                .header("Authorization", "Bearer " + token);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
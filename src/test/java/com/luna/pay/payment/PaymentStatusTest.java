@@ -0,0 +1,27 @@
+package com.luna.pay.payment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentStatusTest {
+
+    @Test
+    void neverRegressesToPending() {
+        for (PaymentStatus status : PaymentStatus.values()) {
+            assertThat(status.canTransitionTo(PaymentStatus.PENDING)).isFalse();
+        }
+    }
+
+    @Test
+    void paidCanOnlyBeRefunded() {
+        assertThat(PaymentStatus.PAID.canTransitionTo(PaymentStatus.CANCELED)).isTrue();
+        assertThat(PaymentStatus.PAID.canTransitionTo(PaymentStatus.FAILED)).isFalse();
+    }
+
+    @Test
+    void overduePaymentCanStillBePaid() {
+        assertThat(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.PAID)).isTrue();
+        assertThat(PaymentStatus.CANCELED.canTransitionTo(PaymentStatus.PAID)).isFalse();
+    }
+}
@@ -0,0 +1,151 @@
+package com.luna.pay.payment;
+
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Com o Tomcat limitado a 4 threads, dispara 40 criações simultâneas contra um
+ * gateway lento (500 ms). No modo reativo as threads não ficam presas durante o
+ * I/O, então o número de chamadas em andamento ultrapassa o tamanho do pool.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payment.execution-mode=reactive",
+        "server.tomcat.threads.max=4",
+        "server.tomcat.threads.min-spare=1"
+})
+class ReactiveExecutionLoadTest {
+
+    private static final int TOMCAT_THREADS = 4;
+    private static final int REQUESTS = 40;
+    private static final Duration GATEWAY_LATENCY = Duration.ofMillis(500);
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Test
+    void slowGatewayDoesNotPinTomcatThreads() {
+        String token = Jwts.builder()
+                .subject("load-user")
+                .claim("tenantId", "load-tenant")
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+
+        HttpClient client = HttpClient.newHttpClient();
+        String body = """
+                {"amount": 10.00, "description": "load", "gateway": "SLOWSTUB", "paymentMethod": "PIX"}
+                """;
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, REQUESTS)
+                .mapToObj(i -> client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/payments"))
+                                .header("Authorization", "Bearer " + token)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString()))
+                .toList();
+
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(responses).allSatisfy(r -> assertThat(r.join().statusCode()).isEqualTo(201));
+        assertThat(maxInFlight.get()).isGreaterThan(TOMCAT_THREADS);
+        // Bloqueante levaria ao menos (40 / 4) * 500 ms = 5 s
+        assertThat(elapsed).isLessThan(GATEWAY_LATENCY.multipliedBy(REQUESTS / TOMCAT_THREADS));
+    }
+
+    @TestConfiguration
+    static class SlowGatewayConfig {
+
+        @Bean
+        PaymentGateway slowStubGateway() {
+            return new SlowStubGateway();
+        }
+    }
+
+    static class SlowStubGateway implements PaymentGateway {
+
+        @Override
+        public String getGatewayName() {
+            return "SLOWSTUB";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+            return createPaymentAsync(request, tenantId).block();
+        }
+
+        @Override
+        public Mono<GatewayPaymentResult> createPaymentAsync(CreatePaymentRequest request, String tenantId) {
+            return Mono.delay(GATEWAY_LATENCY)
+                    .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doFinally(signal -> inFlight.decrementAndGet())
+                    .map(tick -> GatewayPaymentResult.builder()
+                            .success(true)
+                            .gatewayPaymentId("stub_" + UUID.randomUUID())
+                            .paymentMethod(request.getPaymentMethod())
+                            .amount(request.getAmount())
+                            .build());
+        }
+
+        @Override
+        public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+            return GatewayPaymentStatus.builder().gatewayPaymentId(gatewayPaymentId).status(PaymentStatus.PENDING).build();
+        }
+
+        @Override
+        public boolean cancelPayment(String gatewayPaymentId) {
+            return true;
+        }
+
+        @Override
+        public boolean validateWebhook(String signature, byte[] payload) {
+            return true;
+        }
+
+        @Override
+        public WebhookProcessingResult processWebhook(String payload) {
+            return WebhookProcessingResult.builder().success(false).build();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.luna.pay.payment.events;
+
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.PaymentStatusChange;
+import com.luna.pay.payment.PaymentStatusUpdater;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "payment.events.bridge.poll-interval-ms=100")
+class PaymentEventsControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentStatusUpdater paymentStatusUpdater;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void longPollReturnsWhenWebhookMarksPaymentPaid() throws Exception {
+        String tenant = "events-" + UUID.randomUUID();
+        String id = insertPending(tenant);
+
+        CompletableFuture<HttpResponse<String>> waiting = get(id, tenant, "?waitFor=PAID&timeout=20s");
+        Thread.sleep(300);
+        assertThat(waiting).isNotDone();
+
+        paymentStatusUpdater.apply(List.of(new PaymentStatusChange(id, tenant, PaymentStatus.PENDING, PaymentStatus.PAID)));
+
+        HttpResponse<String> response = waiting.get(5, TimeUnit.SECONDS);
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("\"status\":\"PAID\"");
+    }
+
+    @Test
+    void longPollReturnsCurrentStatusOnTimeoutOrWhenTargetIsUnreachable() throws Exception {
+        String tenant = "events-" + UUID.randomUUID();
+        String id = insertPending(tenant);
+
+        long start = System.nanoTime();
+        HttpResponse<String> timedOut = get(id, tenant, "?waitFor=PAID&timeout=500ms").get(5, TimeUnit.SECONDS);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(500));
+        assertThat(timedOut.body()).contains("\"status\":\"PENDING\"");
+
+        paymentStatusUpdater.apply(List.of(new PaymentStatusChange(id, tenant, PaymentStatus.PENDING, PaymentStatus.CANCELED)));
+        HttpResponse<String> unreachable = get(id, tenant, "?waitFor=PAID&timeout=20s").get(2, TimeUnit.SECONDS);
+        assertThat(unreachable.body()).contains("\"status\":\"CANCELED\"");
+
+        assertThat(get(id, "events-" + UUID.randomUUID(), "?waitFor=PAID").get(2, TimeUnit.SECONDS).statusCode())
+                .isEqualTo(404);
+    }
+
+    @Test
+    void changeWrittenByAnotherNodeWakesLocalWaiter() throws Exception {
+        String tenant = "events-" + UUID.randomUUID();
+        String id = insertPending(tenant);
+
+        CompletableFuture<HttpResponse<String>> waiting = get(id, tenant, "?waitFor=PAID&timeout=20s");
+        Thread.sleep(300);
+
+        // Outro nó aplicou o webhook: só o banco compartilhado é visto aqui
+        jdbcTemplate.update("UPDATE payments SET status = 'PAID' WHERE id = ?", id);
+        jdbcTemplate.update("""
+                INSERT INTO payment_events (payment_id, tenant_id, status, node_id, created_at)
+                VALUES (?, ?, 'PAID', 'other-node', CURRENT_TIMESTAMP)
+                """, id, tenant);
+
+        HttpResponse<String> response = waiting.get(5, TimeUnit.SECONDS);
+        assertThat(response.body()).contains("\"status\":\"PAID\"");
+    }
+
+    @Test
+    void sseStreamsStatusChangesUntilFinal() throws Exception {
+        String tenant = "events-" + UUID.randomUUID();
+        String id = insertPending(tenant);
+
+        HttpRequest request = request(id, tenant, "").header("Accept", "text/event-stream").build();
+        CompletableFuture<HttpResponse<Stream<String>>> stream = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        HttpResponse<Stream<String>> response = stream.get(5, TimeUnit.SECONDS);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(v -> assertThat(v).startsWith("text/event-stream"));
+
+        CompletableFuture<List<String>> data = CompletableFuture.supplyAsync(() -> response.body()
+                .filter(line -> line.startsWith("data:"))
+                .toList());
+
+        Thread.sleep(300);
+        paymentStatusUpdater.apply(List.of(new PaymentStatusChange(id, tenant, PaymentStatus.PENDING, PaymentStatus.PAID)));
+        paymentStatusUpdater.apply(List.of(new PaymentStatusChange(id, tenant, PaymentStatus.PAID, PaymentStatus.CANCELED)));
+
+        assertThat(data.get(5, TimeUnit.SECONDS))
+                .hasSize(3)
+                .satisfiesExactly(
+                        first -> assertThat(first).contains("\"status\":\"PENDING\""),
+                        second -> assertThat(second).contains("\"status\":\"PAID\""),
+                        third -> assertThat(third).contains("\"status\":\"CANCELED\""));
+    }
+
+    private String insertPending(String tenant) {
+        String id = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("""
+                INSERT INTO payments (id, tenant_id, amount, status, gateway, gateway_payment_id, payment_method,
+                                      created_at, updated_at)
+                VALUES (?, ?, 10.00, 'PENDING', 'ASAAS', ?, 'PIX', ?, ?)
+                """, id, tenant, "ev_" + id, now, now);
+        return id;
+    }
+
+    private CompletableFuture<HttpResponse<String>> get(String id, String tenant, String query) {
+        return client.sendAsync(request(id, tenant, query).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String id, String tenant, String query) {
+        String token = Jwts.builder()
+                .subject("events-user")
+                .claim("tenantId", tenant)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/payments/" + id + "/events" + query))
+                .header("Authorization", "Bearer " + token);
+    }
+}
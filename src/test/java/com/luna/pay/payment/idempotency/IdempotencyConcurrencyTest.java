@@ -0,0 +1,334 @@
+package com.luna.pay.payment.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luna.pay.common.exception.GatewayException;
+import com.luna.pay.common.exception.IdempotencyConflictException;
+import com.luna.pay.common.exception.PaymentException;
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.payment.PaymentRepository;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import com.luna.pay.payment.dto.PaymentResponse;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dispara requisições simultâneas com a mesma Idempotency-Key contra um
+ * gateway lento e verifica que apenas uma cobrança é criada.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class IdempotencyConcurrencyTest {
+
+    private static final int CONCURRENT_REQUESTS = 20;
+    private static final String BODY = """
+            {"amount": 25.00, "description": "idem", "gateway": "IDEMSTUB", "paymentMethod": "PIX"}
+            """;
+
+    private static final AtomicInteger gatewayCalls = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        gatewayCalls.set(0);
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneGatewayCall() {
+        String tenant = "idem-" + UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+
+        List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, CONCURRENT_REQUESTS)
+                .mapToObj(i -> post(tenant, key, BODY))
+                .toList();
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(responses).allSatisfy(r -> assertThat(r.join().statusCode()).isEqualTo(201));
+        assertThat(responses.stream().map(r -> paymentId(r.join().body())).distinct()).hasSize(1);
+        assertThat(gatewayCalls.get()).isEqualTo(1);
+        assertThat(paymentRepository.findByTenantId(tenant)).hasSize(1);
+    }
+
+    @Test
+    void retryAfterCompletionReplaysStoredResponse() {
+        String tenant = "idem-" + UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+
+        HttpResponse<String> first = post(tenant, key, BODY).join();
+        HttpResponse<String> retry = post(tenant, key, BODY).join();
+
+        assertThat(retry.statusCode()).isEqualTo(201);
+        assertThat(retry.headers().firstValue("Idempotent-Replayed")).contains("true");
+        assertThat(first.headers().firstValue("Idempotent-Replayed")).isEmpty();
+        assertThat(paymentId(retry.body())).isEqualTo(paymentId(first.body()));
+        assertThat(gatewayCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keyIsScopedPerTenantAndBoundToRequestBody() {
+        String key = UUID.randomUUID().toString();
+        String tenant = "idem-" + UUID.randomUUID();
+
+        assertThat(post(tenant, key, BODY).join().statusCode()).isEqualTo(201);
+        assertThat(post("idem-" + UUID.randomUUID(), key, BODY).join().statusCode()).isEqualTo(201);
+        assertThat(gatewayCalls.get()).isEqualTo(2);
+
+        String otherBody = BODY.replace("25.00", "30.00");
+        assertThat(post(tenant, key, otherBody).join().statusCode()).isEqualTo(400);
+        assertThat(gatewayCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void abandonedReservationIsTakenOverOnceItsLeaseExpires() {
+        String tenant = "idem-" + UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("25.00"));
+        request.setGateway("IDEMSTUB");
+        request.setPaymentMethod("PIX");
+
+        // Reserva deixada por um nó que caiu no meio da criação: IN_PROGRESS, lease ainda válido
+        String otherKey = UUID.randomUUID().toString();
+        idempotencyService.execute(tenant, otherKey, request, () -> Mono.just(response("pay-1"))).block();
+        jdbcTemplate.update("INSERT INTO idempotency_keys (id, tenant_id, idempotency_key, request_hash, status, "
+                        + "created_at, expires_at, locked_until) SELECT ?, tenant_id, ?, request_hash, 'IN_PROGRESS', "
+                        + "created_at, expires_at, ? FROM idempotency_keys WHERE tenant_id = ? AND idempotency_key = ?",
+                UUID.randomUUID().toString(), key, Timestamp.from(Instant.now().plusSeconds(60)), tenant, otherKey);
+
+        assertThatThrownBy(() -> idempotencyService.execute(tenant, key, request, () -> Mono.just(response("pay-2"))).block())
+                .isInstanceOf(IdempotencyConflictException.class);
+
+        jdbcTemplate.update("UPDATE idempotency_keys SET locked_until = ? WHERE tenant_id = ? AND idempotency_key = ?",
+                Timestamp.from(Instant.now().minusSeconds(1)), tenant, key);
+
+        IdempotencyService.IdempotentResponse taken = idempotencyService.execute(tenant, key, request,
+                () -> Mono.just(response("pay-3"))).block();
+        assertThat(taken.body().getId()).isEqualTo("pay-3");
+        assertThat(taken.replayed()).isFalse();
+
+        IdempotencyService.IdempotentResponse replay = idempotencyService.execute(tenant, key, request,
+                () -> Mono.just(response("pay-4"))).block();
+        assertThat(replay.body().getId()).isEqualTo("pay-3");
+        assertThat(replay.replayed()).isTrue();
+    }
+
+    @Test
+    void failureToStoreTheResponseKeepsTheKey() {
+        String tenant = "idem-" + UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        CreatePaymentRequest request = request();
+        // Corpo maior que a coluna response_body: complete falha com a cobrança já criada
+        PaymentResponse oversized = response("pay-big");
+        oversized.setDescription("x".repeat(70_000));
+
+        assertThatThrownBy(() -> idempotencyService.execute(tenant, key, request, () -> Mono.just(oversized)).block())
+                .isNotInstanceOf(IdempotencyConflictException.class);
+
+        assertThatThrownBy(() -> idempotencyService.execute(tenant, key, request,
+                () -> Mono.just(response("pay-again"))).block())
+                .isInstanceOf(IdempotencyConflictException.class);
+    }
+
+    @Test
+    void onlyFailuresThatCreatedNoChargeReleaseTheKey() {
+        String tenant = "idem-" + UUID.randomUUID();
+        String declinedKey = UUID.randomUUID().toString();
+        String timedOutKey = UUID.randomUUID().toString();
+        CreatePaymentRequest request = request();
+
+        assertThatThrownBy(() -> idempotencyService.execute(tenant, declinedKey, request,
+                () -> Mono.error(new PaymentException("recusado"))).block())
+                .isInstanceOf(PaymentException.class);
+        assertThatThrownBy(() -> idempotencyService.execute(tenant, timedOutKey, request,
+                () -> Mono.error(new GatewayException("IDEMSTUB", "indisponível", 503))).block())
+                .isInstanceOf(GatewayException.class);
+
+        assertThat(idempotencyService.execute(tenant, declinedKey, request,
+                () -> Mono.just(response("pay-retry"))).block().body().getId()).isEqualTo("pay-retry");
+        assertThatThrownBy(() -> idempotencyService.execute(tenant, timedOutKey, request,
+                () -> Mono.just(response("pay-double"))).block())
+                .isInstanceOf(IdempotencyConflictException.class);
+    }
+
+    @Test
+    void slowCreationRenewsItsLeaseInsteadOfBeingTakenOver() {
+        Duration lease = Duration.ofMillis(600);
+        IdempotencyService nodeA = new IdempotencyService(idempotencyRecordRepository, objectMapper,
+                new SimpleMeterRegistry(), Duration.ofHours(1), lease);
+        IdempotencyService nodeB = new IdempotencyService(idempotencyRecordRepository, objectMapper,
+                new SimpleMeterRegistry(), Duration.ofHours(1), lease);
+        String tenant = "idem-" + UUID.randomUUID();
+        String key = UUID.randomUUID().toString();
+        CreatePaymentRequest request = request();
+
+        CompletableFuture<IdempotencyService.IdempotentResponse> slow = nodeA.execute(tenant, key, request,
+                () -> Mono.delay(lease.multipliedBy(4)).thenReturn(response("pay-slow"))).toFuture();
+
+        // Mais de dois leases depois, a primeira criação ainda detém a chave
+        await(lease.multipliedBy(2).plusMillis(300));
+        assertThatThrownBy(() -> nodeB.execute(tenant, key, request,
+                () -> Mono.just(response("pay-duplicate"))).block())
+                .isInstanceOf(IdempotencyConflictException.class);
+
+        assertThat(slow.join().body().getId()).isEqualTo("pay-slow");
+        IdempotencyService.IdempotentResponse replay = nodeB.execute(tenant, key, request,
+                () -> Mono.just(response("pay-duplicate"))).block();
+        assertThat(replay.body().getId()).isEqualTo("pay-slow");
+        assertThat(replay.replayed()).isTrue();
+    }
+
+    private static void await(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CreatePaymentRequest request() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("25.00"));
+        request.setGateway("IDEMSTUB");
+        request.setPaymentMethod("PIX");
+        return request;
+    }
+
+    private static PaymentResponse response(String id) {
+        return PaymentResponse.builder().id(id).status(PaymentStatus.PENDING).build();
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(String tenant, String key, String body) {
+        String token = Jwts.builder()
+                .subject("idem-user")
+                .claim("tenantId", tenant)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+
+        return client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/payments"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", key)
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String paymentId(String json) {
+        int start = json.indexOf("\"id\":\"") + 6;
+        return json.substring(start, json.indexOf('"', start));
+    }
+
+    @TestConfiguration
+    static class StubGatewayConfig {
+
+        @Bean
+        PaymentGateway idempotencyStubGateway() {
+            return new CountingStubGateway();
+        }
+    }
+
+    static class CountingStubGateway implements PaymentGateway {
+
+        @Override
+        public String getGatewayName() {
+            return "IDEMSTUB";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+            gatewayCalls.incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return GatewayPaymentResult.builder()
+                    .success(true)
+                    .gatewayPaymentId("idem_" + UUID.randomUUID())
+                    .paymentMethod(request.getPaymentMethod())
+                    .amount(request.getAmount())
+                    .build();
+        }
+
+        @Override
+        public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+            return GatewayPaymentStatus.builder().gatewayPaymentId(gatewayPaymentId).status(PaymentStatus.PENDING).build();
+        }
+
+        @Override
+        public boolean cancelPayment(String gatewayPaymentId) {
+            return true;
+        }
+
+        @Override
+        public boolean validateWebhook(String signature, byte[] payload) {
+            return true;
+        }
+
+        @Override
+        public WebhookProcessingResult processWebhook(String payload) {
+            return WebhookProcessingResult.builder().success(false).build();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.luna.pay.payment.pix;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Servidor real (Tomcat), para passar pelo caminho de sendfile.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "payment.pix.qrcode.storage-path=${java.io.tmpdir}/lunapay-test/pix-qrcodes")
+class PixQrCodeControllerTest {
+
+    private static final String PAYLOAD =
+            "00020126580014br.gov.bcb.pix0136" + UUID.randomUUID() + "5204000053039865406100.005802BR6304ABCD";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private PixQrCodeStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void generatesPngFromPayloadAndRevalidatesWithEtag() throws Exception {
+        String tenant = "pix-" + UUID.randomUUID();
+        String hash = store.save(PAYLOAD, null);
+        String id = insertPayment(tenant, hash);
+
+        HttpResponse<byte[]> first = get(id, tenant, null);
+
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.headers().firstValue("Content-Type")).contains("image/png");
+        assertThat(first.headers().firstValue("ETag")).contains("\"" + hash + "\"");
+        assertThat(first.headers().firstValue("Cache-Control")).contains(PixQrCodeController.CACHE_CONTROL);
+        assertThat(decode(first.body())).isEqualTo(PAYLOAD);
+
+        HttpResponse<byte[]> revalidated = get(id, tenant, "\"" + hash + "\"");
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+        assertThat(revalidated.body()).isEmpty();
+    }
+
+    @Test
+    void servesGatewayImageWhenItIsPng() throws Exception {
+        String tenant = "pix-" + UUID.randomUUID();
+        byte[] gatewayPng = PixQrCodeGenerator.png("gateway-" + UUID.randomUUID());
+        String payload = "copia-e-cola-" + UUID.randomUUID();
+        String hash = store.save(payload, "data:image/png;base64," + Base64.getEncoder().encodeToString(gatewayPng));
+
+        HttpResponse<byte[]> response = get(insertPayment(tenant, hash), tenant, null);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(Arrays.equals(response.body(), gatewayPng)).isTrue();
+        assertThat(store.materialize(hash)).map(Path::getFileName).contains(Path.of(hash + ".png"));
+    }
+
+    @Test
+    void samePayloadIsStoredOnceAndOtherTenantsGetNotFound() throws Exception {
+        String tenant = "pix-" + UUID.randomUUID();
+        String payload = "copia-e-cola-" + UUID.randomUUID();
+        String hash = store.save(payload, null);
+
+        assertThat(store.save(payload, "nao-e-png")).isEqualTo(hash);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pix_qr_codes WHERE hash = ?", Integer.class, hash)).isEqualTo(1);
+
+        String id = insertPayment(tenant, hash);
+        assertThat(get(id, "pix-" + UUID.randomUUID(), null).statusCode()).isEqualTo(404);
+        assertThat(get(insertPayment(tenant, null), tenant, null).statusCode()).isEqualTo(404);
+    }
+
+    private String insertPayment(String tenant, String hash) {
+        String id = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("""
+                INSERT INTO payments (id, tenant_id, amount, status, gateway, gateway_payment_id, payment_method,
+                                      pix_qr_hash, created_at, updated_at)
+                VALUES (?, ?, 10.00, 'PENDING', 'ASAAS', ?, 'PIX', ?, ?, ?)
+                """, id, tenant, "pix_" + id, hash, now, now);
+        return id;
+    }
+
+    private HttpResponse<byte[]> get(String id, String tenant, String ifNoneMatch) throws Exception {
+        String token = Jwts.builder()
+                .subject("pix-user")
+                .claim("tenantId", tenant)
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/payments/" + id + "/pix/qrcode"))
+                .header("Authorization", "Bearer " + token);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String decode(byte[] png) throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        RGBLuminanceSource source = new RGBLuminanceSource(image.getWidth(), image.getHeight(), pixels);
+        return new QRCodeReader().decode(new BinaryBitmap(new HybridBinarizer(source))).getText();
+    }
+}
@@ -0,0 +1,181 @@
+package com.luna.pay.payment.reconciliation;
+
+import com.luna.pay.gateway.GatewayPaymentResult;
+import com.luna.pay.gateway.GatewayPaymentStatus;
+import com.luna.pay.gateway.PaymentGateway;
+import com.luna.pay.gateway.WebhookProcessingResult;
+import com.luna.pay.payment.PaymentStatus;
+import com.luna.pay.payment.dto.CreatePaymentRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O agendamento é desligado e o ciclo é chamado diretamente. Os pagamentos
+ * são inseridos com ids escolhidos para cair em fatias conhecidas
+ * (4 fatias: 00-3f, 40-7f, 80-bf, c0-ff).
+ */
+@SpringBootTest(properties = {
+        "payment.reconciliation.interval-ms=3600000",
+        "payment.reconciliation.initial-delay-ms=3600000",
+        "payment.reconciliation.min-age=0s",
+        "payment.reconciliation.shards=4",
+        "payment.reconciliation.page-size=2",
+        "payment.reconciliation.rate-per-second=1000",
+        "payment.gateways.asaas.enabled=false"
+})
+class PaymentReconcilerTest {
+
+    private static final String GATEWAY = "RECONSTUB";
+    private static final Map<String, PaymentStatus> gatewayStatuses = new ConcurrentHashMap<>();
+    private static final List<String> polled = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private PaymentReconciler reconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM payments WHERE gateway = ?", GATEWAY);
+        jdbcTemplate.update("DELETE FROM reconciliation_shards WHERE gateway = ?", GATEWAY);
+        gatewayStatuses.clear();
+        polled.clear();
+    }
+
+    @Test
+    void appliesGatewayStatusOfPendingPaymentsInEveryShard() {
+        insertPending("0a000000-0000-0000-0000-000000000001", "gw_paid", 10);
+        insertPending("4b000000-0000-0000-0000-000000000002", "gw_canceled", 9);
+        insertPending("9c000000-0000-0000-0000-000000000003", "gw_pending", 8);
+        insertPending("fd000000-0000-0000-0000-000000000004", "gw_failed", 7);
+        gatewayStatuses.put("gw_paid", PaymentStatus.PAID);
+        gatewayStatuses.put("gw_canceled", PaymentStatus.CANCELED);
+        gatewayStatuses.put("gw_failed", PaymentStatus.FAILED);
+
+        assertThat(reconciler.runCycle()).isEqualTo(3);
+
+        assertThat(status("0a000000-0000-0000-0000-000000000001")).isEqualTo("PAID");
+        assertThat(status("4b000000-0000-0000-0000-000000000002")).isEqualTo("CANCELED");
+        assertThat(status("9c000000-0000-0000-0000-000000000003")).isEqualTo("PENDING");
+        assertThat(status("fd000000-0000-0000-0000-000000000004")).isEqualTo("FAILED");
+        assertThat(polled).hasSize(4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reconciliation_shards WHERE gateway = ? AND owner IS NULL", Integer.class, GATEWAY))
+                .isEqualTo(4);
+    }
+
+    @Test
+    void watermarkResumesFromPreviousCycleAndWrapsAround() {
+        for (int i = 1; i <= 5; i++) {
+            insertPending("0" + i + "000000-0000-0000-0000-000000000000", "gw_" + i, 10 - i);
+        }
+
+        reconciler.runCycle();
+        assertThat(polled).containsExactlyInAnyOrder("gw_1", "gw_2");
+
+        reconciler.runCycle();
+        assertThat(polled.subList(2, 4)).containsExactlyInAnyOrder("gw_3", "gw_4");
+
+        reconciler.runCycle();
+        assertThat(polled.subList(4, 5)).containsExactly("gw_5");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT watermark_id FROM reconciliation_shards WHERE gateway = ? AND shard = 0", String.class, GATEWAY))
+                .isNull();
+
+        reconciler.runCycle();
+        assertThat(polled.subList(5, 7)).containsExactlyInAnyOrder("gw_1", "gw_2");
+    }
+
+    @Test
+    void skipsShardLeasedByAnotherNode() {
+        reconciler.runCycle();
+        jdbcTemplate.update("UPDATE reconciliation_shards SET owner = 'other-node', lease_until = ? WHERE gateway = ? AND shard = 0",
+                Timestamp.from(Instant.now().plus(Duration.ofMinutes(5))), GATEWAY);
+        insertPending("01000000-0000-0000-0000-000000000000", "gw_leased", 5);
+        insertPending("c1000000-0000-0000-0000-000000000000", "gw_free", 5);
+
+        reconciler.runCycle();
+
+        assertThat(polled).containsExactly("gw_free");
+    }
+
+    private void insertPending(String id, String gatewayPaymentId, int minutesAgo) {
+        Timestamp createdAt = Timestamp.from(Instant.now().minus(Duration.ofMinutes(minutesAgo)));
+        jdbcTemplate.update("""
+                INSERT INTO payments (id, tenant_id, amount, status, gateway, gateway_payment_id, payment_method,
+                                      created_at, updated_at)
+                VALUES (?, 'tenant-recon', 10.00, 'PENDING', ?, ?, 'PIX', ?, ?)
+                """, id, GATEWAY, gatewayPaymentId, createdAt, createdAt);
+    }
+
+    private String status(String id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM payments WHERE id = ?", String.class, id);
+    }
+
+    @TestConfiguration
+    static class StubGatewayConfig {
+
+        @Bean
+        PaymentGateway reconciliationStubGateway() {
+            return new StatusStubGateway();
+        }
+    }
+
+    static class StatusStubGateway implements PaymentGateway {
+
+        @Override
+        public String getGatewayName() {
+            return GATEWAY;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public GatewayPaymentResult createPayment(CreatePaymentRequest request, String tenantId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GatewayPaymentStatus getPaymentStatus(String gatewayPaymentId) {
+            polled.add(gatewayPaymentId);
+            return GatewayPaymentStatus.builder()
+                    .gatewayPaymentId(gatewayPaymentId)
+                    .status(gatewayStatuses.getOrDefault(gatewayPaymentId, PaymentStatus.PENDING))
+                    .build();
+        }
+
+        @Override
+        public boolean cancelPayment(String gatewayPaymentId) {
+            return true;
+        }
+
+        @Override
+        public boolean validateWebhook(String signature, byte[] payload) {
+            return true;
+        }
+
+        @Override
+        public WebhookProcessingResult processWebhook(String payload) {
+            return WebhookProcessingResult.builder().success(false).build();
+        }
+    }
+}
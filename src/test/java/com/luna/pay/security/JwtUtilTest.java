@@ -0,0 +1,84 @@
+package com.luna.pay.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private static final String SECRET =
+            "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9_ABCD1234efgh5678IJKL91011MNOP121314QRSTUV151617WXYZ181990";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 100);
+        jwtUtil.init();
+    }
+
+    @Test
+    void authenticateExtractsAllClaimsInOnePass() {
+        String token = token(SECRET, new Date(System.currentTimeMillis() + 60_000));
+
+        UserContext user = jwtUtil.authenticate(token);
+
+        assertThat(user).isNotNull();
+        assertThat(user.getUserId()).isEqualTo("user-1");
+        assertThat(user.getTenantId()).isEqualTo("clinic_1");
+        assertThat(user.getRole()).isEqualTo("ADMIN");
+        assertThat(user.getModules()).containsExactly("LUNAPAY");
+    }
+
+    @Test
+    void reusedTokenIsServedFromCache() {
+        String token = token(SECRET, new Date(System.currentTimeMillis() + 60_000));
+
+        UserContext first = jwtUtil.authenticate(token);
+        UserContext second = jwtUtil.authenticate(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.getVerifiedTokens().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidSignatureAndExpiredTokens() {
+        String otherSecret = SECRET.replace('A', 'B');
+        String forged = token(otherSecret, new Date(System.currentTimeMillis() + 60_000));
+        String expired = token(SECRET, new Date(System.currentTimeMillis() - 60_000));
+
+        assertThat(jwtUtil.authenticate(forged)).isNull();
+        assertThat(jwtUtil.authenticate(expired)).isNull();
+        assertThat(jwtUtil.authenticate("not-a-jwt")).isNull();
+        assertThat(jwtUtil.getVerifiedTokens().size()).isZero();
+    }
+
+    @Test
+    void rejectsTokensWithoutExpiration() {
+        String token = token(SECRET, null);
+
+        assertThat(jwtUtil.isValid(token)).isFalse();
+        assertThat(jwtUtil.authenticate(token)).isNull();
+        assertThat(jwtUtil.getVerifiedTokens().size()).isZero();
+    }
+
+    private static String token(String secret, Date expiration) {
+        return Jwts.builder()
+                .subject("user-1")
+                .claim("tenantId", "clinic_1")
+                .claim("role", "ADMIN")
+                .claim("modules", List.of("LUNAPAY"))
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+}
@@ -0,0 +1,32 @@
+package com.luna.pay.webhook;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookDeduplicatorTest {
+
+    private final WebhookDeduplicator deduplicator = new WebhookDeduplicator(
+            new JdbcTemplate(), new SimpleMeterRegistry(), 100, Duration.ofHours(1));
+
+    @Test
+    void eventIdIsTheRootIdField() {
+        assertThat(deduplicator.eventId("""
+                {"payment": {"id": "pay_1"}, "id": "evt_1", "event": "PAYMENT_RECEIVED"}
+                """)).isEqualTo("evt_1");
+    }
+
+    @Test
+    void eventIdFallsBackToPayloadHash() {
+        String nested = "{\"payment\": {\"id\": \"pay_1\"}}";
+        String invalid = "{\"id\": ";
+
+        assertThat(deduplicator.eventId(nested)).startsWith("sha256:").isEqualTo(deduplicator.eventId(nested));
+        assertThat(deduplicator.eventId(invalid)).startsWith("sha256:");
+        assertThat(deduplicator.eventId("{\"id\": \"" + "x".repeat(101) + "\"}")).startsWith("sha256:");
+    }
+}
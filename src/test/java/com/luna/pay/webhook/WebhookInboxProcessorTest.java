@@ -0,0 +1,123 @@
+package com.luna.pay.webhook;
+
+import com.luna.pay.payment.Payment;
+import com.luna.pay.payment.PaymentRepository;
+import com.luna.pay.payment.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O agendamento é desligado (intervalo longo) e o ciclo de drenagem é
+ * chamado diretamente, para que o teste controle quando o inbox é processado.
+ */
+@SpringBootTest(properties = "webhooks.inbox.poll-interval-ms=3600000")
+class WebhookInboxProcessorTest {
+
+    @Autowired
+    private WebhookInbox webhookInbox;
+
+    @Autowired
+    private WebhookInboxProcessor processor;
+
+    @Autowired
+    private WebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        inboxRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM webhook_processed_events");
+    }
+
+    @Test
+    void appliesLastEventPerPaymentAndMarksEntriesProcessed() {
+        Payment first = paymentRepository.save(payment("tenant-a"));
+        Payment second = paymentRepository.save(payment("tenant-b"));
+
+        webhookInbox.enqueue("ASAAS", event("PAYMENT_CREATED", first.getGatewayPaymentId()));
+        webhookInbox.enqueue("ASAAS", event("PAYMENT_RECEIVED", first.getGatewayPaymentId()));
+        webhookInbox.enqueue("ASAAS", event("PAYMENT_DELETED", second.getGatewayPaymentId()));
+
+        processor.drain();
+
+        assertThat(paymentRepository.findById(first.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.PAID);
+        assertThat(paymentRepository.findById(second.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.CANCELED);
+        assertThat(inboxRepository.countByProcessedAtIsNull()).isZero();
+    }
+
+    @Test
+    void unknownPaymentsAndInvalidPayloadsAreAcknowledged() {
+        webhookInbox.enqueue("ASAAS", event("PAYMENT_RECEIVED", "pay_unknown"));
+        webhookInbox.enqueue("ASAAS", "{not json");
+
+        processor.drain();
+
+        assertThat(inboxRepository.countByProcessedAtIsNull()).isZero();
+        assertThat(inboxRepository.findAll()).allSatisfy(e -> assertThat(e.getAttempts()).isZero());
+    }
+
+    @Test
+    void redeliveriesAreDroppedBeforeAnyWrite() {
+        Payment payment = paymentRepository.save(payment("tenant-a"));
+        String received = event("PAYMENT_RECEIVED", payment.getGatewayPaymentId());
+
+        assertThat(webhookInbox.enqueue("ASAAS", received)).isTrue();
+        assertThat(webhookInbox.enqueue("ASAAS", received)).isFalse();
+        assertThat(inboxRepository.count()).isEqualTo(1);
+
+        processor.drain();
+
+        // Reentrega após a limpeza do inbox: barrada pela tabela de eventos processados
+        inboxRepository.deleteAll();
+        jdbcTemplate.update("INSERT INTO webhook_inbox (gateway, event_id, payload, received_at, attempts) "
+                + "SELECT gateway, event_id, 'x', CURRENT_TIMESTAMP, 0 FROM webhook_processed_events");
+        processor.drain();
+
+        assertThat(inboxRepository.countByProcessedAtIsNull()).isZero();
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.PAID);
+    }
+
+    @Test
+    void outOfOrderEventsDoNotRegressStatus() {
+        Payment payment = paymentRepository.save(payment("tenant-a"));
+
+        webhookInbox.enqueue("ASAAS", event("PAYMENT_RECEIVED", payment.getGatewayPaymentId()));
+        processor.drain();
+        webhookInbox.enqueue("ASAAS", event("PAYMENT_CREATED", payment.getGatewayPaymentId()));
+        webhookInbox.enqueue("ASAAS", event("PAYMENT_OVERDUE", payment.getGatewayPaymentId()));
+        processor.drain();
+
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.PAID);
+    }
+
+    private static Payment payment(String tenantId) {
+        Payment payment = new Payment();
+        payment.setTenantId(tenantId);
+        payment.setAmount(BigDecimal.TEN);
+        payment.setDescription("inbox");
+        payment.setGateway("ASAAS");
+        payment.setGatewayPaymentId("pay_" + UUID.randomUUID());
+        payment.setPaymentMethod("PIX");
+        payment.setStatus(PaymentStatus.PENDING);
+        return payment;
+    }
+
+    private static String event(String event, String paymentId) {
+        return """
+                {"id": "evt_%s", "event": "%s", "payment": {"id": "%s", "status": "X"}}
+                """.formatted(UUID.randomUUID(), event, paymentId);
+    }
+}